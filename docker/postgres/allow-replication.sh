@@ -0,0 +1,3 @@
+#!/bin/bash
+# Lets the streaming replica (postgres-replica service) connect for replication.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,10 @@
+#!/bin/bash
+# Clones the primary with pg_basebackup on first start, then runs as a hot standby streaming from it.
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until PGPASSWORD="$PRIMARY_PASSWORD" pg_basebackup -h "$PRIMARY_HOST" -U "$PRIMARY_USER" -D "$PGDATA" -R -X stream; do
+    echo "waiting for primary..."; sleep 1
+  done
+  chmod 0700 "$PGDATA"
+fi
+exec postgres
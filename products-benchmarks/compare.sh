@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Runs the products benchmarks on two commits and prints the difference.
+#
+#   products-benchmarks/compare.sh <base-ref> [<head-ref>] [-- <extra JMH args>]
+#
+# Each commit is built in its own git worktree, so the working copy is left alone. Results are written to
+# products-benchmarks/results/<sha>.json. Both commits must already contain this module. Extra arguments
+# go to JMH, e.g. "-- Mapping -f 1" to run only the mapping benchmarks with one fork. Run on a quiet
+# machine, and only compare runs from the same machine.
+set -euo pipefail
+
+base_ref=${1:?usage: compare.sh <base-ref> [<head-ref>] [-- <jmh args>]}
+shift
+head_ref=HEAD
+if [[ $# -gt 0 && $1 != "--" ]]; then head_ref=$1; shift; fi
+[[ $# -gt 0 && $1 == "--" ]] && shift
+
+root=$(git rev-parse --show-toplevel)
+results="$root/products-benchmarks/results"
+mkdir -p "$results"
+
+run() {
+  local sha
+  sha=$(git -C "$root" rev-parse --short "$1")
+  local out="$results/$sha.json"
+  local tree
+  tree=$(mktemp -d)
+  git -C "$root" worktree add --detach "$tree" "$sha" >/dev/null
+  (cd "$tree" && mvn -B -q -pl products-benchmarks -am package -DskipTests) >&2
+  java -jar "$tree/products-benchmarks/target/benchmarks.jar" -prof gc -rf json -rff "$out" "${@:2}" >&2
+  git -C "$root" worktree remove --force "$tree"
+  echo "$out"
+}
+
+base_json=$(run "$base_ref" "$@")
+head_json=$(run "$head_ref" "$@")
+
+(cd "$root" && mvn -B -q -pl products-benchmarks -am package -DskipTests)
+java -cp "$root/products-benchmarks/target/benchmarks.jar" \
+  com.jorgeandreu.products.benchmarks.CompareResults "$base_json" "$head_json"
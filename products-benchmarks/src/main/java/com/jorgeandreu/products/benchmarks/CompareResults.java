@@ -0,0 +1,90 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Prints a side-by-side table of two JMH JSON result files ({@code -rf json}): score and, when the runs used
+ * {@code -prof gc}, bytes allocated per operation. A change is flagged only when the score intervals
+ * (score ± error) do not overlap, so run-to-run noise is not reported as a regression.
+ * <pre>
+ * java -cp benchmarks.jar com.jorgeandreu.products.benchmarks.CompareResults base.json head.json
+ * </pre>
+ */
+public final class CompareResults {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private CompareResults() {}
+
+    record Result(double score, double error, String unit, Double allocPerOp) {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareResults <base.json> <head.json>");
+            System.exit(2);
+        }
+        Map<String, Result> base = read(Path.of(args[0]));
+        Map<String, Result> head = read(Path.of(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s %12s %12s  %s%n",
+                "benchmark", "base", "head", "Δ score", "base B/op", "head B/op", "");
+        head.forEach((name, h) -> {
+            Result b = base.get(name);
+            if (b == null) {
+                System.out.printf("%-70s %14s %14s%n", name, "-", format(h));
+                return;
+            }
+            double delta = (h.score() - b.score()) / b.score() * 100;
+            System.out.printf("%-70s %14s %14s %+8.1f%% %12s %12s  %s%n",
+                    name, format(b), format(h), delta, bytes(b.allocPerOp()), bytes(h.allocPerOp()), verdict(b, h));
+        });
+    }
+
+    static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            JsonNode primary = run.get("primaryMetric");
+            Double alloc = null;
+            for (Iterator<Map.Entry<String, JsonNode>> it = run.path("secondaryMetrics").fields(); it.hasNext(); ) {
+                var metric = it.next();
+                // older JMH versions prefix profiler metrics with "·"
+                if (metric.getKey().endsWith(ALLOC_NORM)) alloc = metric.getValue().get("score").asDouble();
+            }
+            results.put(key(run), new Result(primary.get("score").asDouble(), primary.path("scoreError").asDouble(0),
+                    primary.get("scoreUnit").asText(), alloc));
+        }
+        return results;
+    }
+
+    private static String key(JsonNode run) {
+        String name = run.get("benchmark").asText();
+        JsonNode params = run.get("params");
+        if (params == null) return name;
+        var joiner = new StringJoiner(",", name + "[", "]");
+        params.fields().forEachRemaining(p -> joiner.add(p.getKey() + "=" + p.getValue().asText()));
+        return joiner.toString();
+    }
+
+    /** Lower is better for the time-per-operation modes this module uses. */
+    private static String verdict(Result base, Result head) {
+        if (head.score() - head.error() > base.score() + base.error()) return "SLOWER";
+        if (head.score() + head.error() < base.score() - base.error()) return "faster";
+        return "";
+    }
+
+    private static String format(Result r) {
+        return String.format("%.2f %s", r.score(), r.unit());
+    }
+
+    private static String bytes(Double allocPerOp) {
+        return allocPerOp == null ? "-" : String.format("%.0f", allocPerOp);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.jorgeandreu.products.application.mapper.SearchProductListMapperImpl;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.infrastructure.db.ProductEntity;
+import com.jorgeandreu.products.infrastructure.db.ProductListRow;
+import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapperImpl;
+import com.jorgeandreu.products.infrastructure.web.ProductWebMapper;
+import com.jorgeandreu.products.infrastructure.web.ProductWebMapperImpl;
+import com.jorgeandreu.products.infrastructure.web.TimeMapper;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Realistic inputs and the production mapper implementations, wired by hand instead of through a Spring context
+ * so a benchmark measures the mapping code and nothing else.
+ */
+final class Fixtures {
+
+    static final int PAGE_SIZE = 20;
+
+    private static final Instant CREATED = Instant.parse("2025-01-01T10:15:30.123456Z");
+
+    private Fixtures() {}
+
+    static Product product(int i) {
+        return new Product(UUID.nameUUIDFromBytes(("p" + i).getBytes()), "ACME-" + i, "Laptop Pro " + i,
+                new BigDecimal("1299.99"), 10 + i, "laptops", CREATED, CREATED.plusSeconds(i), null, i);
+    }
+
+    static ProductEntity entity(int i) {
+        Product p = product(i);
+        return ProductEntity.builder()
+                .id(p.id()).sku(p.sku()).name(p.name()).price(p.price()).stock(p.stock()).category(p.category())
+                .description("14-inch laptop with 32 GB of RAM").text("Fast machine for developers")
+                .createdAt(p.createdAt()).updatedAt(p.updatedAt()).version(p.version())
+                .build();
+    }
+
+    static ProductListRow row(int i) {
+        Product p = product(i);
+        return new ProductListRow(p.id(), p.sku(), p.name(), p.price(), p.stock(), null, p.category(), p.category(),
+                p.createdAt(), p.updatedAt(), p.deletedAt(), p.version());
+    }
+
+    static PageResult<Product> page() {
+        List<Product> content = IntStream.range(0, PAGE_SIZE).mapToObj(Fixtures::product).toList();
+        return new PageResult<>(content, 0, PAGE_SIZE, 1_000L, 50);
+    }
+
+    static ProductEntityMapperImpl entityMapper() {
+        return new ProductEntityMapperImpl();
+    }
+
+    static SearchProductListMapperImpl searchMapper() {
+        return new SearchProductListMapperImpl();
+    }
+
+    /** The generated Spring mapper gets its {@link TimeMapper} by field injection; set it the same way. */
+    static ProductWebMapper webMapper() {
+        var mapper = new ProductWebMapperImpl();
+        try {
+            Field field = ProductWebMapperImpl.class.getDeclaredField("timeMapper");
+            field.setAccessible(true);
+            field.set(mapper, new TimeMapper());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("ProductWebMapperImpl no longer has a timeMapper field", ex);
+        }
+        return mapper;
+    }
+
+    /** Same settings Spring Boot applies to the application's ObjectMapper. */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.db.ProductEntity;
+import com.jorgeandreu.products.infrastructure.db.ProductListRow;
+import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
+import com.jorgeandreu.products.infrastructure.web.ProductWebMapper;
+import com.jorgeandreu.products.infrastructure.web.TimeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct chain every read goes through: entity → domain → API model, one product and a full page. List pages
+ * start from a projected {@link ProductListRow} instead of an entity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private ProductEntityMapper entityMapper;
+    private ProductWebMapper webMapper;
+    private SearchProductListMapper searchMapper;
+    private TimeMapper timeMapper;
+
+    private ProductEntity entity;
+    private ProductListRow row;
+    private Product product;
+    private PageResult<Product> page;
+    private SearchCriteriaCommand command;
+    private Instant instant;
+
+    @Setup
+    public void setUp() {
+        entityMapper = Fixtures.entityMapper();
+        webMapper = Fixtures.webMapper();
+        searchMapper = Fixtures.searchMapper();
+        timeMapper = new TimeMapper();
+        entity = Fixtures.entity(1);
+        row = Fixtures.row(1);
+        product = Fixtures.product(1);
+        page = Fixtures.page();
+        command = new SearchCriteriaCommand(0, 20, "price,asc", "laptops", 500.0, 2000.0, "pro", false);
+        instant = product.createdAt();
+    }
+
+    @Benchmark
+    public Product entityToDomain() {
+        return entityMapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public Product rowToDomain() {
+        return entityMapper.toDomain(row);
+    }
+
+    @Benchmark
+    public com.jorgeandreu.products.infrastructure.api.model.Product domainToApi() {
+        return webMapper.toApi(product);
+    }
+
+    @Benchmark
+    public com.jorgeandreu.products.infrastructure.api.model.Product entityToApi() {
+        return webMapper.toApi(entityMapper.toDomain(entity));
+    }
+
+    @Benchmark
+    public com.jorgeandreu.products.infrastructure.api.model.Product rowToApi() {
+        return webMapper.toApi(entityMapper.toDomain(row));
+    }
+
+    @Benchmark
+    public ProductPage pageToApi() {
+        return webMapper.toApi(page);
+    }
+
+    @Benchmark
+    public SearchCriteria commandToCriteria() {
+        return searchMapper.toDomain(command);
+    }
+
+    @Benchmark
+    public OffsetDateTime instantToOffsetDateTime() {
+        return timeMapper.toOffsetDateTime(instant);
+    }
+}
@@ -0,0 +1,43 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.jorgeandreu.products.domain.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Construction of the {@link Product} record, including its compact-constructor validation. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductBenchmark {
+
+    // non-final so the JIT cannot constant-fold the constructor arguments
+    private UUID id = UUID.randomUUID();
+    private BigDecimal price = new BigDecimal("1299.99");
+    private Integer stock = 10;
+    private Instant now = Instant.now();
+
+    @Benchmark
+    public Product construct() {
+        return new Product(id, "ACME-1", "Laptop Pro", price, stock, "laptops", now, now, null, 0L);
+    }
+
+    @Benchmark
+    public Product constructWithNewId() {
+        return new Product(UUID.randomUUID(), "ACME-1", "Laptop Pro", price, stock, "laptops", now, now, null, 0L);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.port.in.ListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.ReactiveListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Category searches, {@value #CONCURRENCY} at a time over {@value #POOL} connections: the JPA adapter with one virtual
+ * thread per search, versus the R2DBC adapter with the same number of searches in flight. Each invocation runs one
+ * such wave and counts as {@value #CONCURRENCY} operations. The search cache is off, so every search reaches
+ * PostgreSQL. Needs Docker, see {@link ServiceContext}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class R2dbcVsJpaSearchBenchmark {
+
+    private static final int POOL = 4;
+    private static final int CONCURRENCY = 256;
+    private static final int CATEGORIES = 8;
+    private static final int ROWS_PER_CATEGORY = 625;
+
+    private ServiceContext service;
+    private ListProductsUseCase jpa;
+    private ReactiveListProductsUseCase reactive;
+    private int wave;
+
+    @Setup
+    public void setUp() {
+        // both pools hold POOL connections; callers past them wait instead of failing
+        service = ServiceContext.start(
+                "spring.profiles.active=r2dbc",
+                "spring.datasource.hikari.maximum-pool-size=" + (POOL + 4),
+                "spring.datasource.hikari.connection-timeout=60000",
+                "products.db.limiter.max-concurrent=" + POOL,
+                "products.db.limiter.acquire-timeout=60s",
+                "products.r2dbc.pool.max-size=" + POOL,
+                "products.r2dbc.pool.max-acquire-time=60s",
+                "products.cache.search.enabled=false");
+        for (int c = 0; c < CATEGORIES; c++) {
+            service.insertProducts("bench-" + c, ROWS_PER_CATEGORY, i -> BigDecimal.valueOf(i % 997), 1);
+        }
+        jpa = service.bean(ListProductsUseCase.class);
+        reactive = service.bean(ReactiveListProductsUseCase.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int jpa() throws InterruptedException, ExecutionException {
+        int first = wave++ * CONCURRENCY;
+        int found = 0;
+        try (var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PageResult<Product>>> pages = IntStream.range(first, first + CONCURRENCY)
+                    .mapToObj(i -> callers.submit(() -> jpa.list(command(i))))
+                    .toList();
+            for (Future<PageResult<Product>> page : pages) found += page.get().content().size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int r2dbc() {
+        int first = wave++ * CONCURRENCY;
+        return Flux.range(first, CONCURRENCY)
+                .flatMap(i -> reactive.list(command(i)), CONCURRENCY)
+                .map(page -> page.content().size())
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private static SearchCriteriaCommand command(int i) {
+        return new SearchCriteriaCommand(i % 10, 20, "price,asc", "bench-" + (i % CATEGORIES), null, null, null,
+                false);
+    }
+}
@@ -0,0 +1,49 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.web.ProductWebMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of a 20-item {@link ProductPage}, alone and together with the mapping that feeds it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ProductWebMapper webMapper;
+    private ObjectWriter writer;
+    private ProductPage apiPage;
+
+    @Setup
+    public void setUp() {
+        webMapper = Fixtures.webMapper();
+        writer = Fixtures.objectMapper().writerFor(ProductPage.class);
+        apiPage = webMapper.toApi(Fixtures.page());
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(apiPage);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(webMapper.toApi(Fixtures.page()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.jorgeandreu.products.ProductsServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The products service on a throwaway PostgreSQL (Testcontainers, so Docker must be running), for benchmarks whose
+ * cost is in the database round trips. Start one per trial and close it in the tear-down; each JMH fork gets its own
+ * database. Background work that would compete with the measured path (outbox relay, reservation sweeper, bulk
+ * update workers) is switched off, and logging is kept to warnings.
+ */
+public final class ServiceContext implements AutoCloseable {
+
+    private static final String[] DEFAULTS = {
+            "products.outbox.relay.enabled=false",
+            "products.reservations.sweeper.enabled=false",
+            "products.bulk-update.workers.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.org.springframework=WARN",
+            "logging.level.com.jorgeandreu=WARN"};
+
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext app;
+
+    private ServiceContext(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext app) {
+        this.postgres = postgres;
+        this.app = app;
+    }
+
+    /** Without a web server; {@code properties} override the defaults, e.g. {@code spring.profiles.active=r2dbc}. */
+    public static ServiceContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /** With the servlet stack on a random port, see {@link #port()}. */
+    public static ServiceContext startWeb(String... properties) {
+        return start(WebApplicationType.SERVLET, Stream.concat(Stream.of("server.port=0"), Stream.of(properties))
+                .toArray(String[]::new));
+    }
+
+    private static ServiceContext start(WebApplicationType type, String... properties) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+        postgres.start();
+        try {
+            String[] database = {
+                    "spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "spring.datasource.username=" + postgres.getUsername(),
+                    "spring.datasource.password=" + postgres.getPassword(),
+                    "products.r2dbc.url=r2dbc:postgresql://%s:%d/%s".formatted(postgres.getHost(),
+                            postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), postgres.getDatabaseName())};
+            // as command-line arguments, which take precedence over application.yml; later ones win over earlier
+            String[] args = Stream.of(DEFAULTS, database, properties).flatMap(Stream::of)
+                    .map(p -> "--" + p)
+                    .toArray(String[]::new);
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(ProductsServiceApplication.class)
+                    .web(type)
+                    .logStartupInfo(false)
+                    .run(args);
+            return new ServiceContext(postgres, app);
+        } catch (RuntimeException | Error ex) {
+            postgres.stop();
+            throw ex;
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return app.getBean(type);
+    }
+
+    public int port() {
+        return ((WebServerApplicationContext) app).getWebServer().getPort();
+    }
+
+    /**
+     * Inserts {@code count} active products of one category straight into the table, with the descriptive columns
+     * filled as a real catalogue would; SKUs are {@code <category>-<i>}. Returns their ids in order.
+     */
+    public List<UUID> insertProducts(String category, int count, IntFunction<BigDecimal> price, int stock) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<UUID> ids = new ArrayList<>(count);
+        List<Object[]> rows = IntStream.range(0, count).mapToObj(i -> {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            return new Object[]{id, category + "-" + i, "Laptop Pro " + i, price.apply(i), stock, category,
+                    "14-inch laptop with 32 GB of RAM", "Fast machine for developers, long battery life", now, now};
+        }).toList();
+        bean(JdbcTemplate.class).batchUpdate("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at,
+                                      version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+                """, rows);
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        try {
+            app.close();
+        } finally {
+            postgres.stop();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jorgeandreu.products.benchmarks;
+
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
+import com.jorgeandreu.products.domain.port.in.ReserveStockUseCase;
+import com.jorgeandreu.products.domain.port.in.ReshardStockUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkouts of a single hot SKU from {@value #THREADS} threads, each reserving one unit through the real use case
+ * (conditional decrement, reservation row, outbox event, commit). With one shard every checkout queues on the product
+ * row lock for the length of its transaction; with more they spread over the stock slots. Needs Docker, see
+ * {@link ServiceContext}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(StockContentionBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class StockContentionBenchmark {
+
+    static final int THREADS = 32;
+
+    @Param({"1", "16"})
+    int shards;
+
+    private ServiceContext service;
+    private ReserveStockUseCase reserve;
+    private ReserveStockCommand order;
+
+    @Setup
+    public void setUp() {
+        // a permit and a connection for every checkout thread, plus the streaming budget
+        service = ServiceContext.start(
+                "spring.datasource.hikari.maximum-pool-size=" + (THREADS + 4),
+                "products.db.limiter.max-concurrent=" + THREADS);
+        UUID id = service.insertProducts("hot", 1, i -> BigDecimal.TEN, Integer.MAX_VALUE / 2).getFirst();
+        if (shards > 1) service.bean(ReshardStockUseCase.class).reshardStock(id, shards);
+        reserve = service.bean(ReserveStockUseCase.class);
+        order = new ReserveStockCommand(List.of(new StockReservation.Line(id, 1)), null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public StockReservation checkout() {
+        return reserve.reserve(order);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jorgeandreu.products.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /products/{id} from {@value #CLIENTS} concurrent clients, with the by-id and JSON caches off so every request
+ * reaches PostgreSQL: on the Tomcat platform-thread pool, then on virtual threads behind the DB limiter. Throughput
+ * rows carry the 503s shed by the limiter and any other failures as secondary counters; sample-time rows give the
+ * p50/p99 latency. Needs Docker, see {@link ServiceContext}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 2, time = 10)
+@Fork(1)
+@Threads(VirtualThreadsLoadBenchmark.CLIENTS)
+@State(Scope.Benchmark)
+public class VirtualThreadsLoadBenchmark {
+
+    static final int CLIENTS = 1_000;
+    private static final int PRODUCTS = 200;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    private ServiceContext service;
+    private HttpClient http;
+    private List<HttpRequest> requests;
+
+    /** Per client, summed by JMH over all of them. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long shed;
+        public long failed;
+        int next;
+
+        @Setup
+        public void spread() {
+            next = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            shed = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        service = ServiceContext.startWeb(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "products.db.limiter.enabled=" + virtualThreads,
+                "products.cache.by-id.enabled=false",
+                "products.cache.json.enabled=false");
+        String base = "http://localhost:" + service.port() + "/api/v1/products/";
+        requests = service.insertProducts("load", PRODUCTS, i -> BigDecimal.TEN, 5).stream()
+                .map(id -> HttpRequest.newBuilder(URI.create(base + id)).GET().build())
+                .toList();
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        http.close();
+        service.close();
+    }
+
+    @Benchmark
+    public int get(Responses responses) throws InterruptedException {
+        HttpRequest request = requests.get(Math.floorMod(responses.next++, requests.size()));
+        int status;
+        try {
+            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            responses.failed++;
+            return -1;
+        }
+        if (status == 503) responses.shed++;
+        else if (status != 200) responses.failed++;
+        return status;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.benchmarks.ServiceContext;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One category page of 20 on the list path, read as managed entities (with description, text and a dirty-checking
+ * snapshot each) or as {@link ProductListRow} projections, then mapped to the domain. Both run in a read-only
+ * transaction on the benchmark thread, so {@code -prof gc} (bytes per operation) covers Hibernate and the driver
+ * too. Lives in this package to reach the package-private query helpers. Needs Docker, see {@link ServiceContext}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductListProjectionBenchmark {
+
+    private static final int ROWS = 2_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = ROWS / PAGE_SIZE;
+
+    private ServiceContext service;
+    private SpringDataProductRepository repository;
+    private ProductEntityMapper mapper;
+    private TransactionTemplate tx;
+    private Specification<ProductEntity> spec;
+    private Sort sort;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        service = ServiceContext.start();
+        service.insertProducts("alloc", ROWS, i -> BigDecimal.valueOf(i % 997), 5);
+        repository = service.bean(SpringDataProductRepository.class);
+        mapper = service.bean(ProductEntityMapper.class);
+        tx = new TransactionTemplate(service.bean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        spec = service.bean(ProductRepositoryAdapter.class).filters(
+                new SearchCriteria(0, PAGE_SIZE, null, "alloc", null, null, null, false));
+        sort = ProductSortPlanner.parse("price,asc");
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public List<Product> entities() {
+        int p = page++ % PAGES;
+        return tx.execute(s -> repository.findAll(spec, PageRequest.of(p, PAGE_SIZE, sort))
+                .map(mapper::toDomain)
+                .getContent());
+    }
+
+    @Benchmark
+    public List<Product> rows() {
+        long offset = (long) (page++ % PAGES) * PAGE_SIZE;
+        // one extra row tells the list path whether there is a next page
+        return tx.execute(s -> repository.findRows(spec, sort, offset, PAGE_SIZE + 1).stream()
+                .limit(PAGE_SIZE)
+                .map(mapper::toDomain)
+                .toList());
+    }
+}
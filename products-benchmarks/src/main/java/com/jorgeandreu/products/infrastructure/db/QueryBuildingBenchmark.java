@@ -0,0 +1,65 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request query preparation for product lists: sort parsing in {@link ProductSortPlanner} and Specification
+ * assembly in {@link ProductRepositoryAdapter}. Lives in their package to reach those package-private helpers. Rendering the Specifications into
+ * SQL needs a Hibernate session and is left to the database-backed tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class QueryBuildingBenchmark {
+
+    private ProductRepositoryAdapter adapter;
+    private SearchCriteria noFilters;
+    private SearchCriteria allFilters;
+
+    @Setup
+    public void setUp() {
+        // the helpers never touch the repository, the mapper or the sort planner
+        adapter = new ProductRepositoryAdapter(null, null, null);
+        noFilters = new SearchCriteria(0, 20, null, null, null, null, null, false);
+        allFilters = new SearchCriteria(0, 20, null, "laptops", 500.0, 2000.0, "pro", false);
+    }
+
+    @State(Scope.Benchmark)
+    public static class SortParam {
+        @Param({"", "price,asc", "createdAt,desc", "relevance", "category,asc;price,asc"})
+        String value;
+    }
+
+    @Benchmark
+    public Sort parseSort(SortParam sort) {
+        return ProductSortPlanner.parse(sort.value);
+    }
+
+    @Benchmark
+    public Specification<ProductEntity> filtersNone() {
+        return adapter.filters(noFilters);
+    }
+
+    @Benchmark
+    public Specification<ProductEntity> filtersAll() {
+        return adapter.filters(allFilters);
+    }
+}
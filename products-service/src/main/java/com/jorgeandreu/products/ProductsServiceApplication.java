@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.jorgeandreu")
 @EnableJpaRepositories(basePackages = "com.jorgeandreu.products.infrastructure.db")
 @EntityScan(basePackages = "com.jorgeandreu.products.infrastructure.db")
+@EnableScheduling
 public class ProductsServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.application.exception;
+
+import java.util.UUID;
+
+public class BulkUpdateJobNotFoundException extends RuntimeException {
+    public BulkUpdateJobNotFoundException(UUID id) { super("Bulk update job not found: " + id); }
+}
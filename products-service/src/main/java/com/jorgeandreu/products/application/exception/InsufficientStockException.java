@@ -0,0 +1,9 @@
+package com.jorgeandreu.products.application.exception;
+
+import java.util.UUID;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(UUID productId, int quantity) {
+        super("Not enough stock to reserve %d of product %s".formatted(quantity, productId));
+    }
+}
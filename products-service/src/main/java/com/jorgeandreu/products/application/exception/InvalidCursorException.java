@@ -0,0 +1,5 @@
+package com.jorgeandreu.products.application.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String reason) { super("Invalid cursor: " + reason); }
+}
@@ -0,0 +1,5 @@
+package com.jorgeandreu.products.application.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String reason) { super("Invalid import file: " + reason); }
+}
@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.application.exception;
+
+public class InvalidProductPatchException extends RuntimeException {
+    public InvalidProductPatchException(String field) {
+        super("'%s' cannot be null: every product field is mandatory, leave it out to keep its value".formatted(field));
+    }
+}
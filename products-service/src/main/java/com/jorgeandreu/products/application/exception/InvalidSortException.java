@@ -0,0 +1,5 @@
+package com.jorgeandreu.products.application.exception;
+
+public class InvalidSortException extends RuntimeException {
+    public InvalidSortException(String reason) { super("Invalid sort: " + reason); }
+}
@@ -0,0 +1,9 @@
+package com.jorgeandreu.products.application.exception;
+
+import java.util.UUID;
+
+public class ProductPreconditionFailedException extends RuntimeException {
+    public ProductPreconditionFailedException(UUID id, String ifMatch) {
+        super("Product %s does not match If-Match %s".formatted(id, ifMatch));
+    }
+}
@@ -2,6 +2,6 @@ package com.jorgeandreu.products.application.exception;
 
 public class ProductVersionConflictException extends RuntimeException {
     public ProductVersionConflictException(java.util.UUID id, long version) {
-        super("Version conflict updating product %s with expected version %d".formatted(id, version));
+        super("Version conflict on product %s: expected version %d".formatted(id, version));
     }
 }
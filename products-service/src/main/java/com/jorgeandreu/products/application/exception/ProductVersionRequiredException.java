@@ -0,0 +1,9 @@
+package com.jorgeandreu.products.application.exception;
+
+import java.util.UUID;
+
+public class ProductVersionRequiredException extends RuntimeException {
+    public ProductVersionRequiredException(UUID id) {
+        super("Updating product %s requires an If-Match header or a version in the body".formatted(id));
+    }
+}
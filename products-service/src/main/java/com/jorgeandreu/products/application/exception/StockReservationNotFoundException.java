@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.application.exception;
+
+import java.util.UUID;
+
+public class StockReservationNotFoundException extends RuntimeException {
+    public StockReservationNotFoundException(UUID id) { super("No open stock reservation: " + id); }
+}
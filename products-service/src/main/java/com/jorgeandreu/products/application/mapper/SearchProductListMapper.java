@@ -3,6 +3,7 @@ package com.jorgeandreu.products.application.mapper;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -10,5 +11,6 @@ import java.util.UUID;
 @Mapper(componentModel = "spring", imports = {UUID.class, Instant.class})
 public interface SearchProductListMapper {
 
+    @Mapping(target = "withFacets", ignore = true)
     SearchCriteria toDomain(SearchCriteriaCommand criteria);
 }
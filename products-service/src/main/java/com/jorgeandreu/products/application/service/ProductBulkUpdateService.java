@@ -0,0 +1,164 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.BulkUpdateJobNotFoundException;
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.in.GetBulkUpdateJobUseCase;
+import com.jorgeandreu.products.domain.port.in.RunBulkUpdatesUseCase;
+import com.jorgeandreu.products.domain.port.in.SubmitBulkUpdateUseCase;
+import com.jorgeandreu.products.domain.port.out.BulkUpdateJobRepositoryPort;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * An upload is staged first and applied later by the workers ({@link RunBulkUpdatesUseCase}), one batch of a SKU
+ * range per transaction: the products, the rows' outcomes, the partition's counters and the change events commit
+ * together, so a batch is either fully applied or still pending when its worker dies.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductBulkUpdateService implements SubmitBulkUpdateUseCase, GetBulkUpdateJobUseCase,
+        RunBulkUpdatesUseCase {
+
+    // column widths of the products table; longer values would fail the whole batch
+    private static final int MAX_SKU = 100;
+    // numeric(19, 2)
+    private static final int MAX_PRICE_INTEGER_DIGITS = 17;
+
+    private static final int REJECTED_PAGE_SIZE = 500;
+
+    @Value("${products.bulk-update.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${products.bulk-update.partitions:4}")
+    private int partitions;
+
+    private final BulkUpdateJobRepositoryPort jobs;
+
+    private final ProductRepositoryPort repository;
+
+    private final ProductChangePublisherPort changes;
+
+    private final TransactionOperations transactions;
+
+    /**
+     * An upload that fails half way (unreadable file, lost connection) leaves its job UPLOADING; the workers fail it
+     * once it stops receiving rows.
+     */
+    @Override
+    public BulkUpdateJob submit(Stream<BulkUpdateRow> rows) {
+        UUID jobId = UUID.randomUUID();
+        jobs.create(jobId, partitions, Instant.now());
+        try (rows) {
+            Iterator<BulkUpdateRow> it = rows.iterator();
+            List<BulkUpdateRow> batch = new ArrayList<>(batchSize);
+            while (it.hasNext()) {
+                batch.add(validate(it.next()));
+                if (batch.size() == batchSize) {
+                    jobs.stage(jobId, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            jobs.stage(jobId, batch);
+        }
+        return transactions.execute(tx -> jobs.queue(jobId));
+    }
+
+    @Override
+    public BulkUpdateJob getById(UUID jobId) {
+        return jobs.findById(jobId).orElseThrow(() -> new BulkUpdateJobNotFoundException(jobId));
+    }
+
+    @Override
+    public Stream<BulkUpdateRow> rejectedRows(UUID jobId) {
+        getById(jobId);
+        // keyset pages on the line number; a short page is the last one
+        return Stream.iterate(jobs.findRejected(jobId, 0, REJECTED_PAGE_SIZE),
+                        page -> !page.isEmpty(),
+                        page -> page.size() < REJECTED_PAGE_SIZE
+                                ? List.of()
+                                : jobs.findRejected(jobId, page.getLast().line(), REJECTED_PAGE_SIZE))
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public List<BulkUpdateJob> claim(String owner, int limit, Duration staleAfter, int maxAttempts) {
+        return transactions.execute(tx -> jobs.claim(owner, limit, staleAfter, maxAttempts));
+    }
+
+    @Override
+    public void heartbeat(String owner, Collection<UUID> jobIds) {
+        jobs.heartbeat(owner, jobIds);
+    }
+
+    @Override
+    public List<BulkUpdateRow> applyBatch(UUID jobId, int partition, int batchSize) {
+        return transactions.execute(tx -> {
+            List<BulkUpdateRow> rows = jobs.lockPending(jobId, partition, batchSize);
+            if (rows.isEmpty()) return List.of();
+
+            List<UpdateResult<Product>> results = repository.updateAllBySku(
+                    rows.stream().map(BulkUpdateRow::toUpdate).toList(), Instant.now());
+            List<BulkUpdateRow> done = new ArrayList<>(rows.size());
+            List<ProductChangeEvent> events = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                BulkUpdateRow row = rows.get(i);
+                UpdateResult<Product> result = results.get(i);
+                done.add(switch (result.status()) {
+                    case UPDATED -> {
+                        events.add(ProductChangeEvent.updated(result.value()));
+                        yield row.withStatus(BulkUpdateRow.Status.UPDATED, null);
+                    }
+                    case VERSION_CONFLICT -> row.withStatus(BulkUpdateRow.Status.VERSION_CONFLICT,
+                            "product is no longer at version " + row.version());
+                    case NOT_FOUND -> row.withStatus(BulkUpdateRow.Status.NOT_FOUND, "no product with this sku");
+                });
+            }
+            jobs.complete(jobId, partition, done);
+            changes.publishAll(events);
+            return done;
+        });
+    }
+
+    @Override
+    public BulkUpdateJob finish(UUID jobId) {
+        return jobs.finish(jobId, Instant.now());
+    }
+
+    private static BulkUpdateRow validate(BulkUpdateRow row) {
+        String error = row.status() == BulkUpdateRow.Status.PENDING ? error(row) : row.error();
+        if (error == null) return row;
+        // only what fits the staging columns is kept of a rejected row
+        String sku = row.sku() == null || row.sku().length() <= MAX_SKU ? row.sku() : row.sku().substring(0, MAX_SKU);
+        return BulkUpdateRow.malformed(row.line(), sku, error);
+    }
+
+    private static String error(BulkUpdateRow row) {
+        if (row.sku() == null || row.sku().isBlank()) return "sku is required";
+        if (row.sku().length() > MAX_SKU) return "sku must be at most " + MAX_SKU + " characters";
+        if (row.price() == null && row.stock() == null) return "price or stock is required";
+        if (row.price() != null && row.price().signum() < 0) return "price must be >= 0";
+        if (row.price() != null && row.price().precision() - row.price().scale() > MAX_PRICE_INTEGER_DIGITS) {
+            return "price must be below 10^" + MAX_PRICE_INTEGER_DIGITS;
+        }
+        if (row.stock() != null && row.stock() < 0) return "stock must be >= 0";
+        if (row.version() != null && row.version() < 0) return "version must be >= 0";
+        return null;
+    }
+}
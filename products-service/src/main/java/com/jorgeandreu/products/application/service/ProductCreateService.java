@@ -3,8 +3,10 @@ package com.jorgeandreu.products.application.service;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
 import com.jorgeandreu.products.application.mapper.CreateProductMapper;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
 import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
 import com.jorgeandreu.products.domain.port.in.CreateProductUseCase;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +24,8 @@ public class ProductCreateService implements CreateProductUseCase {
 
     private final CreateProductMapper createProductMapper;
 
+    private final ProductChangePublisherPort changes;
+
     @Override
     @Transactional
     public Product create(CreateProductCommand cmd) {
@@ -35,6 +39,8 @@ public class ProductCreateService implements CreateProductUseCase {
 
         Product product = createProductMapper.toDomain(cmd, initialVersion);
 
-        return repository.save(product);
+        Product saved = repository.save(product);
+        changes.publish(ProductChangeEvent.created(saved));
+        return saved;
     }
 }
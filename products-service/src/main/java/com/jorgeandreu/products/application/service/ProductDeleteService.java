@@ -1,7 +1,10 @@
 package com.jorgeandreu.products.application.service;
 
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
 import com.jorgeandreu.products.domain.port.in.DeleteProductUseCase;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,12 +19,29 @@ public class ProductDeleteService implements DeleteProductUseCase {
 
     private final ProductRepositoryPort repository;
 
+    private final ProductChangePublisherPort changes;
+
     @Override
     @Transactional
     public void deleteById(UUID id) {
-        boolean deleted = repository.softDeleteById(id, Instant.now());
+        Instant now = Instant.now();
+        boolean deleted = repository.softDeleteById(id, now);
         if (!deleted) {
             throw new ProductNotFoundException(id);
         }
+        changes.publish(ProductChangeEvent.deleted(id, now));
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(UUID id, long expectedVersion) {
+        Instant now = Instant.now();
+        if (!repository.softDeleteIfVersionMatches(id, expectedVersion, now)) {
+            if (repository.existsActiveById(id)) {
+                throw new ProductVersionConflictException(id, expectedVersion);
+            }
+            throw new ProductNotFoundException(id);
+        }
+        changes.publish(ProductChangeEvent.deleted(id, now));
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.mapper.CreateProductMapper;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.ProductImportResult;
+import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.ImportProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+@RequiredArgsConstructor
+public class ProductImportService implements ImportProductsUseCase {
+
+    // column widths of the products table; longer values would fail the whole batch insert
+    private static final int MAX_SKU = 100;
+    private static final int MAX_NAME = 200;
+    private static final int MAX_CATEGORY = 100;
+
+    @Value("${products.initial-version:0}")
+    private long initialVersion;
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    private final ProductRepositoryPort repository;
+
+    private final CreateProductMapper createProductMapper;
+
+    private final ProductChangePublisherPort changes;
+
+    // each batch commits on its own, together with its change events
+    private final TransactionOperations transactions;
+
+    @Override
+    public Stream<ProductImportResult> importProducts(Stream<ProductImportRow> rows) {
+        Iterator<ProductImportRow> it = rows.iterator();
+        Spliterator<List<ProductImportResult>> batches =
+                new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super List<ProductImportResult>> action) {
+                        if (!it.hasNext()) return false;
+                        List<ProductImportRow> batch = new ArrayList<>(batchSize);
+                        while (it.hasNext() && batch.size() < batchSize) batch.add(it.next());
+                        action.accept(importBatch(batch));
+                        return true;
+                    }
+                };
+        return StreamSupport.stream(batches, false)
+                .flatMap(List::stream)
+                .onClose(rows::close);
+    }
+
+    private List<ProductImportResult> importBatch(List<ProductImportRow> batch) {
+        ProductImportResult[] results = new ProductImportResult[batch.size()];
+        List<Product> products = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            ProductImportRow row = batch.get(i);
+            String error = row.command() == null ? row.error() : validate(row.command());
+            if (error != null) {
+                results[i] = ProductImportResult.invalid(row.line(), row.sku(), error);
+            } else {
+                products.add(createProductMapper.toDomain(row.command(), initialVersion));
+                positions.add(i);
+            }
+        }
+
+        Set<UUID> inserted = products.isEmpty() ? Set.of() : transactions.execute(tx -> {
+            Set<UUID> ids = repository.insertAllIfSkuAbsent(products);
+            changes.publishAll(products.stream()
+                    .filter(p -> ids.contains(p.id()))
+                    .map(ProductChangeEvent::created)
+                    .toList());
+            return ids;
+        });
+
+        for (int j = 0; j < products.size(); j++) {
+            Product p = products.get(j);
+            long line = batch.get(positions.get(j)).line();
+            results[positions.get(j)] = inserted.contains(p.id())
+                    ? ProductImportResult.created(line, p.sku(), p.id())
+                    : ProductImportResult.skuConflict(line, p.sku());
+        }
+        return List.of(results);
+    }
+
+    private static String validate(CreateProductCommand cmd) {
+        if (isBlank(cmd.sku())) return "sku is required";
+        if (isBlank(cmd.name())) return "name is required";
+        if (isBlank(cmd.category())) return "category is required";
+        if (cmd.price() == null) return "price is required";
+        if (cmd.stock() == null) return "stock is required";
+        if (cmd.price().signum() < 0) return "price must be >= 0";
+        if (cmd.stock() < 0) return "stock must be >= 0";
+        if (cmd.sku().length() > MAX_SKU) return "sku must be at most " + MAX_SKU + " characters";
+        if (cmd.name().length() > MAX_NAME) return "name must be at most " + MAX_NAME + " characters";
+        if (cmd.category().length() > MAX_CATEGORY) return "category must be at most " + MAX_CATEGORY + " characters";
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
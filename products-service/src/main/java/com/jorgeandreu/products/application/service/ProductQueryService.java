@@ -2,35 +2,83 @@ package com.jorgeandreu.products.application.service;
 
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
 import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.domain.model.FacetRequest;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductLookup;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.in.BatchGetProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.ExportProductsUseCase;
 import com.jorgeandreu.products.domain.port.in.GetProductUseCase;
 import com.jorgeandreu.products.domain.port.in.ListProductsUseCase;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
-public class ProductQueryService implements GetProductUseCase, ListProductsUseCase {
+public class ProductQueryService implements GetProductUseCase, ListProductsUseCase, ExportProductsUseCase,
+        BatchGetProductsUseCase {
     private final ProductRepositoryPort repositoryPort;
     private final SearchProductListMapper searchProductListMapper;
 
+    /** Price bucket bounds used when a search asks for price facets without its own. */
+    @Value("${products.facets.price-bounds:25,50,100,250,500,1000}")
+    private List<Double> defaultPriceBounds;
+
     @Override
+    @Transactional(readOnly = true)
     public Product getById(UUID id) {
         return repositoryPort.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageResult<Product> list(SearchCriteriaCommand criteria) {
 
         SearchCriteria criteriaDom = searchProductListMapper.toDomain(criteria);
+        if (!criteriaDom.hasFacets()) {
+            return repositoryPort.search(criteriaDom);
+        }
+
+        // facets ignore page, sort and cursor, so they are a separate port call that every page of a query can share
+        FacetRequest facets = criteriaDom.facets().withDefaultPriceBounds(defaultPriceBounds);
+        criteriaDom = criteriaDom.withFacets(facets);
+        return repositoryPort.search(criteriaDom).withFacets(repositoryPort.facets(criteriaDom));
+    }
+
+    @Override
+    public Stream<Product> exportAll(SearchCriteriaCommand criteria) {
+        return repositoryPort.streamAll(searchProductListMapper.toDomain(criteria));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductLookup> getAll(List<UUID> ids, List<String> skus) {
+        // one query per key type; duplicates are looked up once and answered once per occurrence
+        Map<UUID, Product> byId = ids.isEmpty() ? Map.of()
+                : repositoryPort.findAllByIds(new LinkedHashSet<>(ids)).stream()
+                        .collect(Collectors.toMap(Product::id, Function.identity()));
+        Map<String, Product> bySku = skus.isEmpty() ? Map.of()
+                : repositoryPort.findAllBySkus(new LinkedHashSet<>(skus)).stream()
+                        .collect(Collectors.toMap(Product::sku, Function.identity()));
 
-        return repositoryPort.search(criteriaDom);
+        List<ProductLookup> lookups = new ArrayList<>(ids.size() + skus.size());
+        ids.forEach(id -> lookups.add(ProductLookup.byId(id, byId.get(id))));
+        skus.forEach(sku -> lookups.add(ProductLookup.bySku(sku, bySku.get(sku))));
+        return lookups;
     }
 }
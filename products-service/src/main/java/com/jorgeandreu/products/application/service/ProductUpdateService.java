@@ -4,8 +4,13 @@ package com.jorgeandreu.products.application.service;
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
 import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.in.PatchProductCommand;
 import com.jorgeandreu.products.domain.port.in.UpdateProductCommand;
 import com.jorgeandreu.products.domain.port.in.UpdateProductUseCase;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,11 +25,14 @@ public class ProductUpdateService implements UpdateProductUseCase {
 
     private final ProductRepositoryPort repository;
 
+    private final ProductChangePublisherPort changes;
+
     @Override
     @Transactional
-    public void updateById(UUID id, UpdateProductCommand cmd) {
+    public Product updateById(UUID id, UpdateProductCommand cmd) {
+        UpdateResult<Product> result;
         try {
-            int updated = repository.updateIfVersionMatches(
+            result = repository.updateIfVersionMatches(
                     id,
                     cmd.sku(),
                     cmd.name(),
@@ -34,17 +42,52 @@ public class ProductUpdateService implements UpdateProductUseCase {
                     cmd.version(),
                     Instant.now()
             );
+        } catch (org.springframework.dao.DataIntegrityViolationException ex) {
+            throw new SkuAlreadyExistsException(cmd.sku());
+        }
+        return written(id, cmd.version(), result);
+    }
 
-            if (updated == 1) return;
+    @Override
+    @Transactional
+    public Product patchById(UUID id, PatchProductCommand cmd) {
+        if (cmd.isEmpty()) {
+            // nothing to write: the product as it is, as long as the caller's version is still current
+            Product product = repository.findById(id)
+                    .filter(p -> !p.isDeleted())
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            if (product.version() != cmd.version()) throw new ProductVersionConflictException(id, cmd.version());
+            return product;
+        }
 
-            boolean existsActive = repository.existsActiveById(id);
-            if (existsActive) {
-                throw new ProductVersionConflictException(id, cmd.version());
-            } else {
-                throw new ProductNotFoundException(id);
-            }
+        UpdateResult<Product> result;
+        try {
+            result = repository.patchIfVersionMatches(
+                    id,
+                    cmd.sku(),
+                    cmd.name(),
+                    cmd.price(),
+                    cmd.stock(),
+                    cmd.category(),
+                    cmd.version(),
+                    Instant.now()
+            );
         } catch (org.springframework.dao.DataIntegrityViolationException ex) {
+            // without a new SKU the unique index is not written, so the violation is something else
+            if (cmd.sku() == null) throw ex;
             throw new SkuAlreadyExistsException(cmd.sku());
         }
+        return written(id, cmd.version(), result);
+    }
+
+    private Product written(UUID id, long expectedVersion, UpdateResult<Product> result) {
+        return switch (result.status()) {
+            case UPDATED -> {
+                changes.publish(ProductChangeEvent.updated(result.value()));
+                yield result.value();
+            }
+            case VERSION_CONFLICT -> throw new ProductVersionConflictException(id, expectedVersion);
+            case NOT_FOUND -> throw new ProductNotFoundException(id);
+        };
     }
 }
@@ -0,0 +1,32 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.port.in.ReactiveListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.domain.port.out.ReactiveProductQueryPort;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link ProductQueryService}'s list and export. Not a component: it only exists when the
+ * R2DBC adapter does, which builds it.
+ */
+@RequiredArgsConstructor
+public class ReactiveProductQueryService implements ReactiveListProductsUseCase {
+
+    private final ReactiveProductQueryPort queryPort;
+    private final SearchProductListMapper searchProductListMapper;
+
+    @Override
+    public Mono<PageResult<Product>> list(SearchCriteriaCommand criteria) {
+        return Mono.fromSupplier(() -> searchProductListMapper.toDomain(criteria)).flatMap(queryPort::search);
+    }
+
+    @Override
+    public Flux<Product> streamAll(SearchCriteriaCommand criteria) {
+        return Mono.fromSupplier(() -> searchProductListMapper.toDomain(criteria)).flatMapMany(queryPort::streamAll);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.InsufficientStockException;
+import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.StockReservationNotFoundException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.in.CommitStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ExpireStockReservationsUseCase;
+import com.jorgeandreu.products.domain.port.in.ReleaseStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
+import com.jorgeandreu.products.domain.port.in.ReserveStockUseCase;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import com.jorgeandreu.products.domain.port.out.StockReservationRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Reserving takes the stock out of the products right away, with one conditional decrement per line; committing
+ * only forgets the reservation, while releasing or expiring puts the stock back. Product rows are always locked in
+ * product id order (see {@link ReserveStockCommand#mergedLines()}), so concurrent multi-line orders cannot deadlock.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService implements ReserveStockUseCase, ReleaseStockReservationUseCase,
+        CommitStockReservationUseCase, ExpireStockReservationsUseCase {
+
+    @Value("${products.reservations.ttl:15m}")
+    private Duration defaultTtl;
+
+    private final ProductRepositoryPort repository;
+
+    private final StockReservationRepositoryPort reservations;
+
+    private final ProductChangePublisherPort changes;
+
+    @Override
+    @Transactional
+    public StockReservation reserve(ReserveStockCommand cmd) {
+        Instant now = Instant.now();
+        List<StockReservation.Line> lines = cmd.mergedLines();
+        List<ProductChangeEvent> events = new ArrayList<>(lines.size());
+        for (StockReservation.Line line : lines) {
+            // a line that cannot be served rolls back the lines already decremented
+            Product updated = repository.decrementStock(line.productId(), line.quantity(), now)
+                    .orElseThrow(() -> repository.existsActiveById(line.productId())
+                            ? new InsufficientStockException(line.productId(), line.quantity())
+                            : new ProductNotFoundException(line.productId()));
+            events.add(ProductChangeEvent.updated(updated));
+        }
+
+        var reservation = new StockReservation(UUID.randomUUID(), lines,
+                now.plus(cmd.ttl() == null ? defaultTtl : cmd.ttl()));
+        reservations.save(reservation);
+        changes.publishAll(events);
+        return reservation;
+    }
+
+    @Override
+    @Transactional
+    public void release(UUID reservationId) {
+        List<StockReservation.Line> lines = reservations.deleteById(reservationId);
+        if (lines.isEmpty()) throw new StockReservationNotFoundException(reservationId);
+        restock(lines);
+    }
+
+    @Override
+    @Transactional
+    public void commit(UUID reservationId) {
+        if (reservations.deleteUnexpiredById(reservationId).isEmpty()) {
+            throw new StockReservationNotFoundException(reservationId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int expireDue(int limit) {
+        List<StockReservation.Line> lines = reservations.deleteExpired(limit);
+        restock(lines);
+        return lines.size();
+    }
+
+    /** Lines may come from several reservations: sum them per product and lock the products in id order. */
+    private void restock(List<StockReservation.Line> lines) {
+        Map<UUID, Integer> byProduct = new TreeMap<>();
+        lines.forEach(l -> byProduct.merge(l.productId(), l.quantity(), Integer::sum));
+
+        Instant now = Instant.now();
+        List<ProductChangeEvent> events = new ArrayList<>(byProduct.size());
+        // a product deleted meanwhile has no stock to return to
+        byProduct.forEach((productId, quantity) -> repository.incrementStock(productId, quantity, now)
+                .ifPresent(p -> events.add(ProductChangeEvent.updated(p))));
+        changes.publishAll(events);
+    }
+}
@@ -0,0 +1,41 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.port.in.ReshardStockUseCase;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Turns sharded stock on or off for a product, typically ahead of a flash sale. The total stock is unchanged;
+ * only how many rows it is spread over.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockShardingService implements ReshardStockUseCase {
+
+    static final int MAX_SHARDS = 64;
+
+    private final ProductRepositoryPort repository;
+
+    private final ProductChangePublisherPort changes;
+
+    @Override
+    @Transactional
+    public Product reshardStock(UUID id, int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("shards must be between 1 and " + MAX_SHARDS);
+        }
+        Product product = repository.reshardStock(id, shards, Instant.now())
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        changes.publish(ProductChangeEvent.updated(product));
+        return product;
+    }
+}
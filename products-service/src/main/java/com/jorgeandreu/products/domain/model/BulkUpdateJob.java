@@ -0,0 +1,49 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A bulk price/stock update and its progress. Its rows are split by SKU range into {@code partitions}, each written
+ * by one worker at a time.
+ */
+public record BulkUpdateJob(
+        UUID id,
+        Status status,
+        int partitions,
+        long total,
+        long updated,
+        long conflicts,
+        long notFound,
+        long invalid,
+        String error,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+
+    public enum Status {
+        /** The upload is still being stored. */
+        UPLOADING,
+        /** Stored; waiting for a worker. */
+        QUEUED,
+        RUNNING,
+        /** Every row has an outcome. */
+        COMPLETED,
+        /** The upload was interrupted, or the job kept failing. */
+        FAILED
+    }
+
+    /** Rows written or rejected by the workers; invalid rows are rejected before they start. */
+    public long processed() {
+        return updated + conflicts + notFound;
+    }
+
+    /** Throughput of the workers since the job started, up to now or to its end; null before it starts. */
+    public Double rowsPerSecond(Instant now) {
+        if (startedAt == null) return null;
+        Duration elapsed = Duration.between(startedAt, finishedAt == null ? now : finishedAt);
+        return elapsed.isZero() || elapsed.isNegative() ? null : processed() * 1000.0 / elapsed.toMillis();
+    }
+}
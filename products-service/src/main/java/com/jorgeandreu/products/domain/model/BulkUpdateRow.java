@@ -0,0 +1,39 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a bulk update job: the SKU and the new price and/or stock (null keeps the current value), with the
+ * version it must still have (null applies it whatever the version). {@code error} is set for invalid rows.
+ */
+public record BulkUpdateRow(long line, String sku, BigDecimal price, Integer stock, Long version, Status status,
+                            String error) {
+
+    public enum Status {
+        /** Not written yet. */
+        PENDING,
+        UPDATED,
+        /** The product's version no longer matched the row's. */
+        VERSION_CONFLICT,
+        /** No active product has this SKU. */
+        NOT_FOUND,
+        /** The row could not be parsed or failed validation; nothing was written. */
+        INVALID
+    }
+
+    public static BulkUpdateRow parsed(long line, String sku, BigDecimal price, Integer stock, Long version) {
+        return new BulkUpdateRow(line, sku, price, stock, version, Status.PENDING, null);
+    }
+
+    public static BulkUpdateRow malformed(long line, String sku, String error) {
+        return new BulkUpdateRow(line, sku, null, null, null, Status.INVALID, error);
+    }
+
+    public BulkUpdateRow withStatus(Status status, String error) {
+        return new BulkUpdateRow(line, sku, price, stock, version, status, error);
+    }
+
+    public ProductBulkUpdate toUpdate() {
+        return new ProductBulkUpdate(sku, price, stock, version);
+    }
+}
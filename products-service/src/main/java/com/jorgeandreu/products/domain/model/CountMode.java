@@ -0,0 +1,11 @@
+package com.jorgeandreu.products.domain.model;
+
+/** How a search computes its totals. */
+public enum CountMode {
+    /** Runs a COUNT over the filtered rows. */
+    EXACT,
+    /** Uses the planner's row estimate for the filtered query; no rows are counted. */
+    ESTIMATED,
+    /** Skips totals; only reports whether a next page exists. */
+    NONE
+}
@@ -0,0 +1,31 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.util.List;
+
+/**
+ * Which facets a search should return next to its page. {@code priceBounds} are the ascending boundaries between
+ * price buckets; when prices are requested without bounds, the service's default bounds apply.
+ */
+public record FacetRequest(boolean categories, boolean prices, List<Double> priceBounds) {
+
+    public static final int MAX_PRICE_BOUNDS = 20;
+
+    public FacetRequest {
+        priceBounds = priceBounds == null ? List.of() : List.copyOf(priceBounds);
+        if (priceBounds.size() > MAX_PRICE_BOUNDS) {
+            throw new IllegalArgumentException("at most " + MAX_PRICE_BOUNDS + " price bounds");
+        }
+        for (int i = 1; i < priceBounds.size(); i++) {
+            if (priceBounds.get(i) <= priceBounds.get(i - 1)) {
+                throw new IllegalArgumentException("price bounds must be strictly ascending");
+            }
+        }
+    }
+
+    /** @return true if at least one facet is requested */
+    public boolean any() { return categories || prices; }
+
+    public FacetRequest withDefaultPriceBounds(List<Double> defaults) {
+        return prices && priceBounds.isEmpty() ? new FacetRequest(categories, true, defaults) : this;
+    }
+}
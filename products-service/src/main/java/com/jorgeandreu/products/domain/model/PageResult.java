@@ -2,5 +2,36 @@ package com.jorgeandreu.products.domain.model;
 
 import java.util.List;
 
-public record PageResult<T>(List<T> content, int page, int size, long totalElements, int totalPages) {}
+/**
+ * A page of results. {@code totalElements}/{@code totalPages} are null when the search ran with
+ * {@link CountMode#NONE}, and approximate with {@link CountMode#ESTIMATED}. {@code facets} is null unless requested.
+ */
+public record PageResult<T>(
+        List<T> content,
+        int page,
+        int size,
+        Long totalElements,
+        Integer totalPages,
+        boolean hasNext,
+        CountMode countMode,
+        String nextCursor,
+        SearchFacets facets
+) {
 
+    public PageResult(List<T> content, int page, int size, Long totalElements, Integer totalPages, boolean hasNext,
+                      CountMode countMode, String nextCursor) {
+        this(content, page, size, totalElements, totalPages, hasNext, countMode, nextCursor, null);
+    }
+
+    public PageResult(List<T> content, int page, int size, long totalElements, int totalPages) {
+        this(content, page, size, totalElements, totalPages, page + 1 < totalPages, CountMode.EXACT, null);
+    }
+
+    public PageResult<T> withNextCursor(String nextCursor) {
+        return new PageResult<>(content, page, size, totalElements, totalPages, hasNext, countMode, nextCursor, facets);
+    }
+
+    public PageResult<T> withFacets(SearchFacets facets) {
+        return new PageResult<>(content, page, size, totalElements, totalPages, hasNext, countMode, nextCursor, facets);
+    }
+}
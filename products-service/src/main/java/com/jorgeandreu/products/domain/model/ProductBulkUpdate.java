@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.math.BigDecimal;
+
+/** New price and/or stock for the product with {@code sku}; null fields keep their value, a null version any. */
+public record ProductBulkUpdate(String sku, BigDecimal price, Integer stock, Long version) {
+}
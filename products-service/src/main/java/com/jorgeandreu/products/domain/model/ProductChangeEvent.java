@@ -0,0 +1,25 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A committed change to one product, for downstream consumers. {@code product} is the state after the change;
+ * it is null for {@link Type#DELETED}, where only the id and time are known.
+ */
+public record ProductChangeEvent(UUID eventId, Type type, UUID productId, Instant occurredAt, Product product) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static ProductChangeEvent created(Product product) {
+        return new ProductChangeEvent(UUID.randomUUID(), Type.CREATED, product.id(), product.createdAt(), product);
+    }
+
+    public static ProductChangeEvent updated(Product product) {
+        return new ProductChangeEvent(UUID.randomUUID(), Type.UPDATED, product.id(), product.updatedAt(), product);
+    }
+
+    public static ProductChangeEvent deleted(UUID productId, Instant deletedAt) {
+        return new ProductChangeEvent(UUID.randomUUID(), Type.DELETED, productId, deletedAt, null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.util.UUID;
+
+/** Outcome of one row of a bulk import. {@code id} is set for created rows, {@code error} for invalid ones. */
+public record ProductImportResult(long line, String sku, Status status, UUID id, String error) {
+
+    public enum Status {
+        CREATED,
+        /** A product with this SKU already existed, or an earlier row of the same upload created it. */
+        SKU_CONFLICT,
+        /** The row could not be parsed or failed validation; nothing was written. */
+        INVALID
+    }
+
+    public static ProductImportResult created(long line, String sku, UUID id) {
+        return new ProductImportResult(line, sku, Status.CREATED, id, null);
+    }
+
+    public static ProductImportResult skuConflict(long line, String sku) {
+        return new ProductImportResult(line, sku, Status.SKU_CONFLICT, null, null);
+    }
+
+    public static ProductImportResult invalid(long line, String sku, String error) {
+        return new ProductImportResult(line, sku, Status.INVALID, null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.util.UUID;
+
+/** One requested key of a batch get: the id or SKU asked for, and the product if it exists. */
+public record ProductLookup(UUID id, String sku, Product product) {
+
+    public static ProductLookup byId(UUID id, Product product) {
+        return new ProductLookup(id, null, product);
+    }
+
+    public static ProductLookup bySku(String sku, Product product) {
+        return new ProductLookup(null, sku, product);
+    }
+
+    public boolean found() { return product != null; }
+}
@@ -8,5 +8,35 @@ public record SearchCriteria(
         Double minPrice,
         Double maxPrice,
         String text,
-        boolean includeDeleted
-) {}
+        boolean includeDeleted,
+        String cursor,
+        CountMode countMode,
+        FacetRequest facets
+) {
+    public SearchCriteria(int page, int size, String sort, String category, Double minPrice, Double maxPrice,
+                          String text, boolean includeDeleted) {
+        this(page, size, sort, category, minPrice, maxPrice, text, includeDeleted, null, null);
+    }
+
+    public SearchCriteria(int page, int size, String sort, String category, Double minPrice, Double maxPrice,
+                          String text, boolean includeDeleted, String cursor, CountMode countMode) {
+        this(page, size, sort, category, minPrice, maxPrice, text, includeDeleted, cursor, countMode, null);
+    }
+
+    /** @return true when the caller asked for at least one facet */
+    public boolean hasFacets() { return facets != null && facets.any(); }
+
+    public SearchCriteria withFacets(FacetRequest facets) {
+        return new SearchCriteria(page, size, sort, category, minPrice, maxPrice, text, includeDeleted, cursor,
+                countMode, facets);
+    }
+
+    /** @return true when the caller continues from a previous page's cursor instead of an offset */
+    public boolean hasCursor() { return cursor != null && !cursor.isBlank(); }
+
+    /** Requested count mode, or the default: exact totals for offset pages, none for cursor pages. */
+    public CountMode effectiveCountMode() {
+        if (countMode != null) return countMode;
+        return hasCursor() ? CountMode.NONE : CountMode.EXACT;
+    }
+}
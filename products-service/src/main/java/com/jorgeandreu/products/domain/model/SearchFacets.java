@@ -0,0 +1,14 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.util.List;
+
+/**
+ * Counts over every product matching a search's filters, not just the returned page. A facet that was not
+ * requested is null. Price buckets cover {@code [from, to)}; the first has no {@code from}, the last no {@code to}.
+ */
+public record SearchFacets(List<CategoryCount> categories, List<PriceBucketCount> priceBuckets) {
+
+    public record CategoryCount(String category, long count) {}
+
+    public record PriceBucketCount(Double from, Double to, long count) {}
+}
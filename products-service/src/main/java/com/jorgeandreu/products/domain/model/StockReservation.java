@@ -0,0 +1,14 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock taken out of one or more products and held until the reservation is committed, released or expires.
+ * Lines are ordered by product id, at most one per product.
+ */
+public record StockReservation(UUID id, List<Line> lines, Instant expiresAt) {
+
+    public record Line(UUID productId, int quantity) {}
+}
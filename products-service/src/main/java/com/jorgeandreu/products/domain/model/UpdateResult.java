@@ -0,0 +1,35 @@
+package com.jorgeandreu.products.domain.model;
+
+import java.util.function.Function;
+
+/**
+ * Outcome of a conditional (optimistic-lock) update. {@code value} holds the new state when {@code status} is
+ * {@link Status#UPDATED} and is null otherwise.
+ */
+public record UpdateResult<T>(Status status, T value) {
+
+    public enum Status {
+        /** The row matched the expected version and was written. */
+        UPDATED,
+        /** The row exists and is active, but its version differs from the expected one. */
+        VERSION_CONFLICT,
+        /** No active row with that id. */
+        NOT_FOUND
+    }
+
+    public static <T> UpdateResult<T> updated(T value) {
+        return new UpdateResult<>(Status.UPDATED, value);
+    }
+
+    public static <T> UpdateResult<T> versionConflict() {
+        return new UpdateResult<>(Status.VERSION_CONFLICT, null);
+    }
+
+    public static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null);
+    }
+
+    public <R> UpdateResult<R> map(Function<? super T, ? extends R> mapper) {
+        return new UpdateResult<>(status, value == null ? null : mapper.apply(value));
+    }
+}
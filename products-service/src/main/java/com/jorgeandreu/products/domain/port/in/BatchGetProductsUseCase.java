@@ -0,0 +1,12 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.ProductLookup;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BatchGetProductsUseCase {
+
+    /** One lookup per requested key, ids first then SKUs, each in the given order (duplicates included). */
+    List<ProductLookup> getAll(List<UUID> ids, List<String> skus);
+}
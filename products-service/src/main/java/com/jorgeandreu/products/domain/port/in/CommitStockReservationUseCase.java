@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import java.util.UUID;
+
+public interface CommitStockReservationUseCase {
+    void commit(UUID reservationId);
+}
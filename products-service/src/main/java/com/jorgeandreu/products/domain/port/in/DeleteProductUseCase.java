@@ -4,4 +4,7 @@ import java.util.UUID;
 
 public interface DeleteProductUseCase {
     void deleteById(UUID id);
+
+    /** Deletes only if the product still has {@code expectedVersion}. */
+    void deleteById(UUID id, long expectedVersion);
 }
\ No newline at end of file
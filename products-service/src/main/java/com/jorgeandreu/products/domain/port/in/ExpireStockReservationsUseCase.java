@@ -0,0 +1,6 @@
+package com.jorgeandreu.products.domain.port.in;
+
+public interface ExpireStockReservationsUseCase {
+    /** Returns the stock of up to {@code limit} expired reservation lines; @return how many lines were expired */
+    int expireDue(int limit);
+}
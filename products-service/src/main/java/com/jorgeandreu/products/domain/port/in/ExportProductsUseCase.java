@@ -0,0 +1,14 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.Product;
+
+import java.util.stream.Stream;
+
+public interface ExportProductsUseCase {
+
+    /**
+     * Every product matching the filters of {@code criteria}; paging, sort and cursor are ignored.
+     * Rows are read as the stream is consumed, and the caller must close it.
+     */
+    Stream<Product> exportAll(SearchCriteriaCommand criteria);
+}
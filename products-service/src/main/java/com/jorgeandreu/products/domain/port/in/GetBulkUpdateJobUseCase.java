@@ -0,0 +1,15 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface GetBulkUpdateJobUseCase {
+
+    BulkUpdateJob getById(UUID jobId);
+
+    /** The job's rejected rows in line order, read lazily page by page. */
+    Stream<BulkUpdateRow> rejectedRows(UUID jobId);
+}
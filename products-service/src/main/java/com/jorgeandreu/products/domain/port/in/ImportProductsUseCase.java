@@ -0,0 +1,15 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.ProductImportResult;
+
+import java.util.stream.Stream;
+
+public interface ImportProductsUseCase {
+
+    /**
+     * Lazily imports {@code rows}: each batch is validated and written only when the returned stream reaches it, so
+     * memory stays bounded by the batch size. Results come back in input order, one per row. Closing the returned
+     * stream closes {@code rows}.
+     */
+    Stream<ProductImportResult> importProducts(Stream<ProductImportRow> rows);
+}
@@ -0,0 +1,27 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import java.math.BigDecimal;
+
+/** The fields a partial update writes; a null field keeps its current value. */
+public record PatchProductCommand(
+        String sku,
+        String name,
+        BigDecimal price,
+        Integer stock,
+        String category,
+        long version
+) {
+    public PatchProductCommand {
+        if (price != null && price.signum() < 0) throw new IllegalArgumentException("price must be >= 0");
+        if (stock != null && stock < 0) throw new IllegalArgumentException("stock must be >= 0");
+    }
+
+    /** @return true when the patch changes no field */
+    public boolean isEmpty() {
+        return sku == null && name == null && price == null && stock == null && category == null;
+    }
+
+    public PatchProductCommand withVersion(long version) {
+        return new PatchProductCommand(sku, name, price, stock, category, version);
+    }
+}
@@ -0,0 +1,16 @@
+package com.jorgeandreu.products.domain.port.in;
+
+/**
+ * One row of a bulk import as read from the upload: either a command, or the reason it could not be parsed.
+ * {@code sku} is carried separately so unparseable rows can still be reported against it when known.
+ */
+public record ProductImportRow(long line, String sku, CreateProductCommand command, String error) {
+
+    public static ProductImportRow parsed(long line, CreateProductCommand command) {
+        return new ProductImportRow(line, command.sku(), command, null);
+    }
+
+    public static ProductImportRow malformed(long line, String sku, String error) {
+        return new ProductImportRow(line, sku, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveListProductsUseCase {
+
+    Mono<PageResult<Product>> list(SearchCriteriaCommand criteria);
+
+    /** Every product matching the filters of {@code criteria}, as fast as the subscriber consumes them. */
+    Flux<Product> streamAll(SearchCriteriaCommand criteria);
+}
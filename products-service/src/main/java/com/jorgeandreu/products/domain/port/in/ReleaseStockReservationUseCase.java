@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import java.util.UUID;
+
+public interface ReleaseStockReservationUseCase {
+    void release(UUID reservationId);
+}
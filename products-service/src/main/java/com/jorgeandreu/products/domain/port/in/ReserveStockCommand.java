@@ -0,0 +1,33 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.StockReservation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/** {@code ttl} is optional; the service default applies when it is null. */
+public record ReserveStockCommand(List<StockReservation.Line> lines, Duration ttl) {
+
+    public ReserveStockCommand {
+        if (lines == null || lines.isEmpty()) throw new IllegalArgumentException("lines must not be empty");
+        if (lines.stream().anyMatch(l -> l.productId() == null || l.quantity() <= 0)) {
+            throw new IllegalArgumentException("every line needs a productId and a quantity > 0");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) throw new IllegalArgumentException("ttl must be > 0");
+    }
+
+    /**
+     * One line per product, quantities summed, ordered by product id. Every transaction that changes the stock of
+     * several products takes the row locks in this order, so two multi-line orders cannot deadlock each other.
+     */
+    public List<StockReservation.Line> mergedLines() {
+        Map<UUID, Integer> byProduct = new TreeMap<>();
+        lines.forEach(l -> byProduct.merge(l.productId(), l.quantity(), Integer::sum));
+        return byProduct.entrySet().stream()
+                .map(e -> new StockReservation.Line(e.getKey(), e.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.StockReservation;
+
+public interface ReserveStockUseCase {
+    StockReservation reserve(ReserveStockCommand command);
+}
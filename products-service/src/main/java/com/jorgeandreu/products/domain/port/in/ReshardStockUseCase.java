@@ -0,0 +1,10 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.Product;
+
+import java.util.UUID;
+
+public interface ReshardStockUseCase {
+    /** Spreads the product's stock over {@code shards} slots; 1 turns sharding off. */
+    Product reshardStock(UUID id, int shards);
+}
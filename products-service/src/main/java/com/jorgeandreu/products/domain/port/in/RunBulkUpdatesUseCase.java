@@ -0,0 +1,32 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/** What the bulk update workers do; a job is run by the instance that owns it. */
+public interface RunBulkUpdatesUseCase {
+
+    /**
+     * Takes ownership of up to {@code limit} queued jobs, oldest first, and of running jobs whose owner has not sent
+     * a heartbeat for {@code staleAfter} (it crashed); a job already claimed {@code maxAttempts} times fails instead.
+     */
+    List<BulkUpdateJob> claim(String owner, int limit, Duration staleAfter, int maxAttempts);
+
+    /** Keeps the owner's jobs from being claimed by another instance. */
+    void heartbeat(String owner, Collection<UUID> jobIds);
+
+    /**
+     * Writes the next {@code batchSize} pending rows of one partition, in SKU order, in one transaction together
+     * with their outcomes and change events.
+     * @return the rows with their outcome; empty when the partition is done
+     */
+    List<BulkUpdateRow> applyBatch(UUID jobId, int partition, int batchSize);
+
+    /** Completes the job if no row is pending, else hands it back to be claimed again. */
+    BulkUpdateJob finish(UUID jobId);
+}
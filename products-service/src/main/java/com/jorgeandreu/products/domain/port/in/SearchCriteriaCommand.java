@@ -1,5 +1,8 @@
 package com.jorgeandreu.products.domain.port.in;
 
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.model.FacetRequest;
+
 public record SearchCriteriaCommand(
         int page,
         int size,
@@ -8,5 +11,18 @@ public record SearchCriteriaCommand(
         Double minPrice,
         Double maxPrice,
         String text,
-        boolean includeDeleted
-) {}
+        boolean includeDeleted,
+        String cursor,
+        CountMode countMode,
+        FacetRequest facets
+) {
+    public SearchCriteriaCommand(int page, int size, String sort, String category, Double minPrice, Double maxPrice,
+                                 String text, boolean includeDeleted) {
+        this(page, size, sort, category, minPrice, maxPrice, text, includeDeleted, null, null);
+    }
+
+    public SearchCriteriaCommand(int page, int size, String sort, String category, Double minPrice, Double maxPrice,
+                                 String text, boolean includeDeleted, String cursor, CountMode countMode) {
+        this(page, size, sort, category, minPrice, maxPrice, text, includeDeleted, cursor, countMode, null);
+    }
+}
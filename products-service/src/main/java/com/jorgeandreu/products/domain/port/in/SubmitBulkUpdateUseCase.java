@@ -0,0 +1,15 @@
+package com.jorgeandreu.products.domain.port.in;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+
+import java.util.stream.Stream;
+
+public interface SubmitBulkUpdateUseCase {
+
+    /**
+     * Stores {@code rows} as a new job, batch by batch, and queues it; nothing is written to products yet. Invalid
+     * rows, and rows superseded by a later line with the same SKU, are rejected here. Closes {@code rows}.
+     */
+    BulkUpdateJob submit(Stream<BulkUpdateRow> rows);
+}
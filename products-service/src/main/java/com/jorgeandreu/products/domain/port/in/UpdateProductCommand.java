@@ -14,4 +14,8 @@ public record UpdateProductCommand(
         if (price == null || price.signum() < 0) throw new IllegalArgumentException("price must be >= 0");
         if (stock == null || stock < 0) throw new IllegalArgumentException("stock must be >= 0");
     }
+
+    public UpdateProductCommand withVersion(long version) {
+        return new UpdateProductCommand(sku, name, price, stock, category, version);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package com.jorgeandreu.products.domain.port.in;
 
+import com.jorgeandreu.products.domain.model.Product;
+
 import java.util.UUID;
 
 public interface UpdateProductUseCase {
-    void updateById(UUID id, UpdateProductCommand command);
+    Product updateById(UUID id, UpdateProductCommand command);
+
+    /** Like {@link #updateById}, but only writes the fields the command sets. */
+    Product patchById(UUID id, PatchProductCommand command);
 }
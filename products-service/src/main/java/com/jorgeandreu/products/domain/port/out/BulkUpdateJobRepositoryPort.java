@@ -0,0 +1,52 @@
+package com.jorgeandreu.products.domain.port.out;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bulk update jobs and their rows. The rows are the job's durable state: a row stays pending until the transaction
+ * that writes its product also records its outcome, so a job resumed after a crash never applies a row twice.
+ */
+public interface BulkUpdateJobRepositoryPort {
+
+    void create(UUID jobId, int partitions, Instant createdAt);
+
+    /** Appends rows to an uploading job in one statement. */
+    void stage(UUID jobId, List<BulkUpdateRow> rows);
+
+    /**
+     * Ends the upload: rejects rows whose SKU comes again on a later line (the last one wins), splits the rest by
+     * SKU range into the job's partitions (all rows of a SKU in the same one), fills in the totals and queues the
+     * job.
+     */
+    BulkUpdateJob queue(UUID jobId);
+
+    Optional<BulkUpdateJob> findById(UUID jobId);
+
+    /** See {@link com.jorgeandreu.products.domain.port.in.RunBulkUpdatesUseCase#claim}. */
+    List<BulkUpdateJob> claim(String owner, int limit, Duration staleAfter, int maxAttempts);
+
+    void heartbeat(String owner, Collection<UUID> jobIds);
+
+    /**
+     * Locks up to {@code limit} pending rows of a partition, lowest SKUs first, skipping rows another transaction
+     * holds. Must run in the transaction that records their outcome.
+     */
+    List<BulkUpdateRow> lockPending(UUID jobId, int partition, int limit);
+
+    /** Records the outcome of rows from {@link #lockPending} and adds them to the counters of their partition. */
+    void complete(UUID jobId, int partition, List<BulkUpdateRow> rows);
+
+    /** COMPLETED when no row is pending; otherwise the job goes back to QUEUED without an owner. */
+    BulkUpdateJob finish(UUID jobId, Instant finishedAt);
+
+    /** Rejected rows after {@code afterLine}, in line order. */
+    List<BulkUpdateRow> findRejected(UUID jobId, long afterLine, int limit);
+}
@@ -0,0 +1,16 @@
+package com.jorgeandreu.products.domain.port.out;
+
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+
+import java.util.List;
+
+/**
+ * Records product changes for delivery to other services. Must be called inside the transaction that makes the
+ * change: events are stored with it and delivered only once it commits, in order per product.
+ */
+public interface ProductChangePublisherPort {
+
+    void publish(ProductChangeEvent event);
+
+    void publishAll(List<ProductChangeEvent> events);
+}
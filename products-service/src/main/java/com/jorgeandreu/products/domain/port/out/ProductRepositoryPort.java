@@ -2,20 +2,59 @@ package com.jorgeandreu.products.domain.port.out;
 
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.model.UpdateResult;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductRepositoryPort {
     boolean existsBySku(String sku);
     Product save(Product product);
     Optional<Product> findById(UUID id);
+
+    /** Products with any of the given ids, in no particular order; unknown ids are simply absent. */
+    List<Product> findAllByIds(Collection<UUID> ids);
+
+    /** Products with any of the given SKUs, in no particular order; unknown SKUs are simply absent. */
+    List<Product> findAllBySkus(Collection<String> skus);
     PageResult<Product> search(SearchCriteria criteria);
+
+    /**
+     * Counts per category and per price bucket over every product matching the criteria filters, in one aggregate
+     * query; paging, sort and cursor are ignored. Only the facets {@link SearchCriteria#facets()} asks for are filled.
+     */
+    SearchFacets facets(SearchCriteria criteria);
     boolean softDeleteById(UUID id, Instant deletedAt);
-    int updateIfVersionMatches(UUID id,
+
+    /** Like {@link #softDeleteById}, but only while the active row still has {@code expectedVersion}. */
+    boolean softDeleteIfVersionMatches(UUID id, long expectedVersion, Instant deletedAt);
+    /**
+     * Writes the given fields if the active row still has {@code expectedVersion}, bumping the version.
+     * Reports the new state, or why nothing was written, from a single statement.
+     */
+    UpdateResult<Product> updateIfVersionMatches(UUID id,
+                               String sku,
+                               String name,
+                               BigDecimal price,
+                               Integer stock,
+                               String category,
+                               long expectedVersion,
+                               Instant updatedAt);
+
+    /**
+     * Like {@link #updateIfVersionMatches}, but a null field keeps its current value and is left out of the
+     * statement, so a SKU left out is neither written nor checked for uniqueness.
+     */
+    UpdateResult<Product> patchIfVersionMatches(UUID id,
                                String sku,
                                String name,
                                BigDecimal price,
@@ -24,6 +63,50 @@ public interface ProductRepositoryPort {
                                long expectedVersion,
                                Instant updatedAt);
 
+    /**
+     * Writes the price and/or stock of many products by SKU in one statement, each only if its active product still
+     * has the expected version (or whatever its version, without one), bumping the version. A SKU repeated
+     * in {@code updates} is written once, with its last update; the earlier ones come back as version conflicts.
+     * @return one outcome per update, in order
+     */
+    List<UpdateResult<Product>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt);
+
+    /**
+     * Takes {@code quantity} out of an active product's stock in one conditional statement, if at least that much
+     * is left, bumping the version. There is no version check: concurrent reservations never conflict, they only
+     * queue on the row lock. Empty when the product is missing, deleted or short of stock.
+     * <p>
+     * On a sharded product (see {@link #reshardStock}) the decrement lands on one of its stock slots, and neither
+     * the version nor {@code updatedAt} changes: writing the product row would bring the single-row hotspot back.
+     */
+    Optional<Product> decrementStock(UUID id, int quantity, Instant updatedAt);
+
+    /**
+     * Puts {@code quantity} back into an active product's stock, bumping the version unless the product is sharded.
+     * Empty when missing or deleted.
+     */
+    Optional<Product> incrementStock(UUID id, int quantity, Instant updatedAt);
+
+    /**
+     * Spreads an active product's stock over {@code shards} independently locked slots, so concurrent checkouts of
+     * a hot product stop queueing on one row; 1 folds it back into a single row. Bumps the version. Empty when
+     * missing or deleted.
+     */
+    Optional<Product> reshardStock(UUID id, int shards, Instant updatedAt);
+
+    /**
+     * Inserts new products in one statement, skipping any whose SKU is already taken (including by an earlier
+     * product of the same list).
+     * @return ids of the products that were inserted
+     */
+    Set<UUID> insertAllIfSkuAbsent(List<Product> products);
+
+    /**
+     * Every product matching the criteria filters, unpaged and unordered, read lazily.
+     * The caller must close the stream.
+     */
+    Stream<Product> streamAll(SearchCriteria criteria);
+
     /** @return true if product exists and is not soft-deleted */
     boolean existsActiveById(UUID id);
 }
@@ -0,0 +1,23 @@
+package com.jorgeandreu.products.domain.port.out;
+
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read side of the catalog, for high-fanout read traffic. Filters mean exactly what they mean in
+ * {@link ProductRepositoryPort#search}; writes always go through {@link ProductRepositoryPort}.
+ */
+public interface ReactiveProductQueryPort {
+
+    /** Offset pages only: a criteria with a cursor is rejected. Facets are not computed. */
+    Mono<PageResult<Product>> search(SearchCriteria criteria);
+
+    /**
+     * Every product matching the criteria filters, unpaged and unordered. Rows are fetched from the database only
+     * as fast as the subscriber requests them.
+     */
+    Flux<Product> streamAll(SearchCriteria criteria);
+}
@@ -0,0 +1,26 @@
+package com.jorgeandreu.products.domain.port.out;
+
+import com.jorgeandreu.products.domain.model.StockReservation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Open stock reservations. Deleting a reservation is how a caller claims it: of a commit, a release and the
+ * expiry sweep racing for the same lines, only the one whose delete returns them may act on them.
+ */
+public interface StockReservationRepositoryPort {
+    void save(StockReservation reservation);
+
+    /** Deletes the reservation, expired or not; @return its lines, empty if it was not open */
+    List<StockReservation.Line> deleteById(UUID reservationId);
+
+    /** Deletes the reservation only if it has not expired yet; @return its lines, empty if nothing was deleted */
+    List<StockReservation.Line> deleteUnexpiredById(UUID reservationId);
+
+    /**
+     * Deletes up to {@code limit} expired lines, skipping lines another transaction is already claiming.
+     * @return the deleted lines
+     */
+    List<StockReservation.Line> deleteExpired(int limit);
+}
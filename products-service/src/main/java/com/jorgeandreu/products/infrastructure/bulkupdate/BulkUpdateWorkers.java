@@ -0,0 +1,126 @@
+package com.jorgeandreu.products.infrastructure.bulkupdate;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.port.in.RunBulkUpdatesUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs bulk update jobs on a fixed pool of {@code threads} workers, one task per SKU-range partition of a job, so
+ * one job's batches hit disjoint index ranges and lock product rows in SKU order. Every instance may run one: each
+ * tick sends the heartbeat of the jobs it runs, then claims more while it runs fewer than {@code maxJobs}. A job
+ * whose owner stops sending heartbeats (crash, failed batch) is claimed again after {@code staleAfter} and resumes
+ * at its first pending row.
+ * <p>
+ * Metrics: {@code bulk.updates.rows} (tagged by outcome), {@code bulk.updates.batch} (one transaction),
+ * {@code bulk.updates.jobs} (finished, tagged by status), {@code bulk.updates.failures}.
+ */
+@Slf4j
+public class BulkUpdateWorkers implements AutoCloseable {
+
+    private final RunBulkUpdatesUseCase run;
+    private final String owner;
+    private final int batchSize;
+    private final int maxJobs;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer batches;
+    private final Counter failures;
+
+    public BulkUpdateWorkers(RunBulkUpdatesUseCase run, String owner, int threads, int batchSize, int maxJobs,
+                             Duration interval, Duration staleAfter, int maxAttempts, MeterRegistry meterRegistry) {
+        this.run = run;
+        this.owner = owner;
+        this.batchSize = batchSize;
+        this.maxJobs = maxJobs;
+        this.staleAfter = staleAfter;
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+        this.batches = Timer.builder("bulk.updates.batch").publishPercentileHistogram().register(meterRegistry);
+        this.failures = meterRegistry.counter("bulk.updates.failures");
+        // virtual threads, but a fixed number of them: at most that many batch transactions hold a connection
+        this.workers = Executors.newFixedThreadPool(threads, Thread.ofVirtual().name("bulk-update-", 0).factory());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("bulk-update-poller").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::tick, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void tick() {
+        try {
+            run.heartbeat(owner, List.copyOf(running));
+            int free = maxJobs - running.size();
+            if (free <= 0) return;
+            for (BulkUpdateJob job : run.claim(owner, free, staleAfter, maxAttempts)) {
+                if (running.add(job.id())) start(job);
+            }
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Bulk update poll failed; retried on the next run", ex);
+        }
+    }
+
+    private void start(BulkUpdateJob job) {
+        CompletableFuture<?>[] partitions = IntStream.range(0, job.partitions())
+                .mapToObj(p -> CompletableFuture.runAsync(() -> drain(job.id(), p), workers))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(partitions).whenComplete((done, ex) -> {
+            try {
+                if (ex == null) {
+                    BulkUpdateJob finished = run.finish(job.id());
+                    meterRegistry.counter("bulk.updates.jobs", "status", finished.status().name()).increment();
+                } else {
+                    // no more heartbeats: the job is claimed again once stale, here or on another instance
+                    failures.increment();
+                    log.warn("Bulk update job {} stopped; it resumes after {}", job.id(), staleAfter, ex);
+                }
+            } catch (RuntimeException finishFailed) {
+                failures.increment();
+                log.warn("Bulk update job {} could not be finished; it resumes after {}", job.id(), staleAfter,
+                        finishFailed);
+            } finally {
+                running.remove(job.id());
+            }
+        });
+    }
+
+    void drain(UUID jobId, int partition) {
+        // a short batch is the partition's last; rows skipped meanwhile are left to the next claim (see finish)
+        List<BulkUpdateRow> rows;
+        do {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            rows = run.applyBatch(jobId, partition, batchSize);
+            sample.stop(batches);
+            rows.stream().collect(Collectors.groupingBy(BulkUpdateRow::status, Collectors.counting()))
+                    .forEach((outcome, n) -> meterRegistry.counter("bulk.updates.rows", "outcome", outcome.name())
+                            .increment(n));
+        } while (rows.size() == batchSize);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        // an interrupted batch rolls back; its rows stay pending for whoever claims the job next
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.jorgeandreu.products.infrastructure.bulkupdate;
+
+import com.jorgeandreu.products.domain.port.in.RunBulkUpdatesUseCase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Starts the {@link BulkUpdateWorkers}. Switched off with {@code products.bulk-update.workers.enabled=false}; jobs
+ * are then still accepted, and wait until an instance with workers claims them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.bulk-update.workers.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkUpdateWorkersConfig {
+
+    @Bean(destroyMethod = "close")
+    BulkUpdateWorkers bulkUpdateWorkers(
+            RunBulkUpdatesUseCase run,
+            @Value("${products.bulk-update.workers.threads:4}") int threads,
+            @Value("${products.bulk-update.batch-size:1000}") int batchSize,
+            @Value("${products.bulk-update.workers.max-jobs:2}") int maxJobs,
+            @Value("${products.bulk-update.workers.interval:1s}") Duration interval,
+            @Value("${products.bulk-update.workers.stale-after:30s}") Duration staleAfter,
+            @Value("${products.bulk-update.workers.max-attempts:3}") int maxAttempts,
+            MeterRegistry meterRegistry) {
+        return new BulkUpdateWorkers(run, owner(), threads, batchSize, maxJobs, interval, staleAfter, maxAttempts,
+                meterRegistry);
+    }
+
+    // the host for whoever reads the jobs table, plus a suffix so that a restarted instance is a new owner
+    private static String owner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
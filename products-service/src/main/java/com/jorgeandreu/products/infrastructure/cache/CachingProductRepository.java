@@ -0,0 +1,215 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates a {@link ProductRepositoryPort} with an in-process cache of {@link #findById} results.
+ * <p>
+ * Writes evict the id right away and again after the surrounding transaction completes, and each eviction records
+ * a stamp for that id. A load only caches a row if its id was not evicted while the load ran, so a read that raced
+ * the write cannot leave the pre-commit row cached, while loads of other ids carry on filling the cache. Loads never
+ * replace a newer cached version either.
+ * <p>
+ * With a {@code writeQuarantine}, ids written by this instance are not re-cached for that long after the write
+ * commits. Reads served by a lagging replica could otherwise put the pre-write row back for everyone.
+ */
+public class CachingProductRepository extends ForwardingProductRepository {
+
+    // ids whose last eviction is remembered; it only has to outlast the loads running at the time
+    private static final int TRACKED_EVICTIONS = 10_000;
+
+    private final Cache<UUID, Product> byId;
+    private final Cache<UUID, Boolean> recentlyWritten;
+    private final AtomicLong clock = new AtomicLong();
+    // an id dropped from evictedAt raises the floor to its stamp: loads started before it are no longer trusted
+    private final AtomicLong floor = new AtomicLong();
+    private final Cache<UUID, Long> evictedAt = Caffeine.newBuilder()
+            .maximumSize(TRACKED_EVICTIONS)
+            .executor(Runnable::run)
+            .evictionListener((UUID id, Long stamp, RemovalCause cause) -> floor.accumulateAndGet(stamp, Math::max))
+            .build();
+
+    public CachingProductRepository(ProductRepositoryPort delegate, Cache<UUID, Product> byId) {
+        this(delegate, byId, Duration.ZERO);
+    }
+
+    public CachingProductRepository(ProductRepositoryPort delegate, Cache<UUID, Product> byId, Duration writeQuarantine) {
+        super(delegate);
+        this.byId = byId;
+        this.recentlyWritten = writeQuarantine.isZero() ? null
+                : Caffeine.newBuilder().expireAfterWrite(writeQuarantine).<UUID, Boolean>build();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID id) {
+        Product cached = byId.getIfPresent(id);
+        if (cached != null) return Optional.of(cached);
+
+        long stamp = clock.get();
+        Optional<Product> loaded = delegate.findById(id);
+        loaded.ifPresent(p -> cacheIfNewer(p, stamp));
+        return loaded;
+    }
+
+    /** Serves cached ids and loads only the misses, in one query, caching what it loads. */
+    @Override
+    public List<Product> findAllByIds(Collection<UUID> ids) {
+        Map<UUID, Product> cached = byId.getAllPresent(ids);
+        if (cached.size() == ids.size()) return List.copyOf(cached.values());
+
+        List<UUID> misses = ids.stream().filter(id -> !cached.containsKey(id)).toList();
+        long stamp = clock.get();
+        List<Product> loaded = delegate.findAllByIds(misses);
+        loaded.forEach(p -> cacheIfNewer(p, stamp));
+
+        List<Product> all = new ArrayList<>(cached.size() + loaded.size());
+        all.addAll(cached.values());
+        all.addAll(loaded);
+        return all;
+    }
+
+    @Override
+    public List<Product> findAllBySkus(Collection<String> skus) {
+        long stamp = clock.get();
+        List<Product> loaded = delegate.findAllBySkus(skus);
+        loaded.forEach(p -> cacheIfNewer(p, stamp));
+        return loaded;
+    }
+
+    @Override
+    public Product save(Product product) {
+        Product saved = delegate.save(product);
+        evict(saved.id());
+        return saved;
+    }
+
+    @Override
+    public UpdateResult<Product> updateIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                        String category, long expectedVersion, Instant updatedAt) {
+        try {
+            return delegate.updateIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public UpdateResult<Product> patchIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                       String category, long expectedVersion, Instant updatedAt) {
+        try {
+            return delegate.patchIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public List<UpdateResult<Product>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt) {
+        List<UpdateResult<Product>> results = delegate.updateAllBySku(updates, updatedAt);
+        results.stream().filter(r -> r.value() != null).forEach(r -> evict(r.value().id()));
+        return results;
+    }
+
+    @Override
+    public boolean softDeleteById(UUID id, Instant deletedAt) {
+        try {
+            return delegate.softDeleteById(id, deletedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public boolean softDeleteIfVersionMatches(UUID id, long expectedVersion, Instant deletedAt) {
+        try {
+            return delegate.softDeleteIfVersionMatches(id, expectedVersion, deletedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public Optional<Product> decrementStock(UUID id, int quantity, Instant updatedAt) {
+        try {
+            return delegate.decrementStock(id, quantity, updatedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public Optional<Product> incrementStock(UUID id, int quantity, Instant updatedAt) {
+        try {
+            return delegate.incrementStock(id, quantity, updatedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public Optional<Product> reshardStock(UUID id, int shards, Instant updatedAt) {
+        try {
+            return delegate.reshardStock(id, shards, updatedAt);
+        } finally {
+            evict(id);
+        }
+    }
+
+    private void cacheIfNewer(Product loaded, long stamp) {
+        // checked under the entry's lock: an eviction recorded after the check waits for it, then invalidates
+        byId.asMap().compute(loaded.id(), (id, current) -> {
+            if (evictedSince(id, stamp)) return current;
+            if (recentlyWritten != null && recentlyWritten.getIfPresent(id) != null) return current;
+            return current == null || loaded.version() >= current.version() ? loaded : current;
+        });
+    }
+
+    /** Whether {@code id} may have been written after a load that started at {@code stamp}. */
+    private boolean evictedSince(UUID id, long stamp) {
+        Long evicted = evictedAt.getIfPresent(id);
+        // the floor is read second: it is raised before an id leaves evictedAt
+        return evicted != null ? evicted > stamp : floor.get() > stamp;
+    }
+
+    private void evict(UUID id) {
+        quarantine(id);
+        stamp(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    quarantine(id); // restart the window: replicas only see the row once it commits
+                    stamp(id);
+                }
+            });
+        }
+    }
+
+    private void stamp(UUID id) {
+        evictedAt.put(id, clock.incrementAndGet());
+        byId.invalidate(id);
+    }
+
+    private void quarantine(UUID id) {
+        if (recentlyWritten != null) recentlyWritten.put(id, Boolean.TRUE);
+    }
+}
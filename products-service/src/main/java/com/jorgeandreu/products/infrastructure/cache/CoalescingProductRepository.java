@@ -0,0 +1,34 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import com.jorgeandreu.products.infrastructure.db.replica.ReadYourWrites;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Decorates a {@link ProductRepositoryPort} so that concurrent {@link #findById} calls for the same id share a single
+ * query. Calls made inside a read-write transaction bypass coalescing: they must see their own uncommitted writes.
+ * So do calls pinned to the primary by {@link ReadYourWrites}, which must not join a load served by a lagging replica.
+ */
+public class CoalescingProductRepository extends ForwardingProductRepository {
+
+    private final SingleFlight<UUID, Optional<Product>> loads;
+
+    public CoalescingProductRepository(ProductRepositoryPort delegate, SingleFlight<UUID, Optional<Product>> loads) {
+        super(delegate);
+        this.loads = loads;
+    }
+
+    @Override
+    public Optional<Product> findById(UUID id) {
+        boolean readWrite = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readWrite || ReadYourWrites.isPinned()) {
+            return delegate.findById(id);
+        }
+        return loads.load(id, delegate::findById);
+    }
+}
@@ -0,0 +1,46 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jorgeandreu.products.domain.model.FacetRequest;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+
+/**
+ * Decorates a {@link ProductRepositoryPort} with a short-lived cache of {@link #facets} results, keyed by the filters
+ * that affect them. Paging through a search, or re-sorting it, then costs one aggregate query per expiry instead of
+ * one per request.
+ * <p>
+ * Writes do not evict: counts are approximate by nature, and any change is visible once the entry expires.
+ */
+public class FacetCachingProductRepository extends ForwardingProductRepository {
+
+    /** The criteria fields facets depend on, normalized the way the filters compare them. */
+    record Key(String category, Double minPrice, Double maxPrice, String text, boolean includeDeleted,
+               FacetRequest facets) {
+
+        static Key of(SearchCriteria criteria) {
+            return new Key(SearchKeys.term(criteria.category()), criteria.minPrice(), criteria.maxPrice(),
+                    SearchKeys.term(criteria.text()), criteria.includeDeleted(), criteria.facets());
+        }
+    }
+
+    private final Cache<Key, SearchFacets> facets;
+
+    public FacetCachingProductRepository(ProductRepositoryPort delegate, Cache<Key, SearchFacets> facets) {
+        super(delegate);
+        this.facets = facets;
+    }
+
+    @Override
+    public SearchFacets facets(SearchCriteria criteria) {
+        // not Cache.get(key, loader): Caffeine runs the loader inside a ConcurrentHashMap bin lock, which would pin a
+        // virtual thread's carrier for the whole query. Two concurrent misses may both query; the result is the same.
+        Key key = Key.of(criteria);
+        SearchFacets cached = facets.getIfPresent(key);
+        if (cached != null) return cached;
+        SearchFacets loaded = delegate.facets(SearchKeys.canonical(criteria));
+        facets.put(key, loaded);
+        return loaded;
+    }
+}
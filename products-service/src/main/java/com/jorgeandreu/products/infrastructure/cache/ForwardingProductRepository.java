@@ -0,0 +1,123 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ProductRepositoryPort} that hands every call to {@code delegate}. The caching decorators extend it and
+ * override only the methods they intercept, so a method added to the port is forwarded by all of them at once.
+ */
+public abstract class ForwardingProductRepository implements ProductRepositoryPort {
+
+    protected final ProductRepositoryPort delegate;
+
+    protected ForwardingProductRepository(ProductRepositoryPort delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean existsBySku(String sku) {
+        return delegate.existsBySku(sku);
+    }
+
+    @Override
+    public Product save(Product product) {
+        return delegate.save(product);
+    }
+
+    @Override
+    public Optional<Product> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findAllByIds(Collection<UUID> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Product> findAllBySkus(Collection<String> skus) {
+        return delegate.findAllBySkus(skus);
+    }
+
+    @Override
+    public PageResult<Product> search(SearchCriteria criteria) {
+        return delegate.search(criteria);
+    }
+
+    @Override
+    public SearchFacets facets(SearchCriteria criteria) {
+        return delegate.facets(criteria);
+    }
+
+    @Override
+    public boolean softDeleteById(UUID id, Instant deletedAt) {
+        return delegate.softDeleteById(id, deletedAt);
+    }
+
+    @Override
+    public boolean softDeleteIfVersionMatches(UUID id, long expectedVersion, Instant deletedAt) {
+        return delegate.softDeleteIfVersionMatches(id, expectedVersion, deletedAt);
+    }
+
+    @Override
+    public UpdateResult<Product> updateIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                        String category, long expectedVersion, Instant updatedAt) {
+        return delegate.updateIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+    }
+
+    @Override
+    public UpdateResult<Product> patchIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                       String category, long expectedVersion, Instant updatedAt) {
+        return delegate.patchIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+    }
+
+    @Override
+    public List<UpdateResult<Product>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt) {
+        return delegate.updateAllBySku(updates, updatedAt);
+    }
+
+    @Override
+    public Optional<Product> decrementStock(UUID id, int quantity, Instant updatedAt) {
+        return delegate.decrementStock(id, quantity, updatedAt);
+    }
+
+    @Override
+    public Optional<Product> incrementStock(UUID id, int quantity, Instant updatedAt) {
+        return delegate.incrementStock(id, quantity, updatedAt);
+    }
+
+    @Override
+    public Optional<Product> reshardStock(UUID id, int shards, Instant updatedAt) {
+        return delegate.reshardStock(id, shards, updatedAt);
+    }
+
+    @Override
+    public Set<UUID> insertAllIfSkuAbsent(List<Product> products) {
+        return delegate.insertAllIfSkuAbsent(products);
+    }
+
+    @Override
+    public Stream<Product> streamAll(SearchCriteria criteria) {
+        return delegate.streamAll(criteria);
+    }
+
+    @Override
+    public boolean existsActiveById(UUID id) {
+        return delegate.existsActiveById(id);
+    }
+}
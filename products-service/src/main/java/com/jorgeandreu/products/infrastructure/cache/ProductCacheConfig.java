@@ -0,0 +1,113 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import com.jorgeandreu.products.infrastructure.db.ProductRepositoryAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Assembles the read path in front of the JPA adapter: {@link FacetCachingProductRepository} over
+ * {@link SearchCachingProductRepository} over {@link CachingProductRepository} over
+ * {@link CoalescingProductRepository} over {@link ProductRepositoryAdapter}. Each layer can be switched off on its own.
+ * <p>
+ * Cache hit/miss/eviction counters are published as {@code cache.gets}, {@code cache.evictions}, ... tagged
+ * {@code cache=products.by-id}, {@code cache=products.search} and {@code cache=products.facets}.
+ * <p>
+ * With a read replica, written ids (and, after any write, search pages) are kept out of the caches for
+ * {@code max-lag + lag-check-interval} after the write, the longest a replica that still serves reads can be behind.
+ */
+@Configuration
+public class ProductCacheConfig {
+
+    static final String CACHE_NAME = "products.by-id";
+    static final String SEARCH_CACHE_NAME = "products.search";
+    static final String FACETS_CACHE_NAME = "products.facets";
+
+    @Bean
+    @ConditionalOnProperty(name = "products.cache.by-id.enabled", havingValue = "true", matchIfMissing = true)
+    Cache<UUID, Product> productByIdCache(
+            @Value("${products.cache.by-id.maximum-size:10000}") long maximumSize,
+            @Value("${products.cache.by-id.expire-after-write:5m}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        Cache<UUID, Product> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.cache.search.enabled", havingValue = "true", matchIfMissing = true)
+    Cache<SearchCachingProductRepository.Key, PageResult<Product>> productSearchCache(
+            @Value("${products.cache.search.maximum-size:2000}") long maximumSize,
+            @Value("${products.cache.search.expire-after-write:10s}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        Cache<SearchCachingProductRepository.Key, PageResult<Product>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, SEARCH_CACHE_NAME);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.cache.facets.enabled", havingValue = "true", matchIfMissing = true)
+    Cache<FacetCachingProductRepository.Key, SearchFacets> productFacetsCache(
+            @Value("${products.cache.facets.maximum-size:1000}") long maximumSize,
+            @Value("${products.cache.facets.expire-after-write:30s}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        Cache<FacetCachingProductRepository.Key, SearchFacets> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, FACETS_CACHE_NAME);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "products.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+    SingleFlight<UUID, Optional<Product>> productLoads(
+            @Value("${products.coalescing.wait-timeout:2s}") Duration waitTimeout,
+            MeterRegistry meterRegistry) {
+        return new SingleFlight<>(CACHE_NAME, waitTimeout, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    ProductRepositoryPort productRepository(ProductRepositoryAdapter jpaAdapter,
+                                            ObjectProvider<SingleFlight<UUID, Optional<Product>>> productLoads,
+                                            ObjectProvider<Cache<UUID, Product>> productByIdCache,
+                                            ObjectProvider<Cache<SearchCachingProductRepository.Key, PageResult<Product>>> productSearchCache,
+                                            ObjectProvider<Cache<FacetCachingProductRepository.Key, SearchFacets>> productFacetsCache,
+                                            @Value("${products.datasource.replica.enabled:false}") boolean replicaEnabled,
+                                            @Value("${products.datasource.replica.max-lag:5s}") Duration replicaMaxLag,
+                                            @Value("${products.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval) {
+        ProductRepositoryPort port = jpaAdapter;
+        SingleFlight<UUID, Optional<Product>> loads = productLoads.getIfAvailable();
+        if (loads != null) port = new CoalescingProductRepository(port, loads);
+        Duration writeQuarantine = replicaEnabled ? replicaMaxLag.plus(lagCheckInterval) : Duration.ZERO;
+        Cache<UUID, Product> cache = productByIdCache.getIfAvailable();
+        if (cache != null) port = new CachingProductRepository(port, cache, writeQuarantine);
+        Cache<SearchCachingProductRepository.Key, PageResult<Product>> pages = productSearchCache.getIfAvailable();
+        if (pages != null) port = new SearchCachingProductRepository(port, pages, writeQuarantine);
+        Cache<FacetCachingProductRepository.Key, SearchFacets> facets = productFacetsCache.getIfAvailable();
+        if (facets != null) port = new FacetCachingProductRepository(port, facets);
+        return port;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import com.jorgeandreu.products.infrastructure.db.replica.ReadYourWrites;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorates a {@link ProductRepositoryPort} with a short-lived cache of {@link #search} pages, keyed by the
+ * canonical criteria, so the handful of hot listings (landing pages, first page of a category) stop running the
+ * same query and count over and over.
+ * <p>
+ * Invalidation is generation-based: every key carries the write generation, and any product write through this
+ * instance bumps it, right away and again after the surrounding transaction completes. Earlier pages become
+ * unreachable at once and age out of the bounded cache. Writes made by other instances show up once the TTL passes.
+ * <p>
+ * Searches inside a read-write transaction, or pinned to the primary by {@link ReadYourWrites}, bypass the cache.
+ * With a {@code writeQuarantine}, nothing is cached for that long after a write, since a lagging replica may still
+ * serve the pre-write rows.
+ */
+public class SearchCachingProductRepository extends ForwardingProductRepository {
+
+    /** Everything a page depends on, in canonical form, plus the write generation it was read under. */
+    record Key(long generation, int page, int size, String sort, String category, Double minPrice, Double maxPrice,
+               String text, boolean includeDeleted, String cursor, CountMode countMode) {
+
+        static Key of(long generation, SearchCriteria c) {
+            return new Key(generation, c.page(), c.size(), c.sort(), c.category(), c.minPrice(), c.maxPrice(),
+                    c.text(), c.includeDeleted(), c.cursor(), c.effectiveCountMode());
+        }
+    }
+
+    private final Cache<Key, PageResult<Product>> pages;
+    private final long writeQuarantineNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastWriteNanos;
+
+    public SearchCachingProductRepository(ProductRepositoryPort delegate, Cache<Key, PageResult<Product>> pages) {
+        this(delegate, pages, Duration.ZERO);
+    }
+
+    public SearchCachingProductRepository(ProductRepositoryPort delegate, Cache<Key, PageResult<Product>> pages,
+                                          Duration writeQuarantine) {
+        super(delegate);
+        this.pages = pages;
+        this.writeQuarantineNanos = writeQuarantine.toNanos();
+    }
+
+    @Override
+    public PageResult<Product> search(SearchCriteria criteria) {
+        boolean readWrite = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readWrite || ReadYourWrites.isPinned()) {
+            return delegate.search(criteria);
+        }
+
+        SearchCriteria canonical = SearchKeys.canonical(criteria);
+        Key key = Key.of(generation.get(), canonical);
+        PageResult<Product> cached = pages.getIfPresent(key);
+        if (cached != null) return cached;
+
+        PageResult<Product> loaded = delegate.search(canonical);
+        // a write that landed while the query ran may or may not be in the result: keep it out of the cache
+        if (key.generation() == generation.get() && !inWriteQuarantine()) {
+            pages.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public Product save(Product product) {
+        return written(() -> delegate.save(product));
+    }
+
+    @Override
+    public UpdateResult<Product> updateIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                        String category, long expectedVersion, Instant updatedAt) {
+        return written(() -> delegate.updateIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt));
+    }
+
+    @Override
+    public UpdateResult<Product> patchIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                       String category, long expectedVersion, Instant updatedAt) {
+        return written(() -> delegate.patchIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt));
+    }
+
+    @Override
+    public List<UpdateResult<Product>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt) {
+        return written(() -> delegate.updateAllBySku(updates, updatedAt));
+    }
+
+    @Override
+    public boolean softDeleteById(UUID id, Instant deletedAt) {
+        return written(() -> delegate.softDeleteById(id, deletedAt));
+    }
+
+    @Override
+    public boolean softDeleteIfVersionMatches(UUID id, long expectedVersion, Instant deletedAt) {
+        return written(() -> delegate.softDeleteIfVersionMatches(id, expectedVersion, deletedAt));
+    }
+
+    @Override
+    public Optional<Product> decrementStock(UUID id, int quantity, Instant updatedAt) {
+        return written(() -> delegate.decrementStock(id, quantity, updatedAt));
+    }
+
+    @Override
+    public Optional<Product> incrementStock(UUID id, int quantity, Instant updatedAt) {
+        return written(() -> delegate.incrementStock(id, quantity, updatedAt));
+    }
+
+    @Override
+    public Optional<Product> reshardStock(UUID id, int shards, Instant updatedAt) {
+        return written(() -> delegate.reshardStock(id, shards, updatedAt));
+    }
+
+    @Override
+    public Set<UUID> insertAllIfSkuAbsent(List<Product> products) {
+        return written(() -> delegate.insertAllIfSkuAbsent(products));
+    }
+
+    private <T> T written(Supplier<T> write) {
+        try {
+            return write.get();
+        } finally {
+            invalidate();
+        }
+    }
+
+    private void invalidate() {
+        bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(); // reads that ran before the commit saw the old rows
+                }
+            });
+        }
+    }
+
+    private void bump() {
+        lastWriteNanos = System.nanoTime();
+        generation.incrementAndGet();
+    }
+
+    private boolean inWriteQuarantine() {
+        return writeQuarantineNanos > 0 && generation.get() > 0 && System.nanoTime() - lastWriteNanos < writeQuarantineNanos;
+    }
+}
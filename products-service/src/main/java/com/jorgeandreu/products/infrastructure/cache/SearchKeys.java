@@ -0,0 +1,51 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+
+import java.util.Locale;
+
+/**
+ * Canonical forms of the search criteria fields, so requests that differ only in case, padding or an implied default
+ * share one cache entry. Each form matches the way the filters compare the field, so it never changes the result.
+ */
+final class SearchKeys {
+
+    private SearchKeys() {}
+
+    /** Category and text: compared lower-cased by the filters; blank means no filter. */
+    static String term(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * {@code "price"}, {@code " price , DESC"} and {@code "price,desc"} all sort the same way: descending; fields
+     * are joined by {@code ;}. Malformed sorts are passed through for the sort planner to reject.
+     */
+    static String sort(String sort) {
+        if (sort == null || sort.isBlank()) return null;
+        StringBuilder canonical = new StringBuilder();
+        boolean directed = true;
+        for (String raw : sort.split("[,;]")) {
+            String token = raw.trim();
+            if (token.isEmpty()) continue;
+            boolean direction = "asc".equalsIgnoreCase(token) || "desc".equalsIgnoreCase(token);
+            if (direction) {
+                if (directed) return sort;
+                canonical.append(',').append(token.toLowerCase(Locale.ROOT));
+            } else {
+                if (!directed) canonical.append(",desc");
+                if (!canonical.isEmpty()) canonical.append(';');
+                canonical.append(token);
+            }
+            directed = direction;
+        }
+        if (!directed) canonical.append(",desc");
+        return canonical.isEmpty() ? null : canonical.toString();
+    }
+
+    /** The criteria with every field in canonical form, so the query run on a miss is the one the key stands for. */
+    static SearchCriteria canonical(SearchCriteria c) {
+        return new SearchCriteria(c.page(), c.size(), sort(c.sort()), term(c.category()), c.minPrice(), c.maxPrice(),
+                term(c.text()), c.includeDeleted(), c.cursor(), c.countMode(), c.facets());
+    }
+}
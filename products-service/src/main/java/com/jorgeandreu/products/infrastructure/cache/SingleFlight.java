@@ -0,0 +1,82 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into one call: the first caller runs the loader, callers arriving while
+ * it is in flight wait for its result. A waiter that is not served within {@code timeout} stops waiting and runs the
+ * loader itself, so a stuck leader degrades to the uncoalesced behaviour instead of failing requests.
+ * <p>
+ * Publishes {@code singleflight.coalesced} (callers served by another caller's load) and
+ * {@code singleflight.timeouts} (waiters that gave up), both tagged {@code name}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry registry) {
+        this.timeout = timeout;
+        this.coalesced = Counter.builder("singleflight.coalesced")
+                .description("Loads served by a concurrent in-flight load of the same key")
+                .tag("name", name)
+                .register(registry);
+        this.timeouts = Counter.builder("singleflight.timeouts")
+                .description("Waiters that gave up on an in-flight load and loaded on their own")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return await(key, leader, loader);
+        }
+        try {
+            V value = loader.apply(key);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> leader, Function<? super K, ? extends V> loader) {
+        try {
+            V value = leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            return loader.apply(key);
+        } catch (ExecutionException ex) {
+            coalesced.increment();
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load of " + key, ex);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.port.out.BulkUpdateJobRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Heartbeats and staleness are judged by the database clock, so every instance agrees on whether a job's owner is
+ * still alive.
+ * <p>
+ * Batches add their outcomes to a counter row of their own partition in {@code product_bulk_update_progress}, never
+ * to the job row, so partitions committing at the same time do not wait on each other. The job's counters are
+ * summed from those rows when it is read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkUpdateJobJdbcRepository implements BulkUpdateJobRepositoryPort {
+
+    // every statement reading a job names it j
+    private static final String JOB_COLUMNS = """
+            j.id, j.status, j.partitions, j.total, j.invalid, j.error, j.created_at, j.started_at, j.finished_at,
+            (SELECT coalesce(sum(updated), 0) FROM product_bulk_update_progress p WHERE p.job_id = j.id) AS updated,
+            (SELECT coalesce(sum(conflicts), 0) FROM product_bulk_update_progress p WHERE p.job_id = j.id) AS conflicts,
+            (SELECT coalesce(sum(not_found), 0) FROM product_bulk_update_progress p WHERE p.job_id = j.id)
+                AS not_found""";
+
+    private static final String ROW_COLUMNS = "line, sku, price, stock, version, status, error";
+
+    private static final String INSERT_JOB = """
+            INSERT INTO product_bulk_update_jobs (id, status, partitions, created_at, heartbeat_at)
+            VALUES (:jobId, 'UPLOADING', :partitions, :createdAt, now())
+            """;
+
+    // one statement per batch, as arrays: a constant statement whatever the batch size, and typed nulls
+    private static final String INSERT_ROWS = """
+            INSERT INTO product_bulk_update_rows (job_id, line, sku, price, stock, version, status, error)
+            SELECT :jobId, r.*
+            FROM unnest(:lines, :skus, :prices, :stocks, :versions, :statuses, :errors)
+                AS r(line, sku, price, stock, version, status, error)
+            """;
+
+    // an upload still being received keeps its job from being failed as interrupted
+    private static final String TOUCH_UPLOAD = """
+            UPDATE product_bulk_update_jobs SET heartbeat_at = now()
+            WHERE id = :jobId AND status = 'UPLOADING'
+            """;
+
+    // the last line of a SKU wins, as if the rows were applied in file order
+    private static final String REJECT_REPEATED_SKUS = """
+            UPDATE product_bulk_update_rows r
+            SET status = 'INVALID', error = 'superseded by line ' || d.last_line
+            FROM (
+                SELECT line, max(line) OVER (PARTITION BY sku) AS last_line
+                FROM product_bulk_update_rows
+                WHERE job_id = :jobId AND status = 'PENDING'
+            ) d
+            WHERE r.job_id = :jobId AND r.line = d.line AND d.line <> d.last_line
+            """;
+
+    // SKUs are unique among the pending rows by now, so ntile cuts the SKU order into ranges of equal size
+    private static final String ASSIGN_PARTITIONS = """
+            UPDATE product_bulk_update_rows r
+            SET part = p.part
+            FROM (
+                SELECT line, ntile(:partitions) OVER (ORDER BY sku) - 1 AS part
+                FROM product_bulk_update_rows
+                WHERE job_id = :jobId AND status = 'PENDING'
+            ) p
+            WHERE r.job_id = :jobId AND r.line = p.line
+            """;
+
+    private static final String QUEUE = """
+            UPDATE product_bulk_update_jobs j
+            SET status = 'QUEUED', total = c.row_count, invalid = c.invalid_count, heartbeat_at = NULL
+            FROM (
+                SELECT count(*) AS row_count, count(*) FILTER (WHERE status = 'INVALID') AS invalid_count
+                FROM product_bulk_update_rows
+                WHERE job_id = :jobId
+            ) c
+            WHERE j.id = :jobId AND j.status = 'UPLOADING'
+            RETURNING %s
+            """.formatted(JOB_COLUMNS);
+
+    private static final String FIND_BY_ID =
+            "SELECT " + JOB_COLUMNS + " FROM product_bulk_update_jobs j WHERE j.id = :jobId";
+
+    private static final String FAIL_INTERRUPTED_UPLOADS = """
+            UPDATE product_bulk_update_jobs
+            SET status = 'FAILED', error = 'Upload interrupted', finished_at = now()
+            WHERE status = 'UPLOADING' AND heartbeat_at < now() - make_interval(secs => :staleSeconds)
+            """;
+
+    private static final String FAIL_EXHAUSTED = """
+            UPDATE product_bulk_update_jobs
+            SET status = 'FAILED', error = 'Gave up after ' || attempts || ' attempts', owner = NULL,
+                finished_at = now()
+            WHERE status IN ('QUEUED', 'RUNNING')
+              AND (owner IS NULL OR heartbeat_at < now() - make_interval(secs => :staleSeconds))
+              AND attempts >= :maxAttempts
+            """;
+
+    // SKIP LOCKED: instances polling at the same moment take different jobs instead of waiting on each other
+    private static final String CLAIM = """
+            UPDATE product_bulk_update_jobs j
+            SET status = 'RUNNING', owner = :owner, heartbeat_at = now(), attempts = attempts + 1,
+                started_at = coalesce(started_at, now())
+            FROM (
+                SELECT id AS due_id
+                FROM product_bulk_update_jobs
+                WHERE status IN ('QUEUED', 'RUNNING')
+                  AND (owner IS NULL OR heartbeat_at < now() - make_interval(secs => :staleSeconds))
+                  AND attempts < :maxAttempts
+                ORDER BY created_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE j.id = due.due_id
+            RETURNING %s
+            """.formatted(JOB_COLUMNS);
+
+    private static final String HEARTBEAT = """
+            UPDATE product_bulk_update_jobs SET heartbeat_at = now()
+            WHERE id = ANY(:jobIds) AND owner = :owner AND status = 'RUNNING'
+            """;
+
+    // rows another worker holds are skipped; a partition has one worker, so that only happens after a takeover
+    private static final String LOCK_PENDING = """
+            SELECT %s
+            FROM product_bulk_update_rows
+            WHERE job_id = :jobId AND part = :part AND status = 'PENDING'
+            ORDER BY sku
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """.formatted(ROW_COLUMNS);
+
+    private static final String COMPLETE_ROWS = """
+            UPDATE product_bulk_update_rows r
+            SET status = o.status, error = o.error
+            FROM unnest(:lines, :statuses, :errors) AS o(line, status, error)
+            WHERE r.job_id = :jobId AND r.line = o.line
+            """;
+
+    private static final String COUNT = """
+            INSERT INTO product_bulk_update_progress AS p (job_id, part, updated, conflicts, not_found)
+            VALUES (:jobId, :part, :updated, :conflicts, :notFound)
+            ON CONFLICT (job_id, part) DO UPDATE
+            SET updated = p.updated + excluded.updated,
+                conflicts = p.conflicts + excluded.conflicts,
+                not_found = p.not_found + excluded.not_found
+            """;
+
+    private static final String FINISH = """
+            UPDATE product_bulk_update_jobs j
+            SET status = CASE WHEN p.pending THEN 'QUEUED' ELSE 'COMPLETED' END,
+                owner = NULL,
+                finished_at = CASE WHEN p.pending THEN NULL ELSE :finishedAt END
+            FROM (
+                SELECT EXISTS (
+                    SELECT 1 FROM product_bulk_update_rows WHERE job_id = :jobId AND status = 'PENDING'
+                ) AS pending
+            ) p
+            WHERE j.id = :jobId AND j.status = 'RUNNING'
+            """;
+
+    private static final String FIND_REJECTED = """
+            SELECT %s
+            FROM product_bulk_update_rows
+            WHERE job_id = :jobId AND line > :afterLine AND status IN ('VERSION_CONFLICT', 'NOT_FOUND', 'INVALID')
+            ORDER BY line
+            LIMIT :limit
+            """.formatted(ROW_COLUMNS);
+
+    private static final RowMapper<BulkUpdateJob> JOB = (rs, n) -> new BulkUpdateJob(
+            rs.getObject("id", UUID.class),
+            BulkUpdateJob.Status.valueOf(rs.getString("status")),
+            rs.getInt("partitions"),
+            rs.getLong("total"),
+            rs.getLong("updated"),
+            rs.getLong("conflicts"),
+            rs.getLong("not_found"),
+            rs.getLong("invalid"),
+            rs.getString("error"),
+            instant(rs, "created_at"),
+            instant(rs, "started_at"),
+            instant(rs, "finished_at"));
+
+    private static final RowMapper<BulkUpdateRow> ROW = (rs, n) -> new BulkUpdateRow(
+            rs.getLong("line"),
+            rs.getString("sku"),
+            rs.getBigDecimal("price"),
+            rs.getObject("stock", Integer.class),
+            rs.getObject("version", Long.class),
+            BulkUpdateRow.Status.valueOf(rs.getString("status")),
+            rs.getString("error"));
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Override
+    public void create(UUID jobId, int partitions, Instant createdAt) {
+        jdbc.update(INSERT_JOB, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("partitions", partitions)
+                .addValue("createdAt", Timestamp.from(createdAt)));
+    }
+
+    @Override
+    public void stage(UUID jobId, List<BulkUpdateRow> rows) {
+        if (rows.isEmpty()) return;
+        var params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("lines", new SqlArrayValue("int8", rows.stream().map(BulkUpdateRow::line).toArray()))
+                .addValue("skus", new SqlArrayValue("varchar", rows.stream().map(BulkUpdateRow::sku).toArray()))
+                .addValue("prices", new SqlArrayValue("numeric", rows.stream().map(BulkUpdateRow::price).toArray()))
+                .addValue("stocks", new SqlArrayValue("int4", rows.stream().map(BulkUpdateRow::stock).toArray()))
+                .addValue("versions", new SqlArrayValue("int8", rows.stream().map(BulkUpdateRow::version).toArray()))
+                .addValue("statuses", statuses(rows))
+                .addValue("errors", errors(rows));
+        jdbc.update(INSERT_ROWS, params);
+        jdbc.update(TOUCH_UPLOAD, new MapSqlParameterSource("jobId", jobId));
+    }
+
+    @Override
+    public BulkUpdateJob queue(UUID jobId) {
+        var params = new MapSqlParameterSource("jobId", jobId);
+        Integer partitions = jdbc.queryForObject(
+                "SELECT partitions FROM product_bulk_update_jobs WHERE id = :jobId", params, Integer.class);
+        jdbc.update(REJECT_REPEATED_SKUS, params);
+        jdbc.update(ASSIGN_PARTITIONS, new MapSqlParameterSource("jobId", jobId).addValue("partitions", partitions));
+        return jdbc.query(QUEUE, params, JOB).stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Bulk update job " + jobId + " is no longer uploading"));
+    }
+
+    @Override
+    public Optional<BulkUpdateJob> findById(UUID jobId) {
+        return jdbc.query(FIND_BY_ID, new MapSqlParameterSource("jobId", jobId), JOB).stream().findFirst();
+    }
+
+    @Override
+    public List<BulkUpdateJob> claim(String owner, int limit, Duration staleAfter, int maxAttempts) {
+        var params = new MapSqlParameterSource()
+                .addValue("owner", owner)
+                .addValue("limit", limit)
+                .addValue("staleSeconds", staleAfter.toMillis() / 1000.0)
+                .addValue("maxAttempts", maxAttempts);
+        jdbc.update(FAIL_INTERRUPTED_UPLOADS, params);
+        jdbc.update(FAIL_EXHAUSTED, params);
+        return jdbc.query(CLAIM, params, JOB);
+    }
+
+    @Override
+    public void heartbeat(String owner, Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) return;
+        jdbc.update(HEARTBEAT, new MapSqlParameterSource()
+                .addValue("owner", owner)
+                .addValue("jobIds", new SqlArrayValue("uuid", jobIds.toArray())));
+    }
+
+    @Override
+    public List<BulkUpdateRow> lockPending(UUID jobId, int partition, int limit) {
+        return jdbc.query(LOCK_PENDING, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("part", partition)
+                .addValue("limit", limit), ROW);
+    }
+
+    @Override
+    public void complete(UUID jobId, int partition, List<BulkUpdateRow> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.update(COMPLETE_ROWS, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("lines", new SqlArrayValue("int8", rows.stream().map(BulkUpdateRow::line).toArray()))
+                .addValue("statuses", statuses(rows))
+                .addValue("errors", errors(rows)));
+        jdbc.update(COUNT, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("part", partition)
+                .addValue("updated", count(rows, BulkUpdateRow.Status.UPDATED))
+                .addValue("conflicts", count(rows, BulkUpdateRow.Status.VERSION_CONFLICT))
+                .addValue("notFound", count(rows, BulkUpdateRow.Status.NOT_FOUND)));
+    }
+
+    @Override
+    public BulkUpdateJob finish(UUID jobId, Instant finishedAt) {
+        jdbc.update(FINISH, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("finishedAt", Timestamp.from(finishedAt)));
+        // a job no longer RUNNING (failed meanwhile) is returned as it is
+        return findById(jobId).orElseThrow();
+    }
+
+    @Override
+    public List<BulkUpdateRow> findRejected(UUID jobId, long afterLine, int limit) {
+        return jdbc.query(FIND_REJECTED, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("afterLine", afterLine)
+                .addValue("limit", limit), ROW);
+    }
+
+    private static SqlArrayValue statuses(List<BulkUpdateRow> rows) {
+        return new SqlArrayValue("varchar", rows.stream().map(r -> r.status().name()).toArray());
+    }
+
+    private static SqlArrayValue errors(List<BulkUpdateRow> rows) {
+        return new SqlArrayValue("text", rows.stream().map(BulkUpdateRow::error).toArray());
+    }
+
+    private static long count(List<BulkUpdateRow> rows, BulkUpdateRow.Status status) {
+        return rows.stream().filter(r -> r.status() == status).count();
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp ts = rs.getTimestamp(column);
+        return ts == null ? null : ts.toInstant();
+    }
+}
@@ -0,0 +1,158 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many connections may be checked out of the wrapped datasource at once, and how long a caller waits for
+ * one. With request handling on virtual threads nothing else bounds concurrency: every request that reaches the
+ * database would otherwise queue inside the pool for its full connection timeout. Past the limit, callers wait at
+ * most {@code acquireTimeout} and then fail with {@link DbSaturatedException}, which the API reports as 503.
+ * <p>
+ * A permit is held from {@code getConnection()} until that connection is closed, i.e. for the whole transaction.
+ * The semaphores are fair, and park virtual threads without pinning their carrier.
+ * <p>
+ * Connections that stay open for as long as a client reads, such as the export cursor, take theirs through
+ * {@link #streamingConnection} from a separate budget of {@code maxStreaming}, so slow downloads cannot starve
+ * request traffic. Both budgets draw on the same pool, which should hold at least
+ * {@code maxConcurrent + maxStreaming} connections; otherwise permitted callers queue inside the pool.
+ * <p>
+ * Metrics: {@code db.limiter.in-use}, {@code db.limiter.waiting} (gauges), {@code db.limiter.rejected}, and the
+ * same three under {@code db.limiter.streaming}.
+ */
+public class DbConcurrencyLimiter extends DelegatingDataSource {
+
+    private final Duration acquireTimeout;
+    private final Budget requests;
+    private final Budget streaming;
+
+    public DbConcurrencyLimiter(DataSource target, int maxConcurrent, int maxStreaming, Duration acquireTimeout,
+                                MeterRegistry registry) {
+        super(target);
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be >= 1");
+        if (maxStreaming < 1) throw new IllegalArgumentException("maxStreaming must be >= 1");
+        this.acquireTimeout = acquireTimeout;
+        this.requests = new Budget("db.limiter", maxConcurrent, registry);
+        this.streaming = new Budget("db.limiter.streaming", maxStreaming, registry);
+    }
+
+    /**
+     * A connection for a cursor that lives as long as a client transfer. Taken from the streaming budget when
+     * {@code dataSource} is a limiter, straight from {@code dataSource} otherwise.
+     */
+    public static Connection streamingConnection(DataSource dataSource) throws SQLException {
+        if (dataSource instanceof DbConcurrencyLimiter limiter) {
+            limiter.acquire(limiter.streaming);
+            return limiter.guarded(limiter.streaming, limiter::getTargetConnection);
+        }
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire(requests);
+        return guarded(requests, this::getTargetConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire(requests);
+        return guarded(requests, () -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    int inUse() {
+        return requests.inUse();
+    }
+
+    int streamingInUse() {
+        return streaming.inUse();
+    }
+
+    private Connection getTargetConnection() throws SQLException {
+        return obtainTargetDataSource().getConnection();
+    }
+
+    private void acquire(Budget budget) throws SQLException {
+        try {
+            if (!budget.permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                budget.rejected.increment();
+                throw new DbSaturatedException(budget.max, acquireTimeout);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", ex);
+        }
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /** Hands out the connection with a close() that returns the permit exactly once; if opening fails, returns it now. */
+    private Connection guarded(Budget budget, ConnectionSupplier open) throws SQLException {
+        Semaphore permits = budget.permits;
+        Connection connection;
+        try {
+            connection = open.get();
+        } catch (SQLException | RuntimeException | Error ex) {
+            permits.release();
+            throw ex;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+
+    /** One pool of permits with its metrics, registered under {@code prefix}. */
+    private static final class Budget {
+
+        private final int max;
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        Budget(String prefix, int max, MeterRegistry registry) {
+            this.max = max;
+            this.permits = new Semaphore(max, true);
+            this.rejected = Counter.builder(prefix + ".rejected")
+                    .description("Connection requests refused after waiting the acquire timeout for a permit")
+                    .register(registry);
+            Gauge.builder(prefix + ".in-use", permits, p -> max - p.availablePermits())
+                    .description("Connections currently checked out through the limiter")
+                    .register(registry);
+            Gauge.builder(prefix + ".waiting", permits, Semaphore::getQueueLength)
+                    .description("Callers waiting for a permit (estimate)")
+                    .register(registry);
+        }
+
+        int inUse() {
+            return max - permits.availablePermits();
+        }
+    }
+}
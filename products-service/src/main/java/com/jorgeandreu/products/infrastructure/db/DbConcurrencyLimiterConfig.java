@@ -0,0 +1,40 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application datasource (the bean named {@code dataSource}: the Hikari pool, or the replica routing
+ * proxy) in a {@link DbConcurrencyLimiter}. Enabled by {@code products.db.limiter.enabled}.
+ * <p>
+ * Size the pool for both budgets: {@code spring.datasource.hikari.maximum-pool-size} should be at least
+ * {@code max-concurrent + max-streaming}, so a caller holding a permit never also waits for a pooled connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.db.limiter.enabled", havingValue = "true")
+public class DbConcurrencyLimiterConfig {
+
+    @Bean
+    static BeanPostProcessor dbConcurrencyLimiterPostProcessor(Environment env, ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) return bean;
+                int maxConcurrent = env.getProperty("products.db.limiter.max-concurrent", Integer.class, 10);
+                int maxStreaming = env.getProperty("products.db.limiter.max-streaming", Integer.class, 2);
+                Duration acquireTimeout = env.getProperty("products.db.limiter.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(1));
+                return new DbConcurrencyLimiter(dataSource, maxConcurrent, maxStreaming, acquireTimeout,
+                        registry.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+/**
+ * No database permit became free within the acquire timeout; see {@link DbConcurrencyLimiter}. A
+ * {@link SQLTransientConnectionException}, like a pool timeout, so JPA and JDBC translate it the same way.
+ */
+public class DbSaturatedException extends SQLTransientConnectionException {
+
+    public DbSaturatedException(int maxConcurrent, Duration acquireTimeout) {
+        super("All %d database permits busy for %d ms".formatted(maxConcurrent, acquireTimeout.toMillis()));
+    }
+}
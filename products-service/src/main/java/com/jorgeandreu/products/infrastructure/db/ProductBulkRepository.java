@@ -0,0 +1,42 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface ProductBulkRepository {
+
+    /**
+     * Multi-row insert that skips rows whose SKU is already taken, in the table or earlier in {@code entities}.
+     * Ids must be assigned by the caller.
+     * @return ids of the inserted rows
+     */
+    Set<UUID> insertIgnoringSkuConflicts(List<ProductEntity> entities);
+
+    /**
+     * Conditional update of many rows by SKU in one statement (see {@link ProductUpdateRepository#updateReturning}
+     * for the outcomes). Of a repeated SKU only the last update is written; the earlier ones come back as version
+     * conflicts.
+     * @return one outcome per update, in order
+     */
+    List<UpdateResult<ProductEntity>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt);
+
+    /** Rows with any of {@code ids}, unordered, from one {@code id = ANY(?)} query with a single array parameter. */
+    List<ProductEntity> findAllByIdAny(Collection<UUID> ids);
+
+    /** Rows with any of {@code skus}, unordered, from one {@code sku = ANY(?)} query. */
+    List<ProductEntity> findAllBySkuAny(Collection<String> skus);
+
+    /**
+     * Streams every row matching the search filters (paging and sort are ignored) through a forward-only cursor,
+     * so only one fetch-size window is in memory. Holds a dedicated connection until the stream is closed.
+     */
+    Stream<ProductEntity> streamAll(SearchCriteria criteria);
+}
@@ -0,0 +1,219 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SqlArrayValue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    // ":rows" expands to "(?, ?, ...), (?, ?, ...)", one tuple per entity; a single statement per batch.
+    // description/text are not part of the domain model yet but are NOT NULL in the table.
+    private static final String INSERT_IGNORING_SKU_CONFLICTS = """
+            INSERT INTO products (id, sku, name, price, stock, category, description, text,
+                                  created_at, updated_at, version)
+            VALUES :rows
+            ON CONFLICT (sku) DO NOTHING
+            RETURNING id
+            """;
+
+    // The updates travel as four arrays, unnested into one row per update. A SKU repeated in the call is written
+    // once, with its last update ("applied"); the outcomes are joined back on the input position, so the earlier
+    // repeats are not reported as written. "existing" and "updated" read the same snapshot, so per input row: no
+    // active product -> not found, active but not updated -> version conflict (or overtaken by a later repeat).
+    // The input columns are prefixed so that the unqualified names resolve to products, as ProductRows.COLUMNS needs.
+    private static final String UPDATE_ALL_BY_SKU = """
+            WITH input AS (
+                SELECT * FROM unnest(:skus, :prices, :stocks, :versions) WITH ORDINALITY
+                    AS i(in_sku, in_price, in_stock, in_version, in_ord)
+            ), applied AS (
+                SELECT DISTINCT ON (in_sku) * FROM input ORDER BY in_sku, in_ord DESC
+            ), existing AS (
+                SELECT sku FROM products WHERE sku IN (SELECT in_sku FROM input) AND deleted_at IS NULL
+            ), updated AS (
+                UPDATE products
+                SET price = coalesce(a.in_price, price),
+                    stock = coalesce(a.in_stock, stock),
+                    updated_at = :updatedAt,
+                    version = version + 1
+                FROM applied a
+                WHERE sku = a.in_sku
+                  AND deleted_at IS NULL
+                  AND (a.in_version IS NULL OR version = a.in_version)
+                RETURNING a.in_ord, %s
+            )
+            SELECT e.sku IS NOT NULL AS active, u.*
+            FROM input i
+            LEFT JOIN existing e ON e.sku = i.in_sku
+            LEFT JOIN updated u ON u.in_ord = i.in_ord
+            ORDER BY i.in_ord
+            """.formatted(ProductRows.COLUMNS);
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Value("${products.export.fetch-size:500}")
+    private int fetchSize;
+
+    public ProductBulkRepositoryImpl(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Set<UUID> insertIgnoringSkuConflicts(List<ProductEntity> entities) {
+        if (entities.isEmpty()) return Set.of();
+        List<Object[]> rows = entities.stream()
+                .map(e -> new Object[]{
+                        e.getId(), e.getSku(), e.getName(), e.getPrice(), e.getStock(), e.getCategory(),
+                        e.getDescription() == null ? "" : e.getDescription(),
+                        e.getText() == null ? "" : e.getText(),
+                        Timestamp.from(e.getCreatedAt()), Timestamp.from(e.getUpdatedAt()), e.getVersion()})
+                .toList();
+        var params = new MapSqlParameterSource("rows", rows);
+        return new HashSet<>(jdbc.queryForList(INSERT_IGNORING_SKU_CONFLICTS, params, UUID.class));
+    }
+
+    @Override
+    public List<UpdateResult<ProductEntity>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt) {
+        if (updates.isEmpty()) return List.of();
+        var params = new MapSqlParameterSource()
+                .addValue("skus", new SqlArrayValue("varchar", updates.stream().map(ProductBulkUpdate::sku).toArray()))
+                .addValue("prices", new SqlArrayValue("numeric", updates.stream().map(ProductBulkUpdate::price).toArray()))
+                .addValue("stocks", new SqlArrayValue("int4", updates.stream().map(ProductBulkUpdate::stock).toArray()))
+                .addValue("versions", new SqlArrayValue("int8", updates.stream().map(ProductBulkUpdate::version).toArray()))
+                .addValue("updatedAt", Timestamp.from(updatedAt));
+        return jdbc.query(UPDATE_ALL_BY_SKU, params, (rs, n) -> {
+            if (rs.getObject("id") != null) return UpdateResult.updated(ProductRows.toEntity(rs));
+            return rs.getBoolean("active") ? UpdateResult.versionConflict() : UpdateResult.notFound();
+        });
+    }
+
+    @Override
+    public List<ProductEntity> findAllByIdAny(Collection<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        // one array parameter keeps a single prepared statement whatever the number of ids, unlike IN (?, ?, ...)
+        var params = new MapSqlParameterSource("ids", new SqlArrayValue("uuid", ids.toArray()));
+        return jdbc.query("SELECT " + ProductRows.COLUMNS + " FROM products WHERE id = ANY(:ids)", params,
+                (rs, n) -> ProductRows.toEntity(rs));
+    }
+
+    @Override
+    public List<ProductEntity> findAllBySkuAny(Collection<String> skus) {
+        if (skus.isEmpty()) return List.of();
+        var params = new MapSqlParameterSource("skus", new SqlArrayValue("varchar", skus.toArray()));
+        return jdbc.query("SELECT " + ProductRows.COLUMNS + " FROM products WHERE sku = ANY(:skus)", params,
+                (rs, n) -> ProductRows.toEntity(rs));
+    }
+
+    @Override
+    public Stream<ProductEntity> streamAll(SearchCriteria criteria) {
+        ProductSqlFilter filter = ProductSqlFilter.of(criteria);
+        String sql = "SELECT " + ProductRows.COLUMNS + " FROM products" + filter.where();
+        JdbcTemplate template = jdbc.getJdbcTemplate();
+
+        // Not bound to a Spring transaction: the stream is drained after the calling method has returned, while the
+        // response is written. PostgreSQL only honours the fetch size inside a transaction, hence autocommit off.
+        // The connection lives as long as the download, so it comes out of the limiter's streaming budget.
+        Connection con = null;
+        PreparedStatement ps = null;
+        try {
+            con = DbConcurrencyLimiter.streamingConnection(Objects.requireNonNull(template.getDataSource()));
+            con.setAutoCommit(false);
+            con.setReadOnly(true);
+            ps = prepare(con, sql, filter.params());
+            ResultSet rs = ps.executeQuery();
+            Cursor cursor = new Cursor(con, ps, rs, template, sql);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException ex) {
+            JdbcUtils.closeStatement(ps);
+            release(con);
+            throw Objects.requireNonNull(template.getExceptionTranslator().translate("streamAll", sql, ex));
+        }
+    }
+
+    private PreparedStatement prepare(Connection con, String sql, MapSqlParameterSource params) throws SQLException {
+        ParsedSql parsed = NamedParameterUtils.parseSqlStatement(sql);
+        PreparedStatement ps = con.prepareStatement(NamedParameterUtils.substituteNamedParameters(parsed, params),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize);
+        new ArgumentPreparedStatementSetter(NamedParameterUtils.buildValueArray(parsed, params, null)).setValues(ps);
+        return ps;
+    }
+
+    private static void release(Connection con) {
+        if (con == null) return;
+        try {
+            con.rollback();
+            con.setAutoCommit(true);
+            con.setReadOnly(false);
+        } catch (SQLException ignored) {
+            // the connection is being discarded anyway
+        }
+        JdbcUtils.closeConnection(con);
+    }
+
+    /** Walks the result set one row per advance; closing it releases statement and connection. */
+    private static final class Cursor extends Spliterators.AbstractSpliterator<ProductEntity> {
+
+        private final Connection con;
+        private final PreparedStatement ps;
+        private final ResultSet rs;
+        private final JdbcTemplate template;
+        private final String sql;
+        private boolean closed;
+
+        Cursor(Connection con, PreparedStatement ps, ResultSet rs, JdbcTemplate template, String sql) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.con = con;
+            this.ps = ps;
+            this.rs = rs;
+            this.template = template;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ProductEntity> action) {
+            try {
+                if (!rs.next()) return false;
+                action.accept(ProductRows.toEntity(rs));
+                return true;
+            } catch (SQLException ex) {
+                close();
+                throw Objects.requireNonNull(template.getExceptionTranslator().translate("streamAll", sql, ex));
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            JdbcUtils.closeResultSet(rs);
+            JdbcUtils.closeStatement(ps);
+            release(con);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * "Search-after" position for keyset pagination: the sort key of the last row of a page plus its id.
+ * Serialized as URL-safe Base64 so clients treat it as an opaque token.
+ */
+record ProductCursor(Key key, Sort.Direction direction, Comparable<?> value, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /** Properties that can drive a keyset scan: non-null columns with a total order. */
+    enum Key {
+        CREATED_AT("createdAt", ProductListRow::createdAt, Instant::parse),
+        UPDATED_AT("updatedAt", ProductListRow::updatedAt, Instant::parse),
+        NAME("name", ProductListRow::name, s -> s),
+        SKU("sku", ProductListRow::sku, s -> s),
+        CATEGORY("categoryNorm", ProductListRow::categoryNorm, s -> s),
+        PRICE("price", ProductListRow::price, BigDecimal::new),
+        STOCK("stock", ProductListRow::stock, Integer::valueOf);
+
+        private final String property;
+        private final Function<ProductListRow, Comparable<?>> extractor;
+        private final Function<String, Comparable<?>> parser;
+
+        Key(String property, Function<ProductListRow, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+            this.property = property;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        String property() { return property; }
+
+        static Optional<Key> of(String property) {
+            return Arrays.stream(values()).filter(k -> k.property.equals(property)).findFirst();
+        }
+    }
+
+    /**
+     * Cursor pointing just after {@code last}, for a page sorted by {@code sort}; empty unless the sort is one keyset
+     * key plus the id tiebreaker.
+     */
+    static Optional<ProductCursor> after(ProductListRow last, Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 2 || !orders.getLast().getProperty().equals("id")) return Optional.empty();
+        Sort.Order primary = orders.getFirst();
+        return Key.of(primary.getProperty())
+                .map(k -> new ProductCursor(k, primary.getDirection(), k.extractor.apply(last), last.id()));
+    }
+
+    static ProductCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("not a valid token");
+        }
+        // value goes last so it may itself contain the separator
+        String[] parts = raw.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4) throw new InvalidCursorException("malformed token");
+        try {
+            Key key = Key.of(parts[0]).orElseThrow(() -> new InvalidCursorException("unsupported sort " + parts[0]));
+            return new ProductCursor(key, Sort.Direction.fromString(parts[1]), key.parser.apply(parts[3]), UUID.fromString(parts[2]));
+        } catch (RuntimeException ex) {
+            if (ex instanceof InvalidCursorException ice) throw ice;
+            throw new InvalidCursorException("malformed token");
+        }
+    }
+
+    String encode() {
+        String raw = String.join(SEPARATOR, key.property, direction.name(), id.toString(), value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Sort the cursor was issued for, with id as tiebreaker so the order is total. */
+    Sort sort() {
+        return Sort.by(direction, key.property).and(Sort.by(direction, "id"));
+    }
+
+    /** {@code (key, id) > (value, id)} in the cursor's direction. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Specification<ProductEntity> toSpecification() {
+        return (root, q, cb) -> {
+            Path<Comparable> path = root.get(key.property);
+            Comparable v = value;
+            Path<UUID> idPath = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(path, v), cb.and(cb.equal(path, v), cb.greaterThan(idPath, id)));
+            }
+            return cb.or(cb.lessThan(path, v), cb.and(cb.equal(path, v), cb.lessThan(idPath, id)));
+        };
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
@@ -42,6 +43,10 @@ public class ProductEntity {
     @Column(nullable = false, length = 100)
     private String category;
 
+    /** {@code lower(category)}, generated by PostgreSQL; what the category filter and the list indexes match on. */
+    @Column(name = "category_norm", insertable = false, updatable = false)
+    private String categoryNorm;
+
     @Column(nullable = false, length = 100)
     private String description;
 
@@ -59,6 +64,19 @@ public class ProductEntity {
     @Version
     private long version;
 
+    /**
+     * Stock spread over {@code product_stock_slots} for a sharded product; null when the product is not sharded.
+     * The slots are only summed for rows flagged {@code stock_sharded}, so an unsharded load runs no subquery.
+     */
+    @Formula("(CASE WHEN stock_sharded"
+            + " THEN (SELECT sum(s.stock) FROM product_stock_slots s WHERE s.product_id = id) END)")
+    private Long slotStock;
+
+    /** The stock clients see: a sharded product keeps 0 in its own column and the rest in its slots. */
+    public int effectiveStock() {
+        return slotStock == null ? stock : Math.toIntExact(stock + slotStock);
+    }
+
     @PrePersist void onCreate() { var now = Instant.now(); createdAt = now; updatedAt = now; }
     @PreUpdate  void onUpdate() { updatedAt = Instant.now(); }
 
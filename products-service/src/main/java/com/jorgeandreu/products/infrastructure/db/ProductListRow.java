@@ -0,0 +1,35 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns a product list returns, plus the normalized category a keyset cursor on a category sort needs, read
+ * straight into a record by a constructor projection (see {@link ProductSearchRepository#findRows}). Unlike
+ * {@link ProductEntity} it skips description and text, and Hibernate neither manages it nor keeps a dirty-checking
+ * snapshot of it.
+ */
+@Builder
+public record ProductListRow(
+        UUID id,
+        String sku,
+        String name,
+        BigDecimal price,
+        Integer stock,
+        Long slotStock,
+        String category,
+        String categoryNorm,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant deletedAt,
+        long version
+) {
+
+    /** Same rule as {@link ProductEntity#effectiveStock()}. */
+    public int effectiveStock() {
+        return slotStock == null ? stock : Math.toIntExact(stock + slotStock);
+    }
+}
@@ -1,14 +1,17 @@
 package com.jorgeandreu.products.infrastructure.db;
 
 
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.model.UpdateResult;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
@@ -16,8 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -27,10 +34,13 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
 
     private final SpringDataProductRepository repository;
     private final ProductEntityMapper mapper;
+    private final ProductSortPlanner sortPlanner;
 
-    public ProductRepositoryAdapter(SpringDataProductRepository repository, ProductEntityMapper mapper) {
+    public ProductRepositoryAdapter(SpringDataProductRepository repository, ProductEntityMapper mapper,
+                                    ProductSortPlanner sortPlanner) {
         this.repository = repository;
         this.mapper = mapper;
+        this.sortPlanner = sortPlanner;
     }
 
     @Override
@@ -50,23 +60,96 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
     }
 
     @Override
-    public com.jorgeandreu.products.domain.model.PageResult<Product> search(SearchCriteria criteria) {
-        Sort sort = parseSort(criteria.sort());
-        Pageable pageable = PageRequest.of(criteria.page(), criteria.size(), sort);
+    public List<Product> findAllByIds(Collection<UUID> ids) {
+        return repository.findAllByIdAny(ids).stream().map(mapper::toDomain).toList();
+    }
 
-        Specification<ProductEntity> spec = Stream.of(
-                        visibility(criteria.includeDeleted()),
-                        category(criteria.category()),
-                        priceGte(criteria.minPrice()),
-                        priceLte(criteria.maxPrice()),
-                        text(criteria.text())
-                )
-                .filter(Objects::nonNull)
-                .reduce(Specification::and)
-                .orElse((root, q, cb) -> cb.conjunction());
+    @Override
+    public List<Product> findAllBySkus(Collection<String> skus) {
+        return repository.findAllBySkuAny(skus).stream().map(mapper::toDomain).toList();
+    }
+
+    @Override
+    public PageResult<Product> search(SearchCriteria criteria) {
+        Specification<ProductEntity> filters = filters(criteria);
+        if (criteria.hasCursor()) {
+            return searchAfter(criteria, filters);
+        }
 
-        Page<ProductEntity> page = repository.findAll(spec, pageable);
-        return mapper.toDomain(page);
+        Sort sort = sortPlanner.plan(criteria);
+        CountMode countMode = criteria.effectiveCountMode();
+
+        // read one extra row to learn whether there is a next page, instead of deriving it from the COUNT
+        long offset = (long) criteria.page() * criteria.size();
+        List<ProductListRow> rows = sort.isUnsorted() // unsorted means relevance
+                ? repository.findRowsByRelevance(filters, criteria.text(), offset, criteria.size() + 1)
+                : repository.findRows(filters, sort, offset, criteria.size() + 1);
+        return toPage(criteria, rows, sort, countMode, total(countMode, filters, criteria, offset, rows));
+    }
+
+    /**
+     * Keyset pagination: seeks past the cursor's (sort key, id) instead of skipping rows with OFFSET,
+     * so every page costs the same regardless of depth. One extra row is read to know if there is a next page.
+     */
+    private PageResult<Product> searchAfter(SearchCriteria criteria, Specification<ProductEntity> filters) {
+        ProductCursor cursor = ProductCursor.decode(criteria.cursor());
+        if (criteria.sort() != null && !criteria.sort().isBlank() && !sortPlanner.order(criteria).equals(cursor.sort())) {
+            throw new InvalidCursorException("cursor was issued for a different sort");
+        }
+        Sort sort = cursor.sort();
+        int limit = criteria.size() + 1;
+
+        List<ProductListRow> rows = repository.findRows(filters.and(cursor.toSpecification()), sort, 0, limit);
+
+        CountMode countMode = criteria.effectiveCountMode();
+        return toPage(criteria, rows, sort, countMode, total(countMode, filters, criteria));
+    }
+
+    /** Builds a page from up to {@code size + 1} rows; the extra row only signals that a next page exists. */
+    private PageResult<Product> toPage(SearchCriteria criteria, List<ProductListRow> rows, Sort sort,
+                                       CountMode countMode, Long total) {
+        int size = criteria.size();
+        boolean hasNext = rows.size() > size;
+        List<ProductListRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext
+                ? ProductCursor.after(pageRows.getLast(), sort).map(ProductCursor::encode).orElse(null)
+                : null;
+
+        return new PageResult<>(
+                pageRows.stream().map(mapper::toDomain).toList(),
+                criteria.page(),
+                size,
+                total,
+                total == null ? null : (int) ((total + size - 1) / size),
+                hasNext,
+                countMode,
+                nextCursor
+        );
+    }
+
+    @Override
+    public SearchFacets facets(SearchCriteria criteria) {
+        return repository.facets(criteria);
+    }
+
+    /**
+     * Offset pages skip the COUNT when the rows already tell the total: a short page that is the first, or that is
+     * not empty, ends the result.
+     */
+    private Long total(CountMode countMode, Specification<ProductEntity> filters, SearchCriteria criteria,
+                       long offset, List<ProductListRow> rows) {
+        boolean lastPage = rows.size() <= criteria.size() && (offset == 0 || !rows.isEmpty());
+        if (countMode == CountMode.EXACT && lastPage) return offset + rows.size();
+        return total(countMode, filters, criteria);
+    }
+
+    private Long total(CountMode countMode, Specification<ProductEntity> filters, SearchCriteria criteria) {
+        return switch (countMode) {
+            case EXACT -> repository.count(filters);
+            case ESTIMATED -> repository.estimateCount(criteria);
+            case NONE -> null;
+        };
     }
 
     @Override
@@ -77,8 +160,72 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
     }
 
     @Override
-    public int updateIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock, String category, long expectedVersion, Instant updatedAt) throws DataIntegrityViolationException {
-        return repository.updateIfVersionMatches(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+    @Transactional
+    public boolean softDeleteIfVersionMatches(UUID id, long expectedVersion, Instant deletedAt) {
+        return repository.softDeleteIfVersionMatches(id, expectedVersion, deletedAt) == 1;
+    }
+
+    @Override
+    public UpdateResult<Product> updateIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock, String category, long expectedVersion, Instant updatedAt) throws DataIntegrityViolationException {
+        UpdateResult<ProductEntity> result =
+                repository.updateReturning(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+        if (result.value() != null && result.value().getSlotStock() != null) {
+            // a sharded product must not keep the new stock in its own row on top of what its slots hold
+            result = repository.respreadStockIfSharded(id).map(UpdateResult::updated).orElse(result);
+        }
+        return result.map(mapper::toDomain);
+    }
+
+    @Override
+    public UpdateResult<Product> patchIfVersionMatches(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                       String category, long expectedVersion, Instant updatedAt) {
+        UpdateResult<ProductEntity> result =
+                repository.patchReturning(id, sku, name, price, stock, category, expectedVersion, updatedAt);
+        // without a new stock the slots of a sharded product are left as they are
+        if (stock != null && result.value() != null && result.value().getSlotStock() != null) {
+            result = repository.respreadStockIfSharded(id).map(UpdateResult::updated).orElse(result);
+        }
+        return result.map(mapper::toDomain);
+    }
+
+    @Override
+    public List<UpdateResult<Product>> updateAllBySku(List<ProductBulkUpdate> updates, Instant updatedAt) {
+        List<UpdateResult<ProductEntity>> results = repository.updateAllBySku(updates, updatedAt);
+        List<UpdateResult<Product>> mapped = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            UpdateResult<ProductEntity> result = results.get(i);
+            // as for a full update; only the few sharded products written with a new stock cost another statement
+            if (result.value() != null && result.value().getSlotStock() != null && updates.get(i).stock() != null) {
+                result = repository.respreadStockIfSharded(result.value().getId()).map(UpdateResult::updated).orElse(result);
+            }
+            mapped.add(result.map(mapper::toDomain));
+        }
+        return mapped;
+    }
+
+    @Override
+    public Optional<Product> decrementStock(UUID id, int quantity, Instant updatedAt) {
+        return repository.decrementStockReturning(id, quantity, updatedAt).map(mapper::toDomain);
+    }
+
+    @Override
+    public Optional<Product> incrementStock(UUID id, int quantity, Instant updatedAt) {
+        return repository.incrementStockReturning(id, quantity, updatedAt).map(mapper::toDomain);
+    }
+
+    @Override
+    public Optional<Product> reshardStock(UUID id, int shards, Instant updatedAt) {
+        return repository.reshardStockReturning(id, shards, updatedAt).map(mapper::toDomain);
+    }
+
+    @Override
+    public Set<UUID> insertAllIfSkuAbsent(List<Product> products) {
+        return repository.insertIgnoringSkuConflicts(products.stream().map(mapper::toNewEntity).toList());
+    }
+
+    @Override
+    public Stream<Product> streamAll(SearchCriteria criteria) {
+        return repository.streamAll(criteria).map(mapper::toDomain);
     }
 
     @Override
@@ -87,13 +234,26 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
     }
 
     // --- Specifications (static helpers) ---
+    Specification<ProductEntity> filters(SearchCriteria criteria) {
+        return Stream.of(
+                        visibility(criteria.includeDeleted()),
+                        category(criteria.category()),
+                        priceGte(criteria.minPrice()),
+                        priceLte(criteria.maxPrice()),
+                        text(criteria.text())
+                )
+                .filter(Objects::nonNull)
+                .reduce(Specification::and)
+                .orElse((root, q, cb) -> cb.conjunction());
+    }
+
     private Specification<ProductEntity> visibility(boolean includeDeleted) {
         return (root, q, cb) -> includeDeleted ? cb.conjunction() : cb.isNull(root.get("deletedAt"));
     }
     private Specification<ProductEntity> category(String category) {
         return (category == null || category.isBlank())
                 ? null
-                : (root, q, cb) -> cb.equal(cb.lower(root.get("category")), category.toLowerCase());
+                : (root, q, cb) -> cb.equal(root.get("categoryNorm"), category.toLowerCase());
     }
     private Specification<ProductEntity> priceGte(Double v) {
         return v == null ? null : (root, q, cb) -> cb.ge(root.get("price"), v);
@@ -101,22 +261,19 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
     private Specification<ProductEntity> priceLte(Double v) {
         return v == null ? null : (root, q, cb) -> cb.le(root.get("price"), v);
     }
+    /**
+     * Full-text match on the GIN-indexed search vector, OR'ed with substring matches that the trigram indexes
+     * serve, so the previous "contains" semantics still hold for partial words and SKU fragments.
+     */
     private Specification<ProductEntity> text(String text) {
         if (text == null || text.isBlank()) return null;
         String like = "%" + text.toLowerCase() + "%";
         return (root, q, cb) -> cb.or(
+                cb.isTrue(cb.function(ProductSearchFunctions.MATCH, Boolean.class, cb.literal(text))),
                 cb.like(cb.lower(root.get("name")), like),
                 cb.like(cb.lower(root.get("text")), like),
                 cb.like(cb.lower(root.get("description")), like)
         );
     }
 
-    private Sort parseSort(String sortParam) {
-        if (sortParam == null || sortParam.isBlank()) return Sort.by(Sort.Direction.DESC, "createdAt");
-        String[] parts = sortParam.split(",");
-        String prop = parts[0];
-        Sort.Direction dir = (parts.length > 1 && "asc".equalsIgnoreCase(parts[1])) ? Sort.Direction.ASC : Sort.Direction.DESC;
-        return Sort.by(dir, prop);
-    }
-
 }
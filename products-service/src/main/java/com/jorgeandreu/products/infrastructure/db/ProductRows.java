@@ -0,0 +1,46 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Maps rows of the products table for the JDBC paths that bypass Hibernate. */
+final class ProductRows {
+
+    /**
+     * Column list matching {@link #toEntity}; the generated search_vector is never read. {@code slot_stock} is the
+     * stock of a sharded product (see {@link ProductStockRepository}), summed only for the rows flagged
+     * {@code stock_sharded}; the statement must name the table {@code products}, without an alias.
+     */
+    static final String COLUMNS =
+            "id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version, "
+                    + "CASE WHEN products.stock_sharded THEN"
+                    + " (SELECT sum(s.stock) FROM product_stock_slots s WHERE s.product_id = products.id) END"
+                    + " AS slot_stock";
+
+    private ProductRows() {}
+
+    static ProductEntity toEntity(ResultSet rs) throws SQLException {
+        return ProductEntity.builder()
+                .id(rs.getObject("id", UUID.class))
+                .sku(rs.getString("sku"))
+                .name(rs.getString("name"))
+                .price(rs.getBigDecimal("price"))
+                .stock(rs.getInt("stock"))
+                .category(rs.getString("category"))
+                .description(rs.getString("description"))
+                .text(rs.getString("text"))
+                .createdAt(instant(rs.getTimestamp("created_at")))
+                .updatedAt(instant(rs.getTimestamp("updated_at")))
+                .deletedAt(instant(rs.getTimestamp("deleted_at")))
+                .version(rs.getLong("version"))
+                .slotStock(rs.getObject("slot_stock", Long.class))
+                .build();
+    }
+
+    private static Instant instant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
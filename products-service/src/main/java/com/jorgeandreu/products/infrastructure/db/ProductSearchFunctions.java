@@ -0,0 +1,36 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL full-text search functions for Criteria queries. The {@code @@} operator has no JPQL form, so it is
+ * registered as a pattern; keeping it an operator (not {@code ts_match_vq}) lets the planner use the GIN index.
+ * Registered through {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ * <p>
+ * The generated {@code search_vector} column (migration V1) is not mapped on {@link ProductEntity}, so loading an
+ * entity never fetches it; the patterns name it directly. It is left unqualified, which holds as long as
+ * {@code products} is the only table in these queries with such a column.
+ */
+public class ProductSearchFunctions implements FunctionContributor {
+
+    /** Text search configuration shared by the stored vector and the queries; they must match for the index to apply. */
+    public static final String TS_CONFIG = "'english'";
+
+    /** {@code products_fts_match(query)}: whether the product's search vector matches a web-search query. */
+    public static final String MATCH = "products_fts_match";
+    /** {@code products_fts_rank(query)}: how well the product's search vector matches it. */
+    public static final String RANK = "products_fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        var types = contributions.getTypeConfiguration().getBasicTypeRegistry();
+        contributions.getFunctionRegistry().registerPattern(
+                MATCH, "(search_vector @@ websearch_to_tsquery(" + TS_CONFIG + ", ?1))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        contributions.getFunctionRegistry().registerPattern(
+                RANK, "ts_rank(search_vector, websearch_to_tsquery(" + TS_CONFIG + ", ?1))",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -0,0 +1,27 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/** Custom search queries mixed into {@link SpringDataProductRepository}. */
+public interface ProductSearchRepository {
+
+    /**
+     * Rows {@code [offset, offset + limit)} matching the spec, projected to the listed columns; no entities are
+     * loaded and no COUNT query runs.
+     */
+    List<ProductListRow> findRows(Specification<ProductEntity> spec, Sort sort, long offset, int limit);
+
+    /** Like {@link #findRows}, best full-text match for {@code text} first, ties broken by id. */
+    List<ProductListRow> findRowsByRelevance(Specification<ProductEntity> spec, String text, long offset, int limit);
+
+    /** Planner row estimate for the criteria's filters, taken from EXPLAIN; no rows are read. */
+    long estimateCount(SearchCriteria criteria);
+
+    /** Requested category and price-bucket counts for the criteria's filters, from one GROUPING SETS query. */
+    SearchFacets facets(SearchCriteria criteria);
+}
@@ -0,0 +1,137 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.FacetRequest;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public ProductSearchRepositoryImpl(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public List<ProductListRow> findRows(Specification<ProductEntity> spec, Sort sort, long offset, int limit) {
+        return findRows(spec, offset, limit, (root, cb) -> QueryUtils.toOrders(sort, root, cb));
+    }
+
+    @Override
+    public List<ProductListRow> findRowsByRelevance(Specification<ProductEntity> spec, String text, long offset, int limit) {
+        return findRows(spec, offset, limit, (root, cb) -> List.of(
+                cb.desc(cb.function(ProductSearchFunctions.RANK, Double.class, cb.literal(text))),
+                cb.asc(root.get("id"))));
+    }
+
+    private List<ProductListRow> findRows(Specification<ProductEntity> spec, long offset, int limit,
+                                          BiFunction<Root<ProductEntity>, CriteriaBuilder, List<Order>> orders) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ProductListRow> query = cb.createQuery(ProductListRow.class);
+        Root<ProductEntity> root = query.from(ProductEntity.class);
+        query.select(cb.construct(ProductListRow.class,
+                root.get("id"), root.get("sku"), root.get("name"), root.get("price"), root.get("stock"),
+                root.get("slotStock"), root.get("category"), root.get("categoryNorm"), root.get("createdAt"),
+                root.get("updatedAt"), root.get("deletedAt"), root.get("version")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        query.orderBy(orders.apply(root, cb));
+
+        return em.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long estimateCount(SearchCriteria criteria) {
+        ProductSqlFilter filter = ProductSqlFilter.of(criteria);
+        // first line of the plan is the top node, e.g. "Seq Scan on products  (cost=0.00..35.50 rows=1270 width=4)"
+        List<String> plan = jdbc.queryForList("EXPLAIN SELECT 1 FROM products" + filter.where(), filter.params(), String.class);
+        if (plan.isEmpty()) return 0;
+        Matcher m = PLAN_ROWS.matcher(plan.getFirst());
+        return m.find() ? Long.parseLong(m.group(1)) : 0;
+    }
+
+    @Override
+    public SearchFacets facets(SearchCriteria criteria) {
+        FacetRequest request = criteria.facets();
+        boolean prices = request != null && request.prices() && !request.priceBounds().isEmpty();
+        if (request == null || !request.categories() && !prices) return new SearchFacets(null, null);
+        ProductSqlFilter filter = ProductSqlFilter.of(criteria);
+
+        String select;
+        String groupBy;
+        if (request.categories() && prices) {
+            // both facets from one scan of the filtered rows; GROUPING(category) = 1 marks the price-bucket rows
+            select = "GROUPING(category) AS by_price, category, bucket";
+            groupBy = "GROUPING SETS ((category), (bucket))";
+        } else if (prices) {
+            select = "1 AS by_price, NULL AS category, bucket";
+            groupBy = "bucket";
+        } else {
+            select = "0 AS by_price, category, NULL AS bucket";
+            groupBy = "category";
+        }
+        if (prices) {
+            filter.params().addValue("bounds", new SqlArrayValue("numeric",
+                    request.priceBounds().stream().map(BigDecimal::valueOf).toArray()));
+        }
+        String sql = "SELECT " + select + ", count(*) AS n FROM ("
+                + "SELECT category, " + (prices ? "width_bucket(price, CAST(:bounds AS numeric[]))" : "NULL::int")
+                + " AS bucket FROM products" + filter.where()
+                + ") f GROUP BY " + groupBy + " ORDER BY by_price, n DESC, category";
+
+        List<SearchFacets.CategoryCount> categories = request.categories() ? new ArrayList<>() : null;
+        Map<Integer, Long> buckets = new HashMap<>();
+        jdbc.query(sql, filter.params(), rs -> {
+            long n = rs.getLong("n");
+            if (rs.getInt("by_price") == 1) {
+                buckets.put(rs.getInt("bucket"), n);
+            } else {
+                categories.add(new SearchFacets.CategoryCount(rs.getString("category"), n));
+            }
+        });
+        return new SearchFacets(categories, prices ? priceBuckets(request.priceBounds(), buckets) : null);
+    }
+
+    /**
+     * Every bucket, empty ones included. {@code width_bucket} numbers them 0 (below the first bound) to n (at or
+     * above the last); bucket 0 is left out when the first bound is 0, since no price is negative.
+     */
+    private static List<SearchFacets.PriceBucketCount> priceBuckets(List<Double> bounds, Map<Integer, Long> counts) {
+        List<SearchFacets.PriceBucketCount> result = new ArrayList<>(bounds.size() + 1);
+        for (int i = bounds.getFirst() <= 0 ? 1 : 0; i <= bounds.size(); i++) {
+            Double from = i == 0 ? null : bounds.get(i - 1);
+            Double to = i == bounds.size() ? null : bounds.get(i);
+            result.add(new SearchFacets.PriceBucketCount(from, to, counts.getOrDefault(i, 0L)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,268 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidSortException;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the {@code sort} parameter of a product list into its ORDER BY. The parameter holds up to {@value #MAX_FIELDS}
+ * whitelisted fields, each optionally followed by {@code asc} or {@code desc} (default desc), separated by commas or
+ * semicolons, so {@code sort=category,asc&sort=price,desc} (joined by Spring into one value) and
+ * {@code "category,asc;price,desc"} mean the same. {@code id} is always appended as the tiebreaker, so pages never
+ * skip or repeat rows.
+ * <p>
+ * An order is <em>indexed</em> when one of {@link #INDEXES} returns the rows already in that order for the request's
+ * filters. Other orders are rejected, replaced by the default sort, or run as asked, per
+ * {@code products.search.sort.unindexed}; the default sort always runs. Every planned page is counted in
+ * {@value #METRIC} by sort shape, filter and outcome, which tells which indexes are worth adding or dropping.
+ * Pages served from the search cache are not planned, and so not counted.
+ */
+@Component
+public class ProductSortPlanner {
+
+    static final String METRIC = "products.search.sort";
+    static final int MAX_FIELDS = 3;
+    static final String RELEVANCE = "relevance";
+    static final Sort DEFAULT = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    /** What happens to an order no index serves. */
+    public enum Unindexed { REJECT, FALLBACK, ALLOW }
+
+    /** Sortable fields: the name clients use, the entity property and its column. */
+    enum Field {
+        CREATED_AT("createdAt", "createdAt", "created_at", false),
+        UPDATED_AT("updatedAt", "updatedAt", "updated_at", false),
+        NAME("name", "name", "name", false),
+        SKU("sku", "sku", "sku", true),
+        // the normalized column: case-insensitive like the category filter, and indexed
+        CATEGORY("category", "categoryNorm", "category_norm", false),
+        PRICE("price", "price", "price", false),
+        STOCK("stock", "stock", "stock", false),
+        ID("id", "id", "id", true);
+
+        private final String param;
+        private final String property;
+        private final String column;
+        private final boolean unique;
+
+        Field(String param, String property, String column, boolean unique) {
+            this.param = param;
+            this.property = property;
+            this.column = column;
+            this.unique = unique;
+        }
+
+        String column() { return column; }
+
+        static Optional<Field> ofParam(String param) {
+            return Arrays.stream(values()).filter(f -> f.param.equals(param)).findFirst();
+        }
+
+        static Field ofProperty(String property) {
+            return Arrays.stream(values()).filter(f -> f.property.equals(property)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Cannot sort by " + property));
+        }
+    }
+
+    /** A b-tree index with every column ascending: it returns rows in its column order or in the reverse of it. */
+    record Index(String name, boolean partial, List<Field> fields) {}
+
+    /** The ordered indexes of the migrations; partial ones only cover live rows ({@code deleted_at IS NULL}). */
+    static final List<Index> INDEXES = List.of(
+            new Index("idx_products_live_category_created", true, List.of(Field.CATEGORY, Field.CREATED_AT, Field.ID)),
+            new Index("idx_products_live_category_price", true, List.of(Field.CATEGORY, Field.PRICE, Field.ID)),
+            new Index("idx_products_live_category_name", true, List.of(Field.CATEGORY, Field.NAME, Field.ID)),
+            new Index("idx_products_live_created", true, List.of(Field.CREATED_AT, Field.ID)),
+            new Index("idx_products_live_price", true, List.of(Field.PRICE, Field.ID)),
+            new Index("idx_products_live_name", true, List.of(Field.NAME, Field.ID)),
+            new Index("idx_products_category_created", false, List.of(Field.CATEGORY, Field.CREATED_AT, Field.ID)),
+            new Index("idx_products_category_price", false, List.of(Field.CATEGORY, Field.PRICE, Field.ID)),
+            new Index("uk_products_sku", false, List.of(Field.SKU)),
+            new Index("products_pkey", false, List.of(Field.ID)));
+
+    private final Unindexed unindexed;
+    private final MeterRegistry meterRegistry;
+
+    public ProductSortPlanner(@Value("${products.search.sort.unindexed:reject}") Unindexed unindexed,
+                              MeterRegistry meterRegistry) {
+        this.unindexed = unindexed;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Relevance only applies with a text filter; without one the default sort does. */
+    static boolean isRelevanceSort(SearchCriteria criteria) {
+        return criteria.sort() != null
+                && RELEVANCE.equalsIgnoreCase(criteria.sort().split("[,;]")[0].trim())
+                && criteria.text() != null && !criteria.text().isBlank();
+    }
+
+    /**
+     * ORDER BY for a page of {@code criteria}, after the unindexed-order policy; unsorted means order by relevance,
+     * which the caller applies.
+     *
+     * @throws InvalidSortException for a malformed sort, a field outside the whitelist, or a rejected unindexed order
+     */
+    public Sort plan(SearchCriteria criteria) {
+        if (isRelevanceSort(criteria)) {
+            parse(criteria.sort());
+            count(RELEVANCE, criteria, "relevance");
+            return Sort.unsorted();
+        }
+        Sort sort = order(criteria);
+        String shape = shape(sort);
+        boolean indexed = indexed(sort, hasCategory(criteria), criteria.includeDeleted());
+        if (indexed || sort.equals(DEFAULT)) {
+            count(shape, criteria, indexed ? "indexed" : "unindexed");
+            return sort;
+        }
+        return switch (unindexed) {
+            case ALLOW -> {
+                count(shape, criteria, "unindexed");
+                yield sort;
+            }
+            case FALLBACK -> {
+                count(shape, criteria, "fallback");
+                yield DEFAULT;
+            }
+            case REJECT -> {
+                count(shape, criteria, "rejected");
+                throw new InvalidSortException("no index serves " + shape
+                        + (hasCategory(criteria) ? " within a category" : "")
+                        + (criteria.includeDeleted() ? " with deleted products included" : "")
+                        + "; indexed sorts (either direction): " + indexedShapes(criteria));
+            }
+        };
+    }
+
+    /**
+     * The requested order with its tiebreaker, before the unindexed-order policy. Under a category filter every row
+     * has the same category, so a category sort is dropped; if only the tiebreaker is left, the default sort applies.
+     */
+    Sort order(SearchCriteria criteria) {
+        Sort sort = parse(criteria.sort());
+        if (!hasCategory(criteria)) return sort;
+        List<Sort.Order> orders = sort.filter(o -> Field.ofProperty(o.getProperty()) != Field.CATEGORY).toList();
+        if (orders.size() == sort.toList().size()) return sort;
+        return orders.size() == 1 ? DEFAULT : Sort.by(orders);
+    }
+
+    /** Parses and validates the sort parameter; blank and {@code relevance} mean the default sort. */
+    static Sort parse(String sortParam) {
+        List<String> tokens = sortParam == null ? List.of() : Arrays.stream(sortParam.split("[,;]"))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .toList();
+        if (!tokens.isEmpty() && RELEVANCE.equalsIgnoreCase(tokens.getFirst())) {
+            if (tokens.stream().skip(1).anyMatch(t -> Sort.Direction.fromOptionalString(t).isEmpty())) {
+                throw new InvalidSortException("relevance cannot be combined with other fields");
+            }
+            return DEFAULT;
+        }
+
+        List<Field> fields = new ArrayList<>();
+        List<Sort.Direction> directions = new ArrayList<>();
+        for (String token : tokens) {
+            Optional<Sort.Direction> direction = Sort.Direction.fromOptionalString(token);
+            if (direction.isPresent()) {
+                if (fields.size() != directions.size() + 1) {
+                    throw new InvalidSortException("direction '" + token + "' does not follow a field");
+                }
+                directions.add(direction.get());
+                continue;
+            }
+            // the previous field had no direction
+            if (fields.size() > directions.size()) directions.add(Sort.Direction.DESC);
+            Field field = Field.ofParam(token).orElseThrow(() -> new InvalidSortException(
+                    "unknown field '" + token + "'; sortable fields: " + Arrays.stream(Field.values())
+                            .map(f -> f.param).collect(Collectors.joining(", "))));
+            if (fields.contains(field)) throw new InvalidSortException("field '" + token + "' appears twice");
+            if (fields.size() == MAX_FIELDS) throw new InvalidSortException("at most " + MAX_FIELDS + " fields");
+            fields.add(field);
+        }
+        if (fields.isEmpty()) return DEFAULT;
+        if (fields.size() > directions.size()) directions.add(Sort.Direction.DESC);
+
+        List<Sort.Order> orders = new ArrayList<>(fields.size() + 1);
+        for (int i = 0; i < fields.size(); i++) {
+            orders.add(new Sort.Order(directions.get(i), fields.get(i).property));
+            // id is unique: nothing after it can change the order
+            if (fields.get(i) == Field.ID) return Sort.by(orders);
+        }
+        orders.add(new Sort.Order(directions.getLast(), Field.ID.property));
+        return Sort.by(orders);
+    }
+
+    /**
+     * Whether an index returns rows in this order: one direction throughout, and the fields (up to the first unique
+     * one) a prefix of the index columns. Under a category filter only indexes led by the category qualify, with the
+     * category column itself skipped.
+     */
+    static boolean indexed(Sort sort, boolean byCategory, boolean includeDeleted) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.stream().map(Sort.Order::getDirection).distinct().count() > 1) return false;
+        List<Field> fields = new ArrayList<>();
+        for (Sort.Order order : orders) {
+            Field field = Field.ofProperty(order.getProperty());
+            fields.add(field);
+            if (field.unique) break;
+        }
+        for (Index index : INDEXES) {
+            if (index.partial() && includeDeleted) continue;
+            List<Field> columns = index.fields();
+            if (byCategory) {
+                if (columns.getFirst() != Field.CATEGORY) continue;
+                columns = columns.subList(1, columns.size());
+            }
+            if (columns.size() >= fields.size() && columns.subList(0, fields.size()).equals(fields)) return true;
+        }
+        return false;
+    }
+
+    /** {@code "category,asc;price,asc"}: the fields as clients name them, without the id tiebreaker. */
+    static String shape(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1 && orders.getLast().getProperty().equals(Field.ID.property)) {
+            orders = orders.subList(0, orders.size() - 1);
+        }
+        return orders.stream()
+                .map(o -> Field.ofProperty(o.getProperty()).param + "," + o.getDirection().name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(";"));
+    }
+
+    private static String indexedShapes(SearchCriteria criteria) {
+        boolean byCategory = hasCategory(criteria);
+        return INDEXES.stream()
+                .filter(i -> !(i.partial() && criteria.includeDeleted()))
+                .filter(i -> !byCategory || i.fields().getFirst() == Field.CATEGORY)
+                .map(i -> i.fields().stream()
+                        .skip(byCategory ? 1 : 0)
+                        .filter(f -> f != Field.ID || i.fields().size() == 1)
+                        .map(f -> f.param)
+                        .collect(Collectors.joining(";")))
+                .filter(s -> !s.isEmpty())
+                .distinct()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static boolean hasCategory(SearchCriteria criteria) {
+        return criteria.category() != null && !criteria.category().isBlank();
+    }
+
+    private void count(String shape, SearchCriteria criteria, String outcome) {
+        meterRegistry.counter(METRIC,
+                "sort", shape,
+                "filter", hasCategory(criteria) ? "category" : "none",
+                "deleted", String.valueOf(criteria.includeDeleted()),
+                "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,44 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native-SQL rendering of the search filters, for the JDBC paths that cannot go through JPA Specifications.
+ * Must stay equivalent to the Specifications in {@link ProductRepositoryAdapter}.
+ */
+record ProductSqlFilter(String where, MapSqlParameterSource params) {
+
+    static ProductSqlFilter of(SearchCriteria criteria) {
+        List<String> clauses = new ArrayList<>();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (!criteria.includeDeleted()) {
+            clauses.add("deleted_at IS NULL");
+        }
+        if (criteria.category() != null && !criteria.category().isBlank()) {
+            clauses.add("category_norm = :category");
+            params.addValue("category", criteria.category().toLowerCase());
+        }
+        if (criteria.minPrice() != null) {
+            clauses.add("price >= :minPrice");
+            params.addValue("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            clauses.add("price <= :maxPrice");
+            params.addValue("maxPrice", criteria.maxPrice());
+        }
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            clauses.add("(search_vector @@ websearch_to_tsquery(" + ProductSearchFunctions.TS_CONFIG + ", :query)"
+                    + " OR lower(name) LIKE :text OR lower(text) LIKE :text OR lower(description) LIKE :text)");
+            params.addValue("query", criteria.text());
+            params.addValue("text", "%" + criteria.text().toLowerCase() + "%");
+        }
+
+        String where = clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+        return new ProductSqlFilter(where, params);
+    }
+}
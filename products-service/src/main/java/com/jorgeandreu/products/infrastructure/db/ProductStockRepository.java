@@ -0,0 +1,33 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stock changes that bypass the optimistic lock. A product's stock lives either in its own row or, once sharded,
+ * spread over {@code product_stock_slots} rows, with 0 left in the product row; readers see the sum.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * {@code stock = stock - :quantity} if {@code stock >= :quantity}, without a version check; returns the product
+     * with its new stock. On a sharded product one slot is decremented, and the product row is not touched.
+     */
+    Optional<ProductEntity> decrementStockReturning(UUID id, int quantity, Instant updatedAt);
+
+    /** {@code stock = stock + :quantity} on an active product, into its emptiest slot if sharded. */
+    Optional<ProductEntity> incrementStockReturning(UUID id, int quantity, Instant updatedAt);
+
+    /**
+     * Spreads an active product's whole stock evenly over {@code shards} slots, or moves it back into the product
+     * row when {@code shards} is 1. Bumps the version.
+     */
+    Optional<ProductEntity> reshardStockReturning(UUID id, int shards, Instant updatedAt);
+
+    /**
+     * After a full update has written an absolute stock into the product row, spreads it over the product's slots
+     * again. Empty when the product is not sharded.
+     */
+    Optional<ProductEntity> respreadStockIfSharded(UUID id);
+}
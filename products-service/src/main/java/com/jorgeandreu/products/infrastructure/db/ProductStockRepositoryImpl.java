@@ -0,0 +1,215 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/*
+ * Lock order: a full update or a reshard locks the product row, then its slots; slot writers lock slots only and
+ * read the product row without locking it. Waits therefore never form a cycle.
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // the stock condition is evaluated against the latest committed row once the lock is granted, so concurrent
+    // decrements serialize on the row and can never take stock below zero. A sharded product's own stock is 0,
+    // so this never matches one.
+    private static final String DECREMENT_STOCK = """
+            UPDATE products
+            SET stock = stock - :quantity,
+                updated_at = :updatedAt,
+                version = version + 1
+            WHERE id = :id
+              AND deleted_at IS NULL
+              AND stock >= :quantity
+            RETURNING %s
+            """.formatted(ProductRows.COLUMNS);
+
+    private static final String INCREMENT_STOCK = """
+            UPDATE products
+            SET stock = stock + :quantity,
+                updated_at = :updatedAt,
+                version = version + 1
+            WHERE id = :id
+              AND deleted_at IS NULL
+              AND NOT stock_sharded
+            RETURNING %s
+            """.formatted(ProductRows.COLUMNS);
+
+    private static final String ACTIVE = "EXISTS (SELECT 1 FROM products WHERE id = :id AND deleted_at IS NULL)";
+
+    // a random slot that can serve the whole quantity and that no other checkout holds
+    private static final String TAKE_FROM_FREE_SLOT = """
+            UPDATE product_stock_slots s
+            SET stock = s.stock - :quantity
+            FROM (
+                SELECT slot FROM product_stock_slots
+                WHERE product_id = :id AND stock >= :quantity
+                ORDER BY random()
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            ) free
+            WHERE s.product_id = :id AND s.slot = free.slot AND %s
+            """.formatted(ACTIVE);
+
+    private static final String LOCK_ALL_SLOTS = """
+            SELECT slot, stock FROM product_stock_slots
+            WHERE product_id = :id AND %s
+            ORDER BY slot
+            FOR UPDATE
+            """.formatted(ACTIVE);
+
+    private static final String ADD_TO_FREE_SLOT = """
+            UPDATE product_stock_slots s
+            SET stock = s.stock + :quantity
+            FROM (
+                SELECT slot FROM product_stock_slots
+                WHERE product_id = :id
+                ORDER BY stock
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            ) free
+            WHERE s.product_id = :id AND s.slot = free.slot AND %s
+            """.formatted(ACTIVE);
+
+    private static final String ADD_TO_FIRST_SLOT = """
+            UPDATE product_stock_slots SET stock = stock + :quantity
+            WHERE product_id = :id AND slot = 0 AND %s
+            """.formatted(ACTIVE);
+
+    // in slot order, as LOCK_ALL_SLOTS takes them: a DELETE alone locks in scan order and could deadlock against it
+    private static final String LOCK_SLOTS =
+            "SELECT stock FROM product_stock_slots WHERE product_id = :id ORDER BY slot FOR UPDATE";
+
+    private static final String DELETE_SLOTS = "DELETE FROM product_stock_slots WHERE product_id = :id";
+
+    private static final String INSERT_SLOT =
+            "INSERT INTO product_stock_slots (product_id, slot, stock) VALUES (:id, :slot, :stock)";
+
+    private static final RowMapper<ProductEntity> ROW = (rs, n) -> ProductRows.toEntity(rs);
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public ProductStockRepositoryImpl(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<ProductEntity> decrementStockReturning(UUID id, int quantity, Instant updatedAt) {
+        var params = params(id, quantity, updatedAt);
+        Optional<ProductEntity> own = first(DECREMENT_STOCK, params);
+        if (own.isPresent()) return own;
+
+        // short of stock, or sharded: checkouts on a hot product mostly land on different slots and don't wait
+        if (jdbc.update(TAKE_FROM_FREE_SLOT, params) == 0 && !takeAcrossSlots(id, quantity)) return Optional.empty();
+        return findActive(id);
+    }
+
+    /** Every slot is busy or none holds the whole quantity: wait for all of them and take from several. */
+    private boolean takeAcrossSlots(UUID id, int quantity) {
+        List<int[]> slots = jdbc.query(LOCK_ALL_SLOTS, new MapSqlParameterSource("id", id),
+                (rs, n) -> new int[]{rs.getInt("slot"), rs.getInt("stock")});
+        if (slots.stream().mapToInt(s -> s[1]).sum() < quantity) return false;
+
+        int remaining = quantity;
+        List<SqlParameterSource> takes = new ArrayList<>();
+        for (int[] slot : slots) {
+            if (remaining == 0) break;
+            int take = Math.min(slot[1], remaining);
+            if (take == 0) continue;
+            takes.add(new MapSqlParameterSource().addValue("id", id).addValue("slot", slot[0]).addValue("take", take));
+            remaining -= take;
+        }
+        jdbc.batchUpdate("UPDATE product_stock_slots SET stock = stock - :take WHERE product_id = :id AND slot = :slot",
+                takes.toArray(SqlParameterSource[]::new));
+        return true;
+    }
+
+    @Override
+    public Optional<ProductEntity> incrementStockReturning(UUID id, int quantity, Instant updatedAt) {
+        var params = params(id, quantity, updatedAt);
+        Optional<ProductEntity> own = first(INCREMENT_STOCK, params);
+        if (own.isPresent()) return own;
+
+        if (jdbc.update(ADD_TO_FREE_SLOT, params) == 0 && jdbc.update(ADD_TO_FIRST_SLOT, params) == 0) {
+            return Optional.empty();
+        }
+        return findActive(id);
+    }
+
+    @Override
+    public Optional<ProductEntity> reshardStockReturning(UUID id, int shards, Instant updatedAt) {
+        var byId = new MapSqlParameterSource("id", id);
+        List<Integer> own = jdbc.queryForList(
+                "SELECT stock FROM products WHERE id = :id AND deleted_at IS NULL FOR UPDATE", byId, Integer.class);
+        if (own.isEmpty()) return Optional.empty();
+
+        int inSlots = removeSlots(byId).stream().mapToInt(Integer::intValue).sum();
+        int total = own.getFirst() + inSlots;
+        if (shards > 1) spread(id, total, shards);
+        int rowStock = shards > 1 ? 0 : total;
+        return first("""
+                UPDATE products
+                SET stock = :stock, stock_sharded = :sharded, updated_at = :updatedAt, version = version + 1
+                WHERE id = :id
+                RETURNING %s
+                """.formatted(ProductRows.COLUMNS), new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("stock", rowStock)
+                .addValue("sharded", shards > 1)
+                .addValue("updatedAt", Timestamp.from(updatedAt)));
+    }
+
+    @Override
+    public Optional<ProductEntity> respreadStockIfSharded(UUID id) {
+        var byId = new MapSqlParameterSource("id", id);
+        int shards = removeSlots(byId).size();
+        if (shards == 0) return Optional.empty();
+
+        // the update wrote an absolute stock into the row: it replaces what the slots held
+        int total = jdbc.queryForObject("SELECT stock FROM products WHERE id = :id", byId, Integer.class);
+        spread(id, total, shards);
+        return first("UPDATE products SET stock = 0 WHERE id = :id RETURNING " + ProductRows.COLUMNS, byId);
+    }
+
+    /** Locks the product's slots in slot order and deletes them; returns the stock each held. */
+    private List<Integer> removeSlots(MapSqlParameterSource byId) {
+        List<Integer> slots = jdbc.queryForList(LOCK_SLOTS, byId, Integer.class);
+        if (!slots.isEmpty()) jdbc.update(DELETE_SLOTS, byId);
+        return slots;
+    }
+
+    /** Writes {@code shards} slots holding {@code total} between them, as evenly as possible. */
+    private void spread(UUID id, int total, int shards) {
+        jdbc.batchUpdate(INSERT_SLOT, IntStream.range(0, shards)
+                .mapToObj(slot -> new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("slot", slot)
+                        .addValue("stock", total / shards + (slot < total % shards ? 1 : 0)))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    private Optional<ProductEntity> findActive(UUID id) {
+        return first("SELECT " + ProductRows.COLUMNS + " FROM products WHERE id = :id AND deleted_at IS NULL",
+                new MapSqlParameterSource("id", id));
+    }
+
+    private Optional<ProductEntity> first(String sql, SqlParameterSource params) {
+        return jdbc.query(sql, params, ROW).stream().findFirst();
+    }
+
+    private static MapSqlParameterSource params(UUID id, int quantity, Instant updatedAt) {
+        return new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("quantity", quantity)
+                .addValue("updatedAt", Timestamp.from(updatedAt));
+    }
+}
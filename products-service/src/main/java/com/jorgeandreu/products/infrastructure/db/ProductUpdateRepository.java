@@ -0,0 +1,36 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.UpdateResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public interface ProductUpdateRepository {
+
+    /**
+     * Optimistic-lock update of an active product in one round trip: returns the written row, or whether the miss
+     * was a version conflict or a missing/deleted product.
+     */
+    UpdateResult<ProductEntity> updateReturning(UUID id,
+                                                String sku,
+                                                String name,
+                                                BigDecimal price,
+                                                Integer stock,
+                                                String category,
+                                                long expectedVersion,
+                                                Instant updatedAt);
+
+    /**
+     * Like {@link #updateReturning}, but only the non-null fields are in the SET list; the others, and the indexes
+     * over them, are left alone.
+     */
+    UpdateResult<ProductEntity> patchReturning(UUID id,
+                                               String sku,
+                                               String name,
+                                               BigDecimal price,
+                                               Integer stock,
+                                               String category,
+                                               long expectedVersion,
+                                               Instant updatedAt);
+}
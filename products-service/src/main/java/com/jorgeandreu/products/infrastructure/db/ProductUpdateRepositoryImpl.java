@@ -0,0 +1,90 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class ProductUpdateRepositoryImpl implements ProductUpdateRepository {
+
+    /** The writable columns; each is bound to a parameter of the same name. */
+    private static final List<String> FIELDS = List.of("sku", "name", "price", "stock", "category");
+
+    private static final String UPDATE_RETURNING = updateReturning(FIELDS);
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public ProductUpdateRepositoryImpl(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public UpdateResult<ProductEntity> updateReturning(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                       String category, long expectedVersion, Instant updatedAt) {
+        var params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("sku", sku)
+                .addValue("name", name)
+                .addValue("price", price)
+                .addValue("stock", stock)
+                .addValue("category", category)
+                .addValue("expectedVersion", expectedVersion)
+                .addValue("updatedAt", Timestamp.from(updatedAt));
+
+        return execute(UPDATE_RETURNING, params);
+    }
+
+    @Override
+    public UpdateResult<ProductEntity> patchReturning(UUID id, String sku, String name, BigDecimal price, Integer stock,
+                                                      String category, long expectedVersion, Instant updatedAt) {
+        var params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("expectedVersion", expectedVersion)
+                .addValue("updatedAt", Timestamp.from(updatedAt));
+        if (sku != null) params.addValue("sku", sku);
+        if (name != null) params.addValue("name", name);
+        if (price != null) params.addValue("price", price);
+        if (stock != null) params.addValue("stock", stock);
+        if (category != null) params.addValue("category", category);
+
+        // at most 2^5 distinct statements, so the driver's prepared-statement cache still covers them
+        return execute(updateReturning(FIELDS.stream().filter(params::hasValue).toList()), params);
+    }
+
+    private UpdateResult<ProductEntity> execute(String sql, MapSqlParameterSource params) {
+        List<ProductEntity> rows = jdbc.query(sql, params, (rs, n) -> rs.getObject("id") == null ? null : ProductRows.toEntity(rs));
+        if (rows.isEmpty()) return UpdateResult.notFound();
+        ProductEntity written = rows.getFirst();
+        return written == null ? UpdateResult.versionConflict() : UpdateResult.updated(written);
+    }
+
+    /*
+     * "existing" and "updated" read the same snapshot, so the LEFT JOIN yields:
+     *   no row               -> no active product with that id
+     *   row with null u.id   -> active product, but the version did not match
+     *   row with u.*         -> the new state
+     */
+    private static String updateReturning(List<String> fields) {
+        String set = fields.stream().map(f -> f + " = :" + f + ",\n        ").collect(Collectors.joining());
+        return """
+                WITH existing AS (
+                    SELECT id FROM products WHERE id = :id AND deleted_at IS NULL
+                ), updated AS (
+                    UPDATE products
+                    SET %supdated_at = :updatedAt,
+                        version = version + 1
+                    WHERE id = :id
+                      AND deleted_at IS NULL
+                      AND version = :expectedVersion
+                    RETURNING %s
+                )
+                SELECT u.* FROM existing e LEFT JOIN updated u ON u.id = e.id
+                """.formatted(set, ProductRows.COLUMNS);
+    }
+}
@@ -0,0 +1,72 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.application.service.ReactiveProductQueryService;
+import com.jorgeandreu.products.domain.port.in.ReactiveListProductsUseCase;
+import com.jorgeandreu.products.domain.port.out.ReactiveProductQueryPort;
+import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * The R2DBC read adapter, active with the {@code r2dbc} profile ({@code products.r2dbc.*}). Its pool is separate from
+ * the JDBC one, which keeps serving every write.
+ * <p>
+ * The pool is deliberately not a {@code ConnectionFactory} bean: Boot would then register a second transaction
+ * manager next to the JPA one.
+ */
+@Configuration
+@Profile("r2dbc")
+public class R2dbcProductConfig {
+
+    /** Owns the connection pool, so it is disposed with the context. */
+    record R2dbcPool(ConnectionPool pool) implements AutoCloseable {
+        @Override
+        public void close() {
+            pool.dispose();
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    R2dbcPool productsR2dbcPool(
+            @Value("${products.r2dbc.url}") String url,
+            @Value("${products.r2dbc.username:${spring.datasource.username}}") String username,
+            @Value("${products.r2dbc.password:${spring.datasource.password}}") String password,
+            @Value("${products.r2dbc.pool.initial-size:2}") int initialSize,
+            @Value("${products.r2dbc.pool.max-size:10}") int maxSize,
+            @Value("${products.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        var options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        var configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("products-r2dbc")
+                .initialSize(Math.min(initialSize, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build();
+        return new R2dbcPool(new ConnectionPool(configuration));
+    }
+
+    @Bean
+    ReactiveProductQueryPort reactiveProductQueryPort(R2dbcPool pool, ProductEntityMapper mapper,
+                                                      ProductSortPlanner sortPlanner,
+                                                      @Value("${products.export.fetch-size:500}") int fetchSize) {
+        return new R2dbcProductQueryAdapter(DatabaseClient.create(pool.pool()), mapper, sortPlanner, fetchSize);
+    }
+
+    @Bean
+    ReactiveListProductsUseCase reactiveListProductsUseCase(ReactiveProductQueryPort queryPort,
+                                                            SearchProductListMapper searchProductListMapper) {
+        return new ReactiveProductQueryService(queryPort, searchProductListMapper);
+    }
+}
@@ -0,0 +1,141 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import com.jorgeandreu.products.application.exception.InvalidSortException;
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.out.ReactiveProductQueryPort;
+import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ReactiveProductQueryPort} over R2DBC. The WHERE clause is {@link ProductSqlFilter}, the same rendering the
+ * JDBC paths use, so filters behave exactly like the Specifications of {@link ProductRepositoryAdapter}; the order
+ * comes from the same {@link ProductSortPlanner}.
+ * <p>
+ * {@link #streamAll} sets a fetch size, so the driver reads through a portal {@code fetchSize} rows at a time and
+ * only asks for more as the subscriber's demand allows.
+ */
+public class R2dbcProductQueryAdapter implements ReactiveProductQueryPort {
+
+    private final DatabaseClient db;
+    private final ProductEntityMapper mapper;
+    private final ProductSortPlanner sortPlanner;
+    private final int fetchSize;
+
+    public R2dbcProductQueryAdapter(DatabaseClient db, ProductEntityMapper mapper, ProductSortPlanner sortPlanner,
+                                    int fetchSize) {
+        this.db = db;
+        this.mapper = mapper;
+        this.sortPlanner = sortPlanner;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Mono<PageResult<Product>> search(SearchCriteria criteria) {
+        if (criteria.hasCursor()) {
+            return Mono.error(new InvalidCursorException("cursor paging is not available on the reactive search"));
+        }
+        Sort sort;
+        try {
+            sort = sortPlanner.plan(criteria);
+        } catch (InvalidSortException ex) {
+            return Mono.error(ex);
+        }
+        ProductSqlFilter filter = ProductSqlFilter.of(criteria);
+        CountMode countMode = criteria.effectiveCountMode();
+        int size = criteria.size();
+
+        // one extra row tells whether there is a next page without a COUNT
+        var sql = "SELECT " + ProductRows.COLUMNS + " FROM products" + filter.where()
+                + " ORDER BY " + orderBy(sort) + " LIMIT :limit OFFSET :offset";
+        Mono<List<Product>> rows = bind(db.sql(sql), filter)
+                .bind("limit", size + 1)
+                .bind("offset", (long) criteria.page() * size)
+                .map(R2dbcProductQueryAdapter::toEntity)
+                .all()
+                .map(mapper::toDomain)
+                .collectList();
+
+        // ESTIMATED has no planner estimate here and is answered exactly
+        Mono<Long> total = countMode == CountMode.NONE
+                ? Mono.just(-1L)
+                : bind(db.sql("SELECT count(*) FROM products" + filter.where()), filter)
+                        .map(row -> row.get(0, Long.class))
+                        .one();
+
+        return Mono.zip(rows, total).map(t -> {
+            List<Product> content = t.getT1();
+            Long count = t.getT2() < 0 ? null : t.getT2();
+            boolean hasNext = content.size() > size;
+            return new PageResult<>(
+                    hasNext ? content.subList(0, size) : content,
+                    criteria.page(),
+                    size,
+                    count,
+                    count == null ? null : (int) ((count + size - 1) / size),
+                    hasNext,
+                    countMode,
+                    null);
+        });
+    }
+
+    @Override
+    public Flux<Product> streamAll(SearchCriteria criteria) {
+        ProductSqlFilter filter = ProductSqlFilter.of(criteria);
+        return bind(db.sql("SELECT " + ProductRows.COLUMNS + " FROM products" + filter.where()), filter)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(R2dbcProductQueryAdapter::toEntity)
+                .all()
+                .map(mapper::toDomain);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, ProductSqlFilter filter) {
+        for (Map.Entry<String, Object> param : filter.params().getValues().entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            // relevance; :query is bound by the text filter, which a relevance sort requires
+            return "ts_rank(search_vector, websearch_to_tsquery(" + ProductSearchFunctions.TS_CONFIG + ", :query)) DESC, id ASC";
+        }
+        return sort.stream()
+                .map(order -> ProductSortPlanner.Field.ofProperty(order.getProperty()).column()
+                        + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", "));
+    }
+
+    static ProductEntity toEntity(Readable row) {
+        return ProductEntity.builder()
+                .id(row.get("id", UUID.class))
+                .sku(row.get("sku", String.class))
+                .name(row.get("name", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .stock(row.get("stock", Integer.class))
+                .category(row.get("category", String.class))
+                .description(row.get("description", String.class))
+                .text(row.get("text", String.class))
+                .createdAt(row.get("created_at", Instant.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .deletedAt(row.get("deleted_at", Instant.class))
+                .version(row.get("version", Long.class))
+                .slotStock(row.get("slot_stock", Long.class))
+                .build();
+    }
+}
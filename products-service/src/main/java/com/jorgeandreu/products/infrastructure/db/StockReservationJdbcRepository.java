@@ -0,0 +1,86 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.out.StockReservationRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/** Expiry is judged by the database clock, so every instance agrees on whether a reservation is still open. */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationJdbcRepository implements StockReservationRepositoryPort {
+
+    private static final String INSERT = """
+            INSERT INTO stock_reservations (reservation_id, product_id, quantity, expires_at)
+            VALUES (:reservationId, :productId, :quantity, :expiresAt)
+            """;
+
+    private static final String DELETE_BY_ID = """
+            DELETE FROM stock_reservations
+            WHERE reservation_id = :reservationId
+            RETURNING product_id, quantity
+            """;
+
+    private static final String DELETE_UNEXPIRED_BY_ID = """
+            DELETE FROM stock_reservations
+            WHERE reservation_id = :reservationId
+              AND expires_at > now()
+            RETURNING product_id, quantity
+            """;
+
+    // SKIP LOCKED: lines a commit or release is deleting right now are theirs, and other sweepers take the next ones
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM stock_reservations r
+            USING (
+                SELECT reservation_id, product_id
+                FROM stock_reservations
+                WHERE expires_at <= now()
+                ORDER BY expires_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE r.reservation_id = due.reservation_id
+              AND r.product_id = due.product_id
+            RETURNING r.product_id, r.quantity
+            """;
+
+    private static final RowMapper<StockReservation.Line> LINE = (rs, n) ->
+            new StockReservation.Line(rs.getObject("product_id", UUID.class), rs.getInt("quantity"));
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Override
+    public void save(StockReservation reservation) {
+        Timestamp expiresAt = Timestamp.from(reservation.expiresAt());
+        jdbc.batchUpdate(INSERT, reservation.lines().stream()
+                .map(l -> new MapSqlParameterSource()
+                        .addValue("reservationId", reservation.id())
+                        .addValue("productId", l.productId())
+                        .addValue("quantity", l.quantity())
+                        .addValue("expiresAt", expiresAt))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    @Override
+    public List<StockReservation.Line> deleteById(UUID reservationId) {
+        return jdbc.query(DELETE_BY_ID, new MapSqlParameterSource("reservationId", reservationId), LINE);
+    }
+
+    @Override
+    public List<StockReservation.Line> deleteUnexpiredById(UUID reservationId) {
+        return jdbc.query(DELETE_UNEXPIRED_BY_ID, new MapSqlParameterSource("reservationId", reservationId), LINE);
+    }
+
+    @Override
+    public List<StockReservation.Line> deleteExpired(int limit) {
+        return jdbc.query(DELETE_EXPIRED, new MapSqlParameterSource("limit", limit), LINE);
+    }
+}
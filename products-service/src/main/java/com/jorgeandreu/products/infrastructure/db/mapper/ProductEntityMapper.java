@@ -3,20 +3,41 @@ package com.jorgeandreu.products.infrastructure.db.mapper;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
 import com.jorgeandreu.products.infrastructure.db.ProductEntity;
+import com.jorgeandreu.products.infrastructure.db.ProductListRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.data.domain.Page;
 
 @Mapper(componentModel = "spring")
 public interface ProductEntityMapper {
+    @Mapping(target = "stock", expression = "java(entity.effectiveStock())")
     Product toDomain(ProductEntity entity);
 
+    @Mapping(target = "stock", expression = "java(row.effectiveStock())")
+    Product toDomain(ProductListRow row);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "deletedAt", ignore = true)
     @Mapping(target = "version", constant = "0L")
+    @Mapping(target = "slotStock", ignore = true)
+    @Mapping(target = "categoryNorm", ignore = true)
     ProductEntity toEntity(Product domain);
 
+    /** Keeps the id, timestamps and version already assigned in the domain, for inserts that bypass JPA. */
+    @Mapping(target = "slotStock", ignore = true)
+    @Mapping(target = "categoryNorm", ignore = true)
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "text", ignore = true)
+    ProductEntity toNewEntity(Product domain);
+
+    @Mapping(target = "page", source = "number")
+    @Mapping(target = "hasNext", expression = "java(entityPageResult.hasNext())")
+    @Mapping(target = "countMode", constant = "EXACT")
+    @Mapping(target = "nextCursor", ignore = true)
+    @Mapping(target = "facets", ignore = true)
+    @Mapping(target = "withNextCursor", ignore = true)
+    @Mapping(target = "withFacets", ignore = true)
     PageResult<Product> toDomain(Page<ProductEntity> entityPageResult);
 }
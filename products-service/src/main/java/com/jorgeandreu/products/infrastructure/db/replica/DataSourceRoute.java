@@ -0,0 +1,7 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+/** Target pool of a connection handed out by {@link ReplicaRoutingDataSource}. */
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
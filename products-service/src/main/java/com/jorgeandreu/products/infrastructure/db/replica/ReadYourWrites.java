@@ -0,0 +1,24 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+/**
+ * Marks the current thread's work as pinned to the primary, because the client behind it wrote recently and
+ * must see its own changes. Set per request by {@link ReadYourWritesFilter}.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {}
+
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PINNED.remove();
+    }
+}
@@ -0,0 +1,59 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica for its replay lag and reports whether it is fresh enough to serve reads.
+ * <p>
+ * Until the first successful check, and whenever a check fails, the replica counts as unusable and reads stay
+ * on the primary. Checks run every {@code products.datasource.replica.lag-check-interval} on the context's task
+ * scheduler. The lag is published as the gauge {@code datasource.replica.lag} (seconds, NaN when unknown).
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // zero when everything received has been replayed: an idle primary must not look like a lagging replica
+    static final String LAG_SQL = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END
+            """;
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, m -> m.lagSeconds)
+                .baseUnit("seconds")
+                .description("Replay lag of the read replica")
+                .register(meterRegistry);
+    }
+
+    /** True when the last check succeeded and the replica was at most {@code max-lag} behind. */
+    public boolean isReplicaUsable() {
+        double lag = lagSeconds;
+        return !Double.isNaN(lag) && lag <= maxLag.toMillis() / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${products.datasource.replica.lag-check-interval:1s}")
+    void check() {
+        try {
+            Double lag = replica.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag == null ? Double.NaN : lag;
+        } catch (RuntimeException ex) {
+            if (!Double.isNaN(lagSeconds)) log.warn("Replica lag check failed, routing reads to the primary", ex);
+            lagSeconds = Double.NaN;
+        }
+    }
+}
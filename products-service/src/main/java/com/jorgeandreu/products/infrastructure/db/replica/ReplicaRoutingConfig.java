@@ -0,0 +1,79 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Splits the datasource into a primary pool ({@code spring.datasource.*}) and a replica pool
+ * ({@code products.datasource.replica.*}) behind one routing datasource. Read-only transactions, which include
+ * every Spring Data read outside a write transaction, go to the replica; see {@link ReplicaRoutingDataSource}.
+ * <p>
+ * The pools are named {@code primary} and {@code replica}, so their {@code hikaricp.connections.*} metrics are
+ * tagged per route.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("products.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(
+            @Value("${products.datasource.replica.url}") String url,
+            @Value("${products.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${products.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${products.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${products.datasource.replica.lag-check-interval:1s}") Duration checkInterval,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, maxLag, checkInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaLagMonitor lagMonitor,
+                          MeterRegistry meterRegistry) {
+        var routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(
+            @Value("${products.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,56 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * A read-only transaction still goes to the primary when the client is pinned by {@link ReadYourWritesFilter read-your-writes}
+ * or the replica lags more than allowed.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager opens the connection before it marks the transaction read-only, so the lookup has to wait for the
+ * first statement. Each decision is counted in {@code datasource.route}, tagged {@code route} and {@code reason}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Reason { READ_WRITE, READ_ONLY, PINNED, REPLICA_LAGGING }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Map<Reason, Counter> decisions = new EnumMap<>(Reason.class);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        for (Reason reason : Reason.values()) {
+            DataSourceRoute route = reason == Reason.READ_ONLY ? DataSourceRoute.REPLICA : DataSourceRoute.PRIMARY;
+            decisions.put(reason, Counter.builder("datasource.route")
+                    .tag("route", route.name().toLowerCase())
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Reason reason = reason();
+        decisions.get(reason).increment();
+        return reason == Reason.READ_ONLY ? DataSourceRoute.REPLICA : DataSourceRoute.PRIMARY;
+    }
+
+    private Reason reason() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return Reason.READ_WRITE;
+        if (ReadYourWrites.isPinned()) return Reason.PINNED;
+        if (!lagMonitor.isReplicaUsable()) return Reason.REPLICA_LAGGING;
+        return Reason.READ_ONLY;
+    }
+}
@@ -0,0 +1,61 @@
+package com.jorgeandreu.products.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/** Writes change events to the {@code product_outbox} table, in the caller's transaction; {@link OutboxRelay} ships them. */
+@Component
+@RequiredArgsConstructor
+public class OutboxProductChangePublisher implements ProductChangePublisherPort {
+
+    private static final String INSERT = """
+            INSERT INTO product_outbox (event_id, aggregate_id, event_type, payload)
+            VALUES (:eventId, :aggregateId, :eventType, CAST(:payload AS jsonb))
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publish(ProductChangeEvent event) {
+        requireTransaction();
+        jdbc.update(INSERT, params(event));
+    }
+
+    @Override
+    public void publishAll(List<ProductChangeEvent> events) {
+        if (events.isEmpty()) return;
+        requireTransaction();
+        jdbc.batchUpdate(INSERT, events.stream().map(this::params).toArray(SqlParameterSource[]::new));
+    }
+
+    private SqlParameterSource params(ProductChangeEvent event) {
+        try {
+            return new MapSqlParameterSource()
+                    .addValue("eventId", event.eventId())
+                    .addValue("aggregateId", event.productId())
+                    .addValue("eventType", event.type().name())
+                    .addValue("payload", objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize " + event, ex);
+        }
+    }
+
+    // outside a transaction the event could be stored for a change that then rolls back, or the other way round
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Product change events must be published inside the change's transaction");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jorgeandreu.products.infrastructure.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@code product_outbox} to Kafka in id order, one batch per transaction: send the batch, wait for every
+ * acknowledgement, then delete the rows. A failed batch rolls back and is retried whole on the next run, so delivery
+ * is at least once; consumers discard repeats by {@code eventId} or stale states by product version.
+ * <p>
+ * Records are keyed by product id, so one product's events land on one partition in commit order. Only one
+ * instance drains at a time (transaction-scoped advisory lock): concurrent relays would interleave batches.
+ * <p>
+ * Metrics: {@code outbox.pending} and {@code outbox.lag} (age of the oldest unsent event, seconds) as of the last
+ * run, {@code outbox.delivery.delay} from commit to acknowledgement, {@code outbox.published}, {@code outbox.failures}.
+ */
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+
+    // arbitrary constant naming the relay's advisory lock
+    private static final long LOCK_KEY = 0x70726f6475637473L;
+
+    private static final String SELECT_BATCH = """
+            SELECT id, event_id, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM product_outbox
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    record Row(long id, UUID eventId, UUID aggregateId, String eventType, String payload, Instant createdAt) {}
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionOperations transactions;
+    private final KafkaTemplate<String, String> kafka;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer deliveryDelay;
+    private volatile double pending = Double.NaN;
+    private volatile double lagSeconds = Double.NaN;
+
+    public OutboxRelay(NamedParameterJdbcTemplate jdbc, TransactionOperations transactions,
+                       KafkaTemplate<String, String> kafka, String topic, int batchSize, Duration sendTimeout,
+                       Duration interval, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.transactions = transactions;
+        this.kafka = kafka;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.published = meterRegistry.counter("outbox.published", "topic", topic);
+        this.failures = meterRegistry.counter("outbox.failures", "topic", topic);
+        this.deliveryDelay = Timer.builder("outbox.delivery.delay").tag("topic", topic)
+                .publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("outbox.pending", this, r -> r.pending).tag("topic", topic).register(meterRegistry);
+        Gauge.builder("outbox.lag", this, r -> r.lagSeconds).tag("topic", topic).baseUnit("seconds")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("outbox-relay").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void run() {
+        try {
+            // keep going while batches come back full, so a backlog drains without waiting for the next tick
+            int sent;
+            do {
+                sent = drainBatch();
+            } while (sent == batchSize);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Outbox relay run failed; unsent events stay in the outbox", ex);
+        } finally {
+            refreshBacklog();
+        }
+    }
+
+    /** Sends and deletes up to {@code batch-size} events; returns how many, 0 when idle or another instance holds the lock. */
+    int drainBatch() {
+        Integer sent = transactions.execute(tx -> {
+            var lock = new MapSqlParameterSource("key", LOCK_KEY);
+            if (!Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(:key)", lock, Boolean.class))) {
+                return 0;
+            }
+            List<Row> rows = jdbc.query(SELECT_BATCH, new MapSqlParameterSource("limit", batchSize), (rs, n) -> new Row(
+                    rs.getLong("id"), rs.getObject("event_id", UUID.class), rs.getObject("aggregate_id", UUID.class),
+                    rs.getString("event_type"), rs.getString("payload"), rs.getTimestamp("created_at").toInstant()));
+            if (rows.isEmpty()) return 0;
+
+            send(rows);
+            Long[] ids = rows.stream().map(Row::id).toArray(Long[]::new);
+            jdbc.update("DELETE FROM product_outbox WHERE id = ANY(:ids)",
+                    new MapSqlParameterSource("ids", new SqlArrayValue("bigint", (Object[]) ids)));
+            return rows.size();
+        });
+        return sent == null ? 0 : sent;
+    }
+
+    private void send(List<Row> rows) {
+        CompletableFuture<?>[] acks = rows.stream().map(this::send).toArray(CompletableFuture[]::new);
+        kafka.flush(); // the batch is complete: don't wait out linger.ms
+        try {
+            CompletableFuture.allOf(acks).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Kafka did not acknowledge the outbox batch", ex);
+        }
+        Instant now = Instant.now();
+        rows.forEach(r -> deliveryDelay.record(Duration.between(r.createdAt(), now)));
+        published.increment(rows.size());
+    }
+
+    private CompletableFuture<?> send(Row row) {
+        var record = new ProducerRecord<>(topic, row.aggregateId().toString(), row.payload());
+        record.headers()
+                .add("event-id", row.eventId().toString().getBytes(StandardCharsets.UTF_8))
+                .add("event-type", row.eventType().getBytes(StandardCharsets.UTF_8));
+        return kafka.send(record);
+    }
+
+    private void refreshBacklog() {
+        try {
+            jdbc.getJdbcTemplate().query(
+                    "SELECT count(*) AS pending, EXTRACT(EPOCH FROM now() - min(created_at)) AS lag FROM product_outbox",
+                    (RowCallbackHandler) rs -> {
+                        pending = rs.getLong("pending");
+                        double lag = rs.getDouble("lag");
+                        lagSeconds = rs.wasNull() ? 0 : lag;
+                    });
+        } catch (RuntimeException ex) {
+            pending = Double.NaN;
+            lagSeconds = Double.NaN;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+package com.jorgeandreu.products.infrastructure.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+
+/**
+ * Starts the {@link OutboxRelay} and declares its topic. Producer batching, compression and idempotence are set
+ * under {@code spring.kafka.producer}. Switched off with {@code products.outbox.relay.enabled=false}; events then
+ * accumulate in the outbox until a relay runs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayConfig {
+
+    @Bean
+    NewTopic productChangesTopic(@Value("${products.outbox.topic:products.changes}") String topic,
+                                 @Value("${products.outbox.partitions:6}") int partitions) {
+        return TopicBuilder.name(topic).partitions(partitions).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    OutboxRelay outboxRelay(NamedParameterJdbcTemplate jdbc,
+                            TransactionOperations transactions,
+                            KafkaTemplate<String, String> kafka,
+                            @Value("${products.outbox.topic:products.changes}") String topic,
+                            @Value("${products.outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${products.outbox.relay.send-timeout:10s}") Duration sendTimeout,
+                            @Value("${products.outbox.relay.interval:500ms}") Duration interval,
+                            MeterRegistry meterRegistry) {
+        return new OutboxRelay(jdbc, transactions, kafka, topic, batchSize, sendTimeout, interval, meterRegistry);
+    }
+}
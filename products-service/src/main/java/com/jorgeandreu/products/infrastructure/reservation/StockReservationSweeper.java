@@ -0,0 +1,48 @@
+package com.jorgeandreu.products.infrastructure.reservation;
+
+import com.jorgeandreu.products.domain.port.in.ExpireStockReservationsUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Returns the stock of expired reservations, one batch of lines per transaction. Every instance may run one: the
+ * sweep skips lines another transaction has locked, so sweepers share the backlog instead of waiting on each other.
+ * <p>
+ * Runs every {@code products.reservations.sweeper.interval} on the context's task scheduler.
+ * <p>
+ * Metrics: {@code stock.reservations.expired} (lines), {@code stock.reservations.sweep.failures}.
+ */
+@Slf4j
+public class StockReservationSweeper {
+
+    private final ExpireStockReservationsUseCase expire;
+    private final int batchSize;
+
+    private final Counter expired;
+    private final Counter failures;
+
+    public StockReservationSweeper(ExpireStockReservationsUseCase expire, int batchSize, MeterRegistry meterRegistry) {
+        this.expire = expire;
+        this.batchSize = batchSize;
+        this.expired = meterRegistry.counter("stock.reservations.expired");
+        this.failures = meterRegistry.counter("stock.reservations.sweep.failures");
+    }
+
+    @Scheduled(initialDelayString = "${products.reservations.sweeper.interval:5s}",
+            fixedDelayString = "${products.reservations.sweeper.interval:5s}")
+    void run() {
+        try {
+            // keep going while batches come back full, so a backlog clears without waiting for the next tick
+            int swept;
+            do {
+                swept = expire.expireDue(batchSize);
+                expired.increment(swept);
+            } while (swept == batchSize);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Stock reservation sweep failed; expired reservations are retried on the next run", ex);
+        }
+    }
+}
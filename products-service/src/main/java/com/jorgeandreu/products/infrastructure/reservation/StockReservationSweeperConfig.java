@@ -0,0 +1,25 @@
+package com.jorgeandreu.products.infrastructure.reservation;
+
+import com.jorgeandreu.products.domain.port.in.ExpireStockReservationsUseCase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Starts the {@link StockReservationSweeper}. Switched off with {@code products.reservations.sweeper.enabled=false};
+ * expired reservations then keep their stock until a sweeper runs, but can no longer be committed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.reservations.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class StockReservationSweeperConfig {
+
+    @Bean
+    StockReservationSweeper stockReservationSweeper(
+            ExpireStockReservationsUseCase expire,
+            @Value("${products.reservations.sweeper.batch-size:500}") int batchSize,
+            MeterRegistry meterRegistry) {
+        return new StockReservationSweeper(expire, batchSize, meterRegistry);
+    }
+}
@@ -1,10 +1,22 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.jorgeandreu.products.application.exception.BulkUpdateJobNotFoundException;
+import com.jorgeandreu.products.application.exception.InsufficientStockException;
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import com.jorgeandreu.products.application.exception.InvalidImportFileException;
+import com.jorgeandreu.products.application.exception.InvalidProductPatchException;
+import com.jorgeandreu.products.application.exception.InvalidSortException;
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.ProductPreconditionFailedException;
 import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
+import com.jorgeandreu.products.application.exception.ProductVersionRequiredException;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
+import com.jorgeandreu.products.application.exception.StockReservationNotFoundException;
 import com.jorgeandreu.products.infrastructure.api.model.Problem;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,6 +24,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.sql.SQLTransientConnectionException;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpStatus.*;
@@ -42,6 +55,83 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(NOT_FOUND).body(p);
     }
 
+    @ExceptionHandler(StockReservationNotFoundException.class)
+    public ResponseEntity<Problem> handleReservationNotFound(StockReservationNotFoundException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Reservation not found")
+                .status(NOT_FOUND.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/reservation-not-found").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(NOT_FOUND).body(p);
+    }
+
+    @ExceptionHandler(BulkUpdateJobNotFoundException.class)
+    public ResponseEntity<Problem> handleBulkUpdateJobNotFound(BulkUpdateJobNotFoundException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Bulk update job not found")
+                .status(NOT_FOUND.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/bulk-update-job-not-found").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(NOT_FOUND).body(p);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Problem> handleInsufficientStock(InsufficientStockException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Insufficient stock")
+                .status(CONFLICT.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/insufficient-stock").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(CONFLICT).body(p);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Problem> handleInvalidCursor(InvalidCursorException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Invalid cursor")
+                .status(BAD_REQUEST.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/invalid-cursor").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(BAD_REQUEST).body(p);
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<Problem> handleInvalidSort(InvalidSortException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Invalid sort")
+                .status(BAD_REQUEST.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/invalid-sort").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(BAD_REQUEST).body(p);
+    }
+
+    @ExceptionHandler(InvalidProductPatchException.class)
+    public ResponseEntity<Problem> handleInvalidPatch(InvalidProductPatchException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Invalid patch")
+                .status(BAD_REQUEST.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/invalid-patch").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(BAD_REQUEST).body(p);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Problem> handleInvalidImportFile(InvalidImportFileException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Invalid import file")
+                .status(BAD_REQUEST.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/invalid-import-file").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(BAD_REQUEST).body(p);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Problem> handleDataIntegrity(DataIntegrityViolationException ex, WebRequest req) {
         var p = new Problem()
@@ -53,6 +143,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(CONFLICT).body(p);
     }
 
+    /**
+     * No connection within the limiter or pool timeout: the database is saturated, not failing, so the client is told
+     * to retry shortly. Other resource failures stay 500.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Problem> handleDatabaseUnavailable(RuntimeException ex, WebRequest req) {
+        if (!(NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLTransientConnectionException)) {
+            return handleUnexpected(ex, req);
+        }
+        var p = new Problem()
+                .title("Service unavailable")
+                .status(SERVICE_UNAVAILABLE.value())
+                .detail("Too many concurrent requests. Please retry shortly.")
+                .type(URI.create(URI.create("https://example.com/problems/service-unavailable").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(SERVICE_UNAVAILABLE).header("Retry-After", "1").body(p);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Problem> handleValidation(MethodArgumentNotValidException ex, WebRequest req) {
         var details = ex.getBindingResult().getFieldErrors().stream()
@@ -83,12 +191,34 @@ public class GlobalExceptionHandler {
         var p = new Problem()
                 .title("Version conflict")
                 .status(CONFLICT.value())
-                .detail(ex.getMessage()) // e.g. "Version conflict updating product <id> with expected version <n>"
+                .detail(ex.getMessage()) // e.g. "Version conflict on product <id>: expected version <n>"
                 .type(URI.create(URI.create("https://example.com/problems/version-conflict").toString()))
                 .instance(path(req));
         return ResponseEntity.status(CONFLICT).body(p);
     }
 
+    @ExceptionHandler(ProductPreconditionFailedException.class)
+    public ResponseEntity<Problem> handlePreconditionFailed(ProductPreconditionFailedException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Precondition failed")
+                .status(PRECONDITION_FAILED.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/precondition-failed").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(PRECONDITION_FAILED).body(p);
+    }
+
+    @ExceptionHandler(ProductVersionRequiredException.class)
+    public ResponseEntity<Problem> handleVersionRequired(ProductVersionRequiredException ex, WebRequest req) {
+        var p = new Problem()
+                .title("Precondition required")
+                .status(PRECONDITION_REQUIRED.value())
+                .detail(ex.getMessage())
+                .type(URI.create(URI.create("https://example.com/problems/precondition-required").toString()))
+                .instance(path(req));
+        return ResponseEntity.status(PRECONDITION_REQUIRED).body(p);
+    }
+
     private URI path(WebRequest req) {
         var d = req.getDescription(false); // "uri=/api/v1/products"
         return URI.create(d.startsWith("uri=") ? d.substring(4) : d);
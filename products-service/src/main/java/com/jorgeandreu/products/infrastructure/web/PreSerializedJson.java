@@ -0,0 +1,8 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+/**
+ * A response body rendered to JSON ahead of time, written as it is by {@link PreSerializedJsonHttpMessageConverter}.
+ * Deliberately not an API model: nothing else can mistake it for one and read empty fields.
+ */
+record PreSerializedJson(byte[] json) {
+}
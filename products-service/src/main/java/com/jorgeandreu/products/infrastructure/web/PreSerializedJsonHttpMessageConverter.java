@@ -0,0 +1,58 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes a {@link PreSerializedJson}'s cached bytes straight to the response, with their exact Content-Length,
+ * instead of running Jackson over the model. Write-only; every other body still goes through the stock converters.
+ */
+public class PreSerializedJsonHttpMessageConverter implements HttpMessageConverter<PreSerializedJson> {
+
+    private static final List<MediaType> SUPPORTED = List.of(MediaType.APPLICATION_JSON);
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return PreSerializedJson.class == clazz
+                && (mediaType == null || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType));
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return SUPPORTED;
+    }
+
+    @Override
+    public PreSerializedJson read(Class<? extends PreSerializedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException(
+                "PreSerializedJsonHttpMessageConverter only writes response bodies", inputMessage);
+    }
+
+    @Override
+    public void write(PreSerializedJson body, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException {
+        HttpHeaders headers = outputMessage.getHeaders();
+        if (headers.getContentType() == null) {
+            // a wildcard from the Accept header is not a content type; the bytes are JSON
+            headers.setContentType(contentType != null && contentType.isConcrete()
+                    ? contentType : MediaType.APPLICATION_JSON);
+        }
+        headers.setContentLength(body.json().length);
+        OutputStream out = outputMessage.getBody();
+        out.write(body.json());
+        out.flush();
+    }
+}
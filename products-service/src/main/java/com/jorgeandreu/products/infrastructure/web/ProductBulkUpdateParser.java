@@ -0,0 +1,76 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.infrastructure.api.model.BulkUpdateLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads a bulk update upload line by line (see {@link UploadLines}). NDJSON lines are bound to {@link BulkUpdateLine};
+ * CSV needs a header row with the sku, price and stock columns, version being optional. An empty value keeps the
+ * current one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductBulkUpdateParser {
+
+    static final List<String> CSV_COLUMNS = List.of("sku", "price", "stock");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Reads up to the first non-blank line to detect the format (and CSV header) eagerly, so a bad upload is
+     * rejected before a job is created. The returned stream closes {@code in}.
+     */
+    public Stream<BulkUpdateRow> parse(InputStream in) {
+        return UploadLines.read(in, CSV_COLUMNS, new UploadLines.RowReader<>() {
+            @Override
+            public BulkUpdateRow json(long line, String raw) {
+                return fromJson(line, raw);
+            }
+
+            @Override
+            public BulkUpdateRow csv(long line, UploadLines.Fields fields) {
+                return fromCsv(line, fields);
+            }
+        });
+    }
+
+    private BulkUpdateRow fromJson(long line, String raw) {
+        try {
+            BulkUpdateLine req = objectMapper.readValue(raw, BulkUpdateLine.class);
+            return BulkUpdateRow.parsed(line, req.getSku(),
+                    req.getPrice() == null ? null : BigDecimal.valueOf(req.getPrice()),
+                    req.getStock(),
+                    req.getVersion());
+        } catch (JsonProcessingException ex) {
+            return BulkUpdateRow.malformed(line, null, "malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static BulkUpdateRow fromCsv(long line, UploadLines.Fields fields) {
+        String sku = fields.get("sku");
+        try {
+            String price = fields.get("price");
+            String stock = fields.get("stock");
+            String version = fields.get("version");
+            return BulkUpdateRow.parsed(line, sku,
+                    isBlank(price) ? null : new BigDecimal(price.strip()),
+                    isBlank(stock) ? null : Integer.valueOf(stock.strip()),
+                    isBlank(version) ? null : Long.valueOf(version.strip()));
+        } catch (NumberFormatException ex) {
+            return BulkUpdateRow.malformed(line, sku, "price, stock and version must be numeric");
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
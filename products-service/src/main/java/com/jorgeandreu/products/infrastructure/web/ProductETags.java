@@ -0,0 +1,94 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.jorgeandreu.products.application.exception.ProductPreconditionFailedException;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags for product responses, and the If-None-Match / If-Match checks against them.
+ * <p>
+ * A product's tag is {@code "<version>.<stock>"}: the version changes on every write except the stock moves of a
+ * sharded product, which is why the stock is part of it. If-Match only uses the version, the concurrency token that
+ * updates and deletes are conditional on. A page's tag digests its totals, its newest {@code updatedAt} and the
+ * (id, version, stock) of every row, so it is computed from the page without re-serializing it.
+ */
+final class ProductETags {
+
+    private static final Pattern PRODUCT_TAG = Pattern.compile("\"(\\d+)\\.\\d+\"");
+
+    private ProductETags() {}
+
+    static String of(Product product) {
+        return "\"" + product.version() + "." + product.stock() + "\"";
+    }
+
+    static String of(PageResult<Product> page) {
+        MessageDigest digest = sha256();
+        update(digest, page.page() + "|" + page.size() + "|" + page.totalElements() + "|" + page.totalPages()
+                + "|" + page.hasNext() + "|" + page.countMode() + "|" + page.nextCursor());
+        Instant newest = null;
+        ByteBuffer row = ByteBuffer.allocate(2 * Long.BYTES + Long.BYTES + Integer.BYTES);
+        for (Product p : Objects.requireNonNullElse(page.content(), List.<Product>of())) {
+            UUID id = p.id();
+            row.clear();
+            row.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                    .putLong(p.version()).putInt(p.stock());
+            digest.update(row.array());
+            if (p.updatedAt() != null && (newest == null || p.updatedAt().isAfter(newest))) newest = p.updatedAt();
+        }
+        update(digest, "|" + newest);
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    /** If-None-Match uses weak comparison: {@code W/} prefixes are ignored, and {@code *} matches anything. */
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The version an If-Match header makes a write conditional on; empty without a header or with {@code *}.
+     * A weak, malformed or multi-valued tag can never match a product strongly, so it fails the precondition.
+     */
+    static OptionalLong ifMatchVersion(UUID id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return OptionalLong.empty();
+        Matcher m = PRODUCT_TAG.matcher(ifMatch.trim());
+        if (!m.matches()) throw new ProductPreconditionFailedException(id, ifMatch);
+        try {
+            return OptionalLong.of(Long.parseLong(m.group(1)));
+        } catch (NumberFormatException ex) {
+            throw new ProductPreconditionFailedException(id, ifMatch);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads a bulk-import upload line by line (see {@link UploadLines}). NDJSON lines are bound to
+ * {@link CreateProductRequest}; CSV needs a header row naming the columns.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductImportParser {
+
+    static final List<String> CSV_COLUMNS = List.of("sku", "name", "price", "stock", "category");
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductWebMapper webMapper;
+
+    /**
+     * Reads up to the first non-blank line to detect the format (and CSV header) eagerly, so a bad upload is
+     * rejected before any row is imported. The returned stream closes {@code in}.
+     */
+    public Stream<ProductImportRow> parse(InputStream in) {
+        return UploadLines.read(in, CSV_COLUMNS, new UploadLines.RowReader<>() {
+            @Override
+            public ProductImportRow json(long line, String raw) {
+                return fromJson(line, raw);
+            }
+
+            @Override
+            public ProductImportRow csv(long line, UploadLines.Fields fields) {
+                return fromCsv(line, fields);
+            }
+        });
+    }
+
+    private ProductImportRow fromJson(long line, String raw) {
+        try {
+            CreateProductRequest req = objectMapper.readValue(raw, CreateProductRequest.class);
+            return ProductImportRow.parsed(line, webMapper.toCommand(req));
+        } catch (JsonProcessingException ex) {
+            return ProductImportRow.malformed(line, null, "malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static ProductImportRow fromCsv(long line, UploadLines.Fields fields) {
+        String sku = fields.get("sku");
+        try {
+            String price = fields.get("price");
+            String stock = fields.get("stock");
+            return ProductImportRow.parsed(line, new CreateProductCommand(
+                    sku,
+                    fields.get("name"),
+                    price == null || price.isBlank() ? null : new BigDecimal(price.strip()),
+                    stock == null || stock.isBlank() ? null : Integer.valueOf(stock.strip()),
+                    fields.get("category")));
+        } catch (NumberFormatException ex) {
+            return ProductImportRow.malformed(line, sku, "price and stock must be numeric");
+        }
+    }
+}
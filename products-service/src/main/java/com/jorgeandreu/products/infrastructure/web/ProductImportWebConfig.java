@@ -0,0 +1,17 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ProductImportWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of ResourceHttpMessageConverter, which would buffer the upload
+        converters.addFirst(new StreamingUploadHttpMessageConverter());
+    }
+}
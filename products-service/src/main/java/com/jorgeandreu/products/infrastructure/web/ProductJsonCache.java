@@ -0,0 +1,47 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jorgeandreu.products.domain.model.Product;
+
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Response bodies for single products, serialized once per (id, version). Writes bump the version, so an entry never
+ * goes stale; it just stops being asked for and is evicted by size. The key also holds the stock, the one field a
+ * sharded product changes without a version bump. A hit skips the web mapping and Jackson entirely, see
+ * {@link PreSerializedJsonHttpMessageConverter}.
+ * <p>
+ * Without a cache (switched off by configuration) bodies are mapped per request as usual.
+ */
+public class ProductJsonCache {
+
+    record Key(UUID id, long version, int stock) {}
+
+    private final Cache<Key, byte[]> bodies;
+    private final ProductWebMapper webMapper;
+    private final ObjectMapper objectMapper;
+
+    public ProductJsonCache(Cache<Key, byte[]> bodies, ProductWebMapper webMapper, ObjectMapper objectMapper) {
+        this.bodies = bodies;
+        this.webMapper = webMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /** The response body for {@code product}: a {@link PreSerializedJson} when cached, a plain API model otherwise. */
+    public Object body(Product product) {
+        if (bodies == null) return webMapper.toApi(product);
+        return new PreSerializedJson(bodies.get(new Key(product.id(), product.version(), product.stock()), k -> serialize(product)));
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            // the MVC ObjectMapper, so the bytes match what the Jackson converter would have written
+            return objectMapper.writeValueAsBytes(webMapper.toApi(product));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serialized product bodies, bounded by total bytes rather than entry count. Hit/miss counters are published as
+ * {@code cache.gets} tagged {@code cache=products.json}.
+ */
+@Configuration
+public class ProductJsonCacheConfig implements WebMvcConfigurer {
+
+    static final String CACHE_NAME = "products.json";
+
+    @Bean
+    @ConditionalOnProperty(name = "products.cache.json.enabled", havingValue = "true", matchIfMissing = true)
+    Cache<ProductJsonCache.Key, byte[]> productJsonBodies(
+            @Value("${products.cache.json.maximum-weight:32MB}") DataSize maximumWeight,
+            @Value("${products.cache.json.expire-after-access:10m}") Duration expireAfterAccess,
+            MeterRegistry meterRegistry) {
+        Cache<ProductJsonCache.Key, byte[]> cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .<ProductJsonCache.Key, byte[]>weigher((key, json) -> json.length)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Bean
+    ProductJsonCache productJsonCache(ObjectProvider<Cache<ProductJsonCache.Key, byte[]>> productJsonBodies,
+                                      ProductWebMapper webMapper, ObjectMapper objectMapper) {
+        return new ProductJsonCache(productJsonBodies.getIfAvailable(), webMapper, objectMapper);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of the Jackson converter, which would otherwise serialize the record's byte array
+        converters.addFirst(new PreSerializedJsonHttpMessageConverter());
+    }
+}
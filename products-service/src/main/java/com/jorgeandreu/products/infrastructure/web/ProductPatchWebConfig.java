@@ -0,0 +1,15 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProductPatchWebConfig {
+
+    /** Lets a merge patch tell a field sent as null from one left out, which the generated model keeps apart. */
+    @Bean
+    public JsonNullableModule jsonNullableModule() {
+        return new JsonNullableModule();
+    }
+}
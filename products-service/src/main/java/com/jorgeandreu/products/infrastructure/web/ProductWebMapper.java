@@ -1,17 +1,36 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.jorgeandreu.products.application.exception.InvalidProductPatchException;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.model.FacetRequest;
 import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.ProductLookup;
+import com.jorgeandreu.products.domain.model.StockReservation;
 import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.PatchProductCommand;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
 import com.jorgeandreu.products.domain.port.in.UpdateProductCommand;
+import com.jorgeandreu.products.infrastructure.api.model.BulkUpdateRowResult;
 import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
 import com.jorgeandreu.products.infrastructure.api.model.Product;
+import com.jorgeandreu.products.infrastructure.api.model.ProductImportResult;
+import com.jorgeandreu.products.infrastructure.api.model.ProductLookupResult;
 import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPatch;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequest;
+import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequestFacets;
+import com.jorgeandreu.products.infrastructure.api.model.ReserveStockRequest;
+import com.jorgeandreu.products.infrastructure.api.model.StockReservationLine;
 import com.jorgeandreu.products.infrastructure.api.model.UpdateProductRequest;
 import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
+import org.mapstruct.ValueMapping;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.math.BigDecimal;
 
 @Mapper(componentModel = "spring", uses = TimeMapper.class)
 public interface ProductWebMapper {
@@ -30,9 +49,62 @@ public interface ProductWebMapper {
     @Mapping(target = "text", source = "filters.text")
     SearchCriteriaCommand productSearchCriteriaToSearchCriteria(ProductSearchCriteriaRequest request);
 
+    @Mapping(target = "priceBounds", source = "priceBuckets")
+    @Mapping(target = "withDefaultPriceBounds", ignore = true)
+    FacetRequest toDomain(ProductSearchCriteriaRequestFacets facets);
+
     @Mapping(target = "content", qualifiedByName = "toApi")
     ProductPage toApi(PageResult<com.jorgeandreu.products.domain.model.Product> pageResult);
 
+    /** The body version is optional when If-Match carries it: a missing one maps to 0 and the delegate fills it in. */
+    @Mapping(target = "withVersion", ignore = true)
     UpdateProductCommand toCommand(UpdateProductRequest req);
 
+    /**
+     * A field left out of the merge patch is null in the command, meaning unchanged; one sent as null would remove
+     * a mandatory field and is rejected. The version is filled in by the delegate, as for updates.
+     */
+    default PatchProductCommand toCommand(ProductPatch patch) {
+        Double price = patched(patch.getPrice(), "price");
+        return new PatchProductCommand(
+                patched(patch.getSku(), "sku"),
+                patched(patch.getName(), "name"),
+                price == null ? null : BigDecimal.valueOf(price),
+                patched(patch.getStock(), "stock"),
+                patched(patch.getCategory(), "category"),
+                patch.getVersion() == null ? 0 : patch.getVersion());
+    }
+
+    private static <T> T patched(JsonNullable<T> field, String name) {
+        if (field == null || !field.isPresent()) return null;
+        if (field.get() == null) throw new InvalidProductPatchException(name);
+        return field.get();
+    }
+
+    ProductImportResult toApi(com.jorgeandreu.products.domain.model.ProductImportResult result);
+
+    @Mapping(target = "found", expression = "java(lookup.found())")
+    @Mapping(target = "product", qualifiedByName = "toApi")
+    ProductLookupResult toApi(ProductLookup lookup);
+
+    @Mapping(target = "ttl", expression = "java(req.getTtlSeconds() == null ? null : java.time.Duration.ofSeconds(req.getTtlSeconds()))")
+    ReserveStockCommand toCommand(ReserveStockRequest req);
+
+    StockReservation.Line toDomain(StockReservationLine line);
+
+    StockReservationLine toApi(StockReservation.Line line);
+
+    com.jorgeandreu.products.infrastructure.api.model.StockReservation toApi(StockReservation reservation);
+
+    @Mapping(target = "rowsPerSecond", expression = "java(job.rowsPerSecond(java.time.Instant.now()))")
+    com.jorgeandreu.products.infrastructure.api.model.BulkUpdateJob toApi(
+            com.jorgeandreu.products.domain.model.BulkUpdateJob job);
+
+    BulkUpdateRowResult toApi(BulkUpdateRow row);
+
+    /** Only rejected rows are listed. */
+    @ValueMapping(source = "PENDING", target = MappingConstants.NULL)
+    @ValueMapping(source = "UPDATED", target = MappingConstants.NULL)
+    BulkUpdateRowResult.StatusEnum toApi(BulkUpdateRow.Status status);
+
 }
@@ -1,25 +1,57 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.application.exception.ProductPreconditionFailedException;
+import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
+import com.jorgeandreu.products.application.exception.ProductVersionRequiredException;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.port.in.BatchGetProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.CommitStockReservationUseCase;
 import com.jorgeandreu.products.domain.port.in.CreateProductUseCase;
 import com.jorgeandreu.products.domain.port.in.DeleteProductUseCase;
+import com.jorgeandreu.products.domain.port.in.ExportProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.GetBulkUpdateJobUseCase;
 import com.jorgeandreu.products.domain.port.in.GetProductUseCase;
+import com.jorgeandreu.products.domain.port.in.ImportProductsUseCase;
 import com.jorgeandreu.products.domain.port.in.ListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import com.jorgeandreu.products.domain.port.in.ReleaseStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ReserveStockUseCase;
+import com.jorgeandreu.products.domain.port.in.ReshardStockUseCase;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.domain.port.in.SubmitBulkUpdateUseCase;
 import com.jorgeandreu.products.domain.port.in.UpdateProductUseCase;
 import com.jorgeandreu.products.infrastructure.api.ProductsApiDelegate;
+import com.jorgeandreu.products.infrastructure.api.model.BatchGetProductsRequest;
+import com.jorgeandreu.products.infrastructure.api.model.BatchGetProductsResponse;
+import com.jorgeandreu.products.infrastructure.api.model.BulkUpdateJob;
+import com.jorgeandreu.products.infrastructure.api.model.CountMode;
 import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
 import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPatch;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequest;
+import com.jorgeandreu.products.infrastructure.api.model.ReserveStockRequest;
+import com.jorgeandreu.products.infrastructure.api.model.StockReservation;
+import com.jorgeandreu.products.infrastructure.api.model.StockShardsRequest;
 import com.jorgeandreu.products.infrastructure.api.model.UpdateProductRequest;
+import com.jorgeandreu.products.infrastructure.web.util.NdjsonStreamResource;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
@@ -38,6 +70,32 @@ public class ProductsApiDelegateImpl implements ProductsApiDelegate {
 
     private final UpdateProductUseCase updateProductUC;
 
+    private final ImportProductsUseCase importProductsUC;
+
+    private final ExportProductsUseCase exportProductsUC;
+
+    private final BatchGetProductsUseCase batchGetProductsUC;
+
+    private final ReserveStockUseCase reserveStockUC;
+
+    private final ReleaseStockReservationUseCase releaseStockReservationUC;
+
+    private final CommitStockReservationUseCase commitStockReservationUC;
+
+    private final ReshardStockUseCase reshardStockUC;
+
+    private final SubmitBulkUpdateUseCase submitBulkUpdateUC;
+
+    private final GetBulkUpdateJobUseCase getBulkUpdateJobUC;
+
+    private final ProductImportParser importParser;
+
+    private final ProductBulkUpdateParser bulkUpdateParser;
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductJsonCache productJson;
+
     @Override
     public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> createProduct(CreateProductRequest req) {
         var cmd = webMapper.toCommand(req);
@@ -50,9 +108,14 @@ public class ProductsApiDelegateImpl implements ProductsApiDelegate {
     }
 
     @Override
-    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> getProductById(UUID id) {
+    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> getProductById(UUID id, String ifNoneMatch) {
         Product product = getProduct.getById(id);
-        return ResponseEntity.ok(webMapper.toApi(product));
+        String etag = ProductETags.of(product);
+        // checked here rather than left to Spring MVC, so a match skips mapping and serialization too
+        if (ProductETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return apiResponse(ResponseEntity.ok().eTag(etag).body(productJson.body(product)));
     }
 
     @Override
@@ -63,21 +126,151 @@ public class ProductsApiDelegateImpl implements ProductsApiDelegate {
     }
 
     @Override
-    public ResponseEntity<Void> deleteProductById(UUID id) {
-        deleteProductUC.deleteById(id);
+    public ResponseEntity<BatchGetProductsResponse> batchGetProducts(BatchGetProductsRequest req) {
+        List<UUID> ids = req.getIds() == null ? List.of() : req.getIds();
+        List<String> skus = req.getSkus() == null ? List.of() : req.getSkus();
+        var results = batchGetProductsUC.getAll(ids, skus).stream().map(webMapper::toApi).toList();
+        return ResponseEntity.ok(new BatchGetProductsResponse().results(results));
+    }
+
+    @Override
+    public ResponseEntity<StockReservation> reserveStock(ReserveStockRequest req) {
+        var reservation = reserveStockUC.reserve(webMapper.toCommand(req));
+        return ResponseEntity.status(HttpStatus.CREATED).body(webMapper.toApi(reservation));
+    }
+
+    @Override
+    public ResponseEntity<Void> releaseStockReservation(UUID reservationId) {
+        releaseStockReservationUC.release(reservationId);
         return ResponseEntity.noContent().build();
     }
 
     @Override
-    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> updateProductById(UUID id, UpdateProductRequest req) {
-        var cmd = webMapper.toCommand(req);
-        updateProductUC.updateById(id, cmd);
-        Product product = getProduct.getById(id);
+    public ResponseEntity<Void> commitStockReservation(UUID reservationId) {
+        commitStockReservationUC.commit(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> reshardProductStock(UUID id, StockShardsRequest req) {
+        Product product = reshardStockUC.reshardStock(id, req.getShards());
         return ResponseEntity.ok(webMapper.toApi(product));
     }
 
     @Override
-    public ResponseEntity<ProductPage> listProducts(Integer page, Integer size, String sort, Boolean includeDeleted) {
+    public ResponseEntity<Resource> importProducts(Resource body) {
+        Stream<ProductImportRow> rows;
+        try {
+            rows = importParser.parse(body.getInputStream());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // rows are imported batch by batch while the response is being written
+        var results = importProductsUC.importProducts(rows).map(webMapper::toApi);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new NdjsonStreamResource(results, objectMapper));
+    }
+
+    @Override
+    public ResponseEntity<Resource> exportProducts(String category, Double minPrice, Double maxPrice, String text) {
+        var cmd = new SearchCriteriaCommand(0, 0, null, category, minPrice, maxPrice, text, false);
+        // rows are fetched from the cursor while the response is being written
+        var products = exportProductsUC.exportAll(cmd).map(webMapper::toApi);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new NdjsonStreamResource(products, objectMapper));
+    }
+
+    @Override
+    public ResponseEntity<BulkUpdateJob> submitBulkUpdate(Resource body) {
+        Stream<BulkUpdateRow> rows;
+        try {
+            rows = bulkUpdateParser.parse(body.getInputStream());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // the upload is stored before answering; the rows are applied by the bulk update workers
+        var job = submitBulkUpdateUC.submit(rows);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(job.id()).toUri();
+        return ResponseEntity.accepted().location(location).body(webMapper.toApi(job));
+    }
+
+    @Override
+    public ResponseEntity<BulkUpdateJob> getBulkUpdateJob(UUID jobId) {
+        return ResponseEntity.ok(webMapper.toApi(getBulkUpdateJobUC.getById(jobId)));
+    }
+
+    @Override
+    public ResponseEntity<Resource> getBulkUpdateRejections(UUID jobId) {
+        // rows are read page by page while the response is being written
+        var rows = getBulkUpdateJobUC.rejectedRows(jobId).map(webMapper::toApi);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(new NdjsonStreamResource(rows, objectMapper));
+    }
+
+    @Override
+    public ResponseEntity<Void> deleteProductById(UUID id, String ifMatch) {
+        OptionalLong expectedVersion = ProductETags.ifMatchVersion(id, ifMatch);
+        if (expectedVersion.isEmpty()) {
+            deleteProductUC.deleteById(id);
+            return ResponseEntity.noContent().build();
+        }
+        try {
+            deleteProductUC.deleteById(id, expectedVersion.getAsLong());
+        } catch (ProductVersionConflictException ex) {
+            throw new ProductPreconditionFailedException(id, ifMatch);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> updateProductById(UUID id, UpdateProductRequest req,
+                                                                                                        String ifMatch) {
+        // If-Match takes precedence over the version in the body
+        OptionalLong ifMatchVersion = ProductETags.ifMatchVersion(id, ifMatch);
+        if (ifMatchVersion.isEmpty() && req.getVersion() == null) {
+            throw new ProductVersionRequiredException(id);
+        }
+        var cmd = webMapper.toCommand(req);
+        if (ifMatchVersion.isPresent()) cmd = cmd.withVersion(ifMatchVersion.getAsLong());
+
+        Product product;
+        try {
+            product = updateProductUC.updateById(id, cmd);
+        } catch (ProductVersionConflictException ex) {
+            if (ifMatchVersion.isEmpty()) throw ex;
+            throw new ProductPreconditionFailedException(id, ifMatch);
+        }
+        return ResponseEntity.ok().eTag(ProductETags.of(product)).body(webMapper.toApi(product));
+    }
+
+    @Override
+    public ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> patchProductById(UUID id, ProductPatch patch,
+                                                                                                       String ifMatch) {
+        // If-Match takes precedence over the version in the body
+        OptionalLong ifMatchVersion = ProductETags.ifMatchVersion(id, ifMatch);
+        if (ifMatchVersion.isEmpty() && patch.getVersion() == null) {
+            throw new ProductVersionRequiredException(id);
+        }
+        var cmd = webMapper.toCommand(patch);
+        if (ifMatchVersion.isPresent()) cmd = cmd.withVersion(ifMatchVersion.getAsLong());
+
+        Product product;
+        try {
+            product = updateProductUC.patchById(id, cmd);
+        } catch (ProductVersionConflictException ex) {
+            if (ifMatchVersion.isEmpty()) throw ex;
+            throw new ProductPreconditionFailedException(id, ifMatch);
+        }
+        return ResponseEntity.ok().eTag(ProductETags.of(product)).body(webMapper.toApi(product));
+    }
+
+    @Override
+    public ResponseEntity<ProductPage> listProducts(Integer page, Integer size, String sort, Boolean includeDeleted,
+                                                    String cursor, CountMode countMode, String ifNoneMatch) {
         var cmd = new SearchCriteriaCommand(
                 page == null ? 0 : page,
                 size == null ? 20 : size,
@@ -86,9 +279,24 @@ public class ProductsApiDelegateImpl implements ProductsApiDelegate {
                 null,
                 null,
                 null,
-                includeDeleted != null && includeDeleted
+                includeDeleted != null && includeDeleted,
+                cursor,
+                countMode == null ? null : com.jorgeandreu.products.domain.model.CountMode.valueOf(countMode.name())
         );
         PageResult<Product> pageResult = listProductUC.list(cmd);
-        return ResponseEntity.ok().body(webMapper.toApi(pageResult));
+        String etag = ProductETags.of(pageResult);
+        if (ProductETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(webMapper.toApi(pageResult));
+    }
+
+    /**
+     * The generated delegate declares the API model as the body, but converters are picked by the body's runtime
+     * class, so a {@link PreSerializedJson} body still reaches {@link PreSerializedJsonHttpMessageConverter}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> apiResponse(ResponseEntity<?> response) {
+        return (ResponseEntity<T>) response;
     }
 }
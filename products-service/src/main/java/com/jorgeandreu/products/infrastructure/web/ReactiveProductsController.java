@@ -0,0 +1,58 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.port.in.ReactiveListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.infrastructure.api.model.Product;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read endpoints of the {@code r2dbc} profile, backed by {@link ReactiveListProductsUseCase}. They return
+ * {@link Mono}/{@link Flux}, which Spring MVC serves asynchronously: no request thread is held while R2DBC works,
+ * and the NDJSON stream requests one more product from the database only once the previous one is written.
+ * <p>
+ * Hand-written rather than generated, since they exist only in this profile; parameters mirror
+ * {@code GET /products} and {@code GET /products/export}.
+ */
+@RestController
+@Profile("r2dbc")
+@RequestMapping("/api/v1/reactive/products")
+@RequiredArgsConstructor
+public class ReactiveProductsController {
+
+    private final ReactiveListProductsUseCase reactiveListProductsUC;
+    private final ProductWebMapper webMapper;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductPage> listProducts(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size,
+                                          @RequestParam(required = false) String sort,
+                                          @RequestParam(required = false) String category,
+                                          @RequestParam(required = false) Double minPrice,
+                                          @RequestParam(required = false) Double maxPrice,
+                                          @RequestParam(required = false) String text,
+                                          @RequestParam(defaultValue = "false") boolean includeDeleted,
+                                          @RequestParam(required = false) CountMode countMode) {
+        var cmd = new SearchCriteriaCommand(page, size, sort, category, minPrice, maxPrice, text, includeDeleted,
+                null, countMode);
+        return reactiveListProductsUC.list(cmd).map(webMapper::toApi);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> streamProducts(@RequestParam(required = false) String category,
+                                        @RequestParam(required = false) Double minPrice,
+                                        @RequestParam(required = false) Double maxPrice,
+                                        @RequestParam(required = false) String text) {
+        var cmd = new SearchCriteriaCommand(0, 0, null, category, minPrice, maxPrice, text, false);
+        return reactiveListProductsUC.streamAll(cmd).map(webMapper::toApi);
+    }
+}
@@ -0,0 +1,51 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Binds NDJSON/CSV request bodies to a {@link Resource} over the live request stream. The stock
+ * {@code ResourceHttpMessageConverter} copies the whole body into a byte array when the target type is
+ * {@code Resource}, which is what the generated import endpoint declares. Read-only: responses still go through the
+ * stock converter.
+ */
+public class StreamingUploadHttpMessageConverter implements HttpMessageConverter<Resource> {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final List<MediaType> SUPPORTED = List.of(MediaType.APPLICATION_NDJSON, TEXT_CSV);
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return (Resource.class == clazz || InputStreamResource.class == clazz)
+                && (mediaType == null || SUPPORTED.stream().anyMatch(supported -> supported.includes(mediaType)));
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return SUPPORTED;
+    }
+
+    @Override
+    public Resource read(Class<? extends Resource> clazz, HttpInputMessage inputMessage) throws IOException {
+        return new InputStreamResource(inputMessage.getBody());
+    }
+
+    @Override
+    public void write(Resource resource, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("StreamingUploadHttpMessageConverter only reads request bodies");
+    }
+}
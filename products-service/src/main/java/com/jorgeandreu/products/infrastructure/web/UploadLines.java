@@ -0,0 +1,162 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.jorgeandreu.products.application.exception.InvalidImportFileException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Line-by-line reading of an NDJSON or CSV upload, shared by the upload parsers. The format is told by the first
+ * non-blank line: a JSON object, or else a CSV header naming the columns (quoted fields with {@code ""} escapes are
+ * supported, embedded line breaks are not). Lines are numbered as in the file; only the current one is in memory.
+ */
+final class UploadLines {
+
+    /** Turns one non-blank line into a row; {@code line} is its physical line number. */
+    interface RowReader<T> {
+
+        T json(long line, String raw);
+
+        T csv(long line, Fields fields);
+    }
+
+    /** One CSV record with access by column name; a column missing from the header or the record reads as null. */
+    record Fields(List<String> values, Map<String, Integer> header) {
+
+        String get(String column) {
+            Integer i = header.get(column);
+            return i != null && i < values.size() ? values.get(i) : null;
+        }
+    }
+
+    private UploadLines() {
+    }
+
+    /**
+     * Reads up to the first non-blank line to detect the format (and check the CSV header for
+     * {@code requiredColumns}) eagerly, so a bad upload is rejected before any row is used. The returned stream
+     * closes {@code in}.
+     */
+    static <T> Stream<T> read(InputStream in, List<String> requiredColumns, RowReader<T> reader) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Rows<T> rows = new Rows<>(lines, requiredColumns, reader);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> close(lines));
+    }
+
+    private static final class Rows<T> implements Iterator<T> {
+
+        private final BufferedReader lines;
+        private final RowReader<T> reader;
+        private long line;
+        private boolean ndjson;
+        private Map<String, Integer> header;
+        private String pending;
+
+        Rows(BufferedReader lines, List<String> requiredColumns, RowReader<T> reader) {
+            this.lines = lines;
+            this.reader = reader;
+            String first = nextNonBlank();
+            if (first == null) return;
+            if (first.startsWith("\uFEFF")) first = first.substring(1);
+            if (first.stripLeading().startsWith("{")) {
+                ndjson = true;
+                pending = first;
+            } else {
+                header = header(first, requiredColumns);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pending == null) pending = nextNonBlank();
+            return pending != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String raw = pending;
+            pending = null;
+            return ndjson ? reader.json(line, raw) : reader.csv(line, new Fields(splitCsv(raw), header));
+        }
+
+        private String nextNonBlank() {
+            try {
+                String raw;
+                while ((raw = lines.readLine()) != null) {
+                    line++;
+                    if (!raw.isBlank()) return raw;
+                }
+                return null;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private static Map<String, Integer> header(String raw, List<String> requiredColumns) {
+        List<String> names = splitCsv(raw);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            index.putIfAbsent(names.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = requiredColumns.stream().filter(c -> !index.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing columns " + missing);
+        }
+        return index;
+    }
+
+    /** Splits one CSV record; fields may be double-quoted, with {@code ""} standing for a literal quote. */
+    static List<String> splitCsv(String raw) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < raw.length() && raw.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
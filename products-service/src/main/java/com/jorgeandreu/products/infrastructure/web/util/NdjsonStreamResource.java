@@ -0,0 +1,81 @@
+package com.jorgeandreu.products.infrastructure.web.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Single-use {@code application/x-ndjson} body that serializes {@code items} one line at a time as the response is
+ * written, so a lazily produced stream is never materialized. Closing the input stream closes {@code items}.
+ */
+public class NdjsonStreamResource extends AbstractResource {
+
+    private final Stream<?> items;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonStreamResource(Stream<?> items, ObjectMapper objectMapper) {
+        this.items = items;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getDescription() {
+        return "NDJSON stream";
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    /** Unknown up front; keeps converters from reading the stream to measure it. */
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        Iterator<?> it = items.iterator();
+        return new InputStream() {
+            private byte[] line = new byte[0];
+            private int pos;
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? line[pos++] & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                if (!fill()) return -1;
+                int n = Math.min(len, line.length - pos);
+                System.arraycopy(line, pos, b, off, n);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+                items.close();
+            }
+
+            private boolean fill() throws IOException {
+                while (pos >= line.length) {
+                    if (!it.hasNext()) return false;
+                    byte[] json = objectMapper.writeValueAsBytes(it.next());
+                    line = Arrays.copyOf(json, json.length + 1);
+                    line[json.length] = '\n';
+                    pos = 0;
+                }
+                return true;
+            }
+        };
+    }
+}
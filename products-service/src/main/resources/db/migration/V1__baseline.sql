@@ -0,0 +1,66 @@
+-- Schema as it stood when migrations took over from Hibernate's ddl-auto and the spring.sql.init scripts.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE products (
+    id          uuid                        NOT NULL PRIMARY KEY,
+    sku         varchar(100)                NOT NULL,
+    name        varchar(200)                NOT NULL,
+    price       numeric(19, 2)              NOT NULL,
+    stock       integer                     NOT NULL,
+    category    varchar(100)                NOT NULL,
+    description varchar(100)                NOT NULL,
+    text        varchar(500)                NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL,
+    updated_at  timestamp(6) with time zone NOT NULL,
+    deleted_at  timestamp(6) with time zone,
+    version     bigint                      NOT NULL,
+    -- queried by name in the products_fts_match/products_fts_rank patterns of ProductSearchFunctions
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(text, '')), 'C')
+    ) STORED,
+    CONSTRAINT uk_products_sku UNIQUE (sku)
+);
+
+-- full-text match: search_vector @@ websearch_to_tsquery(...)
+CREATE INDEX idx_products_search_vector ON products USING gin (search_vector);
+
+-- substring fallback: lower(col) LIKE '%x%' (leading wildcard) served by trigrams
+CREATE INDEX idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_products_text_trgm ON products USING gin (lower(text) gin_trgm_ops);
+CREATE INDEX idx_products_description_trgm ON products USING gin (lower(description) gin_trgm_ops);
+
+-- Transactional outbox for product change events: rows are written in the same transaction as the change
+-- and deleted by the relay once Kafka has acknowledged them. Ordering is by id.
+CREATE TABLE product_outbox (
+    id           bigserial   PRIMARY KEY,
+    event_id     uuid        NOT NULL,
+    aggregate_id uuid        NOT NULL,
+    event_type   varchar(20) NOT NULL,
+    payload      jsonb       NOT NULL,
+    created_at   timestamptz NOT NULL DEFAULT now()
+);
+
+-- Stock of sharded ("hot") products, spread over slot rows so that concurrent checkouts lock different rows.
+-- A sharded product keeps 0 in products.stock; its stock is the sum of its slots.
+CREATE TABLE product_stock_slots (
+    product_id uuid     NOT NULL REFERENCES products (id),
+    slot       smallint NOT NULL,
+    stock      integer  NOT NULL CHECK (stock >= 0),
+    PRIMARY KEY (product_id, slot)
+);
+
+-- Open stock reservations, one row per product line. The stock is already taken out of products.stock; a row is
+-- deleted when the reservation is committed (stock stays out) or released/expired (stock goes back).
+CREATE TABLE stock_reservations (
+    reservation_id uuid        NOT NULL,
+    product_id     uuid        NOT NULL REFERENCES products (id),
+    quantity       integer     NOT NULL CHECK (quantity > 0),
+    expires_at     timestamptz NOT NULL,
+    PRIMARY KEY (reservation_id, product_id)
+);
+
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations (expires_at);
@@ -0,0 +1,19 @@
+-- List pages: an equality filter on category_norm (optional) followed by ORDER BY <key>, id in one direction.
+-- A b-tree is read backwards for DESC, so one index per key serves both directions.
+-- Live rows (deleted_at IS NULL) are what every page shows unless includeDeleted is set.
+--
+-- CONCURRENTLY builds without blocking writes, but cannot run inside a transaction (see the .conf next to this file).
+-- A build that fails leaves an INVALID index behind, which IF NOT EXISTS would then skip: drop it before re-running.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_category_created
+    ON products (category_norm, created_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_category_price
+    ON products (category_norm, price, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_category_name
+    ON products (category_norm, name, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_created ON products (created_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_price ON products (price, id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_live_name ON products (name, id) WHERE deleted_at IS NULL;
+
+-- includeDeleted=true (admin views): the two most common orders per category
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category_created ON products (category_norm, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category_price ON products (category_norm, price, id);
@@ -0,0 +1,11 @@
+-- Normalized category for the category filter, kept in step with category by PostgreSQL on every write path
+-- (JPA, the JDBC bulk and RETURNING statements). The filter compares it with the lowercased request value.
+--
+-- Adding a STORED generated column rewrites products under an ACCESS EXCLUSIVE lock: reads and writes of the table
+-- wait until it is done, so on a large catalogue deploy this in a maintenance window. lock_timeout makes the migration
+-- fail instead of queueing behind a long transaction while every other query queues behind it.
+-- The list indexes are built without blocking writes, in V2_1.
+SET LOCAL lock_timeout = '10s';
+
+ALTER TABLE products
+    ADD COLUMN category_norm varchar(100) GENERATED ALWAYS AS (lower(category)) STORED;
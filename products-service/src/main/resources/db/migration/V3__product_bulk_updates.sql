@@ -0,0 +1,43 @@
+-- Bulk price/stock updates (POST /products/bulk-updates). The uploaded rows are staged here and applied by the
+-- workers of whichever instance owns the job; a row stays PENDING until the transaction writing its product also
+-- records its outcome, so a job taken over after a crash resumes at the first unwritten row.
+CREATE TABLE product_bulk_update_jobs (
+    id           uuid        NOT NULL PRIMARY KEY,
+    status       varchar(20) NOT NULL,
+    partitions   integer     NOT NULL CHECK (partitions > 0),
+    total        bigint      NOT NULL DEFAULT 0,
+    updated      bigint      NOT NULL DEFAULT 0,
+    conflicts    bigint      NOT NULL DEFAULT 0,
+    not_found    bigint      NOT NULL DEFAULT 0,
+    invalid      bigint      NOT NULL DEFAULT 0,
+    -- claims so far; a job that keeps losing its owner fails instead of being retried forever
+    attempts     integer     NOT NULL DEFAULT 0,
+    owner        varchar(100),
+    heartbeat_at timestamptz,
+    error        text,
+    created_at   timestamptz NOT NULL,
+    started_at   timestamptz,
+    finished_at  timestamptz
+);
+
+-- the claim poll: unfinished jobs without an owner or with a stale heartbeat
+CREATE INDEX idx_product_bulk_update_jobs_open ON product_bulk_update_jobs (heartbeat_at)
+    WHERE status IN ('UPLOADING', 'QUEUED', 'RUNNING');
+
+CREATE TABLE product_bulk_update_rows (
+    job_id  uuid        NOT NULL REFERENCES product_bulk_update_jobs (id) ON DELETE CASCADE,
+    line    bigint      NOT NULL,
+    sku     varchar(100),
+    price   numeric(19, 2),
+    stock   integer,
+    version bigint,
+    -- SKU range the row belongs to, set when the upload ends
+    part    integer,
+    status  varchar(20) NOT NULL,
+    error   text,
+    PRIMARY KEY (job_id, line)
+);
+
+-- the next batch of a partition, in SKU order; rows leave the index once written
+CREATE INDEX idx_product_bulk_update_rows_pending ON product_bulk_update_rows (job_id, part, sku)
+    WHERE status = 'PENDING';
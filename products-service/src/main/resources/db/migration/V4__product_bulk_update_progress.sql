@@ -0,0 +1,22 @@
+-- Per-partition counters of a bulk update job. Each batch used to add its outcomes to the job row, so every
+-- partition's transactions queued on that one row lock until commit; a partition has a single worker, so its own
+-- row is never contended. The job's totals are the sums over its partitions.
+CREATE TABLE product_bulk_update_progress (
+    job_id    uuid    NOT NULL REFERENCES product_bulk_update_jobs (id) ON DELETE CASCADE,
+    part      integer NOT NULL,
+    updated   bigint  NOT NULL DEFAULT 0,
+    conflicts bigint  NOT NULL DEFAULT 0,
+    not_found bigint  NOT NULL DEFAULT 0,
+    PRIMARY KEY (job_id, part)
+);
+
+-- jobs counted before this migration keep their totals, under partition 0
+INSERT INTO product_bulk_update_progress (job_id, part, updated, conflicts, not_found)
+SELECT id, 0, updated, conflicts, not_found
+FROM product_bulk_update_jobs
+WHERE updated + conflicts + not_found > 0;
+
+ALTER TABLE product_bulk_update_jobs
+    DROP COLUMN updated,
+    DROP COLUMN conflicts,
+    DROP COLUMN not_found;
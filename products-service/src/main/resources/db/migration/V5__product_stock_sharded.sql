@@ -0,0 +1,12 @@
+-- Whether a product's stock lives in product_stock_slots. Readers only sum the slots of flagged products, instead
+-- of running that subquery for every row they load; set and cleared by a reshard, in the same transaction as the
+-- slots themselves.
+--
+-- A column with a constant default is added without rewriting the table, so the ACCESS EXCLUSIVE lock is brief;
+-- lock_timeout keeps it from queueing behind a long transaction while every other query queues behind it.
+SET LOCAL lock_timeout = '10s';
+
+ALTER TABLE products ADD COLUMN stock_sharded boolean NOT NULL DEFAULT false;
+
+UPDATE products SET stock_sharded = true
+WHERE id IN (SELECT DISTINCT product_id FROM product_stock_slots);
@@ -0,0 +1,202 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.BulkUpdateJobNotFoundException;
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.out.BulkUpdateJobRepositoryPort;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.mock;
+
+class ProductBulkUpdateServiceTest {
+
+    private BulkUpdateJobRepositoryPort jobs;
+    private ProductRepositoryPort repository;
+    private ProductChangePublisherPort changes;
+    private ProductBulkUpdateService service;
+
+    @BeforeEach
+    void setUp() {
+        jobs = mock(BulkUpdateJobRepositoryPort.class);
+        repository = mock(ProductRepositoryPort.class);
+        changes = mock(ProductChangePublisherPort.class);
+        service = new ProductBulkUpdateService(jobs, repository, changes, TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "partitions", 4);
+    }
+
+    @Nested
+    @DisplayName("submit")
+    class Submit {
+
+        @Test
+        @DisplayName("stages the rows in batches of batch-size, then queues the job; closes the input")
+        @SuppressWarnings("unchecked")
+        void stagesInBatches() {
+            AtomicBoolean closed = new AtomicBoolean();
+            given(jobs.queue(any())).willAnswer(inv -> job(inv.getArgument(0)));
+
+            BulkUpdateJob job = service.submit(Stream.of(row(1, "A"), row(2, "B"), row(3, "C"))
+                    .onClose(() -> closed.set(true)));
+
+            ArgumentCaptor<List<BulkUpdateRow>> batches = ArgumentCaptor.forClass(List.class);
+            then(jobs).should().create(eq(job.id()), eq(4), any());
+            then(jobs).should(times(2)).stage(eq(job.id()), batches.capture());
+            assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+            then(jobs).should().queue(job.id());
+            then(repository).shouldHaveNoInteractions();
+            assertThat(closed).isTrue();
+        }
+
+        @Test
+        @DisplayName("invalid rows are staged as INVALID with the reason, cut to the staging columns")
+        @SuppressWarnings("unchecked")
+        void validates() {
+            given(jobs.queue(any())).willAnswer(inv -> job(inv.getArgument(0)));
+            ReflectionTestUtils.setField(service, "batchSize", 10);
+
+            service.submit(Stream.of(
+                    BulkUpdateRow.parsed(1, "A", null, null, null),
+                    BulkUpdateRow.parsed(2, "B", new BigDecimal("-1"), null, null),
+                    BulkUpdateRow.parsed(3, "C", null, -1, null),
+                    BulkUpdateRow.parsed(4, "D", new BigDecimal("1e17"), null, null),
+                    BulkUpdateRow.parsed(5, "x".repeat(101), BigDecimal.ONE, null, null),
+                    BulkUpdateRow.malformed(6, null, "malformed JSON: boom"),
+                    row(7, "G")));
+
+            ArgumentCaptor<List<BulkUpdateRow>> staged = ArgumentCaptor.forClass(List.class);
+            then(jobs).should().stage(any(), staged.capture());
+            assertThat(staged.getValue()).extracting(BulkUpdateRow::error).containsExactly(
+                    "price or stock is required",
+                    "price must be >= 0",
+                    "stock must be >= 0",
+                    "price must be below 10^17",
+                    "sku must be at most 100 characters",
+                    "malformed JSON: boom",
+                    null);
+            assertThat(staged.getValue().get(3).price()).isNull();
+            assertThat(staged.getValue().get(4).sku()).hasSize(100);
+            assertThat(staged.getValue().getLast().status()).isEqualTo(BulkUpdateRow.Status.PENDING);
+        }
+    }
+
+    @Nested
+    @DisplayName("applyBatch")
+    class ApplyBatch {
+
+        @Test
+        @DisplayName("writes the locked rows, records their outcomes and publishes the updated products")
+        @SuppressWarnings("unchecked")
+        void appliesAndRecords() {
+            UUID jobId = UUID.randomUUID();
+            Product updated = product("A");
+            given(jobs.lockPending(jobId, 1, 3)).willReturn(List.of(
+                    row(1, "A"), BulkUpdateRow.parsed(2, "B", null, 5, 3L), row(3, "C")));
+            given(repository.updateAllBySku(anyList(), any())).willReturn(List.of(
+                    UpdateResult.updated(updated), UpdateResult.versionConflict(), UpdateResult.notFound()));
+
+            List<BulkUpdateRow> done = service.applyBatch(jobId, 1, 3);
+
+            assertThat(done).extracting(BulkUpdateRow::status).containsExactly(
+                    BulkUpdateRow.Status.UPDATED, BulkUpdateRow.Status.VERSION_CONFLICT, BulkUpdateRow.Status.NOT_FOUND);
+            assertThat(done.get(1).error()).isEqualTo("product is no longer at version 3");
+
+            ArgumentCaptor<List<ProductBulkUpdate>> updates = ArgumentCaptor.forClass(List.class);
+            then(repository).should().updateAllBySku(updates.capture(), any());
+            assertThat(updates.getValue()).containsExactly(
+                    new ProductBulkUpdate("A", BigDecimal.TEN, null, null),
+                    new ProductBulkUpdate("B", null, 5, 3L),
+                    new ProductBulkUpdate("C", BigDecimal.TEN, null, null));
+            then(jobs).should().complete(jobId, 1, done);
+
+            ArgumentCaptor<List<ProductChangeEvent>> events = ArgumentCaptor.forClass(List.class);
+            then(changes).should().publishAll(events.capture());
+            assertThat(events.getValue()).singleElement()
+                    .satisfies(e -> assertThat(e.productId()).isEqualTo(updated.id()));
+        }
+
+        @Test
+        @DisplayName("an exhausted partition writes nothing")
+        void empty() {
+            given(jobs.lockPending(any(), anyInt(), anyInt())).willReturn(List.of());
+
+            assertThat(service.applyBatch(UUID.randomUUID(), 0, 100)).isEmpty();
+
+            then(repository).shouldHaveNoInteractions();
+            then(changes).shouldHaveNoInteractions();
+            then(jobs).should(never()).complete(any(), anyInt(), anyList());
+        }
+    }
+
+    @Nested
+    @DisplayName("reading jobs")
+    class Reading {
+
+        @Test
+        @DisplayName("an unknown job is reported as not found")
+        void notFound() {
+            UUID jobId = UUID.randomUUID();
+            given(jobs.findById(jobId)).willReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.getById(jobId)).isInstanceOf(BulkUpdateJobNotFoundException.class);
+            assertThatThrownBy(() -> service.rejectedRows(jobId)).isInstanceOf(BulkUpdateJobNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("rejected rows are read page by page after the last line seen, until a short page")
+        void pagesRejectedRows() {
+            UUID jobId = UUID.randomUUID();
+            given(jobs.findById(jobId)).willReturn(Optional.of(job(jobId)));
+            List<BulkUpdateRow> full = IntStream.rangeClosed(1, 500)
+                    .mapToObj(i -> BulkUpdateRow.malformed(i, null, "bad")).toList();
+            given(jobs.findRejected(jobId, 0, 500)).willReturn(full);
+            given(jobs.findRejected(jobId, 500, 500)).willReturn(List.of(BulkUpdateRow.malformed(501, null, "bad")));
+
+            assertThat(service.rejectedRows(jobId).count()).isEqualTo(501);
+
+            then(jobs).should(times(2)).findRejected(eq(jobId), anyLong(), anyInt());
+        }
+    }
+
+    private static BulkUpdateRow row(long line, String sku) {
+        return BulkUpdateRow.parsed(line, sku, BigDecimal.TEN, null, null);
+    }
+
+    private static BulkUpdateJob job(UUID id) {
+        return new BulkUpdateJob(id, BulkUpdateJob.Status.QUEUED, 4, 0, 0, 0, 0, 0, null, Instant.now(), null, null);
+    }
+
+    private static Product product(String sku) {
+        Instant now = Instant.now();
+        return new Product(UUID.randomUUID(), sku, "Name " + sku, BigDecimal.TEN, 1, "cat", now, now, null, 2);
+    }
+}
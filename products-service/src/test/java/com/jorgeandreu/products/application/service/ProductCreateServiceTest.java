@@ -3,7 +3,9 @@ package com.jorgeandreu.products.application.service;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
 import com.jorgeandreu.products.application.mapper.CreateProductMapper;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
 import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +32,9 @@ class ProductCreateServiceTest {
     @Mock
     private CreateProductMapper mapper;
 
+    @Mock
+    private ProductChangePublisherPort changes;
+
     @InjectMocks
     private ProductCreateService service;
 
@@ -126,6 +131,8 @@ class ProductCreateServiceTest {
             then(repository).should().existsBySku(validCmd.sku());
             then(mapper).should().toDomain(validCmd, 0L);
             then(repository).should().save(mapped);
+            then(changes).should().publish(argThat(e ->
+                    e.type() == ProductChangeEvent.Type.CREATED && e.product() == saved));
             then(repository).shouldHaveNoMoreInteractions();
             then(mapper).shouldHaveNoMoreInteractions();
         }
@@ -1,6 +1,9 @@
 package com.jorgeandreu.products.application.service;
 
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,6 +26,9 @@ class ProductDeleteServiceTest {
     @Mock
     private ProductRepositoryPort repository;
 
+    @Mock
+    private ProductChangePublisherPort changes;
+
     @InjectMocks
     private ProductDeleteService service;
 
@@ -41,6 +47,8 @@ class ProductDeleteServiceTest {
         Instant usedInstant = captor.getValue();
         assertThat(usedInstant).isNotNull();
         assertThat(usedInstant).isBeforeOrEqualTo(Instant.now().plusSeconds(1));
+        then(changes).should().publish(argThat(e -> e.type() == ProductChangeEvent.Type.DELETED
+                && e.productId().equals(id) && e.occurredAt().equals(usedInstant)));
     }
 
     @Test
@@ -55,5 +63,41 @@ class ProductDeleteServiceTest {
 
         then(repository).should().softDeleteById(eq(id), any(Instant.class));
         then(repository).shouldHaveNoMoreInteractions();
+        then(changes).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("deleteById(version): deletes and publishes when the version still matches")
+    void deleteByIdVersioned_success() {
+        UUID id = UUID.randomUUID();
+        given(repository.softDeleteIfVersionMatches(eq(id), eq(4L), any(Instant.class))).willReturn(true);
+
+        service.deleteById(id, 4L);
+
+        then(repository).should().softDeleteIfVersionMatches(eq(id), eq(4L), any(Instant.class));
+        then(repository).shouldHaveNoMoreInteractions();
+        then(changes).should().publish(argThat(e -> e.type() == ProductChangeEvent.Type.DELETED && e.productId().equals(id)));
+    }
+
+    @Test
+    @DisplayName("deleteById(version): conflict when the product is active under another version")
+    void deleteByIdVersioned_conflict() {
+        UUID id = UUID.randomUUID();
+        given(repository.softDeleteIfVersionMatches(eq(id), eq(4L), any(Instant.class))).willReturn(false);
+        given(repository.existsActiveById(id)).willReturn(true);
+
+        assertThatThrownBy(() -> service.deleteById(id, 4L)).isInstanceOf(ProductVersionConflictException.class);
+        then(changes).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("deleteById(version): not found when the product is missing or already deleted")
+    void deleteByIdVersioned_notFound() {
+        UUID id = UUID.randomUUID();
+        given(repository.softDeleteIfVersionMatches(eq(id), eq(4L), any(Instant.class))).willReturn(false);
+        given(repository.existsActiveById(id)).willReturn(false);
+
+        assertThatThrownBy(() -> service.deleteById(id, 4L)).isInstanceOf(ProductNotFoundException.class);
+        then(changes).shouldHaveNoInteractions();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.mapper.CreateProductMapperImpl;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductImportResult;
+import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.mock;
+
+class ProductImportServiceTest {
+
+    private ProductRepositoryPort repository;
+    private ProductChangePublisherPort changes;
+    private ProductImportService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepositoryPort.class);
+        changes = mock(ProductChangePublisherPort.class);
+        service = new ProductImportService(repository, new CreateProductMapperImpl(), changes,
+                TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "initialVersion", 1L);
+        // every product is inserted unless a test says otherwise
+        given(repository.insertAllIfSkuAbsent(anyList())).willAnswer(inv ->
+                inv.<List<Product>>getArgument(0).stream().map(Product::id).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("writes in batches of batch-size and reports one result per row, in order")
+    @SuppressWarnings("unchecked")
+    void batchesAndOrders() {
+        List<ProductImportResult> results = service.importProducts(Stream.of(
+                row(1, "A"), row(2, "B"), row(3, "C"))).toList();
+
+        assertThat(results).extracting(ProductImportResult::line).containsExactly(1L, 2L, 3L);
+        assertThat(results).extracting(ProductImportResult::status).containsOnly(ProductImportResult.Status.CREATED);
+        assertThat(results).allSatisfy(r -> assertThat(r.id()).isNotNull());
+
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.forClass(List.class);
+        then(repository).should(times(2)).insertAllIfSkuAbsent(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(batches.getAllValues().getFirst()).allSatisfy(p -> assertThat(p.version()).isEqualTo(1L));
+    }
+
+    @Test
+    @DisplayName("rows whose SKU was not inserted are reported as conflicts")
+    void skuConflicts() {
+        given(repository.insertAllIfSkuAbsent(anyList())).willAnswer(inv -> {
+            List<Product> batch = inv.getArgument(0);
+            return Set.of(batch.getFirst().id());
+        });
+
+        List<ProductImportResult> results = service.importProducts(Stream.of(row(1, "A"), row(2, "A"))).toList();
+
+        assertThat(results).extracting(ProductImportResult::status)
+                .containsExactly(ProductImportResult.Status.CREATED, ProductImportResult.Status.SKU_CONFLICT);
+        assertThat(results.get(1).id()).isNull();
+    }
+
+    @Test
+    @DisplayName("publishes a CREATED event for each inserted product only")
+    @SuppressWarnings("unchecked")
+    void publishesCreatedEvents() {
+        given(repository.insertAllIfSkuAbsent(anyList())).willAnswer(inv -> {
+            List<Product> batch = inv.getArgument(0);
+            return Set.of(batch.getFirst().id());
+        });
+
+        List<ProductImportResult> results = service.importProducts(Stream.of(row(1, "A"), row(2, "A"))).toList();
+
+        ArgumentCaptor<List<ProductChangeEvent>> events = ArgumentCaptor.forClass(List.class);
+        then(changes).should().publishAll(events.capture());
+        assertThat(events.getValue()).singleElement().satisfies(e -> {
+            assertThat(e.type()).isEqualTo(ProductChangeEvent.Type.CREATED);
+            assertThat(e.productId()).isEqualTo(results.getFirst().id());
+        });
+    }
+
+    @Test
+    @DisplayName("invalid and malformed rows are reported and never written")
+    @SuppressWarnings("unchecked")
+    void invalidRows() {
+        var negative = ProductImportRow.parsed(2, new CreateProductCommand("B", "n", BigDecimal.valueOf(-1), 1, "c"));
+        var blankName = ProductImportRow.parsed(3, new CreateProductCommand("C", " ", BigDecimal.ONE, 1, "c"));
+        var malformed = ProductImportRow.malformed(4, null, "malformed JSON: boom");
+
+        List<ProductImportResult> results = service.importProducts(Stream.of(row(1, "A"), negative, blankName, malformed)).toList();
+
+        assertThat(results).extracting(ProductImportResult::status).containsExactly(
+                ProductImportResult.Status.CREATED,
+                ProductImportResult.Status.INVALID,
+                ProductImportResult.Status.INVALID,
+                ProductImportResult.Status.INVALID);
+        assertThat(results).extracting(ProductImportResult::error)
+                .containsExactly(null, "price must be >= 0", "name is required", "malformed JSON: boom");
+
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.forClass(List.class);
+        then(repository).should(times(1)).insertAllIfSkuAbsent(batches.capture());
+        assertThat(batches.getValue()).extracting(Product::sku).containsExactly("A");
+    }
+
+    @Test
+    @DisplayName("nothing is read or written until the result stream is consumed; closing it closes the input")
+    void lazy() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<ProductImportRow> rows = Stream.of(row(1, "A"), row(2, "B"), row(3, "C"), row(4, "D"))
+                .onClose(() -> closed.set(true));
+
+        try (Stream<ProductImportResult> results = service.importProducts(rows)) {
+            then(repository).shouldHaveNoInteractions();
+            assertThat(results.limit(1).count()).isEqualTo(1);
+        }
+
+        then(repository).should(times(1)).insertAllIfSkuAbsent(anyList());
+        assertThat(closed).isTrue();
+    }
+
+    private static ProductImportRow row(long line, String sku) {
+        return ProductImportRow.parsed(line, new CreateProductCommand(sku, "Name " + sku, BigDecimal.TEN, 1, "cat"));
+    }
+}
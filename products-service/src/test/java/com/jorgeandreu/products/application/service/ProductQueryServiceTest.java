@@ -2,9 +2,12 @@ package com.jorgeandreu.products.application.service;
 
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
 import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.domain.model.FacetRequest;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductLookup;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import org.junit.jupiter.api.DisplayName;
@@ -14,17 +17,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.ArgumentMatchers.any;
 
 @ExtendWith(MockitoExtension.class)
 class ProductQueryServiceTest {
@@ -110,6 +118,39 @@ class ProductQueryServiceTest {
             then(searchProductListMapper).shouldHaveNoMoreInteractions();
             then(repositoryPort).shouldHaveNoMoreInteractions();
         }
+
+        @Test
+        @DisplayName("with facets: fills in default price bounds and attaches the facets to the page")
+        void attachesFacets() {
+            ReflectionTestUtils.setField(service, "defaultPriceBounds", List.of(100.0, 500.0));
+            var cmd = new SearchCriteriaCommand(0, 20, null, null, null, null, null, false, null, null,
+                    new FacetRequest(true, true, null));
+            var mapped = new SearchCriteria(0, 20, null, null, null, null, null, false, null, null,
+                    new FacetRequest(true, true, null));
+            var withBounds = mapped.withFacets(new FacetRequest(true, true, List.of(100.0, 500.0)));
+            var facets = new SearchFacets(List.of(new SearchFacets.CategoryCount("laptops", 2)), List.of());
+            given(searchProductListMapper.toDomain(cmd)).willReturn(mapped);
+            given(repositoryPort.search(withBounds)).willReturn(new PageResult<>(List.of(), 0, 20, 2, 1));
+            given(repositoryPort.facets(withBounds)).willReturn(facets);
+
+            PageResult<Product> result = service.list(cmd);
+
+            assertThat(result.facets()).isEqualTo(facets);
+            assertThat(result.totalElements()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("without facets: no facet query")
+        void noFacets() {
+            var cmd = new SearchCriteriaCommand(0, 20, null, null, null, null, null, false);
+            var mapped = new SearchCriteria(0, 20, null, null, null, null, null, false, null, null,
+                    new FacetRequest(false, false, null));
+            given(searchProductListMapper.toDomain(cmd)).willReturn(mapped);
+            given(repositoryPort.search(mapped)).willReturn(new PageResult<>(List.of(), 0, 20, 0, 0));
+
+            assertThat(service.list(cmd).facets()).isNull();
+            then(repositoryPort).should(never()).facets(any());
+        }
     }
 
     private static Product sampleProduct(UUID id) {
@@ -126,4 +167,69 @@ class ProductQueryServiceTest {
                 0L
         );
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("exportAll")
+    class ExportAll {
+
+        @Test
+        @DisplayName("maps command to domain criteria and returns the repository stream")
+        void delegates() {
+            var cmd = new SearchCriteriaCommand(0, 0, null, "laptops", null, null, null, false);
+            var criteria = new SearchCriteria(0, 0, null, "laptops", null, null, null, false);
+            Product p = new Product(UUID.randomUUID(), "SKU", "Name", BigDecimal.ONE, 1, "laptops",
+                    Instant.now(), Instant.now(), null, 0);
+            given(searchProductListMapper.toDomain(cmd)).willReturn(criteria);
+            given(repositoryPort.streamAll(criteria)).willReturn(Stream.of(p));
+
+            try (Stream<Product> result = service.exportAll(cmd)) {
+                assertThat(result).containsExactly(p);
+            }
+
+            then(repositoryPort).should().streamAll(criteria);
+            then(repositoryPort).shouldHaveNoMoreInteractions();
+        }
+    }
+
+    @Nested
+    @DisplayName("getAll")
+    class GetAll {
+
+        @Test
+        @DisplayName("answers every key in request order, ids first, with not-found entries for misses")
+        void keepsRequestOrder() {
+            UUID a = UUID.randomUUID();
+            UUID b = UUID.randomUUID();
+            UUID missing = UUID.randomUUID();
+            Product pa = sampleProduct(a);
+            Product pb = new Product(b, "ACME-456", "Mouse", BigDecimal.ONE, 1, "accessories",
+                    Instant.now(), Instant.now(), null, 0);
+            given(repositoryPort.findAllByIds(Set.of(b, missing, a))).willReturn(List.of(pa, pb));
+            given(repositoryPort.findAllBySkus(Set.of("ACME-456", "NOPE"))).willReturn(List.of(pb));
+
+            List<ProductLookup> result = service.getAll(List.of(b, missing, a, b), List.of("NOPE", "ACME-456"));
+
+            assertThat(result).containsExactly(
+                    ProductLookup.byId(b, pb),
+                    ProductLookup.byId(missing, null),
+                    ProductLookup.byId(a, pa),
+                    ProductLookup.byId(b, pb),
+                    ProductLookup.bySku("NOPE", null),
+                    ProductLookup.bySku("ACME-456", pb));
+            then(repositoryPort).should().findAllByIds(Set.of(b, missing, a));
+            then(repositoryPort).should().findAllBySkus(Set.of("ACME-456", "NOPE"));
+            then(repositoryPort).shouldHaveNoMoreInteractions();
+        }
+
+        @Test
+        @DisplayName("skips the query for an empty key list")
+        void skipsEmptyKeyType() {
+            UUID id = UUID.randomUUID();
+            given(repositoryPort.findAllByIds(Set.of(id))).willReturn(List.of());
+
+            assertThat(service.getAll(List.of(id), List.of()))
+                    .extracting(ProductLookup::found).containsExactly(false);
+            then(repositoryPort).should(never()).findAllBySkus(any());
+        }
+    }
+}
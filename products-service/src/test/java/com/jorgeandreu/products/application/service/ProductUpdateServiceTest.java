@@ -3,7 +3,12 @@ package com.jorgeandreu.products.application.service;
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
 import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.in.PatchProductCommand;
 import com.jorgeandreu.products.domain.port.in.UpdateProductCommand;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
 import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,8 +21,10 @@ import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
@@ -28,6 +35,9 @@ class ProductUpdateServiceTest {
     @Mock
     private ProductRepositoryPort repository;
 
+    @Mock
+    private ProductChangePublisherPort changes;
+
     @InjectMocks
     private ProductUpdateService service;
 
@@ -40,47 +50,48 @@ class ProductUpdateServiceTest {
     class UpdateById {
 
         @Test
-        @DisplayName("updates when version matches (1 row affected)")
+        @DisplayName("returns the new state when version matches")
         void success() {
             UUID id = UUID.randomUUID();
+            Product updated = new Product(id, "ACME-1", "Name", BigDecimal.valueOf(10.0), 5, "laptops",
+                    Instant.now(), Instant.now(), null, 3);
             given(repository.updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class)))
-                    .willReturn(1);
+                    .willReturn(UpdateResult.updated(updated));
 
-            service.updateById(id, cmd());
+            assertThat(service.updateById(id, cmd())).isSameAs(updated);
 
             then(repository).should().updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class));
             then(repository).shouldHaveNoMoreInteractions();
+            then(changes).should().publish(argThat(e ->
+                    e.type() == ProductChangeEvent.Type.UPDATED && e.product() == updated));
         }
 
         @Test
-        @DisplayName("throws ProductVersionConflictException when 0 rows updated but product exists active")
+        @DisplayName("throws ProductVersionConflictException when the repository reports a version conflict")
         void versionConflict() {
             UUID id = UUID.randomUUID();
             given(repository.updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class)))
-                    .willReturn(0);
-            given(repository.existsActiveById(id)).willReturn(true);
+                    .willReturn(UpdateResult.versionConflict());
 
             assertThatThrownBy(() -> service.updateById(id, cmd()))
                     .isInstanceOf(ProductVersionConflictException.class);
+            then(changes).shouldHaveNoInteractions();
 
             then(repository).should().updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class));
-            then(repository).should().existsActiveById(id);
             then(repository).shouldHaveNoMoreInteractions();
         }
 
         @Test
-        @DisplayName("throws ProductNotFoundException when 0 rows updated and product does not exist (or deleted)")
+        @DisplayName("throws ProductNotFoundException when product does not exist (or deleted)")
         void notFound() {
             UUID id = UUID.randomUUID();
             given(repository.updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class)))
-                    .willReturn(0);
-            given(repository.existsActiveById(id)).willReturn(false);
+                    .willReturn(UpdateResult.notFound());
 
             assertThatThrownBy(() -> service.updateById(id, cmd()))
                     .isInstanceOf(ProductNotFoundException.class);
 
             then(repository).should().updateIfVersionMatches(eq(id), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any(Instant.class));
-            then(repository).should().existsActiveById(id);
             then(repository).shouldHaveNoMoreInteractions();
         }
 
@@ -98,5 +109,78 @@ class ProductUpdateServiceTest {
             then(repository).shouldHaveNoMoreInteractions();
         }
     }
-}
 
+    @Nested
+    @DisplayName("patchById")
+    class PatchById {
+
+        private final UUID id = UUID.randomUUID();
+
+        private Product product(long version, Instant deletedAt) {
+            return new Product(id, "ACME-1", "Name", BigDecimal.valueOf(10.0), 5, "laptops",
+                    Instant.now(), Instant.now(), deletedAt, version);
+        }
+
+        @Test
+        @DisplayName("passes only the given fields and publishes the new state")
+        void success() {
+            Product patched = product(3, null);
+            given(repository.patchIfVersionMatches(eq(id), isNull(), isNull(), eq(BigDecimal.TEN), isNull(), isNull(), eq(2L), any(Instant.class)))
+                    .willReturn(UpdateResult.updated(patched));
+
+            assertThat(service.patchById(id, new PatchProductCommand(null, null, BigDecimal.TEN, null, null, 2)))
+                    .isSameAs(patched);
+
+            then(changes).should().publish(argThat(e ->
+                    e.type() == ProductChangeEvent.Type.UPDATED && e.product() == patched));
+        }
+
+        @Test
+        @DisplayName("an empty patch writes nothing and returns the current product")
+        void empty() {
+            Product current = product(2, null);
+            given(repository.findById(id)).willReturn(Optional.of(current));
+
+            assertThat(service.patchById(id, new PatchProductCommand(null, null, null, null, null, 2))).isSameAs(current);
+
+            then(repository).should().findById(id);
+            then(repository).shouldHaveNoMoreInteractions();
+            then(changes).shouldHaveNoInteractions();
+        }
+
+        @Test
+        @DisplayName("an empty patch still checks the version and that the product is active")
+        void emptyChecksVersion() {
+            var empty = new PatchProductCommand(null, null, null, null, null, 1);
+            given(repository.findById(id)).willReturn(Optional.of(product(2, null)));
+            assertThatThrownBy(() -> service.patchById(id, empty)).isInstanceOf(ProductVersionConflictException.class);
+
+            given(repository.findById(id)).willReturn(Optional.of(product(1, Instant.now())));
+            assertThatThrownBy(() -> service.patchById(id, empty)).isInstanceOf(ProductNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("a unique violation is a SKU conflict only when the patch sets the SKU")
+        void skuConflict() {
+            given(repository.patchIfVersionMatches(eq(id), any(), any(), any(), any(), any(), anyLong(), any(Instant.class)))
+                    .willThrow(new DataIntegrityViolationException("unique"));
+
+            assertThatThrownBy(() -> service.patchById(id, new PatchProductCommand("ACME-2", null, null, null, null, 2)))
+                    .isInstanceOf(SkuAlreadyExistsException.class);
+            assertThatThrownBy(() -> service.patchById(id, new PatchProductCommand(null, "Renamed", null, null, null, 2)))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        }
+
+        @Test
+        @DisplayName("maps version conflict and not found like updateById")
+        void misses() {
+            var cmd = new PatchProductCommand(null, null, null, 4, null, 2);
+            given(repository.patchIfVersionMatches(eq(id), any(), any(), any(), any(), any(), anyLong(), any(Instant.class)))
+                    .willReturn(UpdateResult.versionConflict(), UpdateResult.notFound());
+
+            assertThatThrownBy(() -> service.patchById(id, cmd)).isInstanceOf(ProductVersionConflictException.class);
+            assertThatThrownBy(() -> service.patchById(id, cmd)).isInstanceOf(ProductNotFoundException.class);
+            then(changes).shouldHaveNoInteractions();
+        }
+    }
+}
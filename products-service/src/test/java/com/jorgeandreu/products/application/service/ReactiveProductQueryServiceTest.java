@@ -0,0 +1,80 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.mapper.SearchProductListMapper;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.domain.port.out.ReactiveProductQueryPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductQueryServiceTest {
+
+    @Mock
+    private ReactiveProductQueryPort queryPort;
+
+    @Mock
+    private SearchProductListMapper searchProductListMapper;
+
+    @InjectMocks
+    private ReactiveProductQueryService service;
+
+    private final SearchCriteriaCommand cmd = new SearchCriteriaCommand(0, 10, null, "desks", null, null, null, false);
+    private final SearchCriteria criteria = new SearchCriteria(0, 10, null, "desks", null, null, null, false);
+
+    @Test
+    @DisplayName("list: maps the command and searches through the reactive port")
+    void list() {
+        var page = new PageResult<>(List.of(sample()), 0, 10, 1, 1);
+        given(searchProductListMapper.toDomain(cmd)).willReturn(criteria);
+        given(queryPort.search(criteria)).willReturn(Mono.just(page));
+
+        assertThat(service.list(cmd).block()).isSameAs(page);
+    }
+
+    @Test
+    @DisplayName("streamAll: nothing is queried until subscription")
+    void streamAllIsLazy() {
+        given(searchProductListMapper.toDomain(cmd)).willReturn(criteria);
+        given(queryPort.streamAll(criteria)).willReturn(Flux.just(sample()));
+
+        Flux<Product> products = service.streamAll(cmd);
+        then(queryPort).shouldHaveNoInteractions();
+
+        assertThat(products.collectList().block()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("list: an invalid command surfaces as an error signal")
+    void invalidCommand() {
+        given(searchProductListMapper.toDomain(cmd)).willThrow(new IllegalArgumentException("size"));
+
+        Mono<PageResult<Product>> result = service.list(cmd);
+
+        assertThatThrownBy(result::block).isInstanceOf(IllegalArgumentException.class);
+        then(queryPort).shouldHaveNoInteractions();
+    }
+
+    private static Product sample() {
+        return new Product(UUID.randomUUID(), "SKU-1", "Desk", BigDecimal.TEN, 1, "desks",
+                Instant.now(), Instant.now(), null, 0L);
+    }
+}
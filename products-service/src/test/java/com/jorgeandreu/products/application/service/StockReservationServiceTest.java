@@ -0,0 +1,201 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.InsufficientStockException;
+import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.StockReservationNotFoundException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import com.jorgeandreu.products.domain.port.out.StockReservationRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    private static final UUID LOW = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID HIGH = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Mock private ProductRepositoryPort repository;
+    @Mock private StockReservationRepositoryPort reservations;
+    @Mock private ProductChangePublisherPort changes;
+
+    @InjectMocks
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "defaultTtl", Duration.ofMinutes(15));
+    }
+
+    @Nested
+    @DisplayName("reserve")
+    class Reserve {
+
+        @Test
+        @DisplayName("decrements merged lines in product id order, stores the reservation and publishes the new stock")
+        void reservesEveryLine() {
+            given(repository.decrementStock(eq(LOW), eq(3), any(Instant.class))).willReturn(Optional.of(product(LOW, 7)));
+            given(repository.decrementStock(eq(HIGH), eq(1), any(Instant.class))).willReturn(Optional.of(product(HIGH, 4)));
+
+            var cmd = new ReserveStockCommand(List.of(
+                    new StockReservation.Line(HIGH, 1),
+                    new StockReservation.Line(LOW, 2),
+                    new StockReservation.Line(LOW, 1)), null);
+            Instant before = Instant.now();
+            StockReservation reservation = service.reserve(cmd);
+
+            InOrder inOrder = inOrder(repository);
+            inOrder.verify(repository).decrementStock(eq(LOW), eq(3), any(Instant.class));
+            inOrder.verify(repository).decrementStock(eq(HIGH), eq(1), any(Instant.class));
+            assertThat(reservation.lines()).containsExactly(
+                    new StockReservation.Line(LOW, 3), new StockReservation.Line(HIGH, 1));
+            assertThat(reservation.expiresAt()).isAfterOrEqualTo(before.plus(Duration.ofMinutes(15)));
+            then(reservations).should().save(reservation);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<ProductChangeEvent>> events = ArgumentCaptor.forClass(List.class);
+            then(changes).should().publishAll(events.capture());
+            assertThat(events.getValue()).extracting(ProductChangeEvent::type)
+                    .containsOnly(ProductChangeEvent.Type.UPDATED);
+            assertThat(events.getValue()).extracting(e -> e.product().stock()).containsExactly(7, 4);
+        }
+
+        @Test
+        @DisplayName("uses the requested ttl")
+        void requestedTtl() {
+            given(repository.decrementStock(eq(LOW), eq(1), any(Instant.class))).willReturn(Optional.of(product(LOW, 0)));
+            Instant before = Instant.now();
+
+            StockReservation reservation = service.reserve(
+                    new ReserveStockCommand(List.of(new StockReservation.Line(LOW, 1)), Duration.ofSeconds(30)));
+
+            assertThat(reservation.expiresAt()).isBetween(before.plusSeconds(30), Instant.now().plusSeconds(30));
+        }
+
+        @Test
+        @DisplayName("short stock: throws InsufficientStockException and stores nothing")
+        void insufficientStock() {
+            given(repository.decrementStock(eq(LOW), eq(5), any(Instant.class))).willReturn(Optional.empty());
+            given(repository.existsActiveById(LOW)).willReturn(true);
+
+            assertThatThrownBy(() -> service.reserve(
+                    new ReserveStockCommand(List.of(new StockReservation.Line(LOW, 5)), null)))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessageContaining(LOW.toString());
+
+            then(reservations).shouldHaveNoInteractions();
+            then(changes).shouldHaveNoInteractions();
+        }
+
+        @Test
+        @DisplayName("unknown product: throws ProductNotFoundException and stops at that line")
+        void unknownProduct() {
+            given(repository.decrementStock(eq(LOW), eq(1), any(Instant.class))).willReturn(Optional.empty());
+            given(repository.existsActiveById(LOW)).willReturn(false);
+
+            assertThatThrownBy(() -> service.reserve(new ReserveStockCommand(List.of(
+                    new StockReservation.Line(LOW, 1), new StockReservation.Line(HIGH, 1)), null)))
+                    .isInstanceOf(ProductNotFoundException.class);
+
+            then(repository).should(never()).decrementStock(eq(HIGH), anyInt(), any(Instant.class));
+            then(reservations).shouldHaveNoInteractions();
+        }
+    }
+
+    @Nested
+    @DisplayName("release, commit and expiry")
+    class Settle {
+
+        @Test
+        @DisplayName("release: returns every line's stock and publishes it")
+        void release() {
+            UUID id = UUID.randomUUID();
+            given(reservations.deleteById(id)).willReturn(List.of(new StockReservation.Line(LOW, 2)));
+            given(repository.incrementStock(eq(LOW), eq(2), any(Instant.class))).willReturn(Optional.of(product(LOW, 9)));
+
+            service.release(id);
+
+            then(changes).should().publishAll(argThat(events -> events.size() == 1
+                    && events.getFirst().productId().equals(LOW) && events.getFirst().product().stock() == 9));
+        }
+
+        @Test
+        @DisplayName("release of a reservation that is no longer open: throws StockReservationNotFoundException")
+        void releaseUnknown() {
+            UUID id = UUID.randomUUID();
+            given(reservations.deleteById(id)).willReturn(List.of());
+
+            assertThatThrownBy(() -> service.release(id)).isInstanceOf(StockReservationNotFoundException.class);
+            then(repository).shouldHaveNoInteractions();
+        }
+
+        @Test
+        @DisplayName("commit: forgets the reservation without touching stock")
+        void commit() {
+            UUID id = UUID.randomUUID();
+            given(reservations.deleteUnexpiredById(id)).willReturn(List.of(new StockReservation.Line(LOW, 2)));
+
+            service.commit(id);
+
+            then(repository).shouldHaveNoInteractions();
+            then(changes).shouldHaveNoInteractions();
+        }
+
+        @Test
+        @DisplayName("commit of an expired or settled reservation: throws StockReservationNotFoundException")
+        void commitExpired() {
+            UUID id = UUID.randomUUID();
+            given(reservations.deleteUnexpiredById(id)).willReturn(List.of());
+
+            assertThatThrownBy(() -> service.commit(id)).isInstanceOf(StockReservationNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("expireDue: sums lines per product, restocks in id order and skips deleted products")
+        void expireDue() {
+            given(reservations.deleteExpired(100)).willReturn(List.of(
+                    new StockReservation.Line(HIGH, 1),
+                    new StockReservation.Line(LOW, 2),
+                    new StockReservation.Line(HIGH, 4)));
+            given(repository.incrementStock(eq(LOW), eq(2), any(Instant.class))).willReturn(Optional.empty());
+            given(repository.incrementStock(eq(HIGH), eq(5), any(Instant.class))).willReturn(Optional.of(product(HIGH, 5)));
+
+            assertThat(service.expireDue(100)).isEqualTo(3);
+
+            InOrder inOrder = inOrder(repository);
+            inOrder.verify(repository).incrementStock(eq(LOW), eq(2), any(Instant.class));
+            inOrder.verify(repository).incrementStock(eq(HIGH), eq(5), any(Instant.class));
+            then(changes).should().publishAll(argThat(events -> events.size() == 1
+                    && events.getFirst().productId().equals(HIGH)));
+        }
+    }
+
+    private static Product product(UUID id, int stock) {
+        Instant now = Instant.now();
+        return new Product(id, "SKU-" + id, "Desk", BigDecimal.TEN, stock, "desks", now, now, null, 2L);
+    }
+}
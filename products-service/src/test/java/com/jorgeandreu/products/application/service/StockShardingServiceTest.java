@@ -0,0 +1,65 @@
+package com.jorgeandreu.products.application.service;
+
+import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductChangeEvent;
+import com.jorgeandreu.products.domain.port.out.ProductChangePublisherPort;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockShardingServiceTest {
+
+    @Mock private ProductRepositoryPort repository;
+    @Mock private ProductChangePublisherPort changes;
+
+    @InjectMocks
+    private StockShardingService service;
+
+    @Test
+    @DisplayName("reshardStock: reshards and publishes the product")
+    void reshards() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.now();
+        Product product = new Product(id, "HOT-1", "Console", BigDecimal.TEN, 500, "games", now, now, null, 3L);
+        given(repository.reshardStock(eq(id), eq(16), any(Instant.class))).willReturn(Optional.of(product));
+
+        assertThat(service.reshardStock(id, 16)).isSameAs(product);
+
+        then(changes).should().publish(argThat(e -> e.type() == ProductChangeEvent.Type.UPDATED && e.product() == product));
+    }
+
+    @Test
+    @DisplayName("reshardStock: unknown or deleted product throws ProductNotFoundException")
+    void notFound() {
+        UUID id = UUID.randomUUID();
+        given(repository.reshardStock(eq(id), eq(4), any(Instant.class))).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.reshardStock(id, 4)).isInstanceOf(ProductNotFoundException.class);
+        then(changes).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("reshardStock: shard count outside 1..64 is rejected before touching the database")
+    void invalidShards() {
+        UUID id = UUID.randomUUID();
+
+        assertThatThrownBy(() -> service.reshardStock(id, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.reshardStock(id, 65)).isInstanceOf(IllegalArgumentException.class);
+        then(repository).shouldHaveNoInteractions();
+    }
+}
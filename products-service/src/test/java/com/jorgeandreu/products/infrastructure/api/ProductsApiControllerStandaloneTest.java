@@ -1,6 +1,7 @@
 package com.jorgeandreu.products.infrastructure.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.infrastructure.api.model.CountMode;
 import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
 import com.jorgeandreu.products.infrastructure.api.model.Product;
 import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
@@ -129,7 +130,7 @@ class ProductsApiControllerStandaloneTest {
                     .stock(7)
                     .category("laptops");
 
-            Mockito.when(delegate.getProductById(ArgumentMatchers.eq(id)))
+            Mockito.when(delegate.getProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.ok(apiProduct));
 
             mvc.perform(get(PRODUCTS + "/" + id))
@@ -145,12 +146,25 @@ class ProductsApiControllerStandaloneTest {
         void notFound() throws Exception {
             var id = UUID.randomUUID();
 
-            Mockito.when(delegate.getProductById(ArgumentMatchers.eq(id)))
+            Mockito.when(delegate.getProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.notFound().build());
 
             mvc.perform(get(PRODUCTS + "/" + id))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @DisplayName("304 Not Modified when the delegate matches the forwarded If-None-Match")
+        void notModified() throws Exception {
+            var id = UUID.randomUUID();
+
+            Mockito.when(delegate.getProductById(ArgumentMatchers.eq(id), ArgumentMatchers.eq("\"3.7\"")))
+                    .thenReturn(ResponseEntity.status(304).eTag("\"3.7\"").build());
+
+            mvc.perform(get(PRODUCTS + "/" + id).header("If-None-Match", "\"3.7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"3.7\""));
+        }
     }
 
     @Nested
@@ -215,14 +229,14 @@ class ProductsApiControllerStandaloneTest {
         void noContentOnSuccess() throws Exception {
             UUID id = UUID.randomUUID();
 
-            Mockito.when(delegate.deleteProductById(ArgumentMatchers.eq(id)))
+            Mockito.when(delegate.deleteProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.noContent().build());
 
             mvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
                             .delete(PRODUCTS + "/" + id))
                     .andExpect(status().isNoContent());
 
-            Mockito.verify(delegate).deleteProductById(ArgumentMatchers.eq(id));
+            Mockito.verify(delegate).deleteProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull());
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -231,14 +245,14 @@ class ProductsApiControllerStandaloneTest {
         void notFoundWhenMissingOrDeleted() throws Exception {
             UUID id = UUID.randomUUID();
 
-            Mockito.when(delegate.deleteProductById(ArgumentMatchers.eq(id)))
+            Mockito.when(delegate.deleteProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.notFound().build());
 
             mvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
                             .delete(PRODUCTS + "/" + id))
                     .andExpect(status().isNotFound());
 
-            Mockito.verify(delegate).deleteProductById(ArgumentMatchers.eq(id));
+            Mockito.verify(delegate).deleteProductById(ArgumentMatchers.eq(id), ArgumentMatchers.isNull());
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -268,7 +282,7 @@ class ProductsApiControllerStandaloneTest {
             var updated = new Product()
                     .id(id).sku("ACME-9").name("New Name").price(777.77).stock(9).category("laptops");
 
-            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any()))
+            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.ok(updated));
 
             mvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
@@ -281,7 +295,7 @@ class ProductsApiControllerStandaloneTest {
                     .andExpect(jsonPath("$.sku", is("ACME-9")))
                     .andExpect(jsonPath("$.name", is("New Name")));
 
-            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any());
+            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull());
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -292,7 +306,7 @@ class ProductsApiControllerStandaloneTest {
             var req = new com.jorgeandreu.products.infrastructure.api.model.UpdateProductRequest()
                     .sku("ACME-1").name("N").price(1.0).stock(1).category("laptops").version(1);
 
-            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any()))
+            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.status(409).build());
 
             mvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
@@ -301,7 +315,7 @@ class ProductsApiControllerStandaloneTest {
                             .content(objectMapper.writeValueAsString(req)))
                     .andExpect(status().isConflict());
 
-            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any());
+            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull());
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -312,7 +326,7 @@ class ProductsApiControllerStandaloneTest {
             var req = new com.jorgeandreu.products.infrastructure.api.model.UpdateProductRequest()
                     .sku("ACME-1").name("N").price(1.0).stock(1).category("laptops").version(0);
 
-            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any()))
+            Mockito.when(delegate.updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.notFound().build());
 
             mvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders
@@ -321,7 +335,7 @@ class ProductsApiControllerStandaloneTest {
                             .content(objectMapper.writeValueAsString(req)))
                     .andExpect(status().isNotFound());
 
-            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any());
+            Mockito.verify(delegate).updateProductById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.isNull());
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -362,7 +376,10 @@ class ProductsApiControllerStandaloneTest {
                             ArgumentMatchers.eq(0),
                             ArgumentMatchers.eq(2),
                             ArgumentMatchers.eq("createdAt,desc"),
-                            ArgumentMatchers.eq(false)))
+                            ArgumentMatchers.eq(false),
+                            ArgumentMatchers.isNull(),
+                            ArgumentMatchers.isNull(),
+                            ArgumentMatchers.isNull()))
                     .thenReturn(ResponseEntity.ok(page));
 
             mvc.perform(get(PRODUCTS)
@@ -378,7 +395,7 @@ class ProductsApiControllerStandaloneTest {
                     .andExpect(jsonPath("$.content[0].sku", is("ACME-1")))
                     .andExpect(jsonPath("$.content[1].sku", is("ACME-2")));
 
-            Mockito.verify(delegate).listProducts(0, 2, "createdAt,desc", false);
+            Mockito.verify(delegate).listProducts(0, 2, "createdAt,desc", false, null, null, null);
             Mockito.verifyNoMoreInteractions(delegate);
         }
 
@@ -393,7 +410,10 @@ class ProductsApiControllerStandaloneTest {
                     ArgumentMatchers.<Integer>any(),
                     ArgumentMatchers.<Integer>any(),
                     ArgumentMatchers.<String>any(),
-                    ArgumentMatchers.<Boolean>any()
+                    ArgumentMatchers.<Boolean>any(),
+                    ArgumentMatchers.<String>any(),
+                    ArgumentMatchers.<CountMode>any(),
+                    ArgumentMatchers.<String>any()
             )).thenReturn(ResponseEntity.ok(page));
 
             mvc.perform(get(PRODUCTS))
@@ -407,9 +427,58 @@ class ProductsApiControllerStandaloneTest {
                     ArgumentMatchers.argThat(p -> p == null || p == 0),
                     ArgumentMatchers.argThat(s -> s == null || s == 20),
                     ArgumentMatchers.isNull(),
-                    ArgumentMatchers.argThat(b -> b == null || !b)
+                    ArgumentMatchers.argThat(b -> b == null || !b),
+                    ArgumentMatchers.isNull(),
+                    ArgumentMatchers.isNull(),
+                    ArgumentMatchers.isNull()
             );
             Mockito.verifyNoMoreInteractions(delegate);
         }
+
+        @Test
+        @DisplayName("200 OK forwards cursor and exposes nextCursor")
+        void okListWithCursor() throws Exception {
+            var page = new ProductPage()
+                    .page(0).size(2).totalPages(3).totalElements(6)
+                    .content(List.of())
+                    .nextCursor("abc");
+
+            Mockito.when(delegate.listProducts(
+                    ArgumentMatchers.<Integer>any(),
+                    ArgumentMatchers.<Integer>any(),
+                    ArgumentMatchers.<String>any(),
+                    ArgumentMatchers.<Boolean>any(),
+                    ArgumentMatchers.eq("xyz"),
+                    ArgumentMatchers.<CountMode>any(),
+                    ArgumentMatchers.<String>any()
+            )).thenReturn(ResponseEntity.ok(page));
+
+            mvc.perform(get(PRODUCTS).param("size", "2").param("cursor", "xyz"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.nextCursor", is("abc")));
+        }
+
+        @Test
+        @DisplayName("200 OK binds countMode and reports it without totals")
+        void okListWithCountModeNone() throws Exception {
+            var page = new ProductPage()
+                    .page(0).size(20).hasNext(true).countMode(CountMode.NONE)
+                    .content(List.of());
+
+            Mockito.when(delegate.listProducts(
+                    ArgumentMatchers.<Integer>any(),
+                    ArgumentMatchers.<Integer>any(),
+                    ArgumentMatchers.<String>any(),
+                    ArgumentMatchers.<Boolean>any(),
+                    ArgumentMatchers.<String>any(),
+                    ArgumentMatchers.eq(CountMode.NONE),
+                    ArgumentMatchers.<String>any()
+            )).thenReturn(ResponseEntity.ok(page));
+
+            mvc.perform(get(PRODUCTS).param("countMode", "NONE"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.countMode", is("NONE")))
+                    .andExpect(jsonPath("$.hasNext", is(true)));
+        }
     }
 }
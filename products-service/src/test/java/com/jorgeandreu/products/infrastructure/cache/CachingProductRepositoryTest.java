@@ -0,0 +1,264 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CachingProductRepositoryTest {
+
+    private ProductRepositoryPort delegate;
+    private Cache<UUID, Product> cache;
+    private SimpleMeterRegistry registry;
+    private CachingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProductRepositoryPort.class);
+        registry = new SimpleMeterRegistry();
+        cache = CaffeineCacheMetrics.monitor(registry,
+                Caffeine.newBuilder().maximumSize(100).recordStats().<UUID, Product>build(),
+                ProductCacheConfig.CACHE_NAME);
+        repository = new CachingProductRepository(delegate, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("second findById is served from the cache")
+    void findById_hitAfterMiss() {
+        UUID id = UUID.randomUUID();
+        Product p = product(id, 1);
+        when(delegate.findById(id)).thenReturn(Optional.of(p));
+
+        assertThat(repository.findById(id)).contains(p);
+        assertThat(repository.findById(id)).contains(p);
+
+        verify(delegate, times(1)).findById(id);
+        assertThat(registry.get("cache.gets").tag("cache", ProductCacheConfig.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", ProductCacheConfig.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("misses are not cached")
+    void findById_emptyNotCached() {
+        UUID id = UUID.randomUUID();
+        when(delegate.findById(id)).thenReturn(Optional.empty());
+
+        assertThat(repository.findById(id)).isEmpty();
+        assertThat(repository.findById(id)).isEmpty();
+
+        verify(delegate, times(2)).findById(id);
+    }
+
+    @Test
+    @DisplayName("updateIfVersionMatches evicts the id, even when it throws")
+    void update_evicts() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, product(id, 1));
+        when(delegate.updateIfVersionMatches(any(), any(), any(), any(), any(), any(), anyLong(), any()))
+                .thenThrow(new DataIntegrityViolationException("sku"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> repository.updateIfVersionMatches(id, "S", "N", BigDecimal.ONE, 1, "c", 1, Instant.now()));
+
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    @DisplayName("patchIfVersionMatches evicts the id")
+    void patch_evicts() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, product(id, 1));
+        when(delegate.patchIfVersionMatches(any(), any(), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(UpdateResult.updated(product(id, 2)));
+
+        repository.patchIfVersionMatches(id, null, null, BigDecimal.TEN, null, null, 1, Instant.now());
+
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    @DisplayName("updateAllBySku evicts the updated ids only")
+    void updateAllBySku_evictsUpdated() {
+        UUID updated = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        cache.put(updated, product(updated, 1));
+        cache.put(untouched, product(untouched, 1));
+        when(delegate.updateAllBySku(any(), any()))
+                .thenReturn(List.of(UpdateResult.updated(product(updated, 2)), UpdateResult.versionConflict()));
+
+        repository.updateAllBySku(List.of(
+                new ProductBulkUpdate("A", BigDecimal.TEN, null, null),
+                new ProductBulkUpdate("B", BigDecimal.TEN, null, 1L)), Instant.now());
+
+        assertThat(cache.getIfPresent(updated)).isNull();
+        assertThat(cache.getIfPresent(untouched)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("softDeleteById and save evict the id")
+    void deleteAndSave_evict() {
+        UUID id = UUID.randomUUID();
+        cache.put(id, product(id, 1));
+        when(delegate.softDeleteById(eq(id), any())).thenReturn(true);
+
+        repository.softDeleteById(id, Instant.now());
+        assertThat(cache.getIfPresent(id)).isNull();
+
+        Product saved = product(id, 0);
+        cache.put(id, product(id, 1));
+        when(delegate.save(saved)).thenReturn(saved);
+
+        repository.save(saved);
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    @DisplayName("inside a transaction the id is evicted again after completion")
+    void evictsAgainAfterCompletion() {
+        UUID id = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        when(delegate.softDeleteById(eq(id), any())).thenReturn(true);
+
+        repository.softDeleteById(id, Instant.now());
+        // a concurrent reader re-caches the row before the write commits
+        cache.put(id, product(id, 1));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    @DisplayName("a load that overlapped the post-commit eviction is not cached")
+    void loadRacingCommitNotCached() {
+        UUID id = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        when(delegate.softDeleteById(eq(id), any())).thenReturn(true);
+        repository.softDeleteById(id, Instant.now());
+        when(delegate.findById(id)).thenAnswer(inv -> {
+            // the reader saw the pre-commit row, then the write commits before it caches it
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return Optional.of(product(id, 1));
+        });
+
+        assertThat(repository.findById(id)).isPresent();
+
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    @Test
+    @DisplayName("a write to another id while a load runs does not keep the load out of the cache")
+    void loadOverlappingOtherWriteCached() {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(delegate.findById(id)).thenAnswer(inv -> {
+            repository.decrementStock(other, 1, Instant.now());
+            return Optional.of(product(id, 1));
+        });
+
+        repository.findById(id);
+
+        assertThat(cache.getIfPresent(id)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("a load never replaces a newer cached version")
+    void loadDoesNotDowngrade() {
+        UUID id = UUID.randomUUID();
+        Product stale = product(id, 1);
+        Product fresh = product(id, 2);
+        when(delegate.findById(id)).thenAnswer(inv -> {
+            cache.put(id, fresh); // someone cached v2 while we were loading v1
+            return Optional.of(stale);
+        });
+
+        repository.findById(id);
+
+        assertThat(cache.getIfPresent(id)).isSameAs(fresh);
+    }
+
+    @Test
+    @DisplayName("findAllByIds loads only the ids that are not cached, and caches them")
+    void findAllByIds_loadsMissesOnly() {
+        UUID cachedId = UUID.randomUUID();
+        UUID missId = UUID.randomUUID();
+        Product cached = product(cachedId, 1);
+        Product loaded = product(missId, 1);
+        cache.put(cachedId, cached);
+        when(delegate.findAllByIds(List.of(missId))).thenReturn(List.of(loaded));
+
+        assertThat(repository.findAllByIds(Set.of(cachedId, missId))).containsExactlyInAnyOrder(cached, loaded);
+
+        verify(delegate).findAllByIds(List.of(missId));
+        assertThat(cache.getIfPresent(missId)).isSameAs(loaded);
+    }
+
+    @Test
+    @DisplayName("findAllByIds does not hit the delegate when every id is cached")
+    void findAllByIds_allCached() {
+        UUID id = UUID.randomUUID();
+        Product p = product(id, 1);
+        cache.put(id, p);
+
+        assertThat(repository.findAllByIds(Set.of(id))).containsExactly(p);
+
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("with a write quarantine, a recently written id is not re-cached from a load")
+    void writeQuarantineSkipsCaching() {
+        var quarantined = new CachingProductRepository(delegate, cache, Duration.ofMinutes(1));
+        UUID id = UUID.randomUUID();
+        when(delegate.softDeleteById(eq(id), any())).thenReturn(true);
+        when(delegate.findById(id)).thenReturn(Optional.of(product(id, 1)));
+
+        quarantined.softDeleteById(id, Instant.now());
+        quarantined.findById(id);
+        quarantined.findById(id);
+
+        verify(delegate, times(2)).findById(id);
+        assertThat(cache.getIfPresent(id)).isNull();
+    }
+
+    private static Product product(UUID id, long version) {
+        return new Product(id, "ACME-1", "Laptop", BigDecimal.TEN, 1, "laptops",
+                Instant.now(), Instant.now(), null, version);
+    }
+}
@@ -0,0 +1,85 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jorgeandreu.products.domain.model.FacetRequest;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FacetCachingProductRepositoryTest {
+
+    private static final FacetRequest CATEGORIES = new FacetRequest(true, false, null);
+    private static final SearchFacets FACETS =
+            new SearchFacets(List.of(new SearchFacets.CategoryCount("laptops", 3)), null);
+
+    private ProductRepositoryPort delegate;
+    private FacetCachingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProductRepositoryPort.class);
+        Cache<FacetCachingProductRepository.Key, SearchFacets> cache =
+                Caffeine.newBuilder().maximumSize(100).build();
+        repository = new FacetCachingProductRepository(delegate, cache);
+        when(delegate.facets(any())).thenReturn(FACETS);
+    }
+
+    @Test
+    @DisplayName("pages and sorts of the same filters share one facet query")
+    void sharedAcrossPagesAndSorts() {
+        assertThat(repository.facets(criteria(0, "price,asc", "laptops", null, CATEGORIES))).isEqualTo(FACETS);
+        assertThat(repository.facets(criteria(3, "createdAt,desc", "laptops", null, CATEGORIES))).isEqualTo(FACETS);
+
+        verify(delegate, times(1)).facets(any());
+    }
+
+    @Test
+    @DisplayName("category and text are compared case- and blank-insensitively, like the filters")
+    void normalizesKey() {
+        repository.facets(criteria(0, null, "Laptops ", "  ", CATEGORIES));
+        repository.facets(criteria(0, null, "laptops", null, CATEGORIES));
+
+        verify(delegate, times(1)).facets(any());
+    }
+
+    @Test
+    @DisplayName("different filters or facet requests are cached apart")
+    void differentKeys() {
+        repository.facets(criteria(0, null, "laptops", null, CATEGORIES));
+        repository.facets(criteria(0, null, "desks", null, CATEGORIES));
+        repository.facets(criteria(0, null, "laptops", null, new FacetRequest(true, true, List.of(10.0))));
+
+        verify(delegate, times(3)).facets(any());
+    }
+
+    @Test
+    @DisplayName("writes do not evict facets")
+    void writesDoNotEvict() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.now();
+        repository.facets(criteria(0, null, null, null, CATEGORIES));
+
+        repository.updateIfVersionMatches(id, "SKU", "Name", BigDecimal.ONE, 1, "laptops", 0, now);
+        repository.facets(criteria(0, null, null, null, CATEGORIES));
+
+        verify(delegate).updateIfVersionMatches(id, "SKU", "Name", BigDecimal.ONE, 1, "laptops", 0, now);
+        verify(delegate, times(1)).facets(any());
+    }
+
+    private static SearchCriteria criteria(int page, String sort, String category, String text, FacetRequest facets) {
+        return new SearchCriteria(page, 20, sort, category, null, null, text, false, null, null, facets);
+    }
+}
@@ -0,0 +1,140 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SearchCachingProductRepositoryTest {
+
+    private ProductRepositoryPort delegate;
+    private SimpleMeterRegistry registry;
+    private Cache<SearchCachingProductRepository.Key, PageResult<Product>> cache;
+    private SearchCachingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProductRepositoryPort.class);
+        registry = new SimpleMeterRegistry();
+        cache = CaffeineCacheMetrics.monitor(registry,
+                Caffeine.newBuilder().maximumSize(100).recordStats()
+                        .<SearchCachingProductRepository.Key, PageResult<Product>>build(),
+                ProductCacheConfig.SEARCH_CACHE_NAME);
+        repository = new SearchCachingProductRepository(delegate, cache);
+        when(delegate.search(any())).thenAnswer(inv -> new PageResult<Product>(List.of(), 0, 20, 0, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("the same criteria, up to case, padding and default sort direction, hit one entry")
+    void canonicalKey() {
+        PageResult<Product> first = repository.search(criteria("price", " Laptops", "Pro "));
+        PageResult<Product> second = repository.search(criteria("price , DESC", "laptops", "pro"));
+
+        assertThat(second).isSameAs(first);
+        verify(delegate, times(1)).search(criteria("price,desc", "laptops", "pro"));
+        assertThat(registry.get("cache.gets").tag("cache", ProductCacheConfig.SEARCH_CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("multi-field sorts share an entry however the fields are separated")
+    void canonicalMultiFieldSort() {
+        repository.search(criteria("category,ASC,price", "laptops", null));
+        repository.search(criteria(" category , asc ; price , desc ", "laptops", null));
+
+        verify(delegate, times(1)).search(criteria("category,asc;price,desc", "laptops", null));
+    }
+
+    @Test
+    @DisplayName("different pages or sorts are cached apart")
+    void differentKeys() {
+        repository.search(criteria("price,asc", "laptops", null));
+        repository.search(criteria("price,desc", "laptops", null));
+        repository.search(new SearchCriteria(1, 20, "price,asc", "laptops", null, null, null, false));
+
+        verify(delegate, times(3)).search(any());
+    }
+
+    @Test
+    @DisplayName("any write makes earlier pages unreachable")
+    void writeInvalidates() {
+        repository.search(criteria(null, "laptops", null));
+        repository.softDeleteById(UUID.randomUUID(), Instant.now());
+        repository.search(criteria(null, "laptops", null));
+
+        verify(delegate, times(2)).search(any());
+    }
+
+    @Test
+    @DisplayName("a page read while a write's transaction was open is dropped when it completes")
+    void invalidatesAgainAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        repository.decrementStock(UUID.randomUUID(), 1, Instant.now());
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        repository.search(criteria(null, "laptops", null)); // e.g. another thread, before the commit
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        repository.search(criteria(null, "laptops", null));
+
+        verify(delegate, times(2)).search(any());
+    }
+
+    @Test
+    @DisplayName("read-write transactions bypass the cache")
+    void readWriteBypasses() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            repository.search(criteria(null, "laptops", null));
+            repository.search(criteria(null, "laptops", null));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(delegate, times(2)).search(any());
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("with a write quarantine, pages read shortly after a write are not cached")
+    void writeQuarantineSkipsCaching() {
+        var quarantined = new SearchCachingProductRepository(delegate, cache, Duration.ofMinutes(1));
+
+        quarantined.search(criteria(null, "laptops", null));
+        quarantined.softDeleteById(UUID.randomUUID(), Instant.now());
+        quarantined.search(criteria(null, "laptops", null));
+        quarantined.search(criteria(null, "laptops", null));
+
+        verify(delegate, times(3)).search(any());
+    }
+
+    private static SearchCriteria criteria(String sort, String category, String text) {
+        return new SearchCriteria(0, 20, sort, category, null, null, text, false);
+    }
+}
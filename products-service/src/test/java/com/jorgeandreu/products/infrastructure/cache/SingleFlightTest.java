@@ -0,0 +1,135 @@
+package com.jorgeandreu.products.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry registry;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        pool = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("concurrent loads of the same key run the loader once")
+    void coalescesConcurrentLoads() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, String> loader = k -> {
+            calls.incrementAndGet();
+            await(release);
+            return k.toUpperCase();
+        };
+
+        List<Future<String>> results = new ArrayList<>();
+        results.add(pool.submit(() -> flight.load("a", loader)));
+        waitUntil(() -> flight.inFlight() == 1);
+        for (int i = 0; i < 7; i++) {
+            results.add(pool.submit(() -> flight.load("a", loader)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> f : results) {
+            assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo("A");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(registry.get("singleflight.coalesced").tag("name", "test").counter().count()).isEqualTo(7.0);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("waiters see the leader's exception")
+    void propagatesFailure() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, String> loader = k -> {
+            await(release);
+            throw new IllegalStateException("db down");
+        };
+
+        Future<String> leader = pool.submit(() -> flight.load("a", loader));
+        waitUntil(() -> flight.inFlight() == 1);
+        Future<String> follower = pool.submit(() -> flight.load("a", k -> "unused"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("db down");
+    }
+
+    @Test
+    @DisplayName("a waiter past the timeout loads on its own")
+    void timesOutToOwnLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMillis(50), registry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = pool.submit(() -> flight.load("a", k -> {
+            await(release);
+            return "slow";
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+
+        assertThat(flight.load("a", k -> "fast")).isEqualTo("fast");
+        assertThat(registry.get("singleflight.timeouts").tag("name", "test").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    @Test
+    @DisplayName("sequential loads are not coalesced")
+    void sequentialLoadsEachRun() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", Duration.ofSeconds(1), registry);
+        AtomicInteger calls = new AtomicInteger();
+
+        flight.load("a", k -> calls.incrementAndGet());
+        flight.load("a", k -> calls.incrementAndGet());
+
+        assertThat(calls).hasValue(2);
+        assertThat(registry.get("singleflight.coalesced").tag("name", "test").counter().count()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/** Runs the job lifecycle statements against PostgreSQL (Testcontainers). */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BulkUpdateJobJdbcRepositoryTest {
+
+    private static final Duration STALE_AFTER = Duration.ofSeconds(30);
+
+    @Autowired private BulkUpdateJobJdbcRepository jobs;
+    @Autowired private JdbcTemplate jdbc;
+
+    private UUID jobId;
+
+    @BeforeEach
+    void setUp() {
+        jobId = UUID.randomUUID();
+        jobs.create(jobId, 2, Instant.now());
+        jobs.stage(jobId, List.of(
+                row(1, "SKU-C"),
+                row(2, "SKU-A"),
+                row(3, "SKU-B"),
+                row(4, "SKU-A"),
+                BulkUpdateRow.malformed(5, null, "malformed JSON"),
+                row(6, "SKU-D")));
+    }
+
+    @Nested
+    @DisplayName("queue")
+    class Queue {
+
+        @Test
+        @DisplayName("rejects all but the last line of a repeated SKU, counts the rows and queues the job")
+        void rejectsRepeatsAndCounts() {
+            BulkUpdateJob job = jobs.queue(jobId);
+
+            assertThat(job.status()).isEqualTo(BulkUpdateJob.Status.QUEUED);
+            assertThat(job.total()).isEqualTo(6);
+            assertThat(job.invalid()).isEqualTo(2);
+            assertThat(jobs.findRejected(jobId, 0, 10))
+                    .extracting(BulkUpdateRow::line, BulkUpdateRow::error)
+                    .containsExactly(
+                            tuple(2L, "superseded by line 4"),
+                            tuple(5L, "malformed JSON"));
+        }
+
+        @Test
+        @DisplayName("splits the pending rows into SKU ranges, one per partition")
+        void partitionsBySkuRange() {
+            jobs.queue(jobId);
+
+            assertThat(jobs.lockPending(jobId, 0, 10)).extracting(BulkUpdateRow::sku)
+                    .containsExactly("SKU-A", "SKU-B");
+            assertThat(jobs.lockPending(jobId, 1, 10)).extracting(BulkUpdateRow::sku)
+                    .containsExactly("SKU-C", "SKU-D");
+        }
+    }
+
+    @Nested
+    @DisplayName("claim")
+    class Claim {
+
+        @Test
+        @DisplayName("takes a queued job, and takes it again only once its owner stops sending heartbeats")
+        void takesOverStaleJobs() {
+            jobs.queue(jobId);
+
+            assertThat(claim("a", 3)).singleElement()
+                    .satisfies(j -> assertThat(j.status()).isEqualTo(BulkUpdateJob.Status.RUNNING));
+            assertThat(claim("b", 3)).isEmpty();
+
+            jdbc.update("UPDATE product_bulk_update_jobs SET heartbeat_at = now() - interval '1 minute' WHERE id = ?",
+                    jobId);
+
+            assertThat(claim("b", 3)).hasSize(1);
+            assertThat(jdbc.queryForObject("SELECT attempts FROM product_bulk_update_jobs WHERE id = ?",
+                    Integer.class, jobId)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("fails a job instead of claiming it past the attempt limit")
+        void failsExhaustedJobs() {
+            jobs.queue(jobId);
+            claim("a", 1);
+            jdbc.update("UPDATE product_bulk_update_jobs SET heartbeat_at = now() - interval '1 minute' WHERE id = ?",
+                    jobId);
+
+            assertThat(claim("b", 1)).isEmpty();
+            assertThat(jobs.findById(jobId)).get()
+                    .satisfies(j -> assertThat(j.status()).isEqualTo(BulkUpdateJob.Status.FAILED));
+        }
+
+        @Test
+        @DisplayName("fails an upload that stopped receiving rows")
+        void failsInterruptedUploads() {
+            jdbc.update("UPDATE product_bulk_update_jobs SET heartbeat_at = now() - interval '1 minute' WHERE id = ?",
+                    jobId);
+
+            claim("a", 3);
+
+            assertThat(jobs.findById(jobId)).get()
+                    .satisfies(j -> assertThat(j.status()).isEqualTo(BulkUpdateJob.Status.FAILED));
+        }
+
+        private List<BulkUpdateJob> claim(String owner, int maxAttempts) {
+            return jobs.claim(owner, 10, STALE_AFTER, maxAttempts).stream()
+                    .filter(j -> j.id().equals(jobId))
+                    .toList();
+        }
+    }
+
+    @Test
+    @DisplayName("completed rows leave the pending set and add to the counters; the job completes with the last one")
+    void completesAndFinishes() {
+        jobs.queue(jobId);
+        jobs.claim("a", 10, STALE_AFTER, 3);
+
+        List<BulkUpdateRow> first = jobs.lockPending(jobId, 0, 10);
+        jobs.complete(jobId, 0, List.of(
+                first.get(0).withStatus(BulkUpdateRow.Status.UPDATED, null),
+                first.get(1).withStatus(BulkUpdateRow.Status.VERSION_CONFLICT, "stale")));
+
+        assertThat(jobs.lockPending(jobId, 0, 10)).isEmpty();
+        assertThat(jobs.finish(jobId, Instant.now()).status()).isEqualTo(BulkUpdateJob.Status.QUEUED);
+
+        jobs.claim("a", 10, STALE_AFTER, 3);
+        jobs.complete(jobId, 1, jobs.lockPending(jobId, 1, 10).stream()
+                .map(r -> r.withStatus(BulkUpdateRow.Status.NOT_FOUND, "unknown"))
+                .toList());
+        BulkUpdateJob done = jobs.finish(jobId, Instant.now());
+
+        assertThat(done.status()).isEqualTo(BulkUpdateJob.Status.COMPLETED);
+        assertThat(done.finishedAt()).isNotNull();
+        assertThat(done.updated()).isEqualTo(1);
+        assertThat(done.conflicts()).isEqualTo(1);
+        assertThat(done.notFound()).isEqualTo(2);
+        assertThat(jobs.findRejected(jobId, 4, 10)).extracting(BulkUpdateRow::line).containsExactly(5L, 6L);
+    }
+
+    private static BulkUpdateRow row(long line, String sku) {
+        return BulkUpdateRow.parsed(line, sku, new BigDecimal("1.00"), null, null);
+    }
+}
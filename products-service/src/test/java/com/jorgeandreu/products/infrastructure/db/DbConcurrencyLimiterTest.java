@@ -0,0 +1,95 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class DbConcurrencyLimiterTest {
+
+    private DataSource target;
+    private SimpleMeterRegistry registry;
+    private DbConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        registry = new SimpleMeterRegistry();
+        limiter = new DbConcurrencyLimiter(target, 2, 1, Duration.ofMillis(50), registry);
+    }
+
+    @Test
+    @DisplayName("past the limit a caller waits the acquire timeout, then is refused")
+    void refusesPastLimit() throws SQLException {
+        limiter.getConnection();
+        limiter.getConnection();
+
+        assertThatThrownBy(limiter::getConnection).isInstanceOf(DbSaturatedException.class);
+        assertThat(registry.counter("db.limiter.rejected").count()).isEqualTo(1);
+        assertThat(registry.get("db.limiter.in-use").gauge().value()).isEqualTo(2);
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("closing a connection returns its permit exactly once, and closes the real connection")
+    void closeReleasesOnce() throws SQLException {
+        Connection first = limiter.getConnection();
+        limiter.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(limiter.inUse()).isEqualTo(1);
+        limiter.getConnection();
+        assertThatThrownBy(limiter::getConnection).isInstanceOf(DbSaturatedException.class);
+    }
+
+    @Test
+    @DisplayName("a failure to open a connection returns the permit")
+    void failedOpenReleases() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThatThrownBy(limiter::getConnection).hasMessage("down");
+        assertThat(limiter.inUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("streaming connections use their own budget, leaving request permits free")
+    void streamingBudgetIsSeparate() throws SQLException {
+        Connection streaming = DbConcurrencyLimiter.streamingConnection(limiter);
+
+        assertThat(limiter.streamingInUse()).isEqualTo(1);
+        assertThat(limiter.inUse()).isZero();
+        assertThatThrownBy(() -> DbConcurrencyLimiter.streamingConnection(limiter))
+                .isInstanceOf(DbSaturatedException.class);
+        assertThat(registry.counter("db.limiter.streaming.rejected").count()).isEqualTo(1);
+        limiter.getConnection();
+        limiter.getConnection();
+
+        streaming.close();
+        assertThat(limiter.streamingInUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("other calls reach the real connection unchanged")
+    void delegates() throws SQLException {
+        Connection real = mock(Connection.class);
+        when(real.getAutoCommit()).thenReturn(false);
+        when(target.getConnection()).thenReturn(real);
+
+        Connection connection = limiter.getConnection();
+
+        assertThat(connection.getAutoCommit()).isFalse();
+        verify(real).getAutoCommit();
+    }
+}
@@ -0,0 +1,141 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.ProductBulkUpdate;
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs the multi-row insert, the SKU-keyed update and the array lookups against PostgreSQL (Testcontainers). */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductBulkRepositoryImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SpringDataProductRepository repository;
+
+    @Test
+    @DisplayName("inserts all rows in one statement and returns their ids")
+    void insertsAll() {
+        var a = entity("BULK-1");
+        var b = entity("BULK-2");
+
+        Set<UUID> inserted = repository.insertIgnoringSkuConflicts(List.of(a, b));
+
+        assertThat(inserted).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM products WHERE sku LIKE 'BULK-%'", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("skips existing SKUs and repeats within the same batch")
+    void skipsConflicts() {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, version)
+                VALUES (?, 'BULK-OLD', 'Old', 1, 1, 'c', '', '', ?, ?, 0)
+                """, UUID.randomUUID(), now, now);
+        var existing = entity("BULK-OLD");
+        var first = entity("BULK-NEW");
+        var repeat = entity("BULK-NEW");
+
+        Set<UUID> inserted = repository.insertIgnoringSkuConflicts(List.of(existing, first, repeat));
+
+        assertThat(inserted).containsExactly(first.getId());
+        assertThat(jdbc.queryForObject("SELECT name FROM products WHERE sku = 'BULK-OLD'", String.class)).isEqualTo("Old");
+    }
+
+    @Test
+    @DisplayName("looks rows up by an id array and by a SKU array, ignoring unknown keys")
+    void findsByAnyKey() {
+        var a = entity("BULK-A");
+        var b = entity("BULK-B");
+        repository.insertIgnoringSkuConflicts(List.of(a, b));
+
+        assertThat(repository.findAllByIdAny(List.of(a.getId(), b.getId(), UUID.randomUUID())))
+                .extracting(ProductEntity::getSku).containsExactlyInAnyOrder("BULK-A", "BULK-B");
+        assertThat(repository.findAllBySkuAny(List.of("BULK-B", "BULK-MISSING")))
+                .extracting(ProductEntity::getId).containsExactly(b.getId());
+        assertThat(repository.findAllByIdAny(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("updates by SKU in one statement, with one outcome per input row in input order")
+    void updatesAllBySku() {
+        var plain = entity("BULK-U1");
+        var versioned = entity("BULK-U2");
+        var stale = entity("BULK-U3");
+        repository.insertIgnoringSkuConflicts(List.of(plain, versioned, stale));
+        Instant now = Instant.now();
+
+        List<UpdateResult<ProductEntity>> results = repository.updateAllBySku(List.of(
+                new ProductBulkUpdate("BULK-U3", new BigDecimal("1.00"), null, 7L),
+                new ProductBulkUpdate("BULK-MISSING", new BigDecimal("1.00"), 1, null),
+                new ProductBulkUpdate("BULK-U1", new BigDecimal("19.90"), null, null),
+                new ProductBulkUpdate("BULK-U2", null, 42, 1L)), now);
+
+        assertThat(results).extracting(UpdateResult::status).containsExactly(
+                UpdateResult.Status.VERSION_CONFLICT, UpdateResult.Status.NOT_FOUND,
+                UpdateResult.Status.UPDATED, UpdateResult.Status.UPDATED);
+        // a missing price or stock keeps the current one
+        assertThat(results.get(2).value().getPrice()).isEqualByComparingTo("19.90");
+        assertThat(results.get(2).value().getStock()).isEqualTo(1);
+        assertThat(results.get(3).value().getPrice()).isEqualByComparingTo("9.99");
+        assertThat(results.get(3).value().getStock()).isEqualTo(42);
+        assertThat(results.get(3).value().getVersion()).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT price FROM products WHERE sku = 'BULK-U3'", BigDecimal.class))
+                .isEqualByComparingTo("9.99");
+    }
+
+    @Test
+    @DisplayName("a SKU repeated in one call is written once, with its last update")
+    void updateAllBySkuAppliesLastRepeat() {
+        var product = entity("BULK-REP");
+        repository.insertIgnoringSkuConflicts(List.of(product));
+
+        List<UpdateResult<ProductEntity>> results = repository.updateAllBySku(List.of(
+                new ProductBulkUpdate("BULK-REP", new BigDecimal("5.00"), null, null),
+                new ProductBulkUpdate("BULK-REP", new BigDecimal("7.00"), null, null)), Instant.now());
+
+        assertThat(results).extracting(UpdateResult::status).containsExactly(
+                UpdateResult.Status.VERSION_CONFLICT, UpdateResult.Status.UPDATED);
+        assertThat(results.get(1).value().getPrice()).isEqualByComparingTo("7.00");
+        assertThat(results.get(1).value().getVersion()).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT version FROM products WHERE sku = 'BULK-REP'", Long.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a soft-deleted product is not found by the SKU update")
+    void updateAllBySkuSkipsDeleted() {
+        var deleted = entity("BULK-DEL");
+        repository.insertIgnoringSkuConflicts(List.of(deleted));
+        jdbc.update("UPDATE products SET deleted_at = now() WHERE sku = 'BULK-DEL'");
+
+        List<UpdateResult<ProductEntity>> results = repository.updateAllBySku(
+                List.of(new ProductBulkUpdate("BULK-DEL", null, 5, null)), Instant.now());
+
+        assertThat(results).extracting(UpdateResult::status).containsExactly(UpdateResult.Status.NOT_FOUND);
+    }
+
+    private static ProductEntity entity(String sku) {
+        Instant now = Instant.now();
+        return ProductEntity.builder()
+                .id(UUID.randomUUID()).sku(sku).name("Name " + sku).price(new BigDecimal("9.99")).stock(1)
+                .category("bulk").createdAt(now).updatedAt(now).version(1)
+                .build();
+    }
+}
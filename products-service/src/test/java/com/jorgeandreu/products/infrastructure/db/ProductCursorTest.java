@@ -0,0 +1,102 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    @DisplayName("encode/decode round-trips an Instant sort key")
+    void roundTripInstant() {
+        UUID id = UUID.randomUUID();
+        Instant created = Instant.parse("2025-03-01T10:15:30.123456Z");
+        ProductListRow last = ProductListRow.builder().id(id).createdAt(created).build();
+
+        var cursor = ProductCursor.after(last, Sort.by(Sort.Direction.DESC, "createdAt", "id")).orElseThrow();
+        var decoded = ProductCursor.decode(cursor.encode());
+
+        assertThat(decoded.key()).isEqualTo(ProductCursor.Key.CREATED_AT);
+        assertThat(decoded.direction()).isEqualTo(Sort.Direction.DESC);
+        assertThat(decoded.value()).isEqualTo(created);
+        assertThat(decoded.id()).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("values containing the separator survive the round-trip")
+    void roundTripStringWithSeparator() {
+        UUID id = UUID.randomUUID();
+        ProductListRow last = ProductListRow.builder().id(id).name("Laptop | Pro, 14\"").build();
+
+        var decoded = ProductCursor.decode(
+                ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "name", "id")).orElseThrow().encode());
+
+        assertThat(decoded.value()).isEqualTo("Laptop | Pro, 14\"");
+        assertThat(decoded.id()).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("price keys decode as BigDecimal")
+    void roundTripPrice() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).price(new BigDecimal("1299.99")).build();
+
+        var decoded = ProductCursor.decode(
+                ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "price", "id")).orElseThrow().encode());
+
+        assertThat(decoded.value()).isEqualTo(new BigDecimal("1299.99"));
+    }
+
+    @Test
+    @DisplayName("sort includes id as tiebreaker in the cursor direction")
+    void sortHasIdTiebreaker() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).stock(3).build();
+
+        var cursor = ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "stock", "id")).orElseThrow();
+
+        assertThat(cursor.sort()).isEqualTo(Sort.by(Sort.Direction.ASC, "stock").and(Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    @DisplayName("no cursor for sorts without a keyset key")
+    void unsupportedSort() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).build();
+
+        assertThat(ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "description", "id"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("no cursor for multi-field sorts, which a single keyset key cannot resume")
+    void multiFieldSort() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).categoryNorm("laptops")
+                .price(BigDecimal.TEN).build();
+
+        assertThat(ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "categoryNorm", "price", "id"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("category sorts resume on the normalized category")
+    void categoryKey() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).category("Laptops").categoryNorm("laptops").build();
+
+        var cursor = ProductCursor.after(last, Sort.by(Sort.Direction.ASC, "categoryNorm", "id")).orElseThrow();
+
+        assertThat(ProductCursor.decode(cursor.encode()).value()).isEqualTo("laptops");
+    }
+
+    @Test
+    @DisplayName("garbage tokens are rejected with InvalidCursorException")
+    void rejectsGarbage() {
+        assertThatThrownBy(() -> ProductCursor.decode("%%%"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode("bm90LWEtY3Vyc29y"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams from PostgreSQL (Testcontainers) through the forward-only cursor. Not transactional: the cursor runs on
+ * its own connection, so the fixture must be committed.
+ */
+@SpringBootTest(properties = "products.export.fetch-size=2")
+@ActiveProfiles("test")
+class ProductExportStreamTest {
+
+    private static final String CATEGORY = "export-" + UUID.randomUUID();
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SpringDataProductRepository repository;
+    @Autowired private DataSource dataSource;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 5; i++) insert("EXP-" + i + "-" + UUID.randomUUID(), CATEGORY, BigDecimal.valueOf(10 + i), null);
+        insert("EXP-DEL-" + UUID.randomUUID(), CATEGORY, BigDecimal.TEN, Timestamp.from(Instant.now()));
+        insert("EXP-OTHER-" + UUID.randomUUID(), "other-" + CATEGORY, BigDecimal.TEN, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM products WHERE category IN (?, ?)", CATEGORY, "other-" + CATEGORY);
+    }
+
+    @Test
+    @DisplayName("streams every active matching row across several fetches")
+    void streamsAllMatching() {
+        List<ProductEntity> rows;
+        try (Stream<ProductEntity> stream = repository.streamAll(criteria(null))) {
+            rows = stream.toList();
+        }
+
+        assertThat(rows).hasSize(5).allSatisfy(e -> {
+            assertThat(e.getCategory()).isEqualTo(CATEGORY);
+            assertThat(e.getDeletedAt()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("applies the price filters of the search criteria")
+    void appliesFilters() {
+        try (Stream<ProductEntity> stream = repository.streamAll(criteria(12.0))) {
+            assertThat(stream).extracting(ProductEntity::getPrice)
+                    .allSatisfy(p -> assertThat(p).isGreaterThanOrEqualTo(new BigDecimal("12")))
+                    .hasSize(3);
+        }
+    }
+
+    @Test
+    @DisplayName("closing a partially read stream returns the connection to the pool and its streaming permit")
+    void releasesConnectionOnClose() throws SQLException {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        DbConcurrencyLimiter limiter = (DbConcurrencyLimiter) dataSource;
+        int before = pool.getHikariPoolMXBean().getActiveConnections();
+        int permitsBefore = limiter.streamingInUse();
+
+        try (Stream<ProductEntity> stream = repository.streamAll(criteria(null))) {
+            assertThat(stream.limit(1).count()).isEqualTo(1);
+        }
+
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isEqualTo(before);
+        assertThat(limiter.streamingInUse()).isEqualTo(permitsBefore);
+    }
+
+    private static SearchCriteria criteria(Double minPrice) {
+        return new SearchCriteria(0, 0, null, CATEGORY, minPrice, null, null, false);
+    }
+
+    private void insert(String sku, String category, BigDecimal price, Timestamp deletedAt) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, 'Export', ?, 1, ?, '', '', ?, ?, ?, 0)
+                """, UUID.randomUUID(), sku, price, category, now, now, deletedAt);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against PostgreSQL (Testcontainers) to check that category pages are read in order from the composite
+ * indexes of migration V2_1, with neither a sequential scan nor a sort. Both are disabled so the small fixture does
+ * not make them the cheaper plan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductListIndexTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private NamedParameterJdbcTemplate namedJdbc;
+    @Autowired private ProductRepositoryPort repository;
+
+    @BeforeEach
+    void seed() {
+        insert("IDX-1", "Idx-Laptops", "1299.99");
+        insert("IDX-2", "idx-laptops", "899.00");
+        insert("IDX-3", "IDX-LAPTOPS", "1999.00");
+        insert("IDX-4", "Idx-Monitors", "249.00");
+        jdbc.execute("ANALYZE products");
+        jdbc.execute("SET LOCAL enable_seqscan = off");
+        jdbc.execute("SET LOCAL enable_sort = off");
+    }
+
+    @Test
+    @DisplayName("category_norm is generated from category on insert and kept up to date on update")
+    void categoryNormFollowsCategory() {
+        assertThat(jdbc.queryForObject("SELECT category_norm FROM products WHERE sku = 'IDX-3'", String.class))
+                .isEqualTo("idx-laptops");
+
+        jdbc.update("UPDATE products SET category = 'Idx-Gaming Laptops' WHERE sku = 'IDX-3'");
+
+        assertThat(jdbc.queryForObject("SELECT category_norm FROM products WHERE sku = 'IDX-3'", String.class))
+                .isEqualTo("idx-gaming laptops");
+    }
+
+    @Test
+    @DisplayName("default category page (createdAt DESC) walks the live (category_norm, created_at, id) index")
+    void newestFirstUsesIndex() {
+        String plan = explain(new SearchCriteria(0, 20, null, "Idx-Laptops", null, null, null, false),
+                "created_at DESC, id DESC");
+
+        assertThat(plan).contains("idx_products_live_category_created").doesNotContain("Sort");
+    }
+
+    @Test
+    @DisplayName("category page by price ASC walks the live (category_norm, price, id) index")
+    void cheapestFirstUsesIndex() {
+        String plan = explain(new SearchCriteria(0, 20, "price,asc", "idx-laptops", null, null, null, false),
+                "price, id");
+
+        assertThat(plan).contains("idx_products_live_category_price").doesNotContain("Sort");
+    }
+
+    @Test
+    @DisplayName("includeDeleted category page uses the full (category_norm, created_at, id) index")
+    void includeDeletedUsesFullIndex() {
+        String plan = explain(new SearchCriteria(0, 20, null, "idx-laptops", null, null, null, true),
+                "created_at DESC, id DESC");
+
+        assertThat(plan).contains("idx_products_category_created").doesNotContain("Sort");
+    }
+
+    @Test
+    @DisplayName("the category filter still ignores case")
+    void categoryFilterIgnoresCase() {
+        var page = repository.search(new SearchCriteria(0, 10, "price,asc", "iDx-LaPtOpS", null, null, null, false));
+
+        assertThat(page.content()).extracting(Product::sku).containsExactly("IDX-2", "IDX-1", "IDX-3");
+    }
+
+    private String explain(SearchCriteria criteria, String orderBy) {
+        var filter = ProductSqlFilter.of(criteria);
+        return String.join("\n", namedJdbc.queryForList(
+                "EXPLAIN SELECT id FROM products" + filter.where() + " ORDER BY " + orderBy + " LIMIT 21",
+                filter.params(), String.class));
+    }
+
+    private void insert(String sku, String category, String price) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, 1, ?, '', '', ?, ?, 0)
+                """, UUID.randomUUID(), sku, "Item " + sku, new BigDecimal(price), category, now, now);
+    }
+}
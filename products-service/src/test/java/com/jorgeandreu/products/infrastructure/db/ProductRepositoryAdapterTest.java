@@ -1,16 +1,16 @@
 package com.jorgeandreu.products.infrastructure.db;
 
+import com.jorgeandreu.products.application.exception.InvalidSortException;
+import com.jorgeandreu.products.domain.model.CountMode;
 import com.jorgeandreu.products.domain.model.Product;
 import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.UpdateResult;
 import com.jorgeandreu.products.infrastructure.db.mapper.ProductEntityMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -18,9 +18,11 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -35,7 +37,8 @@ class ProductRepositoryAdapterTest {
     void setUp() {
         repository = mock(SpringDataProductRepository.class);
         mapper = mock(ProductEntityMapper.class);
-        adapter = new ProductRepositoryAdapter(repository, mapper);
+        adapter = new ProductRepositoryAdapter(repository, mapper,
+                new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -103,7 +106,8 @@ class ProductRepositoryAdapterTest {
     }
 
     @Test
-    @DisplayName("search builds pageable (page=1,size=20, sort=name ASC) and delegates to repository")
+    @DisplayName("search reads page 1 of 20 (sort=name ASC) as size+1 projected rows at offset 20")
+    @SuppressWarnings("unchecked")
     void search_withCriteria() {
         SearchCriteria criteria = new SearchCriteria(
                 1,
@@ -116,36 +120,30 @@ class ProductRepositoryAdapterTest {
                 false
         );
 
-        ProductEntity entity = new ProductEntity();
-        Page<ProductEntity> repoPage = new PageImpl<>(List.of(entity), PageRequest.of(1, 20), 1);
-        when(repository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(repoPage);
-
-        @SuppressWarnings("unchecked")
-        com.jorgeandreu.products.domain.model.PageResult<Product> mappedPage =
-                mock(com.jorgeandreu.products.domain.model.PageResult.class);
-        when(mapper.toDomain(repoPage)).thenReturn(mappedPage);
+        ProductListRow row = ProductListRow.builder().id(UUID.randomUUID()).name("A").build();
+        Product mapped = validProduct("SKU-1", "A");
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of(row));
+        when(mapper.toDomain(row)).thenReturn(mapped);
 
         var result = adapter.search(criteria);
 
-        // Assert pageable used
-        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
-        verify(repository).findAll(any(Specification.class), pageableCaptor.capture());
-        Pageable usedPageable = pageableCaptor.getValue();
-
-        assertThat(usedPageable.getPageNumber()).isEqualTo(1);
-        assertThat(usedPageable.getPageSize()).isEqualTo(20);
-        Sort.Order order = usedPageable.getSort().getOrderFor("name");
+        ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
+        verify(repository).findRows(any(Specification.class), sortCaptor.capture(), eq(20L), eq(21));
+        Sort.Order order = sortCaptor.getValue().getOrderFor("name");
         assertThat(order).isNotNull();
         assertThat(order.getDirection()).isEqualTo(Sort.Direction.ASC);
 
-        // Assert mapping
-        assertThat(result).isSameAs(mappedPage);
-        verify(mapper).toDomain(repoPage);
+        // a short, non-empty page is the last one: the total is known without a COUNT
+        assertThat(result.content()).containsExactly(mapped);
+        assertThat(result.totalElements()).isEqualTo(21);
+        assertThat(result.hasNext()).isFalse();
+        verify(mapper).toDomain(row);
         verifyNoMoreInteractions(repository, mapper);
     }
 
     @Test
     @DisplayName("search with defaults (sort=null) uses createdAt DESC")
+    @SuppressWarnings("unchecked")
     void search_withDefaults_usesCreatedAtDesc() {
         SearchCriteria criteria = new SearchCriteria(
                 0,
@@ -158,28 +156,223 @@ class ProductRepositoryAdapterTest {
                 true
         );
 
-        Page<ProductEntity> empty = Page.empty();
-        when(repository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(empty);
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of());
+
+        var result = adapter.search(criteria);
+
+        assertThat(result.content()).isEmpty();
+        assertThat(result.totalElements()).isZero();
+
+        ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
+        verify(repository).findRows(any(Specification.class), sortCaptor.capture(), eq(0L), eq(11));
+        Sort.Order order = sortCaptor.getValue().getOrderFor("createdAt");
+        assertThat(order).isNotNull();
+        assertThat(order.getDirection()).isEqualTo(Sort.Direction.DESC);
+
+        verifyNoMoreInteractions(repository, mapper);
+    }
+
+    @Test
+    @DisplayName("exact search counts when the page is full")
+    @SuppressWarnings("unchecked")
+    void search_exact_fullPage_counts() {
+        List<ProductListRow> rows = List.of(
+                ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-02T00:00:00Z")).build(),
+                ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-01T00:00:00Z")).build());
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(rows);
+        when(repository.count(any(Specification.class))).thenReturn(7L);
+        when(mapper.toDomain(any(ProductListRow.class))).thenReturn(validProduct("SKU", "Name"));
+
+        var result = adapter.search(new SearchCriteria(0, 1, null, null, null, null, null, false));
+
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.totalElements()).isEqualTo(7);
+        assertThat(result.totalPages()).isEqualTo(7);
+        assertThat(result.countMode()).isEqualTo(CountMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("exact search past the end counts instead of reporting a total of zero")
+    @SuppressWarnings("unchecked")
+    void search_exact_emptyDeepPage_counts() {
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of());
+        when(repository.count(any(Specification.class))).thenReturn(12L);
+
+        var result = adapter.search(new SearchCriteria(5, 10, null, null, null, null, null, false));
+
+        assertThat(result.content()).isEmpty();
+        assertThat(result.totalElements()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("search with cursor seeks past it (no offset), reads size+1 rows and emits nextCursor")
+    @SuppressWarnings("unchecked")
+    void search_withCursor_usesKeyset() {
+        UUID lastId = UUID.randomUUID();
+        ProductListRow lastSeen = ProductListRow.builder().id(lastId).createdAt(Instant.parse("2025-01-01T00:00:00Z")).build();
+        String cursor = ProductCursor.after(lastSeen, Sort.by(Sort.Direction.DESC, "createdAt", "id")).orElseThrow().encode();
+
+        ProductListRow e1 = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-12-31T00:00:00Z")).build();
+        ProductListRow e2 = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-12-30T00:00:00Z")).build();
+        ProductListRow extra = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2024-12-29T00:00:00Z")).build();
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of(e1, e2, extra));
+        when(repository.count(any(Specification.class))).thenReturn(10L);
+        when(mapper.toDomain(any(ProductListRow.class))).thenReturn(validProduct("SKU", "Name"));
+
+        var result = adapter.search(new SearchCriteria(0, 2, null, null, null, null, null, false, cursor, CountMode.EXACT));
+
+        assertThat(result.content()).hasSize(2);
+        assertThat(result.totalElements()).isEqualTo(10);
+        assertThat(result.totalPages()).isEqualTo(5);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.nextCursor()).isNotNull();
+        var next = ProductCursor.decode(result.nextCursor());
+        assertThat(next.id()).isEqualTo(e2.id());
+        assertThat(next.value()).isEqualTo(e2.createdAt());
+        verify(repository).findRows(any(Specification.class), any(Sort.class), eq(0L), eq(3));
+    }
+
+    @Test
+    @DisplayName("search with cursor on the last page returns no nextCursor")
+    @SuppressWarnings("unchecked")
+    void search_withCursor_lastPage() {
+        ProductListRow lastSeen = ProductListRow.builder().id(UUID.randomUUID()).price(BigDecimal.TEN).build();
+        String cursor = ProductCursor.after(lastSeen, Sort.by(Sort.Direction.ASC, "price", "id")).orElseThrow().encode();
+
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt()))
+                .thenReturn(List.of(ProductListRow.builder().id(UUID.randomUUID()).build()));
+        when(mapper.toDomain(any(ProductListRow.class))).thenReturn(validProduct("SKU", "Name"));
+
+        var result = adapter.search(new SearchCriteria(0, 5, "price,asc", null, null, null, null, false, cursor, null));
+
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.nextCursor()).isNull();
+        assertThat(result.hasNext()).isFalse();
+        // cursor pages default to no totals
+        assertThat(result.countMode()).isEqualTo(CountMode.NONE);
+        assertThat(result.totalElements()).isNull();
+        verify(repository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("search rejects a cursor issued for a different sort")
+    void search_withCursor_sortMismatch() {
+        ProductListRow lastSeen = ProductListRow.builder().id(UUID.randomUUID()).price(BigDecimal.TEN).build();
+        String cursor = ProductCursor.after(lastSeen, Sort.by(Sort.Direction.ASC, "price", "id")).orElseThrow().encode();
+
+        var criteria = new SearchCriteria(0, 5, "name,asc", null, null, null, null, false, cursor, null);
 
-        @SuppressWarnings("unchecked")
-        com.jorgeandreu.products.domain.model.PageResult<Product> mapped =
-                mock(com.jorgeandreu.products.domain.model.PageResult.class);
-        when(mapper.toDomain(empty)).thenReturn(mapped);
+        org.junit.jupiter.api.Assertions.assertThrows(
+                com.jorgeandreu.products.application.exception.InvalidCursorException.class,
+                () -> adapter.search(criteria));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("offset search attaches nextCursor from the last row when there is a next page")
+    @SuppressWarnings("unchecked")
+    void search_offset_attachesNextCursor() {
+        ProductListRow last = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-02-01T00:00:00Z")).build();
+        ProductListRow extra = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-01T00:00:00Z")).build();
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of(last, extra));
+        when(repository.count(any(Specification.class))).thenReturn(3L);
+        when(mapper.toDomain(any(ProductListRow.class))).thenReturn(validProduct("SKU", "Name"));
+
+        var result = adapter.search(new SearchCriteria(0, 1, null, null, null, null, null, false));
+
+        assertThat(result.nextCursor()).isNotNull();
+        assertThat(ProductCursor.decode(result.nextCursor()).id()).isEqualTo(last.id());
+    }
+
+    @Test
+    @DisplayName("search with countMode=NONE reads size+1 rows at the offset and never counts")
+    @SuppressWarnings("unchecked")
+    void search_countNone_skipsCount() {
+        ProductListRow e1 = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-03T00:00:00Z")).build();
+        ProductListRow e2 = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-02T00:00:00Z")).build();
+        ProductListRow e3 = ProductListRow.builder().id(UUID.randomUUID()).createdAt(Instant.parse("2025-01-01T00:00:00Z")).build();
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of(e1, e2, e3));
+        when(mapper.toDomain(any(ProductListRow.class))).thenReturn(validProduct("SKU", "Name"));
+
+        var result = adapter.search(new SearchCriteria(3, 2, null, null, null, null, null, false, null, CountMode.NONE));
+
+        verify(repository).findRows(any(Specification.class), any(Sort.class), eq(6L), eq(3));
+        verify(repository, never()).count(any(Specification.class));
+        assertThat(result.content()).hasSize(2);
+        assertThat(result.page()).isEqualTo(3);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.totalElements()).isNull();
+        assertThat(result.totalPages()).isNull();
+        assertThat(result.countMode()).isEqualTo(CountMode.NONE);
+        assertThat(ProductCursor.decode(result.nextCursor()).id()).isEqualTo(e2.id());
+    }
+
+    @Test
+    @DisplayName("search with countMode=ESTIMATED takes totals from the planner estimate")
+    @SuppressWarnings("unchecked")
+    void search_countEstimated_usesPlannerEstimate() {
+        var criteria = new SearchCriteria(0, 10, null, "laptops", null, null, null, false, null, CountMode.ESTIMATED);
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of());
+        when(repository.estimateCount(criteria)).thenReturn(95L);
 
         var result = adapter.search(criteria);
 
-        assertThat(result).isSameAs(mapped);
+        assertThat(result.totalElements()).isEqualTo(95L);
+        assertThat(result.totalPages()).isEqualTo(10);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.countMode()).isEqualTo(CountMode.ESTIMATED);
+        verify(repository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("search with sort=relevance and text ranks the rows by the text")
+    @SuppressWarnings("unchecked")
+    void search_relevanceSort_withText() {
+        var criteria = new SearchCriteria(0, 10, "relevance", null, null, null, "laptop", false);
+        when(repository.findRowsByRelevance(any(Specification.class), anyString(), anyLong(), anyInt())).thenReturn(List.of());
+
+        adapter.search(criteria);
+
+        verify(repository).findRowsByRelevance(any(Specification.class), eq("laptop"), eq(0L), eq(11));
+        verify(repository, never()).findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("search with sort=relevance but no text falls back to createdAt DESC")
+    @SuppressWarnings("unchecked")
+    void search_relevanceSort_withoutText() {
+        var criteria = new SearchCriteria(0, 10, "relevance", null, null, null, null, false);
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of());
 
-        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
-        verify(repository).findAll(any(Specification.class), pageableCaptor.capture());
-        Pageable usedPageable = pageableCaptor.getValue();
+        adapter.search(criteria);
 
-        Sort.Order order = usedPageable.getSort().getOrderFor("createdAt");
+        ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
+        verify(repository).findRows(any(Specification.class), sortCaptor.capture(), anyLong(), anyInt());
+        Sort.Order order = sortCaptor.getValue().getOrderFor("createdAt");
         assertThat(order).isNotNull();
         assertThat(order.getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
 
-        verify(mapper).toDomain(empty);
-        verifyNoMoreInteractions(repository, mapper);
+    @Test
+    @DisplayName("search sorts by several fields, with id as the tiebreaker")
+    @SuppressWarnings("unchecked")
+    void search_multiFieldSort() {
+        var criteria = new SearchCriteria(0, 10, "category,asc;price,asc", null, null, null, null, false);
+        when(repository.findRows(any(Specification.class), any(Sort.class), anyLong(), anyInt())).thenReturn(List.of());
+
+        adapter.search(criteria);
+
+        verify(repository).findRows(any(Specification.class),
+                eq(Sort.by(Sort.Direction.ASC, "categoryNorm", "price", "id")), eq(0L), eq(11));
+    }
+
+    @Test
+    @DisplayName("search rejects an order no index serves before querying")
+    void search_unindexedSort_rejected() {
+        var criteria = new SearchCriteria(0, 10, "stock,asc", "laptops", null, null, null, false);
+
+        assertThatThrownBy(() -> adapter.search(criteria)).isInstanceOf(InvalidSortException.class);
+        verifyNoInteractions(repository);
     }
 
     @Test
@@ -220,18 +413,61 @@ class ProductRepositoryAdapterTest {
     }
 
     @Test
-    @DisplayName("updateIfVersionMatches delegates to repository and returns updated row count")
+    @DisplayName("updateIfVersionMatches runs the returning update and maps the written row; unsharded, no re-spread")
     void updateIfVersionMatches_delegates() {
         UUID id = UUID.randomUUID();
         Instant now = Instant.parse("2025-09-30T12:00:00Z");
+        ProductEntity written = new ProductEntity();
+        Product mapped = validProduct("ACME-1", "Name");
 
-        when(repository.updateIfVersionMatches(eq(id), eq("ACME-1"), eq("Name"), any(), eq(5), eq("laptops"), eq(2L), eq(now)))
-                .thenReturn(1);
+        when(repository.updateReturning(eq(id), eq("ACME-1"), eq("Name"), any(), eq(5), eq("laptops"), eq(2L), eq(now)))
+                .thenReturn(UpdateResult.updated(written));
+        when(mapper.toDomain(written)).thenReturn(mapped);
 
-        int updated = adapter.updateIfVersionMatches(id, "ACME-1", "Name", BigDecimal.TEN, 5, "laptops", 2L, now);
+        UpdateResult<Product> result = adapter.updateIfVersionMatches(id, "ACME-1", "Name", BigDecimal.TEN, 5, "laptops", 2L, now);
 
-        assertThat(updated).isEqualTo(1);
-        verify(repository).updateIfVersionMatches(eq(id), eq("ACME-1"), eq("Name"), eq(BigDecimal.TEN), eq(5), eq("laptops"), eq(2L), eq(now));
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.UPDATED);
+        assertThat(result.value()).isSameAs(mapped);
+        verify(repository).updateReturning(eq(id), eq("ACME-1"), eq("Name"), eq(BigDecimal.TEN), eq(5), eq("laptops"), eq(2L), eq(now));
+        verify(mapper).toDomain(written);
+        verifyNoMoreInteractions(repository, mapper);
+    }
+
+    @Test
+    @DisplayName("updateIfVersionMatches on a sharded product returns the row after its stock is spread over the slots")
+    void updateIfVersionMatches_sharded() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.parse("2025-09-30T12:00:00Z");
+        ProductEntity written = ProductEntity.builder().stock(5).slotStock(3L).build();
+        ProductEntity respread = new ProductEntity();
+        Product mapped = validProduct("ACME-1", "Name");
+
+        when(repository.updateReturning(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any()))
+                .thenReturn(UpdateResult.updated(written));
+        when(repository.respreadStockIfSharded(id)).thenReturn(Optional.of(respread));
+        when(mapper.toDomain(respread)).thenReturn(mapped);
+
+        UpdateResult<Product> result = adapter.updateIfVersionMatches(id, "ACME-1", "Name", BigDecimal.TEN, 5, "laptops", 2L, now);
+
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.UPDATED);
+        assertThat(result.value()).isSameAs(mapped);
+        verify(mapper, never()).toDomain(written);
+    }
+
+    @Test
+    @DisplayName("updateIfVersionMatches passes conflicts through without mapping or extra queries")
+    void updateIfVersionMatches_conflict() {
+        UUID id = UUID.randomUUID();
+        Instant now = Instant.parse("2025-09-30T12:00:00Z");
+
+        when(repository.updateReturning(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any()))
+                .thenReturn(UpdateResult.versionConflict());
+
+        UpdateResult<Product> result = adapter.updateIfVersionMatches(id, "ACME-1", "Name", BigDecimal.TEN, 5, "laptops", 2L, now);
+
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.VERSION_CONFLICT);
+        assertThat(result.value()).isNull();
+        verify(repository).updateReturning(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any());
         verifyNoMoreInteractions(repository, mapper);
     }
 
@@ -241,7 +477,7 @@ class ProductRepositoryAdapterTest {
         UUID id = UUID.randomUUID();
         Instant now = Instant.parse("2025-09-30T12:30:00Z");
 
-        when(repository.updateIfVersionMatches(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any()))
+        when(repository.updateReturning(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any()))
                 .thenThrow(new org.springframework.dao.DataIntegrityViolationException("unique"));
 
         org.springframework.dao.DataIntegrityViolationException ex =
@@ -251,10 +487,27 @@ class ProductRepositoryAdapterTest {
                 );
 
         assertThat(ex).hasMessageContaining("unique");
-        verify(repository).updateIfVersionMatches(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any());
+        verify(repository).updateReturning(any(), anyString(), anyString(), any(), anyInt(), anyString(), anyLong(), any());
         verifyNoMoreInteractions(repository, mapper);
     }
 
+    @Test
+    @DisplayName("insertAllIfSkuAbsent maps keeping assigned ids and returns the inserted ids")
+    void insertAllIfSkuAbsent() {
+        Product a = validProduct("SKU-A", "A");
+        Product b = validProduct("SKU-B", "B");
+        ProductEntity ea = new ProductEntity();
+        ProductEntity eb = new ProductEntity();
+        when(mapper.toNewEntity(a)).thenReturn(ea);
+        when(mapper.toNewEntity(b)).thenReturn(eb);
+        when(repository.insertIgnoringSkuConflicts(List.of(ea, eb))).thenReturn(Set.of(a.id()));
+
+        Set<UUID> inserted = adapter.insertAllIfSkuAbsent(List.of(a, b));
+
+        assertThat(inserted).containsExactly(a.id());
+        verify(repository).insertIgnoringSkuConflicts(List.of(ea, eb));
+    }
+
     @Test
     @DisplayName("existsActiveById delegates to repository")
     void existsActiveById_delegates() {
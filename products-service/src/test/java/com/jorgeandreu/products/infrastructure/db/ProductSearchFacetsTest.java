@@ -0,0 +1,82 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.FacetRequest;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.model.SearchFacets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Facet counts from the GROUPING SETS query against PostgreSQL (Testcontainers). */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductSearchFacetsTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepositoryAdapter adapter;
+
+    private final String tag = "facets-" + UUID.randomUUID();
+
+    @BeforeEach
+    void seed() {
+        insert("Laptop A", 900, "laptops", false);
+        insert("Laptop B", 1500, "laptops", false);
+        insert("Desk", 150, "desks", false);
+        insert("Mug", 8, "kitchen", false);
+        insert("Old laptop", 300, "laptops", true);
+    }
+
+    @Test
+    @DisplayName("categories and price buckets over the filtered rows, empty buckets included")
+    void categoriesAndPrices() {
+        SearchFacets facets = adapter.facets(criteria(null, null, new FacetRequest(true, true, List.of(10.0, 100.0, 1000.0))));
+
+        assertThat(facets.categories()).containsExactly(
+                new SearchFacets.CategoryCount("laptops", 2),
+                new SearchFacets.CategoryCount("desks", 1),
+                new SearchFacets.CategoryCount("kitchen", 1));
+        assertThat(facets.priceBuckets()).containsExactly(
+                new SearchFacets.PriceBucketCount(null, 10.0, 1),
+                new SearchFacets.PriceBucketCount(10.0, 100.0, 0),
+                new SearchFacets.PriceBucketCount(100.0, 1000.0, 2),
+                new SearchFacets.PriceBucketCount(1000.0, null, 1));
+    }
+
+    @Test
+    @DisplayName("only the requested facet is computed, under the same filters as the search")
+    void honoursFiltersAndRequest() {
+        SearchFacets facets = adapter.facets(criteria("laptops", 1000.0, new FacetRequest(false, true, List.of(0.0, 500.0))));
+
+        assertThat(facets.categories()).isNull();
+        assertThat(facets.priceBuckets()).containsExactly(
+                new SearchFacets.PriceBucketCount(0.0, 500.0, 0),
+                new SearchFacets.PriceBucketCount(500.0, null, 1));
+    }
+
+    /** The text filter scopes every query to this test's rows. */
+    private SearchCriteria criteria(String category, Double maxPrice, FacetRequest facets) {
+        return new SearchCriteria(0, 20, null, category, null, maxPrice, tag, false, null, null, facets);
+    }
+
+    private void insert(String name, int price, String category, boolean deleted) {
+        UUID id = UUID.randomUUID();
+        Timestamp ts = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, ?, ?, 1, ?, 'd', ?, ?, ?, ?, 0)
+                """, id, "FCT-" + id, name, price, category, tag, ts, ts, deleted ? ts : null);
+    }
+}
@@ -0,0 +1,199 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidSortException;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSortPlannerTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Nested
+    class Parse {
+
+        @Test
+        @DisplayName("blank and relevance mean the default sort, createdAt DESC then id DESC")
+        void defaults() {
+            assertThat(ProductSortPlanner.parse(null)).isEqualTo(ProductSortPlanner.DEFAULT);
+            assertThat(ProductSortPlanner.parse(" ")).isEqualTo(ProductSortPlanner.DEFAULT);
+            assertThat(ProductSortPlanner.parse("relevance")).isEqualTo(ProductSortPlanner.DEFAULT);
+            assertThat(ProductSortPlanner.DEFAULT)
+                    .isEqualTo(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        }
+
+        @Test
+        @DisplayName("several fields, with id appended in the direction of the last one")
+        void multipleFields() {
+            assertThat(ProductSortPlanner.parse("category,asc;price,desc"))
+                    .isEqualTo(Sort.by(Sort.Order.asc("categoryNorm"), Sort.Order.desc("price"), Sort.Order.desc("id")));
+        }
+
+        @Test
+        @DisplayName("repeated sort parameters, joined by commas, read the same as semicolons")
+        void repeatedParameters() {
+            assertThat(ProductSortPlanner.parse("category,asc,price,desc"))
+                    .isEqualTo(ProductSortPlanner.parse("category,asc;price,desc"));
+        }
+
+        @Test
+        @DisplayName("a field without a direction sorts descending")
+        void defaultDirection() {
+            assertThat(ProductSortPlanner.parse("name,price,asc"))
+                    .isEqualTo(Sort.by(Sort.Order.desc("name"), Sort.Order.asc("price"), Sort.Order.asc("id")));
+        }
+
+        @Test
+        @DisplayName("fields after id are dropped and no second id is appended")
+        void idEndsTheOrder() {
+            assertThat(ProductSortPlanner.parse("id,asc;name")).isEqualTo(Sort.by(Sort.Direction.ASC, "id"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"description", "asc", "price,asc,desc", "price;price", "name;sku;price;stock",
+                "relevance;price", "Price"})
+        @DisplayName("malformed sorts and fields outside the whitelist are rejected")
+        void rejectsInvalid(String sort) {
+            assertThatThrownBy(() -> ProductSortPlanner.parse(sort)).isInstanceOf(InvalidSortException.class);
+        }
+    }
+
+    @Nested
+    class IndexAwareness {
+
+        @Test
+        @DisplayName("single-key sorts with an index are indexed in both directions")
+        void singleKey() {
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("price,asc"), false, false)).isTrue();
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("price,desc"), false, false)).isTrue();
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("stock,asc"), false, false)).isFalse();
+        }
+
+        @Test
+        @DisplayName("category then price is served by the (category_norm, price, id) index in one direction only")
+        void categoryThenPrice() {
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("category,asc;price,asc"), false, false)).isTrue();
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("category,asc;price,desc"), false, false)).isFalse();
+        }
+
+        @Test
+        @DisplayName("under a category filter only category-led indexes count")
+        void byCategory() {
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("name,asc"), true, false)).isTrue();
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("sku,asc"), true, false)).isFalse();
+        }
+
+        @Test
+        @DisplayName("partial indexes do not count when deleted products are included")
+        void includeDeleted() {
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("name,asc"), true, true)).isFalse();
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("price,asc"), true, true)).isTrue();
+        }
+
+        @Test
+        @DisplayName("a unique key needs no tiebreaker column in the index")
+        void uniqueKey() {
+            assertThat(ProductSortPlanner.indexed(ProductSortPlanner.parse("sku,asc"), false, true)).isTrue();
+        }
+    }
+
+    @Nested
+    class Plan {
+
+        @Test
+        @DisplayName("a category sort under a category filter is dropped")
+        void dropsConstantCategory() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, registry);
+
+            assertThat(planner.plan(criteria("category,asc;price,asc", "laptops", false)))
+                    .isEqualTo(Sort.by(Sort.Direction.ASC, "price", "id"));
+            assertThat(planner.plan(criteria("category,asc", "laptops", false))).isEqualTo(ProductSortPlanner.DEFAULT);
+        }
+
+        @Test
+        @DisplayName("reject: an unindexed order is a 400 that names the indexed ones")
+        void reject() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, registry);
+
+            assertThatThrownBy(() -> planner.plan(criteria("stock,asc", "laptops", false)))
+                    .isInstanceOf(InvalidSortException.class)
+                    .hasMessageContaining("stock,asc within a category")
+                    .hasMessageContaining("createdAt, price, name");
+            assertThat(count("stock,asc", "rejected")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("fallback: an unindexed order runs as the default sort")
+        void fallback() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.FALLBACK, registry);
+
+            assertThat(planner.plan(criteria("stock,asc", null, false))).isEqualTo(ProductSortPlanner.DEFAULT);
+            assertThat(count("stock,asc", "fallback")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("allow: an unindexed order runs as asked")
+        void allow() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.ALLOW, registry);
+
+            assertThat(planner.plan(criteria("updatedAt,asc", null, false)))
+                    .isEqualTo(Sort.by(Sort.Direction.ASC, "updatedAt", "id"));
+            assertThat(count("updatedAt,asc", "unindexed")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("the default sort always runs, even where no index serves it")
+        void defaultAlwaysRuns() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, registry);
+
+            assertThat(planner.plan(criteria(null, null, true))).isEqualTo(ProductSortPlanner.DEFAULT);
+            assertThat(count("createdAt,desc", "unindexed")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("relevance with text is left to the caller as an unsorted Sort")
+        void relevance() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, registry);
+            var criteria = new SearchCriteria(0, 20, "relevance", null, null, null, "laptop", false);
+
+            assertThat(planner.plan(criteria).isUnsorted()).isTrue();
+            assertThat(count("relevance", "relevance")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("each planned page is counted by shape, filter and outcome")
+        void countsShapes() {
+            var planner = new ProductSortPlanner(ProductSortPlanner.Unindexed.REJECT, registry);
+
+            planner.plan(criteria("price,asc", "laptops", false));
+            planner.plan(criteria("price", "laptops", false));
+
+            assertThat(registry.get(ProductSortPlanner.METRIC)
+                    .tag("sort", "price,asc").tag("filter", "category").tag("deleted", "false").tag("outcome", "indexed")
+                    .counter().count()).isEqualTo(1);
+            assertThat(count("price,desc", "indexed")).isEqualTo(1);
+        }
+    }
+
+    private double count(String shape, String outcome) {
+        return registry.get(ProductSortPlanner.METRIC).tag("sort", shape).tag("outcome", outcome).counter().count();
+    }
+
+    private static SearchCriteria criteria(String sort, String category, boolean includeDeleted) {
+        return new SearchCriteria(0, 20, sort, category, null, null, null, includeDeleted);
+    }
+}
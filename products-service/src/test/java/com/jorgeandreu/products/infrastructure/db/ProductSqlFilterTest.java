@@ -0,0 +1,46 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSqlFilterTest {
+
+    @Test
+    @DisplayName("no filters and includeDeleted -> empty WHERE")
+    void noFilters() {
+        var filter = ProductSqlFilter.of(new SearchCriteria(0, 20, null, null, null, null, null, true));
+
+        assertThat(filter.where()).isEmpty();
+        assertThat(filter.params().getParameterNames()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("renders every filter with bound parameters")
+    void allFilters() {
+        var filter = ProductSqlFilter.of(new SearchCriteria(0, 20, null, "Laptops", 10.0, 20.0, "Pro", false));
+
+        assertThat(filter.where())
+                .startsWith(" WHERE deleted_at IS NULL")
+                .contains("category_norm = :category")
+                .contains("price >= :minPrice")
+                .contains("price <= :maxPrice")
+                .contains("search_vector @@ websearch_to_tsquery('english', :query)")
+                .contains("lower(name) LIKE :text");
+        assertThat(filter.params().getValue("category")).isEqualTo("laptops");
+        assertThat(filter.params().getValue("minPrice")).isEqualTo(10.0);
+        assertThat(filter.params().getValue("maxPrice")).isEqualTo(20.0);
+        assertThat(filter.params().getValue("query")).isEqualTo("Pro");
+        assertThat(filter.params().getValue("text")).isEqualTo("%pro%");
+    }
+
+    @Test
+    @DisplayName("blank category and text are ignored")
+    void blankFiltersIgnored() {
+        var filter = ProductSqlFilter.of(new SearchCriteria(0, 20, null, " ", null, null, "", false));
+
+        assertThat(filter.where()).isEqualTo(" WHERE deleted_at IS NULL");
+    }
+}
@@ -0,0 +1,183 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Single and sharded stock paths against PostgreSQL (Testcontainers). */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductStockRepositoryImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SpringDataProductRepository repository;
+    @Autowired private ProductRepositoryAdapter adapter;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    @Nested
+    @DisplayName("unsharded")
+    class Unsharded {
+
+        @Test
+        @DisplayName("decrement takes from the product row and bumps the version; short stock changes nothing")
+        void decrement() {
+            UUID id = insert(5);
+
+            assertThat(repository.decrementStockReturning(id, 3, now)).get()
+                    .satisfies(e -> {
+                        assertThat(e.effectiveStock()).isEqualTo(2);
+                        assertThat(e.getVersion()).isEqualTo(1);
+                        assertThat(e.getUpdatedAt()).isEqualTo(now);
+                    });
+            assertThat(repository.decrementStockReturning(id, 3, now)).isEmpty();
+            assertThat(ownStock(id)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("deleted product: neither decrement nor increment applies")
+        void deleted() {
+            UUID id = insert(5);
+            jdbc.update("UPDATE products SET deleted_at = now() WHERE id = ?", id);
+
+            assertThat(repository.decrementStockReturning(id, 1, now)).isEmpty();
+            assertThat(repository.incrementStockReturning(id, 1, now)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("sharded")
+    class Sharded {
+
+        @Test
+        @DisplayName("reshard spreads the stock evenly, keeps the total and bumps the version")
+        void reshard() {
+            UUID id = insert(10);
+
+            ProductEntity e = repository.reshardStockReturning(id, 4, now).orElseThrow();
+
+            assertThat(e.effectiveStock()).isEqualTo(10);
+            assertThat(e.getStock()).isZero();
+            assertThat(e.getVersion()).isEqualTo(1);
+            assertThat(slots(id)).containsExactly(3, 3, 2, 2);
+            assertThat(sharded(id)).isTrue();
+        }
+
+        @Test
+        @DisplayName("decrement lands on one slot and leaves the product row alone")
+        void decrementOneSlot() {
+            UUID id = insert(8);
+            repository.reshardStockReturning(id, 4, now);
+
+            ProductEntity e = repository.decrementStockReturning(id, 2, now.plusSeconds(1)).orElseThrow();
+
+            assertThat(e.effectiveStock()).isEqualTo(6);
+            assertThat(e.getVersion()).isEqualTo(1);
+            assertThat(e.getUpdatedAt()).isEqualTo(now);
+            assertThat(slots(id)).containsExactlyInAnyOrder(2, 2, 2, 0);
+        }
+
+        @Test
+        @DisplayName("a quantity larger than any slot is taken across slots; more than the total is refused")
+        void decrementAcrossSlots() {
+            UUID id = insert(8);
+            repository.reshardStockReturning(id, 4, now);
+
+            assertThat(repository.decrementStockReturning(id, 9, now)).isEmpty();
+            assertThat(repository.decrementStockReturning(id, 7, now)).get()
+                    .extracting(ProductEntity::effectiveStock).isEqualTo(1);
+            assertThat(slots(id).stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("increment goes to the emptiest slot")
+        void increment() {
+            UUID id = insert(4);
+            repository.reshardStockReturning(id, 2, now);
+            repository.decrementStockReturning(id, 2, now);
+
+            assertThat(repository.incrementStockReturning(id, 5, now)).get()
+                    .extracting(ProductEntity::effectiveStock).isEqualTo(7);
+            assertThat(slots(id)).containsExactlyInAnyOrder(5, 2);
+        }
+
+        @Test
+        @DisplayName("a full update replaces the stock and spreads it over the same number of slots")
+        void fullUpdate() {
+            UUID id = insert(10);
+            repository.reshardStockReturning(id, 4, now);
+
+            UpdateResult<?> result = adapter.updateIfVersionMatches(id, "STK-" + id, "Desk", BigDecimal.TEN, 6, "desks", 1, now);
+
+            assertThat(result.status()).isEqualTo(UpdateResult.Status.UPDATED);
+            assertThat(repository.findById(id)).get().extracting(ProductEntity::effectiveStock).isEqualTo(6);
+            assertThat(ownStock(id)).isZero();
+            assertThat(slots(id)).containsExactly(2, 2, 1, 1);
+        }
+
+        @Test
+        @DisplayName("resharding to 1 folds the slots back into the product row")
+        void unshard() {
+            UUID id = insert(10);
+            repository.reshardStockReturning(id, 4, now);
+            repository.decrementStockReturning(id, 3, now);
+
+            ProductEntity e = repository.reshardStockReturning(id, 1, now).orElseThrow();
+
+            assertThat(e.getStock()).isEqualTo(7);
+            assertThat(e.getSlotStock()).isNull();
+            assertThat(slots(id)).isEmpty();
+            assertThat(sharded(id)).isFalse();
+        }
+
+        @Test
+        @DisplayName("JPA and JDBC reads both report the sum of the slots")
+        void reads() {
+            UUID id = insert(10);
+            repository.reshardStockReturning(id, 3, now);
+            repository.decrementStockReturning(id, 1, now);
+
+            assertThat(repository.findById(id)).get().extracting(ProductEntity::effectiveStock).isEqualTo(9);
+            assertThat(repository.findAllByIdAny(List.of(id))).singleElement()
+                    .extracting(ProductEntity::effectiveStock).isEqualTo(9);
+        }
+    }
+
+    private List<Integer> slots(UUID id) {
+        return jdbc.queryForList("SELECT stock FROM product_stock_slots WHERE product_id = ? ORDER BY slot", Integer.class, id);
+    }
+
+    private boolean sharded(UUID id) {
+        return jdbc.queryForObject("SELECT stock_sharded FROM products WHERE id = ?", Boolean.class, id);
+    }
+
+    private int ownStock(UUID id) {
+        return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+    }
+
+    private UUID insert(int stock) {
+        UUID id = UUID.randomUUID();
+        Timestamp ts = Timestamp.from(now);
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, 'Desk', 10, ?, 'desks', 'd', 't', ?, ?, NULL, 0)
+                """, id, "STK-" + id, stock, ts, ts);
+        return id;
+    }
+}
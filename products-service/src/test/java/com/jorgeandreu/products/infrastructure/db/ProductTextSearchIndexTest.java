@@ -0,0 +1,103 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.out.ProductRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against PostgreSQL (Testcontainers) to check that text search is served by the GIN indexes
+ * instead of a sequential scan. Seq scans are disabled so the small fixture does not make them the cheaper plan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductTextSearchIndexTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private NamedParameterJdbcTemplate namedJdbc;
+    @Autowired private ProductRepositoryPort repository;
+
+    @BeforeEach
+    void seed() {
+        insert("FTS-1", "Gaming Laptop Pro", "laptops", "Fast machine", "RGB keyboard");
+        insert("FTS-2", "Office Desk", "furniture", "Fits a laptop and two monitors", "Oak");
+        insert("FTS-3", "USB Hub", "accessories", "Seven ports", "Great laptop accessory");
+        insert("FTS-4", "Coffee Mug", "kitchen", "Ceramic", "Dishwasher safe");
+        jdbc.execute("ANALYZE products");
+        jdbc.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    @DisplayName("full-text predicate uses the search_vector GIN index")
+    void fullTextUsesGinIndex() {
+        String plan = explain("SELECT id FROM products WHERE search_vector @@ websearch_to_tsquery('english', 'laptops')");
+
+        assertThat(plan).contains("idx_products_search_vector");
+    }
+
+    @Test
+    @DisplayName("leading-wildcard LIKE uses the trigram index")
+    void substringUsesTrigramIndex() {
+        String plan = explain("SELECT id FROM products WHERE lower(name) LIKE '%aming lap%'");
+
+        assertThat(plan).contains("idx_products_name_trgm");
+    }
+
+    @Test
+    @DisplayName("the complete text filter is answered from indexes, without a seq scan")
+    void textFilterAvoidsSeqScan() {
+        var filter = ProductSqlFilter.of(new SearchCriteria(0, 20, null, null, null, null, "laptop", false));
+
+        String plan = String.join("\n", namedJdbc.queryForList(
+                "EXPLAIN SELECT id FROM products" + filter.where(), filter.params(), String.class));
+
+        assertThat(plan)
+                .contains("idx_products_search_vector")
+                .contains("idx_products_name_trgm")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    @DisplayName("search matches stemmed words and orders by relevance (name > description > text)")
+    void searchRanksByRelevance() {
+        var page = repository.search(new SearchCriteria(0, 10, "relevance", null, null, null, "laptops", false));
+
+        assertThat(page.content()).extracting(Product::sku).containsExactly("FTS-1", "FTS-2", "FTS-3");
+    }
+
+    @Test
+    @DisplayName("partial words still match through the substring fallback")
+    void searchKeepsContainsSemantics() {
+        var page = repository.search(new SearchCriteria(0, 10, null, null, null, null, "ishwash", false));
+
+        assertThat(page.content()).extracting(Product::sku).containsExactly("FTS-4");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private void insert(String sku, String name, String category, String description, String text) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+                """, UUID.randomUUID(), sku, name, BigDecimal.TEN, 1, category, description, text, now, now);
+    }
+}
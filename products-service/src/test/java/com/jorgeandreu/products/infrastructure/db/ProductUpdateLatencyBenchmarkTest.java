@@ -0,0 +1,95 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.LongUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the PUT write path before and after folding it into one statement:
+ * conditional UPDATE + re-read (three round trips) versus {@code UPDATE ... RETURNING} (one).
+ * Opt-in, since timings are only meaningful on a quiet machine:
+ * <pre>
+ * mvn -pl products-service test -Dtest=ProductUpdateLatencyBenchmarkTest -Dbenchmarks=true
+ * </pre>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductUpdateLatencyBenchmarkTest {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SpringDataProductRepository repository;
+    @Autowired private TransactionTemplate tx;
+
+    @Test
+    @DisplayName("UPDATE ... RETURNING vs UPDATE + exists + SELECT")
+    void compare() {
+        UUID id = UUID.randomUUID();
+        String sku = "BENCH-" + id;
+        Timestamp ts = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, version)
+                VALUES (?, ?, 'Bench', 10, 1, 'bench', 'd', 't', ?, ?, 0)
+                """, id, sku, ts, ts);
+
+        LongUnaryOperator threeRoundTrips = version -> tx.execute(s -> {
+            int updated = jdbc.update("""
+                    UPDATE products SET name = ?, price = ?, updated_at = ?, version = version + 1
+                    WHERE id = ? AND deleted_at IS NULL AND version = ?
+                    """, "Bench", BigDecimal.TEN, Timestamp.from(Instant.now()), id, version);
+            if (updated == 0) jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM products WHERE id = ? AND deleted_at IS NULL)", Boolean.class, id);
+            return jdbc.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, id);
+        });
+        LongUnaryOperator oneRoundTrip = version -> tx.execute(s -> {
+            UpdateResult<ProductEntity> r = repository.updateReturning(id, sku, "Bench", BigDecimal.TEN, 1, "bench", version, Instant.now());
+            return r.value().getVersion();
+        });
+
+        long[] before = run(threeRoundTrips, 0);
+        long[] after = run(oneRoundTrip, current(id));
+
+        System.out.printf("PUT write path (%d iterations, µs)%n", ITERATIONS);
+        System.out.printf("  update + exists + select : p50=%d p99=%d%n", pct(before, 50), pct(before, 99));
+        System.out.printf("  update ... returning     : p50=%d p99=%d%n", pct(after, 50), pct(after, 99));
+        assertThat(pct(after, 50)).isLessThanOrEqualTo(pct(before, 50));
+    }
+
+    private long[] run(LongUnaryOperator op, long startVersion) {
+        long version = startVersion;
+        for (int i = 0; i < WARMUP; i++) version = op.applyAsLong(version);
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t0 = System.nanoTime();
+            version = op.applyAsLong(version);
+            micros[i] = (System.nanoTime() - t0) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private long current(UUID id) {
+        return jdbc.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, id);
+    }
+
+    private static long pct(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+}
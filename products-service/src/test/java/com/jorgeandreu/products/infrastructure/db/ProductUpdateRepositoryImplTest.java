@@ -0,0 +1,138 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.domain.model.UpdateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Runs the single-statement conditional update against PostgreSQL (Testcontainers). */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductUpdateRepositoryImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SpringDataProductRepository repository;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+    @Test
+    @DisplayName("matching version: writes the row and returns the new state")
+    void updated() {
+        UUID id = insert("UPD-1", 3, null);
+
+        UpdateResult<ProductEntity> result =
+                repository.updateReturning(id, "UPD-1b", "Renamed", new BigDecimal("12.50"), 7, "desks", 3, now);
+
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.UPDATED);
+        ProductEntity e = result.value();
+        assertThat(e.getId()).isEqualTo(id);
+        assertThat(e.getSku()).isEqualTo("UPD-1b");
+        assertThat(e.getName()).isEqualTo("Renamed");
+        assertThat(e.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(e.getStock()).isEqualTo(7);
+        assertThat(e.getCategory()).isEqualTo("desks");
+        assertThat(e.getUpdatedAt()).isEqualTo(now);
+        assertThat(e.getVersion()).isEqualTo(4);
+        assertThat(jdbc.queryForObject("SELECT version FROM products WHERE id = ?", Long.class, id)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("stale version: reports a conflict and leaves the row untouched")
+    void versionConflict() {
+        UUID id = insert("UPD-2", 3, null);
+
+        UpdateResult<ProductEntity> result =
+                repository.updateReturning(id, "UPD-2", "Renamed", BigDecimal.ONE, 1, "desks", 2, now);
+
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.VERSION_CONFLICT);
+        assertThat(result.value()).isNull();
+        assertThat(jdbc.queryForObject("SELECT name FROM products WHERE id = ?", String.class, id)).isEqualTo("Original");
+    }
+
+    @Test
+    @DisplayName("unknown or soft-deleted id: reports not found")
+    void notFound() {
+        UUID deleted = insert("UPD-3", 0, Timestamp.from(now));
+
+        assertThat(repository.updateReturning(UUID.randomUUID(), "X", "X", BigDecimal.ONE, 1, "c", 0, now).status())
+                .isEqualTo(UpdateResult.Status.NOT_FOUND);
+        assertThat(repository.updateReturning(deleted, "X", "X", BigDecimal.ONE, 1, "c", 0, now).status())
+                .isEqualTo(UpdateResult.Status.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("duplicate SKU surfaces as DataIntegrityViolationException")
+    void duplicateSku() {
+        insert("UPD-4", 0, null);
+        UUID id = insert("UPD-5", 0, null);
+
+        assertThatThrownBy(() -> repository.updateReturning(id, "UPD-4", "X", BigDecimal.ONE, 1, "c", 0, now))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("patch: writes only the given fields and bumps the version")
+    void patched() {
+        UUID id = insert("UPD-6", 3, null);
+
+        UpdateResult<ProductEntity> result =
+                repository.patchReturning(id, null, null, new BigDecimal("8.25"), null, null, 3, now);
+
+        assertThat(result.status()).isEqualTo(UpdateResult.Status.UPDATED);
+        ProductEntity e = result.value();
+        assertThat(e.getPrice()).isEqualByComparingTo("8.25");
+        assertThat(e.getSku()).isEqualTo("UPD-6");
+        assertThat(e.getName()).isEqualTo("Original");
+        assertThat(e.getStock()).isEqualTo(1);
+        assertThat(e.getCategory()).isEqualTo("laptops");
+        assertThat(e.getUpdatedAt()).isEqualTo(now);
+        assertThat(e.getVersion()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("patch: stale version and unknown id are reported like a full update")
+    void patchMisses() {
+        UUID id = insert("UPD-7", 3, null);
+
+        assertThat(repository.patchReturning(id, null, "Renamed", null, null, null, 2, now).status())
+                .isEqualTo(UpdateResult.Status.VERSION_CONFLICT);
+        assertThat(repository.patchReturning(UUID.randomUUID(), null, "Renamed", null, null, null, 0, now).status())
+                .isEqualTo(UpdateResult.Status.NOT_FOUND);
+        assertThat(jdbc.queryForObject("SELECT name FROM products WHERE id = ?", String.class, id)).isEqualTo("Original");
+    }
+
+    @Test
+    @DisplayName("patch: a duplicate SKU still surfaces as DataIntegrityViolationException")
+    void patchDuplicateSku() {
+        insert("UPD-8", 0, null);
+        UUID id = insert("UPD-9", 0, null);
+
+        assertThatThrownBy(() -> repository.patchReturning(id, "UPD-8", null, null, null, null, 0, now))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private UUID insert(String sku, long version, Timestamp deletedAt) {
+        UUID id = UUID.randomUUID();
+        Timestamp ts = Timestamp.from(now);
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, 'Original', 10, 1, 'laptops', 'd', 't', ?, ?, ?, ?)
+                """, id, sku, ts, ts, deletedAt, version);
+        return id;
+    }
+}
@@ -0,0 +1,159 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import com.jorgeandreu.products.domain.model.CountMode;
+import com.jorgeandreu.products.domain.model.PageResult;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchCriteria;
+import com.jorgeandreu.products.domain.port.out.ReactiveProductQueryPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The R2DBC adapter against PostgreSQL (Testcontainers), checked against the JPA adapter on the same rows: every
+ * filter, sort and count mode must select the same products in the same order.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "r2dbc"})
+class R2dbcProductQueryAdapterTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("products.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(
+                POSTGRES.getHost(), POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), POSTGRES.getDatabaseName()));
+    }
+
+    private static final String CATEGORY = "r2dbc-" + UUID.randomUUID();
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepositoryAdapter jpa;
+    @Autowired private ReactiveProductQueryPort reactive;
+
+    @BeforeEach
+    void seed() {
+        insert("Oak desk", "Solid oak writing desk", 120, null);
+        insert("Standing desk", "Electric standing desk", 480, null);
+        insert("Desk lamp", "LED lamp", 35, null);
+        insert("Office chair", "Ergonomic chair with lumbar support", 260, null);
+        insert("Old desk", "Discontinued desk", 90, Timestamp.from(Instant.now()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM products WHERE category = ?", CATEGORY);
+    }
+
+    static Stream<Arguments> criteria() {
+        return Stream.of(
+                Arguments.of("category only", criteria(0, 10, null, null, null, null, false)),
+                Arguments.of("including deleted", criteria(0, 10, null, null, null, null, true)),
+                Arguments.of("price range", criteria(0, 10, "price,asc", 50.0, 300.0, null, false)),
+                Arguments.of("text, newest first", criteria(0, 10, null, null, null, "desk", false)),
+                Arguments.of("text, by relevance", criteria(0, 10, "relevance", null, null, "desk", false)),
+                Arguments.of("substring match", criteria(0, 10, "name,asc", null, null, "umbar", false)),
+                Arguments.of("second page", criteria(1, 2, "price,desc", null, null, null, false)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("criteria")
+    @DisplayName("selects the same page as the JPA adapter")
+    void sameAsJpa(String name, SearchCriteria criteria) {
+        PageResult<Product> expected = jpa.search(criteria);
+        PageResult<Product> actual = reactive.search(criteria).block();
+
+        assertThat(actual).isNotNull();
+        assertThat(actual.content()).extracting(Product::id)
+                .containsExactlyElementsOf(expected.content().stream().map(Product::id).toList());
+        assertThat(actual.totalElements()).isEqualTo(expected.totalElements());
+        assertThat(actual.totalPages()).isEqualTo(expected.totalPages());
+        assertThat(actual.hasNext()).isEqualTo(expected.hasNext());
+    }
+
+    @Test
+    @DisplayName("count mode NONE skips the count and still reports a next page")
+    void countNone() {
+        var criteria = new SearchCriteria(0, 2, null, CATEGORY, null, null, null, false, null, CountMode.NONE);
+
+        PageResult<Product> page = reactive.search(criteria).block();
+
+        assertThat(page).isNotNull();
+        assertThat(page.content()).hasSize(2);
+        assertThat(page.totalElements()).isNull();
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("a cursor is refused")
+    void cursorRefused() {
+        var criteria = new SearchCriteria(0, 2, null, CATEGORY, null, null, null, false, "abc", null);
+
+        assertThatThrownBy(() -> reactive.search(criteria).block()).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("streams every active match, pulling rows only as they are requested")
+    void streams() {
+        var criteria = criteria(0, 0, null, null, null, null, false);
+        var requested = new AtomicLong();
+
+        List<Product> first = reactive.streamAll(criteria)
+                .doOnRequest(requested::addAndGet)
+                .limitRate(1)
+                .take(2)
+                .collectList()
+                .block();
+
+        assertThat(first).hasSize(2);
+        assertThat(requested.get()).isLessThanOrEqualTo(3);
+        assertThat(reactive.streamAll(criteria).collectList().block())
+                .hasSize(4)
+                .allSatisfy(p -> assertThat(p.deletedAt()).isNull());
+    }
+
+    private static SearchCriteria criteria(int page, int size, String sort, Double minPrice, Double maxPrice,
+                                           String text, boolean includeDeleted) {
+        return new SearchCriteria(page, size, sort, CATEGORY, minPrice, maxPrice, text, includeDeleted);
+    }
+
+    private void insert(String name, String description, int price, Timestamp deletedAt) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, ?, ?, 3, ?, ?, '', ?, ?, ?, 0)
+                """, UUID.randomUUID(), "R2-" + UUID.randomUUID(), name, BigDecimal.valueOf(price), CATEGORY,
+                description, now, now, deletedAt);
+    }
+}
@@ -0,0 +1,180 @@
+package com.jorgeandreu.products.infrastructure.db;
+
+import com.jorgeandreu.products.application.exception.InsufficientStockException;
+import com.jorgeandreu.products.application.exception.StockReservationNotFoundException;
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.in.CommitStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ExpireStockReservationsUseCase;
+import com.jorgeandreu.products.domain.port.in.ReleaseStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
+import com.jorgeandreu.products.domain.port.in.ReserveStockUseCase;
+import com.jorgeandreu.products.domain.port.in.ReshardStockUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Concurrent reservations against PostgreSQL (Testcontainers): the conditional decrement must never oversell. */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationConcurrencyTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReserveStockUseCase reserve;
+    @Autowired private ReleaseStockReservationUseCase release;
+    @Autowired private CommitStockReservationUseCase commit;
+    @Autowired private ExpireStockReservationsUseCase expire;
+    @Autowired private ReshardStockUseCase reshard;
+
+    @Test
+    @DisplayName("more concurrent orders than stock: exactly the stock is reserved, the rest are refused")
+    void neverOversells() throws Exception {
+        UUID id = insert(10);
+
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(() -> {
+                try {
+                    reserve.reserve(new ReserveStockCommand(List.of(new StockReservation.Line(id, 1)), null));
+                    return true;
+                } catch (InsufficientStockException ex) {
+                    return false;
+                }
+            });
+        }
+
+        assertThat(runTogether(orders)).filteredOn(Boolean::booleanValue).hasSize(10);
+        assertThat(stock(id)).isZero();
+        assertThat(jdbc.queryForObject("SELECT coalesce(sum(quantity), 0) FROM stock_reservations WHERE product_id = ?",
+                Integer.class, id)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("sharded product: concurrent orders spread over the slots and still never oversell")
+    void shardedNeverOversells() throws Exception {
+        UUID id = insert(10);
+        reshard.reshardStock(id, 4);
+
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(() -> {
+                try {
+                    reserve.reserve(new ReserveStockCommand(List.of(new StockReservation.Line(id, 1)), null));
+                    return true;
+                } catch (InsufficientStockException ex) {
+                    return false;
+                }
+            });
+        }
+
+        assertThat(runTogether(orders)).filteredOn(Boolean::booleanValue).hasSize(10);
+        assertThat(jdbc.queryForObject("SELECT sum(stock) FROM product_stock_slots WHERE product_id = ?",
+                Integer.class, id)).isZero();
+    }
+
+    @Test
+    @DisplayName("multi-line orders listing the same products in opposite orders do not deadlock")
+    void noDeadlock() throws Exception {
+        UUID a = insert(1_000);
+        UUID b = insert(1_000);
+
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            List<StockReservation.Line> lines = i % 2 == 0
+                    ? List.of(new StockReservation.Line(a, 1), new StockReservation.Line(b, 1))
+                    : List.of(new StockReservation.Line(b, 1), new StockReservation.Line(a, 1));
+            orders.add(() -> reserve.reserve(new ReserveStockCommand(lines, null)) != null);
+        }
+
+        assertThat(runTogether(orders)).hasSize(40).containsOnly(true);
+        assertThat(stock(a)).isEqualTo(960);
+        assertThat(stock(b)).isEqualTo(960);
+    }
+
+    @Test
+    @DisplayName("a failing line rolls back the lines reserved before it")
+    void allOrNothing() {
+        UUID plenty = insert(5);
+        UUID scarce = insert(1);
+
+        assertThatThrownBy(() -> reserve.reserve(new ReserveStockCommand(List.of(
+                new StockReservation.Line(plenty, 2), new StockReservation.Line(scarce, 2)), null)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stock(plenty)).isEqualTo(5);
+        assertThat(stock(scarce)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("release and expiry return the stock; commit keeps it out; an expired reservation cannot be committed")
+    void settle() {
+        UUID id = insert(10);
+        var released = reserve.reserve(new ReserveStockCommand(List.of(new StockReservation.Line(id, 2)), null));
+        var committed = reserve.reserve(new ReserveStockCommand(List.of(new StockReservation.Line(id, 3)), null));
+        var expired = reserve.reserve(new ReserveStockCommand(List.of(new StockReservation.Line(id, 4)), null));
+        assertThat(stock(id)).isEqualTo(1);
+
+        release.release(released.id());
+        commit.commit(committed.id());
+        jdbc.update("UPDATE stock_reservations SET expires_at = now() - interval '1 second' WHERE reservation_id = ?",
+                expired.id());
+
+        assertThatThrownBy(() -> commit.commit(expired.id())).isInstanceOf(StockReservationNotFoundException.class);
+        assertThat(expire.expireDue(500)).isGreaterThanOrEqualTo(1);
+        assertThat(stock(id)).isEqualTo(7);
+        assertThatThrownBy(() -> release.release(released.id())).isInstanceOf(StockReservationNotFoundException.class);
+    }
+
+    private List<Boolean> runTogether(List<Callable<Boolean>> tasks) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        try (var pool = Executors.newFixedThreadPool(8)) {
+            List<Future<Boolean>> futures = tasks.stream().map(t -> pool.submit(() -> {
+                start.await();
+                return t.call();
+            })).toList();
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> f : futures) {
+                try {
+                    results.add(f.get(Duration.ofSeconds(30).toMillis(), TimeUnit.MILLISECONDS));
+                } catch (ExecutionException | TimeoutException ex) {
+                    throw new AssertionError("order failed", ex);
+                }
+            }
+            return results;
+        }
+    }
+
+    private int stock(UUID id) {
+        return jdbc.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, id);
+    }
+
+    private UUID insert(int stock) {
+        UUID id = UUID.randomUUID();
+        Timestamp ts = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, deleted_at, version)
+                VALUES (?, ?, 'Desk', 10, ?, 'desks', 'd', 't', ?, ?, NULL, 0)
+                """, id, "RSV-" + id, stock, ts, ts);
+        return id;
+    }
+}
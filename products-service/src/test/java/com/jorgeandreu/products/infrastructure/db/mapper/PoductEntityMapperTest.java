@@ -1,8 +1,10 @@
 package com.jorgeandreu.products.infrastructure.db.mapper;
 
+import com.jorgeandreu.products.domain.model.CountMode;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
 import com.jorgeandreu.products.infrastructure.db.ProductEntity;
+import com.jorgeandreu.products.infrastructure.db.ProductListRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -71,6 +73,33 @@ class ProductEntityMapperTest {
         }
     }
 
+    @Nested
+    class ToDomainRow {
+
+        @Test
+        @DisplayName("maps a projected row to domain")
+        void mapsAllFields() {
+            UUID id = UUID.randomUUID();
+            Instant now = Instant.now();
+            ProductListRow row = new ProductListRow(id, "ACME-1", "Laptop", BigDecimal.valueOf(999.99), 10, null,
+                    "laptops", "laptops", now, now, null, 5L);
+
+            Product domain = mapper.toDomain(row);
+
+            assertThat(domain).isEqualTo(new Product(id, "ACME-1", "Laptop", BigDecimal.valueOf(999.99), 10,
+                    "laptops", now, now, null, 5L));
+        }
+
+        @Test
+        @DisplayName("adds the slot stock of a sharded product")
+        void addsSlotStock() {
+            ProductListRow row = ProductListRow.builder().id(UUID.randomUUID()).price(BigDecimal.ONE)
+                    .stock(0).slotStock(12L).build();
+
+            assertThat(mapper.toDomain(row).stock()).isEqualTo(12);
+        }
+    }
+
     @Nested
     class ToEntityDomain {
 
@@ -157,13 +186,30 @@ class ProductEntityMapperTest {
 
             PageResult<Product> result = mapper.toDomain(page);
 
-            assertThat(result.page()).isZero(); // impl hardcodes page=0
+            assertThat(result.page()).isZero();
             assertThat(result.size()).isEqualTo(10);
             assertThat(result.totalElements()).isEqualTo(1);
             assertThat(result.totalPages()).isEqualTo(1);
             assertThat(result.content()).hasSize(1);
             assertThat(result.content().getFirst().id()).isEqualTo(id);
             assertThat(result.content().getFirst().sku()).isEqualTo("ACME-3");
+            assertThat(result.hasNext()).isFalse();
+            assertThat(result.countMode()).isEqualTo(CountMode.EXACT);
+        }
+
+        @Test
+        @DisplayName("maps page number and hasNext from the Spring page")
+        void mapsPageNumberAndHasNext() {
+            ProductEntity entity = ProductEntity.builder()
+                    .id(UUID.randomUUID()).sku("ACME-4").name("Desk").price(BigDecimal.ONE).stock(1).category("furniture")
+                    .build();
+            Page<ProductEntity> page = new PageImpl<>(List.of(entity), PageRequest.of(2, 1), 10);
+
+            PageResult<Product> result = mapper.toDomain(page);
+
+            assertThat(result.page()).isEqualTo(2);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(result.nextCursor()).isNull();
         }
 
         @Test
@@ -0,0 +1,67 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("a write sets the cookie and is itself pinned to the primary")
+    void writeSetsCookie() throws Exception {
+        var response = new MockHttpServletResponse();
+
+        boolean pinned = run(new MockHttpServletRequest("PUT", "/products/1"), response);
+
+        assertThat(pinned).isTrue();
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW.plusSeconds(5).toEpochMilli()));
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("reads carrying an unexpired cookie are pinned, expired or missing ones are not")
+    void readsHonourCookie() throws Exception {
+        var fresh = new MockHttpServletRequest("GET", "/products");
+        fresh.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(NOW.plusSeconds(1).toEpochMilli())));
+        var expired = new MockHttpServletRequest("GET", "/products");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(NOW.minusSeconds(1).toEpochMilli())));
+        var garbage = new MockHttpServletRequest("GET", "/products");
+        garbage.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "soon"));
+
+        assertThat(run(fresh, new MockHttpServletResponse())).isTrue();
+        assertThat(run(expired, new MockHttpServletResponse())).isFalse();
+        assertThat(run(garbage, new MockHttpServletResponse())).isFalse();
+        assertThat(run(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse())).isFalse();
+    }
+
+    @Test
+    @DisplayName("the pin does not leak past the request")
+    void clearsAfterRequest() throws Exception {
+        run(new MockHttpServletRequest("POST", "/products"), new MockHttpServletResponse());
+
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+    }
+
+    private boolean run(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, response, (req, res) -> pinned.set(ReadYourWrites.isPinned()));
+        return pinned.get();
+    }
+}
@@ -0,0 +1,164 @@
+package com.jorgeandreu.products.infrastructure.db.replica;
+
+import com.jorgeandreu.products.domain.port.in.ListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs against a PostgreSQL primary and a hot standby streaming from it (Testcontainers). The replica is cloned
+ * with pg_basebackup once the primary is up; {@code pg_is_in_recovery()} tells which server answered.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(
+                    Transferable.of("echo 'host replication all all trust' >> \"$PGDATA/pg_hba.conf\""),
+                    "/docker-entrypoint-initdb.d/allow-replication.sh");
+
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:16")
+            .withNetwork(NETWORK)
+            .withExposedPorts(5432)
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres").withEntrypoint("bash", "-c", """
+                    until pg_basebackup -h primary -U test -D /tmp/replica -R -X stream; do sleep 1; done
+                    chmod 0700 /tmp/replica
+                    exec postgres -D /tmp/replica
+                    """))
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1));
+
+    static {
+        PRIMARY.start();
+        REPLICA.start();
+    }
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.driver-class-name", PRIMARY::getDriverClassName);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("products.datasource.replica.enabled", () -> "true");
+        registry.add("products.datasource.replica.url", ReplicaRoutingTest::replicaUrl);
+        registry.add("products.datasource.replica.max-lag", () -> "1s");
+        registry.add("products.datasource.replica.lag-check-interval", () -> "200ms");
+        // rows are inserted behind the repository's back, so no write would invalidate cached pages
+        registry.add("products.cache.search.enabled", () -> "false");
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ReplicaLagMonitor lagMonitor;
+    @Autowired private ListProductsUseCase listProducts;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void replicaCaughtUp() {
+        await().atMost(Duration.ofSeconds(30)).until(lagMonitor::isReplicaUsable);
+    }
+
+    @Test
+    @DisplayName("read-only transactions run on the replica, read-write ones on the primary")
+    void routesByTransactionType() {
+        assertThat(inRecovery(true)).isTrue();
+        assertThat(inRecovery(false)).isFalse();
+    }
+
+    @Test
+    @DisplayName("listing products is served by the replica and sees rows once they are replicated")
+    void listUsesReplica() {
+        String sku = "REPLICA-" + UUID.randomUUID();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.update("""
+                INSERT INTO products (id, sku, name, price, stock, category, description, text, created_at, updated_at, version)
+                VALUES (?, ?, 'Replicated', ?, 1, 'replica', '', '', ?, ?, 0)
+                """, UUID.randomUUID(), sku, BigDecimal.TEN, now, now);
+        double before = replicaRoutes();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(listProducts.list(new SearchCriteriaCommand(0, 20, null, "replica", null, null, null, false))
+                        .content()).anySatisfy(p -> assertThat(p.sku()).isEqualTo(sku)));
+
+        assertThat(replicaRoutes()).isGreaterThan(before);
+    }
+
+    @Test
+    @DisplayName("a client that wrote recently reads from the primary")
+    void pinnedReadsUsePrimary() {
+        ReadYourWrites.pin();
+        try {
+            assertThat(inRecovery(true)).isFalse();
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("reads fall back to the primary while the replica lags, and return once it catches up")
+    void lagFallsBackToPrimary() throws SQLException {
+        try (Connection replica = DriverManager.getConnection(replicaUrl(), PRIMARY.getUsername(), PRIMARY.getPassword())) {
+            replica.createStatement().execute("SELECT pg_wal_replay_pause()");
+            try {
+                // keep producing WAL so the replica falls further behind while replay is paused
+                await().atMost(Duration.ofSeconds(10)).pollInterval(Duration.ofMillis(200)).until(() -> {
+                    jdbc.execute("SELECT txid_current()");
+                    return !lagMonitor.isReplicaUsable();
+                });
+
+                assertThat(inRecovery(true)).isFalse();
+            } finally {
+                replica.createStatement().execute("SELECT pg_wal_replay_resume()");
+            }
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(lagMonitor::isReplicaUsable);
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        var tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(tx.execute(s -> jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+
+    private double replicaRoutes() {
+        return meterRegistry.get("datasource.route").tag("route", "replica").counter().count();
+    }
+
+    private static String replicaUrl() {
+        return "jdbc:postgresql://%s:%d/%s".formatted(
+                REPLICA.getHost(), REPLICA.getMappedPort(5432), PRIMARY.getDatabaseName());
+    }
+}
@@ -0,0 +1,127 @@
+package com.jorgeandreu.products.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.CreateProductUseCase;
+import com.jorgeandreu.products.domain.port.in.DeleteProductUseCase;
+import com.jorgeandreu.products.domain.port.in.UpdateProductCommand;
+import com.jorgeandreu.products.domain.port.in.UpdateProductUseCase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.redpanda.RedpandaContainer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/** Runs the relay against PostgreSQL and a Redpanda broker (Testcontainers), the same broker docker-compose starts. */
+@SpringBootTest(properties = {
+        "products.outbox.relay.enabled=true",
+        "products.outbox.relay.interval=100ms"
+})
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    private static final RedpandaContainer REDPANDA =
+            new RedpandaContainer("docker.redpanda.com/redpandadata/redpanda:v24.1.3");
+
+    static {
+        REDPANDA.start();
+    }
+
+    @DynamicPropertySource
+    static void kafka(DynamicPropertyRegistry registry) {
+        registry.add("spring.kafka.bootstrap-servers", REDPANDA::getBootstrapServers);
+    }
+
+    @Autowired private CreateProductUseCase createProduct;
+    @Autowired private UpdateProductUseCase updateProduct;
+    @Autowired private DeleteProductUseCase deleteProduct;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactions;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${products.outbox.topic}")
+    private String topic;
+
+    @Test
+    @DisplayName("create, update and delete reach the topic in order, keyed by product id, and leave the outbox")
+    void publishesInOrderPerProduct() throws Exception {
+        String sku = "OUTBOX-" + UUID.randomUUID();
+        Product created = createProduct.create(new CreateProductCommand(sku, "Outbox", BigDecimal.TEN, 1, "outbox"));
+        updateProduct.updateById(created.id(),
+                new UpdateProductCommand(sku, "Outbox renamed", BigDecimal.ONE, 2, "outbox", created.version()));
+        deleteProduct.deleteById(created.id());
+
+        List<ConsumerRecord<String, String>> records = consume(created.id().toString(), 3);
+
+        List<String> types = new ArrayList<>();
+        for (var r : records) {
+            JsonNode event = objectMapper.readTree(r.value());
+            assertThat(event.get("productId").asText()).isEqualTo(created.id().toString());
+            types.add(event.get("type").asText());
+        }
+        assertThat(types).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(records).extracting(ConsumerRecord::partition).containsOnly(records.getFirst().partition());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM product_outbox WHERE aggregate_id = ?", Integer.class, created.id())).isZero());
+        assertThat(meterRegistry.get("outbox.published").counter().count()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a change that rolls back leaves no event behind")
+    void rolledBackChangeIsNotRecorded() {
+        String sku = "OUTBOX-RB-" + UUID.randomUUID();
+
+        UUID id = transactions.execute(tx -> {
+            Product p = createProduct.create(new CreateProductCommand(sku, "Rolled back", BigDecimal.TEN, 1, "outbox"));
+            tx.setRollbackOnly();
+            return p.id();
+        });
+
+        assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM product_outbox WHERE aggregate_id = ?", Integer.class, id)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM products WHERE sku = ?", Integer.class, sku)).isZero();
+    }
+
+    private List<ConsumerRecord<String, String>> consume(String key, int expected) {
+        Map<String, Object> config = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, REDPANDA.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "outbox-test-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        List<ConsumerRecord<String, String>> matching = new ArrayList<>();
+        try (var consumer = new KafkaConsumer<>(config, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(topic));
+            await().atMost(Duration.ofSeconds(30)).until(() -> {
+                consumer.poll(Duration.ofMillis(200)).forEach(r -> {
+                    if (key.equals(r.key())) matching.add(r);
+                });
+                return matching.size() >= expected;
+            });
+        }
+        return matching;
+    }
+}
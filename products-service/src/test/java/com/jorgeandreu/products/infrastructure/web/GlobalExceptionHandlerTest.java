@@ -1,5 +1,9 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.jorgeandreu.products.application.exception.InvalidCursorException;
+import com.jorgeandreu.products.application.exception.InvalidImportFileException;
+import com.jorgeandreu.products.application.exception.InvalidProductPatchException;
+import com.jorgeandreu.products.application.exception.InvalidSortException;
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
 import com.jorgeandreu.products.application.exception.SkuAlreadyExistsException;
 import com.jorgeandreu.products.infrastructure.api.model.Problem;
@@ -76,6 +80,82 @@ class GlobalExceptionHandlerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Invalid cursor")
+    class InvalidCursor {
+
+        @Test
+        void handleInvalidCursor_returns400_withProblemPayload() {
+            var ex = new InvalidCursorException("malformed token");
+
+            var response = handler.handleInvalidCursor(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(400);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Invalid cursor");
+            assertThat(p.getDetail()).contains("malformed token");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/invalid-cursor"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid sort")
+    class InvalidSort {
+
+        @Test
+        void handleInvalidSort_returns400_withProblemPayload() {
+            var ex = new InvalidSortException("unknown field 'description'");
+
+            var response = handler.handleInvalidSort(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(400);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Invalid sort");
+            assertThat(p.getDetail()).isEqualTo("Invalid sort: unknown field 'description'");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/invalid-sort"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid patch")
+    class InvalidPatch {
+
+        @Test
+        void handleInvalidPatch_returns400_withProblemPayload() {
+            var ex = new InvalidProductPatchException("price");
+
+            var response = handler.handleInvalidPatch(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(400);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Invalid patch");
+            assertThat(p.getDetail()).startsWith("'price' cannot be null");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/invalid-patch"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid import file")
+    class InvalidImportFile {
+
+        @Test
+        void handleInvalidImportFile_returns400_withProblemPayload() {
+            var ex = new InvalidImportFileException("CSV header is missing columns [price]");
+
+            var response = handler.handleInvalidImportFile(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(400);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Invalid import file");
+            assertThat(p.getDetail()).contains("missing columns [price]");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/invalid-import-file"));
+        }
+    }
+
     @Nested
     @DisplayName("Data integrity")
     class DataIntegrity {
@@ -173,4 +253,68 @@ class GlobalExceptionHandlerTest {
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("Conditional requests")
+    class ConditionalRequests {
+
+        @Test
+        void handlePreconditionFailed_returns412_withProblemPayload() {
+            UUID id = UUID.randomUUID();
+            var ex = new com.jorgeandreu.products.application.exception.ProductPreconditionFailedException(id, "\"2.5\"");
+
+            var response = handler.handlePreconditionFailed(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(412);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Precondition failed");
+            assertThat(p.getDetail()).contains(id.toString()).contains("\"2.5\"");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/precondition-failed"));
+        }
+
+        @Test
+        void handleVersionRequired_returns428_withProblemPayload() {
+            UUID id = UUID.randomUUID();
+            var ex = new com.jorgeandreu.products.application.exception.ProductVersionRequiredException(id);
+
+            var response = handler.handleVersionRequired(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(428);
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Precondition required");
+            assertThat(p.getDetail()).contains(id.toString());
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/precondition-required"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Database saturated")
+    class DatabaseSaturated {
+
+        @Test
+        void handleDatabaseUnavailable_onConnectionTimeout_returns503_withRetryAfter() {
+            var ex = new org.springframework.transaction.CannotCreateTransactionException("no connection",
+                    new java.sql.SQLTransientConnectionException("All 20 database permits busy for 1000 ms"));
+
+            var response = handler.handleDatabaseUnavailable(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(503);
+            assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+            Problem p = response.getBody();
+            assertThat(p).isNotNull();
+            assertThat(p.getTitle()).isEqualTo("Service unavailable");
+            assertThat(p.getType()).isEqualTo(URI.create("https://example.com/problems/service-unavailable"));
+        }
+
+        @Test
+        void handleDatabaseUnavailable_onOtherResourceFailure_returns500() {
+            var ex = new org.springframework.dao.DataAccessResourceFailureException("broken",
+                    new java.sql.SQLException("connection reset"));
+
+            var response = handler.handleDatabaseUnavailable(ex, webRequest);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(500);
+        }
+    }
+}
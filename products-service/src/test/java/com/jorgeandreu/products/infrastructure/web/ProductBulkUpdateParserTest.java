@@ -0,0 +1,76 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.application.exception.InvalidImportFileException;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductBulkUpdateParserTest {
+
+    private final ProductBulkUpdateParser parser = new ProductBulkUpdateParser(new ObjectMapper());
+
+    @Test
+    @DisplayName("NDJSON: price, stock and version are optional, lines keep their physical number")
+    void ndjson() {
+        List<BulkUpdateRow> rows = parse("""
+                {"sku":"A-1","price":19.9,"version":3}
+
+                {"sku":"A-2","stock":0}
+                {"sku":"A-3",
+                """);
+
+        assertThat(rows).extracting(BulkUpdateRow::line).containsExactly(1L, 3L, 4L);
+        assertThat(rows.get(0)).isEqualTo(BulkUpdateRow.parsed(1, "A-1", BigDecimal.valueOf(19.9), null, 3L));
+        assertThat(rows.get(1)).isEqualTo(BulkUpdateRow.parsed(3, "A-2", null, 0, null));
+        assertThat(rows.get(2).status()).isEqualTo(BulkUpdateRow.Status.INVALID);
+        assertThat(rows.get(2).error()).startsWith("malformed JSON");
+    }
+
+    @Test
+    @DisplayName("CSV: an empty value keeps the current one, version is optional, bad numbers are row errors")
+    void csv() {
+        List<BulkUpdateRow> rows = parse("""
+                stock,sku,price
+                5,B-1,
+                ,B-2,12.50
+                x,B-3,1
+                """);
+
+        assertThat(rows).containsExactly(
+                BulkUpdateRow.parsed(2, "B-1", null, 5, null),
+                BulkUpdateRow.parsed(3, "B-2", new BigDecimal("12.50"), null, null),
+                BulkUpdateRow.malformed(4, "B-3", "price, stock and version must be numeric"));
+    }
+
+    @Test
+    @DisplayName("CSV: a version column is read when present")
+    void csvVersion() {
+        assertThat(parse("sku,price,stock,version\nC-1,1,,7\n"))
+                .containsExactly(BulkUpdateRow.parsed(2, "C-1", BigDecimal.ONE, null, 7L));
+    }
+
+    @Test
+    @DisplayName("CSV: a header without sku, price and stock rejects the upload up front")
+    void csvMissingColumns() {
+        var in = new ByteArrayInputStream("sku,price\nA,1\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> parser.parse(in))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("[stock]");
+    }
+
+    private List<BulkUpdateRow> parse(String body) {
+        try (var rows = parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            return rows.toList();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jorgeandreu.products.application.exception.InvalidImportFileException;
+import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductImportParserTest {
+
+    private ProductImportParser parser;
+
+    @BeforeEach
+    void setUp() {
+        var webMapper = new ProductWebMapperImpl();
+        ReflectionTestUtils.setField(webMapper, "timeMapper", new TimeMapper() { });
+        parser = new ProductImportParser(new ObjectMapper(), webMapper);
+    }
+
+    @Test
+    @DisplayName("NDJSON: one command per non-blank line, numbered by physical line")
+    void ndjson() {
+        List<ProductImportRow> rows = parse("""
+                {"sku":"A-1","name":"Desk","price":120.5,"stock":3,"category":"furniture"}
+
+                {"sku":"A-2","name":"Lamp","price":20,"stock":0,"category":"lighting"}
+                """);
+
+        assertThat(rows).extracting(ProductImportRow::line).containsExactly(1L, 3L);
+        assertThat(rows.getFirst().command())
+                .isEqualTo(new CreateProductCommand("A-1", "Desk", BigDecimal.valueOf(120.5), 3, "furniture"));
+    }
+
+    @Test
+    @DisplayName("NDJSON: a broken line is reported without stopping the rest")
+    void ndjsonMalformedLine() {
+        List<ProductImportRow> rows = parse("""
+                {"sku":"A-1","name":"Desk","price":1,"stock":1,"category":"c"}
+                {"sku":"A-2",
+                {"sku":"A-3","name":"Lamp","price":1,"stock":1,"category":"c"}
+                """);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(1).command()).isNull();
+        assertThat(rows.get(1).error()).startsWith("malformed JSON");
+        assertThat(rows.get(2).sku()).isEqualTo("A-3");
+    }
+
+    @Test
+    @DisplayName("CSV: header columns in any order, quoted fields and escaped quotes")
+    void csv() {
+        List<ProductImportRow> rows = parse("""
+                category,price,sku,stock,name,ignored
+                laptops,1299.99,L-1,5,"Laptop 14"", silver",x
+                desks,10,D-1,0,Desk,y
+                """);
+
+        assertThat(rows).extracting(ProductImportRow::line).containsExactly(2L, 3L);
+        assertThat(rows.getFirst().command()).isEqualTo(
+                new CreateProductCommand("L-1", "Laptop 14\", silver", new BigDecimal("1299.99"), 5, "laptops"));
+    }
+
+    @Test
+    @DisplayName("CSV: non-numeric price or stock is a row error; missing values are left to validation")
+    void csvRowErrors() {
+        List<ProductImportRow> rows = parse("""
+                sku,name,price,stock,category
+                X-1,Thing,abc,1,c
+                X-2,Thing,,1,c
+                """);
+
+        assertThat(rows.get(0).error()).isEqualTo("price and stock must be numeric");
+        assertThat(rows.get(0).sku()).isEqualTo("X-1");
+        assertThat(rows.get(1).command().price()).isNull();
+    }
+
+    @Test
+    @DisplayName("CSV: a header without the required columns rejects the upload up front")
+    void csvMissingColumns() {
+        var in = new ByteArrayInputStream("sku,name\nA,B\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> parser.parse(in))
+                .isInstanceOf(InvalidImportFileException.class)
+                .hasMessageContaining("[price, stock, category]");
+    }
+
+    @Test
+    @DisplayName("an empty upload yields no rows")
+    void empty() {
+        assertThat(parse("\n  \n")).isEmpty();
+    }
+
+    private List<ProductImportRow> parse(String body) {
+        try (var rows = parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            return rows.toList();
+        }
+    }
+}
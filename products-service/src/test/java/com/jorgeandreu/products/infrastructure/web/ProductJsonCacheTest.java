@@ -0,0 +1,84 @@
+package com.jorgeandreu.products.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jorgeandreu.products.domain.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProductJsonCacheTest {
+
+    private static final UUID ID = UUID.randomUUID();
+    private static final Instant CREATED = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private ProductWebMapper webMapper;
+    private ProductJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ProductWebMapperImpl impl = new ProductWebMapperImpl();
+        ReflectionTestUtils.setField(impl, "timeMapper", new TimeMapper() {});
+        webMapper = spy(impl);
+        cache = new ProductJsonCache(Caffeine.newBuilder().maximumSize(100).build(), webMapper, objectMapper);
+    }
+
+    @Test
+    @DisplayName("serializes once per (id, version) and writes the same bytes Jackson would")
+    void servesCachedBytes() throws IOException {
+        Product product = product(3, 5);
+
+        var first = cache.body(product);
+        var second = cache.body(product);
+
+        verify(webMapper, times(1)).toApi(product);
+        assertThat(write(second)).isEqualTo(objectMapper.writeValueAsString(webMapper.toApi(product)));
+        assertThat(first).isInstanceOf(PreSerializedJson.class);
+    }
+
+    @Test
+    @DisplayName("a new version or a sharded stock change is serialized again")
+    void newVersionOrStock() {
+        cache.body(product(3, 5));
+        cache.body(product(4, 5));
+        cache.body(product(4, 2));
+
+        verify(webMapper, times(3)).toApi(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("without a cache, returns the mapped model for the Jackson converter")
+    void disabled() {
+        var uncached = new ProductJsonCache(null, webMapper, objectMapper);
+
+        var body = uncached.body(product(1, 5));
+
+        assertThat(body).isInstanceOfSatisfying(com.jorgeandreu.products.infrastructure.api.model.Product.class,
+                p -> assertThat(p.getSku()).isEqualTo("ACME-1"));
+    }
+
+    private static String write(Object body) throws IOException {
+        var out = new MockHttpOutputMessage();
+        new PreSerializedJsonHttpMessageConverter().write((PreSerializedJson) body, MediaType.APPLICATION_JSON, out);
+        assertThat(out.getHeaders().getContentLength()).isEqualTo(((PreSerializedJson) body).json().length);
+        return out.getBodyAsString();
+    }
+
+    private static Product product(long version, int stock) {
+        return new Product(ID, "ACME-1", "Laptop", BigDecimal.valueOf(999.99), stock, "laptops",
+                CREATED, CREATED, null, version);
+    }
+}
@@ -1,12 +1,17 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.jorgeandreu.products.application.exception.InvalidProductPatchException;
+import com.jorgeandreu.products.domain.model.FacetRequest;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.SearchFacets;
 import com.jorgeandreu.products.domain.port.in.CreateProductCommand;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
 import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
 import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPatch;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequest;
+import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequestFacets;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequestFilters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,6 +27,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 class ProductWebMapperTest {
 
@@ -151,6 +157,8 @@ class ProductWebMapperTest {
             var req = new ProductSearchCriteriaRequest()
                     .page(1).size(50).sort("createdAt,desc")
                     .includeDeleted(true)
+                    .cursor("opaque")
+                    .countMode(com.jorgeandreu.products.infrastructure.api.model.CountMode.ESTIMATED)
                     .filters(filters);
 
             SearchCriteriaCommand cmd = mapper.productSearchCriteriaToSearchCriteria(req);
@@ -158,6 +166,8 @@ class ProductWebMapperTest {
             assertThat(cmd.page()).isEqualTo(1);
             assertThat(cmd.size()).isEqualTo(50);
             assertThat(cmd.sort()).isEqualTo("createdAt,desc");
+            assertThat(cmd.cursor()).isEqualTo("opaque");
+            assertThat(cmd.countMode()).isEqualTo(com.jorgeandreu.products.domain.model.CountMode.ESTIMATED);
             assertThat(cmd.category()).isEqualTo("laptops");
             assertThat(cmd.minPrice()).isEqualTo(500.0);
             assertThat(cmd.maxPrice()).isEqualTo(2000.0);
@@ -165,6 +175,18 @@ class ProductWebMapperTest {
             assertThat(cmd.includeDeleted()).isTrue();
         }
 
+        @Test @DisplayName("maps the facet request, price buckets becoming price bounds")
+        void mapsFacets() {
+            var req = new ProductSearchCriteriaRequest()
+                    .page(0).size(20)
+                    .facets(new ProductSearchCriteriaRequestFacets()
+                            .categories(true).prices(true).priceBuckets(List.of(10.0, 50.0)));
+
+            SearchCriteriaCommand cmd = mapper.productSearchCriteriaToSearchCriteria(req);
+
+            assertThat(cmd.facets()).isEqualTo(new FacetRequest(true, true, List.of(10.0, 50.0)));
+        }
+
         @Test @DisplayName("filters == null -> all filter fields are null")
         void nullFilters() {
             var req = new ProductSearchCriteriaRequest()
@@ -230,6 +252,43 @@ class ProductWebMapperTest {
             assertThat(api.getContent()).hasSize(1);
             assertThat(api.getContent().get(0).getId()).isEqualTo(p.id());
             assertThat(api.getContent().get(0).getCreatedAt()).isEqualTo(created.atOffset(ZoneOffset.UTC));
+            assertThat(api.getHasNext()).isFalse();
+            assertThat(api.getCountMode()).isEqualTo(com.jorgeandreu.products.infrastructure.api.model.CountMode.EXACT);
+        }
+
+        @Test @DisplayName("countMode NONE -> no totals, hasNext and nextCursor carried over")
+        void mapsCountModeNone() {
+            var page = new PageResult<Product>(List.of(), 0, 20, null, null, true,
+                    com.jorgeandreu.products.domain.model.CountMode.NONE, "next");
+
+            ProductPage api = mapper.toApi(page);
+
+            assertThat(api.getTotalElements()).isNull();
+            assertThat(api.getTotalPages()).isNull();
+            assertThat(api.getHasNext()).isTrue();
+            assertThat(api.getCountMode()).isEqualTo(com.jorgeandreu.products.infrastructure.api.model.CountMode.NONE);
+            assertThat(api.getNextCursor()).isEqualTo("next");
+        }
+
+        @Test @DisplayName("facets carried over with their counts")
+        void mapsFacets() {
+            var page = new PageResult<Product>(List.of(), 0, 20, 0, 0).withFacets(new SearchFacets(
+                    List.of(new SearchFacets.CategoryCount("laptops", 4)),
+                    List.of(new SearchFacets.PriceBucketCount(null, 50.0, 1),
+                            new SearchFacets.PriceBucketCount(50.0, null, 3))));
+
+            ProductPage api = mapper.toApi(page);
+
+            assertThat(api.getFacets().getCategories()).singleElement()
+                    .satisfies(c -> {
+                        assertThat(c.getCategory()).isEqualTo("laptops");
+                        assertThat(c.getCount()).isEqualTo(4L);
+                    });
+            assertThat(api.getFacets().getPriceBuckets())
+                    .extracting("from", "to", "count")
+                    .containsExactly(
+                            tuple(null, 50.0, 1L),
+                            tuple(50.0, null, 3L));
         }
 
         @Test @DisplayName("content == null -> ProductPage.content == null")
@@ -354,4 +413,38 @@ class ProductWebMapperTest {
         }
     }
 
+    @Nested
+    @DisplayName("toCommand(ProductPatch)")
+    class ToCommandPatch {
+
+        @Test
+        @DisplayName("fields left out stay null, meaning unchanged")
+        void leftOutFieldsAreNull() {
+            var cmd = mapper.toCommand(new ProductPatch().price(19.5).version(4));
+
+            assertThat(cmd.price()).isEqualByComparingTo(BigDecimal.valueOf(19.5));
+            assertThat(cmd.sku()).isNull();
+            assertThat(cmd.name()).isNull();
+            assertThat(cmd.stock()).isNull();
+            assertThat(cmd.category()).isNull();
+            assertThat(cmd.version()).isEqualTo(4L);
+            assertThat(cmd.isEmpty()).isFalse();
+        }
+
+        @Test
+        @DisplayName("an empty patch maps to an empty command, version 0 until If-Match fills it in")
+        void emptyPatch() {
+            var cmd = mapper.toCommand(new ProductPatch());
+
+            assertThat(cmd.isEmpty()).isTrue();
+            assertThat(cmd.version()).isZero();
+        }
+
+        @Test
+        @DisplayName("a field sent as null is rejected")
+        void explicitNullRejected() {
+            org.junit.jupiter.api.Assertions.assertThrows(InvalidProductPatchException.class,
+                    () -> mapper.toCommand(new ProductPatch().name(null)));
+        }
+    }
 }
@@ -1,19 +1,47 @@
 package com.jorgeandreu.products.infrastructure.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jorgeandreu.products.application.exception.ProductNotFoundException;
+import com.jorgeandreu.products.application.exception.ProductPreconditionFailedException;
+import com.jorgeandreu.products.application.exception.ProductVersionConflictException;
+import com.jorgeandreu.products.application.exception.ProductVersionRequiredException;
+import com.jorgeandreu.products.domain.model.BulkUpdateJob;
+import com.jorgeandreu.products.domain.model.BulkUpdateRow;
+import com.jorgeandreu.products.domain.model.CountMode;
 import com.jorgeandreu.products.domain.model.PageResult;
 import com.jorgeandreu.products.domain.model.Product;
+import com.jorgeandreu.products.domain.model.ProductImportResult;
+import com.jorgeandreu.products.domain.model.ProductLookup;
+import com.jorgeandreu.products.domain.port.in.BatchGetProductsUseCase;
+import com.jorgeandreu.products.domain.model.StockReservation;
+import com.jorgeandreu.products.domain.port.in.CommitStockReservationUseCase;
 import com.jorgeandreu.products.domain.port.in.CreateProductUseCase;
 import com.jorgeandreu.products.domain.port.in.DeleteProductUseCase;
+import com.jorgeandreu.products.domain.port.in.ExportProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.GetBulkUpdateJobUseCase;
 import com.jorgeandreu.products.domain.port.in.GetProductUseCase;
+import com.jorgeandreu.products.domain.port.in.ImportProductsUseCase;
 import com.jorgeandreu.products.domain.port.in.ListProductsUseCase;
+import com.jorgeandreu.products.domain.port.in.PatchProductCommand;
+import com.jorgeandreu.products.domain.port.in.ProductImportRow;
+import com.jorgeandreu.products.domain.port.in.ReleaseStockReservationUseCase;
+import com.jorgeandreu.products.domain.port.in.ReserveStockCommand;
+import com.jorgeandreu.products.domain.port.in.ReserveStockUseCase;
+import com.jorgeandreu.products.domain.port.in.ReshardStockUseCase;
 import com.jorgeandreu.products.domain.port.in.SearchCriteriaCommand;
+import com.jorgeandreu.products.domain.port.in.SubmitBulkUpdateUseCase;
 import com.jorgeandreu.products.domain.port.in.UpdateProductCommand;
 import com.jorgeandreu.products.domain.port.in.UpdateProductUseCase;
+import com.jorgeandreu.products.infrastructure.api.model.BatchGetProductsRequest;
 import com.jorgeandreu.products.infrastructure.api.model.CreateProductRequest;
+import com.jorgeandreu.products.infrastructure.api.model.ProductLookupResult;
 import com.jorgeandreu.products.infrastructure.api.model.ProductPage;
+import com.jorgeandreu.products.infrastructure.api.model.ProductPatch;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequest;
 import com.jorgeandreu.products.infrastructure.api.model.ProductSearchCriteriaRequestFilters;
+import com.jorgeandreu.products.infrastructure.api.model.ReserveStockRequest;
+import com.jorgeandreu.products.infrastructure.api.model.StockReservationLine;
+import com.jorgeandreu.products.infrastructure.api.model.StockShardsRequest;
 import com.jorgeandreu.products.infrastructure.api.model.UpdateProductRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +50,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -29,14 +60,18 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ProductsApiDelegateImplTest {
@@ -47,6 +82,19 @@ class ProductsApiDelegateImplTest {
     @Mock private DeleteProductUseCase deleteProductUC;
     @Mock private UpdateProductUseCase updateProductUC;
     @Mock private ProductWebMapper webMapper;
+    @Mock private ImportProductsUseCase importProductsUC;
+    @Mock private ProductImportParser importParser;
+    @Mock private ExportProductsUseCase exportProductsUC;
+    @Mock private BatchGetProductsUseCase batchGetProductsUC;
+    @Mock private ReserveStockUseCase reserveStockUC;
+    @Mock private ReleaseStockReservationUseCase releaseStockReservationUC;
+    @Mock private CommitStockReservationUseCase commitStockReservationUC;
+    @Mock private ReshardStockUseCase reshardStockUC;
+    @Mock private SubmitBulkUpdateUseCase submitBulkUpdateUC;
+    @Mock private GetBulkUpdateJobUseCase getBulkUpdateJobUC;
+    @Mock private ProductBulkUpdateParser bulkUpdateParser;
+    @Mock private ProductJsonCache productJson;
+    @Spy private ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private ProductsApiDelegateImpl delegate;
@@ -122,16 +170,43 @@ class ProductsApiDelegateImplTest {
         var apiProduct = new com.jorgeandreu.products.infrastructure.api.model.Product().id(id);
 
         when(getProduct.getById(id)).thenReturn(sampleDomain);
-        when(webMapper.toApi(sampleDomain)).thenReturn(apiProduct);
+        when(productJson.body(sampleDomain)).thenReturn(apiProduct);
 
         ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> response =
-                delegate.getProductById(id);
+                delegate.getProductById(id, null);
 
         assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"0.5\"");
         assertThat(Objects.requireNonNull(response.getBody()).getId()).isEqualTo(id);
 
         verify(getProduct).getById(id);
-        verify(webMapper).toApi(sampleDomain);
+        verify(productJson).body(sampleDomain);
+    }
+
+    @Test
+    void getProductById_whenIfNoneMatchHits_returnsNotModifiedWithoutBody() {
+        UUID id = sampleDomain.id();
+        when(getProduct.getById(id)).thenReturn(sampleDomain);
+
+        var response = delegate.getProductById(id, "\"9.9\", W/\"0.5\"");
+
+        assertThat(response.getStatusCode().value()).isEqualTo(304);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"0.5\"");
+        assertThat(response.getBody()).isNull();
+        verifyNoInteractions(productJson, webMapper);
+    }
+
+    @Test
+    void getProductById_whenStockMovesWithoutVersionBump_etagChanges() {
+        UUID id = sampleDomain.id();
+        var sold = new Product(id, "ACME-1", "Laptop", BigDecimal.valueOf(999.99), 4, "laptops",
+                sampleDomain.createdAt(), sampleDomain.updatedAt(), null, 0L);
+        when(getProduct.getById(id)).thenReturn(sold);
+
+        var response = delegate.getProductById(id, "\"0.5\"");
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"0.4\"");
     }
 
     @Test
@@ -169,7 +244,7 @@ class ProductsApiDelegateImplTest {
 
         doNothing().when(deleteProductUC).deleteById(id);
 
-        ResponseEntity<Void> response = delegate.deleteProductById(id);
+        ResponseEntity<Void> response = delegate.deleteProductById(id, null);
 
         assertThat(response.getStatusCode().value()).isEqualTo(204);
         assertThat(response.getBody()).isNull();
@@ -187,7 +262,7 @@ class ProductsApiDelegateImplTest {
                 .when(deleteProductUC).deleteById(id);
 
         ProductNotFoundException ex = assertThrows(ProductNotFoundException.class,
-                () -> delegate.deleteProductById(id));
+                () -> delegate.deleteProductById(id, null));
 
         assertThat(ex.getMessage()).isEqualTo("Product not found: " + id);
 
@@ -195,6 +270,34 @@ class ProductsApiDelegateImplTest {
         verifyNoInteractions(webMapper, listProductUC, getProduct, createProductUC);
     }
 
+    @Test
+    void deleteProductById_withIfMatch_deletesOnlyThatVersion() {
+        UUID id = UUID.randomUUID();
+
+        var response = delegate.deleteProductById(id, "\"4.10\"");
+
+        assertThat(response.getStatusCode().value()).isEqualTo(204);
+        verify(deleteProductUC).deleteById(id, 4L);
+        verifyNoMoreInteractions(deleteProductUC);
+    }
+
+    @Test
+    void deleteProductById_whenIfMatchIsStale_throwsPreconditionFailed() {
+        UUID id = UUID.randomUUID();
+        doThrow(new ProductVersionConflictException(id, 4L)).when(deleteProductUC).deleteById(id, 4L);
+
+        assertThrows(ProductPreconditionFailedException.class, () -> delegate.deleteProductById(id, "\"4.10\""));
+    }
+
+    @Test
+    void deleteProductById_withWeakOrMalformedIfMatch_throwsPreconditionFailed() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(ProductPreconditionFailedException.class, () -> delegate.deleteProductById(id, "W/\"4.10\""));
+        assertThrows(ProductPreconditionFailedException.class, () -> delegate.deleteProductById(id, "\"abc\""));
+        verifyNoInteractions(deleteProductUC);
+    }
+
     @Test
     void updateProductById_returnsOkWithUpdatedProduct() {
         UUID id = UUID.randomUUID();
@@ -215,22 +318,95 @@ class ProductsApiDelegateImplTest {
         var apiProduct = new com.jorgeandreu.products.infrastructure.api.model.Product()
                 .id(id).sku("ACME-9").name("New Name").price(777.77).stock(9).category("laptops");
 
-        when(getProduct.getById(id)).thenReturn(updated);
+        when(updateProductUC.updateById(id, cmd)).thenReturn(updated);
         when(webMapper.toApi(updated)).thenReturn(apiProduct);
 
         ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> resp =
-                delegate.updateProductById(id, req);
+                delegate.updateProductById(id, req, null);
 
         assertThat(resp.getStatusCode().value()).isEqualTo(200);
+        assertThat(resp.getHeaders().getETag()).isEqualTo("\"3.9\"");
         assertThat(Objects.requireNonNull(resp.getBody()).getId()).isEqualTo(id);
 
         verify(updateProductUC).updateById(id, cmd);
-        verify(getProduct).getById(id);
         verify(webMapper).toApi(updated);
         verify(webMapper).toCommand(req);
         verifyNoMoreInteractions(updateProductUC, getProduct, webMapper, createProductUC, listProductUC);
     }
 
+    @Test
+    void updateProductById_ifMatchTakesPrecedenceOverBodyVersion() {
+        UUID id = UUID.randomUUID();
+        var req = new UpdateProductRequest().sku("ACME-9").name("N").price(1.0).stock(9).category("c").version(2);
+        when(webMapper.toCommand(req)).thenReturn(new UpdateProductCommand("ACME-9", "N", BigDecimal.ONE, 9, "c", 2));
+        when(updateProductUC.updateById(eq(id), any())).thenReturn(sampleDomain);
+
+        delegate.updateProductById(id, req, "\"7.9\"");
+
+        ArgumentCaptor<UpdateProductCommand> captor = ArgumentCaptor.forClass(UpdateProductCommand.class);
+        verify(updateProductUC).updateById(eq(id), captor.capture());
+        assertThat(captor.getValue().version()).isEqualTo(7);
+    }
+
+    @Test
+    void updateProductById_withoutIfMatchOrBodyVersion_throwsVersionRequired() {
+        UUID id = UUID.randomUUID();
+        var req = new UpdateProductRequest().sku("ACME-9").name("N").price(1.0).stock(9).category("c");
+
+        assertThrows(ProductVersionRequiredException.class, () -> delegate.updateProductById(id, req, null));
+        verifyNoInteractions(updateProductUC);
+    }
+
+    @Test
+    void updateProductById_conflictOnIfMatch_isPreconditionFailed_onBodyVersion_staysConflict() {
+        UUID id = UUID.randomUUID();
+        var req = new UpdateProductRequest().sku("ACME-9").name("N").price(1.0).stock(9).category("c").version(2);
+        when(webMapper.toCommand(req)).thenReturn(new UpdateProductCommand("ACME-9", "N", BigDecimal.ONE, 9, "c", 2));
+        when(updateProductUC.updateById(eq(id), any())).thenThrow(new ProductVersionConflictException(id, 2L));
+
+        assertThrows(ProductPreconditionFailedException.class, () -> delegate.updateProductById(id, req, "\"2.9\""));
+        assertThrows(ProductVersionConflictException.class, () -> delegate.updateProductById(id, req, null));
+    }
+
+    @Test
+    void patchProductById_ifMatchVersion_returnsOkWithNewETag() {
+        UUID id = UUID.randomUUID();
+        var patch = new ProductPatch().price(5.0);
+        when(webMapper.toCommand(patch)).thenReturn(new PatchProductCommand(null, null, BigDecimal.valueOf(5.0), null, null, 0));
+        Product patched = new Product(id, "ACME-1", "Laptop", BigDecimal.valueOf(5.0), 5, "laptops",
+                Instant.now(), Instant.now(), null, 4L);
+        when(updateProductUC.patchById(eq(id), any())).thenReturn(patched);
+
+        ResponseEntity<com.jorgeandreu.products.infrastructure.api.model.Product> resp =
+                delegate.patchProductById(id, patch, "\"3.5\"");
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(200);
+        assertThat(resp.getHeaders().getETag()).isEqualTo("\"4.5\"");
+        ArgumentCaptor<PatchProductCommand> captor = ArgumentCaptor.forClass(PatchProductCommand.class);
+        verify(updateProductUC).patchById(eq(id), captor.capture());
+        assertThat(captor.getValue().version()).isEqualTo(3);
+    }
+
+    @Test
+    void patchProductById_withoutIfMatchOrBodyVersion_throwsVersionRequired() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(ProductVersionRequiredException.class,
+                () -> delegate.patchProductById(id, new ProductPatch().price(5.0), null));
+        verifyNoInteractions(updateProductUC);
+    }
+
+    @Test
+    void patchProductById_conflictOnIfMatch_isPreconditionFailed_onBodyVersion_staysConflict() {
+        UUID id = UUID.randomUUID();
+        var patch = new ProductPatch().stock(1).version(2);
+        when(webMapper.toCommand(patch)).thenReturn(new PatchProductCommand(null, null, null, 1, null, 2));
+        when(updateProductUC.patchById(eq(id), any())).thenThrow(new ProductVersionConflictException(id, 2L));
+
+        assertThrows(ProductPreconditionFailedException.class, () -> delegate.patchProductById(id, patch, "\"2.9\""));
+        assertThrows(ProductVersionConflictException.class, () -> delegate.patchProductById(id, patch, null));
+    }
+
     @Test
     void listProducts_simpleQuery_returnsPage() {
         Integer page = 1, size = 5; String sort = "name,asc"; Boolean includeDeleted = true;
@@ -246,7 +422,7 @@ class ProductsApiDelegateImplTest {
                 .page(1).size(5).totalPages(1).totalElements(1);
         when(webMapper.toApi(pageResult)).thenReturn(apiPage);
 
-        var resp = delegate.listProducts(page, size, sort, includeDeleted);
+        var resp = delegate.listProducts(page, size, sort, includeDeleted, null, null, null);
 
         assertThat(resp.getStatusCode().value()).isEqualTo(200);
         assertThat(resp.getBody()).isSameAs(apiPage);
@@ -283,7 +459,7 @@ class ProductsApiDelegateImplTest {
         when(webMapper.toApi(pageResult)).thenReturn(apiPage);
 
         // when
-        var resp = delegate.listProducts(page, size, sort, includeDeleted);
+        var resp = delegate.listProducts(page, size, sort, includeDeleted, null, null, null);
 
         // then
         assertThat(resp.getStatusCode().value()).isEqualTo(200);
@@ -307,4 +483,180 @@ class ProductsApiDelegateImplTest {
         verifyNoMoreInteractions(webMapper, listProductUC, getProduct, createProductUC);
     }
 
+    @Test
+    void listProducts_withCursor_passesCursorThrough() {
+        var pageResult = new PageResult<>(List.of(sampleDomain), 0, 20, null, null, true, CountMode.NONE, "next-token");
+        when(listProductUC.list(any(SearchCriteriaCommand.class))).thenReturn(pageResult);
+
+        var apiPage = new ProductPage().page(0).size(20).nextCursor("next-token");
+        when(webMapper.toApi(pageResult)).thenReturn(apiPage);
+
+        var resp = delegate.listProducts(null, null, null, null, "cursor-token", null, null);
+
+        assertThat(resp.getBody()).isSameAs(apiPage);
+
+        ArgumentCaptor<SearchCriteriaCommand> captor = ArgumentCaptor.forClass(SearchCriteriaCommand.class);
+        verify(listProductUC).list(captor.capture());
+        assertThat(captor.getValue().cursor()).isEqualTo("cursor-token");
+        assertThat(captor.getValue().countMode()).isNull();
+    }
+
+    @Test
+    void listProducts_withCountMode_mapsToDomainEnum() {
+        var pageResult = new PageResult<>(List.of(sampleDomain), 0, 20, null, null, false, CountMode.NONE, null);
+        when(listProductUC.list(any(SearchCriteriaCommand.class))).thenReturn(pageResult);
+        when(webMapper.toApi(pageResult)).thenReturn(new ProductPage());
+
+        delegate.listProducts(0, 20, null, false, null, com.jorgeandreu.products.infrastructure.api.model.CountMode.NONE, null);
+
+        ArgumentCaptor<SearchCriteriaCommand> captor = ArgumentCaptor.forClass(SearchCriteriaCommand.class);
+        verify(listProductUC).list(captor.capture());
+        assertThat(captor.getValue().countMode()).isEqualTo(CountMode.NONE);
+    }
+
+    @Test
+    void listProducts_whenIfNoneMatchHits_returnsNotModified_andEtagFollowsRowChanges() {
+        var pageResult = new PageResult<>(List.of(sampleDomain), 0, 20, 1, 1);
+        when(listProductUC.list(any(SearchCriteriaCommand.class))).thenReturn(pageResult);
+        when(webMapper.toApi(pageResult)).thenReturn(new ProductPage());
+
+        String etag = delegate.listProducts(0, 20, null, false, null, null, null).getHeaders().getETag();
+        var notModified = delegate.listProducts(0, 20, null, false, null, null, etag);
+
+        assertThat(notModified.getStatusCode().value()).isEqualTo(304);
+        assertThat(notModified.getBody()).isNull();
+
+        var restocked = new Product(sampleDomain.id(), "ACME-1", "Laptop", BigDecimal.valueOf(999.99), 6, "laptops",
+                sampleDomain.createdAt(), sampleDomain.updatedAt(), null, 0L);
+        when(listProductUC.list(any(SearchCriteriaCommand.class))).thenReturn(new PageResult<>(List.of(restocked), 0, 20, 1, 1));
+
+        assertThat(delegate.listProducts(0, 20, null, false, null, null, etag).getStatusCode().value()).isEqualTo(200);
+    }
+
+    @Test
+    void importProducts_streamsOneNdjsonLinePerResult() throws Exception {
+        UUID id = UUID.randomUUID();
+        Stream<ProductImportRow> rows = Stream.empty();
+        when(importParser.parse(any())).thenReturn(rows);
+        when(importProductsUC.importProducts(rows)).thenReturn(Stream.of(
+                ProductImportResult.created(1, "A-1", id),
+                ProductImportResult.skuConflict(2, "A-1")));
+        when(webMapper.toApi(any(ProductImportResult.class))).thenAnswer(inv -> {
+            ProductImportResult r = inv.getArgument(0);
+            return new com.jorgeandreu.products.infrastructure.api.model.ProductImportResult()
+                    .line(r.line()).sku(r.sku()).id(r.id())
+                    .status(com.jorgeandreu.products.infrastructure.api.model.ProductImportResult.StatusEnum.valueOf(r.status().name()));
+        });
+
+        var resp = delegate.importProducts(new ByteArrayResource("ignored".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(200);
+        assertThat(resp.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        String body;
+        try (var in = Objects.requireNonNull(resp.getBody()).getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(body.lines().toList()).hasSize(2);
+        assertThat(body.lines().toList().getFirst()).contains("\"line\":1", "\"status\":\"CREATED\"", id.toString());
+        assertThat(body.lines().toList().get(1)).contains("\"status\":\"SKU_CONFLICT\"");
+        assertThat(body).endsWith("\n");
+    }
+
+    @Test
+    void submitBulkUpdate_returns202WithTheJobLocation() {
+        UUID jobId = UUID.randomUUID();
+        Stream<BulkUpdateRow> rows = Stream.empty();
+        var job = new BulkUpdateJob(jobId, BulkUpdateJob.Status.QUEUED, 4, 2, 0, 0, 0, 0, null, Instant.now(),
+                null, null);
+        when(bulkUpdateParser.parse(any())).thenReturn(rows);
+        when(submitBulkUpdateUC.submit(rows)).thenReturn(job);
+        when(webMapper.toApi(job)).thenReturn(new com.jorgeandreu.products.infrastructure.api.model.BulkUpdateJob()
+                .id(jobId));
+
+        var resp = delegate.submitBulkUpdate(new ByteArrayResource("ignored".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(202);
+        assertThat(resp.getHeaders().getLocation()).hasToString("http://localhost/api/v1/products/" + jobId);
+        assertThat(Objects.requireNonNull(resp.getBody()).getId()).isEqualTo(jobId);
+    }
+
+    @Test
+    void exportProducts_streamsFilteredProductsAsNdjson_andClosesTheSource() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(exportProductsUC.exportAll(any())).thenReturn(Stream.of(sampleDomain).onClose(() -> closed.set(true)));
+        when(webMapper.toApi(sampleDomain)).thenReturn(
+                new com.jorgeandreu.products.infrastructure.api.model.Product().id(sampleDomain.id()).sku(sampleDomain.sku()));
+
+        var resp = delegate.exportProducts("laptops", 10.0, null, "pro");
+
+        assertThat(resp.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        String body;
+        try (var in = Objects.requireNonNull(resp.getBody()).getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(body.lines().toList()).singleElement().asString().contains(sampleDomain.id().toString());
+        assertThat(closed).isTrue();
+
+        ArgumentCaptor<SearchCriteriaCommand> captor = ArgumentCaptor.forClass(SearchCriteriaCommand.class);
+        verify(exportProductsUC).exportAll(captor.capture());
+        assertThat(captor.getValue().category()).isEqualTo("laptops");
+        assertThat(captor.getValue().minPrice()).isEqualTo(10.0);
+        assertThat(captor.getValue().text()).isEqualTo("pro");
+        assertThat(captor.getValue().includeDeleted()).isFalse();
+    }
+
+    @Test
+    void batchGetProducts_treatsMissingKeyListsAsEmpty_andMapsEveryLookup() {
+        UUID missing = UUID.randomUUID();
+        var found = ProductLookup.byId(sampleDomain.id(), sampleDomain);
+        var notFound = ProductLookup.byId(missing, null);
+        when(batchGetProductsUC.getAll(List.of(sampleDomain.id(), missing), List.of())).thenReturn(List.of(found, notFound));
+        when(webMapper.toApi(found)).thenReturn(new ProductLookupResult().id(sampleDomain.id()).found(true));
+        when(webMapper.toApi(notFound)).thenReturn(new ProductLookupResult().id(missing).found(false));
+
+        var resp = delegate.batchGetProducts(new BatchGetProductsRequest().ids(List.of(sampleDomain.id(), missing)).skus(null));
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(200);
+        assertThat(Objects.requireNonNull(resp.getBody()).getResults())
+                .extracting(ProductLookupResult::getFound).containsExactly(true, false);
+    }
+
+    @Test
+    void reserveStock_returns201WithReservation() {
+        var req = new ReserveStockRequest().lines(List.of(new StockReservationLine().productId(sampleDomain.id()).quantity(2)));
+        var cmd = new ReserveStockCommand(List.of(new StockReservation.Line(sampleDomain.id(), 2)), null);
+        var reservation = new StockReservation(UUID.randomUUID(), cmd.lines(), Instant.now());
+        var api = new com.jorgeandreu.products.infrastructure.api.model.StockReservation().id(reservation.id());
+        when(webMapper.toCommand(req)).thenReturn(cmd);
+        when(reserveStockUC.reserve(cmd)).thenReturn(reservation);
+        when(webMapper.toApi(reservation)).thenReturn(api);
+
+        var resp = delegate.reserveStock(req);
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(201);
+        assertThat(resp.getBody()).isSameAs(api);
+    }
+
+    @Test
+    void releaseAndCommitStockReservation_return204() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(delegate.releaseStockReservation(id).getStatusCode().value()).isEqualTo(204);
+        assertThat(delegate.commitStockReservation(id).getStatusCode().value()).isEqualTo(204);
+
+        verify(releaseStockReservationUC).release(id);
+        verify(commitStockReservationUC).commit(id);
+    }
+
+    @Test
+    void reshardProductStock_returns200WithProduct() {
+        var api = new com.jorgeandreu.products.infrastructure.api.model.Product().id(sampleDomain.id());
+        when(reshardStockUC.reshardStock(sampleDomain.id(), 16)).thenReturn(sampleDomain);
+        when(webMapper.toApi(sampleDomain)).thenReturn(api);
+
+        var resp = delegate.reshardProductStock(sampleDomain.id(), new StockShardsRequest().shards(16));
+
+        assertThat(resp.getStatusCode().value()).isEqualTo(200);
+        assertThat(resp.getBody()).isSameAs(api);
+    }
 }